@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.benchmark;
+
+import org.springframework.events.Event;
+
+/**
+ * Event types used by benchmarks: a set of unrelated types for measuring the
+ * influence of routing table size, and a chain of subclasses for measuring
+ * the influence of hierarchy depth.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+final class BenchmarkEvents {
+
+    static final int MAX_TYPES = 16;
+
+    static final int MAX_DEPTH = 12;
+
+    private BenchmarkEvents() {
+    }
+
+    /**
+     * Creates instances of the given number of unrelated event types, each
+     * at the given depth of class hierarchy.
+     *
+     * @param count the number of event types, at most {@link #MAX_TYPES}
+     * @param depth depth of class hierarchy, at most {@link #MAX_DEPTH};
+     *        applies to the first event type only, if greater than one
+     * @return event instances
+     */
+    static Event[] create(final int count, final int depth) {
+        if (count < 1 || count > MAX_TYPES) {
+            throw new IllegalArgumentException("Unsupported number of event types");
+        }
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Unsupported hierarchy depth");
+        }
+        final Event[] events = new Event[count];
+        for (int i = 0; i < count; i++) {
+            events[i] = newType(i);
+        }
+        if (depth > 1) {
+            events[0] = newLevel(depth);
+        }
+        return events;
+    }
+
+    private static Event newType(final int index) {
+        switch (index) {
+        case 0:
+            return new Type0();
+        case 1:
+            return new Type1();
+        case 2:
+            return new Type2();
+        case 3:
+            return new Type3();
+        case 4:
+            return new Type4();
+        case 5:
+            return new Type5();
+        case 6:
+            return new Type6();
+        case 7:
+            return new Type7();
+        case 8:
+            return new Type8();
+        case 9:
+            return new Type9();
+        case 10:
+            return new Type10();
+        case 11:
+            return new Type11();
+        case 12:
+            return new Type12();
+        case 13:
+            return new Type13();
+        case 14:
+            return new Type14();
+        case 15:
+            return new Type15();
+        default:
+            throw new IllegalArgumentException("Unsupported event type");
+        }
+    }
+
+    private static Event newLevel(final int depth) {
+        switch (depth) {
+        case 1:
+            return new Level1();
+        case 2:
+            return new Level2();
+        case 3:
+            return new Level3();
+        case 4:
+            return new Level4();
+        case 5:
+            return new Level5();
+        case 6:
+            return new Level6();
+        case 7:
+            return new Level7();
+        case 8:
+            return new Level8();
+        case 9:
+            return new Level9();
+        case 10:
+            return new Level10();
+        case 11:
+            return new Level11();
+        case 12:
+            return new Level12();
+        default:
+            throw new IllegalArgumentException("Unsupported hierarchy depth");
+        }
+    }
+
+    static final class Type0 extends Event.AbstractEvent {
+    }
+
+    static final class Type1 extends Event.AbstractEvent {
+    }
+
+    static final class Type2 extends Event.AbstractEvent {
+    }
+
+    static final class Type3 extends Event.AbstractEvent {
+    }
+
+    static final class Type4 extends Event.AbstractEvent {
+    }
+
+    static final class Type5 extends Event.AbstractEvent {
+    }
+
+    static final class Type6 extends Event.AbstractEvent {
+    }
+
+    static final class Type7 extends Event.AbstractEvent {
+    }
+
+    static final class Type8 extends Event.AbstractEvent {
+    }
+
+    static final class Type9 extends Event.AbstractEvent {
+    }
+
+    static final class Type10 extends Event.AbstractEvent {
+    }
+
+    static final class Type11 extends Event.AbstractEvent {
+    }
+
+    static final class Type12 extends Event.AbstractEvent {
+    }
+
+    static final class Type13 extends Event.AbstractEvent {
+    }
+
+    static final class Type14 extends Event.AbstractEvent {
+    }
+
+    static final class Type15 extends Event.AbstractEvent {
+    }
+
+    static class Level1 extends Event.AbstractEvent {
+    }
+
+    static class Level2 extends Level1 {
+    }
+
+    static class Level3 extends Level2 {
+    }
+
+    static class Level4 extends Level3 {
+    }
+
+    static class Level5 extends Level4 {
+    }
+
+    static class Level6 extends Level5 {
+    }
+
+    static class Level7 extends Level6 {
+    }
+
+    static class Level8 extends Level7 {
+    }
+
+    static class Level9 extends Level8 {
+    }
+
+    static class Level10 extends Level9 {
+    }
+
+    static class Level11 extends Level10 {
+    }
+
+    static class Level12 extends Level11 {
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs dispatch benchmarks once per configured thread count with
+ * the GC profiler enabled, so that both throughput and allocation rate are
+ * reported. Results are written as JSON files, one per thread count, for
+ * comparison between builds.
+ * <p>
+ * Accepts an optional regular expression selecting benchmarks. Thread counts
+ * are taken from the {@code threads} system property (comma separated,
+ * {@code 1,2,4,8} by default) and the output directory from
+ * the {@code resultDir} system property (working directory by default).
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final String include = args.length > 0
+            ? args[0] : BenchmarkRunner.class.getPackage().getName();
+        final String resultDir = System.getProperty("resultDir", ".");
+        for (final String threads
+                : System.getProperty("threads", "1,2,4,8").split(",")) {
+            final int count = Integer.parseInt(threads.trim());
+            final ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(include)
+                .threads(count)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultDir + "/jmh-result-" + count + "t.json");
+            new Runner(options.build()).run();
+        }
+    }
+
+}
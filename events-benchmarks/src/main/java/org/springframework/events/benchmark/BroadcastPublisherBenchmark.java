@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.events.BroadcastPublisher;
+import org.springframework.events.Event;
+
+/**
+ * Measures {@link BroadcastPublisher#publish(Event)} throughput depending on
+ * the number of handlers, the number of published event types and the depth
+ * of event class hierarchy.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BroadcastPublisherBenchmark {
+
+    @Param({"1", "4", "16", "64"})
+    private int handlerCount;
+
+    @Param({"1", "4", "16"})
+    private int eventTypeCount;
+
+    @Param({"1", "12"})
+    private int hierarchyDepth;
+
+    private BroadcastPublisher publisher;
+
+    private Event[] events;
+
+    @Setup
+    public void setUp(final Blackhole blackhole) {
+        publisher = new BroadcastPublisher();
+        events = BenchmarkEvents.create(eventTypeCount, hierarchyDepth);
+        for (int i = 0; i < handlerCount; i++) {
+            publisher.addHandler(new ConsumingHandler(blackhole));
+        }
+    }
+
+    @Benchmark
+    public void publish(final EventCursor cursor) {
+        publisher.publish(events[cursor.next(events.length)]);
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.events.Event;
+import org.springframework.events.codec.EventCodec;
+import org.springframework.events.codec.SerializationCodec;
+import org.springframework.events.codec.Tag;
+import org.springframework.events.codec.TaggedBinaryCodec;
+
+/**
+ * Compares {@link TaggedBinaryCodec} with {@link SerializationCodec} and with
+ * plain {@link ObjectOutputStream} writing to a byte array, encoding and
+ * decoding a typical event. Encoded sizes are printed on setup.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CodecBenchmark {
+
+    @Param({"tagged", "registered", "serialization"})
+    private String codecType;
+
+    private EventCodec codec;
+
+    private OrderEvent event;
+
+    private ByteBuffer buffer;
+
+    private ByteBuffer encoded;
+
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() throws IOException {
+        if ("serialization".equals(codecType)) {
+            codec = new SerializationCodec();
+        } else {
+            final TaggedBinaryCodec tagged = new TaggedBinaryCodec();
+            if ("registered".equals(codecType)) {
+                tagged.register(OrderEvent.class, 1);
+            }
+            codec = tagged;
+        }
+        event = new OrderEvent(1234567L, "ACME", 250, 101.25d, OrderEvent.Side.BUY);
+        buffer = ByteBuffer.allocateDirect(4096);
+
+        codec.encode(event, buffer);
+        buffer.flip();
+        encoded = ByteBuffer.allocateDirect(buffer.remaining());
+        encoded.put(buffer).flip();
+        serialized = objectOutputStream();
+        System.out.println(codecType + " codec: " + encoded.remaining()
+                + " bytes, ObjectOutputStream: " + serialized.length + " bytes");
+    }
+
+    @Benchmark
+    public ByteBuffer encode() {
+        buffer.clear();
+        codec.encode(event, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public Event decode() {
+        encoded.rewind();
+        return codec.decode(encoded);
+    }
+
+    @Benchmark
+    public byte[] objectOutputStream() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        final ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(event);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object objectInputStream() throws IOException, ClassNotFoundException {
+        final ObjectInputStream in =
+            new ObjectInputStream(new ByteArrayInputStream(serialized));
+        return in.readObject();
+    }
+
+    /**
+     * Event encoded by benchmarks, supported by both codecs.
+     */
+    public static class OrderEvent extends Event.AbstractEvent
+            implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Order side.
+         */
+        public enum Side {
+            BUY, SELL
+        }
+
+        @Tag(1)
+        private final long orderId;
+
+        @Tag(2)
+        private final String symbol;
+
+        @Tag(3)
+        private final int quantity;
+
+        @Tag(4)
+        private final double price;
+
+        @Tag(5)
+        private final Side side;
+
+        public OrderEvent(final long orderId, final String symbol,
+                final int quantity, final double price, final Side side) {
+            this.orderId = orderId;
+            this.symbol = symbol;
+            this.quantity = quantity;
+            this.price = price;
+            this.side = side;
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.benchmark;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.events.Event;
+
+/**
+ * Handler passing received events to JMH {@link Blackhole} so that dispatch
+ * can not be optimized away.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+final class ConsumingHandler implements Event.Handler<Event> {
+
+    private final Blackhole blackhole;
+
+    ConsumingHandler(final Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void handleEvent(final Event event) {
+        blackhole.consume(event);
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.events.Event;
+import org.springframework.events.annotation.EventHandler;
+import org.springframework.events.context.EventHandlerAdapter;
+
+/**
+ * Compares reflective dispatch through {@link EventHandlerAdapter} with
+ * a direct call of the same handler method, and with dispatch of an event
+ * having no matching method.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class EventHandlerAdapterBenchmark {
+
+    @Param({"1", "12"})
+    private int hierarchyDepth;
+
+    private Target target;
+
+    private EventHandlerAdapter adapter;
+
+    private Event event;
+
+    private Event unhandled;
+
+    @Setup
+    public void setUp(final Blackhole blackhole) {
+        target = new Target(blackhole);
+        adapter = new EventHandlerAdapter(target);
+        event = BenchmarkEvents.create(1, hierarchyDepth)[0];
+        unhandled = BenchmarkEvents.create(2, 1)[1];
+    }
+
+    @Benchmark
+    public void direct() {
+        target.onEvent(event);
+    }
+
+    @Benchmark
+    public void adapter() {
+        adapter.handleEvent(event);
+    }
+
+    @Benchmark
+    public void adapterUnhandled() {
+        adapter.handleEvent(unhandled);
+    }
+
+    /**
+     * Handler object with methods for every event benchmarked as handled.
+     */
+    public static class Target {
+
+        private final Blackhole blackhole;
+
+        Target(final Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        void onEvent(final Event event) {
+            blackhole.consume(event);
+        }
+
+        @EventHandler
+        public void on(final BenchmarkEvents.Type0 event) {
+            onEvent(event);
+        }
+
+        @EventHandler
+        public void on(final BenchmarkEvents.Level1 event) {
+            onEvent(event);
+        }
+
+        @EventHandler
+        public void on(final BenchmarkEvents.Level12 event) {
+            onEvent(event);
+        }
+
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.events.BroadcastPublisher;
+import org.springframework.events.Event;
+import org.springframework.events.HandlerRegistration;
+import org.springframework.events.ThreadSafePublisher;
+
+/**
+ * Measures {@link ThreadSafePublisher} under contention. The {@code publish}
+ * benchmark shows the cost of read locking alone when run with multiple
+ * threads, while the {@code churn} group runs publishers alongside a thread
+ * continuously adding and removing handlers, which contends for the write
+ * lock.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ThreadSafePublisherBenchmark {
+
+    @Param({"1", "16"})
+    private int handlerCount;
+
+    @Param({"1", "4"})
+    private int eventTypeCount;
+
+    private ThreadSafePublisher publisher;
+
+    private Event[] events;
+
+    private ConsumingHandler churnHandler;
+
+    @Setup
+    public void setUp(final Blackhole blackhole) {
+        publisher = new ThreadSafePublisher(new BroadcastPublisher());
+        events = BenchmarkEvents.create(eventTypeCount, 1);
+        for (int i = 0; i < handlerCount; i++) {
+            publisher.addHandler(new ConsumingHandler(blackhole));
+        }
+        churnHandler = new ConsumingHandler(blackhole);
+    }
+
+    @Benchmark
+    public void publish(final EventCursor cursor) {
+        publisher.publish(events[cursor.next(events.length)]);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(3)
+    public void churnPublish(final EventCursor cursor) {
+        publisher.publish(events[cursor.next(events.length)]);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(1)
+    public void churnRegistration() {
+        final HandlerRegistration registration =
+            publisher.addHandler(churnHandler);
+        registration.removeHandler();
+    }
+
+}
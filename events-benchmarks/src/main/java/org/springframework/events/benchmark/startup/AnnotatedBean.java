@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.benchmark.startup;
+
+import org.springframework.events.Event;
+import org.springframework.events.annotation.EventHandler;
+
+/**
+ * Base class of generated beans that are event handlers.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+public class AnnotatedBean extends PlainBean {
+
+    private int received;
+
+    @EventHandler
+    public void on(final StartupEvent event) {
+        received++;
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    /**
+     * Event handled by {@link AnnotatedBean}.
+     */
+    public static final class StartupEvent extends Event.AbstractEvent {
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.benchmark.startup;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+/**
+ * Generates distinct bean classes extending {@link AnnotatedBean} or
+ * {@link PlainBean}. Distinct classes are needed because scanning results and
+ * proxy classes are cached per bean class, so instances of a single class
+ * would hide most of the startup cost.
+ * <p>
+ * Every generator defines its classes in its own class loader.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+final class BeanClassGenerator {
+
+    private final DefiningClassLoader classLoader = new DefiningClassLoader(
+        BeanClassGenerator.class.getClassLoader());
+
+    /**
+     * Generates bean classes.
+     *
+     * @param count number of classes
+     * @param handlerPercent percentage of classes extending
+     *        {@link AnnotatedBean}, spread evenly
+     * @return generated classes
+     */
+    Class<?>[] generate(final int count, final int handlerPercent) {
+        if (handlerPercent < 0 || handlerPercent > 100) {
+            throw new IllegalArgumentException("Handler percentage out of range");
+        }
+        final Class<?>[] classes = new Class<?>[count];
+        for (int i = 0; i < count; i++) {
+            final boolean handler =
+                (i + 1) * handlerPercent / 100 > i * handlerPercent / 100;
+            classes[i] = define(i, handler ? AnnotatedBean.class : PlainBean.class);
+        }
+        return classes;
+    }
+
+    ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    private Class<?> define(final int index, final Class<?> superclass) {
+        final String superName = Type.getInternalName(superclass);
+        final String name = BeanClassGenerator.class.getPackage().getName()
+            + ".GeneratedBean" + index;
+
+        final ClassWriter writer = new ClassWriter(0);
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER,
+            name.replace('.', '/'), null, superName, null);
+        final MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC,
+            "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, "<init>", "()V");
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(1, 1);
+        constructor.visitEnd();
+        writer.visitEnd();
+
+        return classLoader.define(name, writer.toByteArray());
+    }
+
+    private static final class DefiningClassLoader extends ClassLoader {
+
+        DefiningClassLoader(final ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(final String name, final byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+}
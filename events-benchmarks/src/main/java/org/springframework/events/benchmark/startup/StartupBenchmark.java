@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.benchmark.startup;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures context startup with generated beans, a given percentage of which
+ * are annotated event handlers. Every combination of bean count and handler
+ * percentage is run several times, each time in a fresh JVM by
+ * {@link StartupRun}, so that class loading and metaspace figures are not
+ * affected by earlier runs. Results are written to a JSON report.
+ * <p>
+ * Configured by system properties: {@code beans} (comma separated, default
+ * {@code 1000,5000}), {@code handlerPercent} (comma separated, default
+ * {@code 10,50}), {@code forks} (default {@code 3}), {@code jvmArgs} (space
+ * separated, passed to forked JVMs) and {@code result} (default
+ * {@code startup-result.json}).
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+public final class StartupBenchmark {
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(final String[] args)
+            throws IOException, InterruptedException {
+        final int forks = Integer.getInteger("forks", 3);
+        final String result = System.getProperty("result", "startup-result.json");
+        final List<String> runs = new ArrayList<String>();
+        for (final String beans : split(System.getProperty("beans", "1000,5000"))) {
+            for (final String percent
+                    : split(System.getProperty("handlerPercent", "10,50"))) {
+                for (int fork = 0; fork < forks; fork++) {
+                    final String run = fork(beans, percent);
+                    System.out.println(run);
+                    runs.add(run);
+                }
+            }
+        }
+
+        try (Writer writer = Files.newBufferedWriter(Paths.get(result),
+                StandardCharsets.UTF_8)) {
+            writer.write("{\"timestamp\":" + System.currentTimeMillis());
+            writer.write(",\"javaVersion\":\"" + System.getProperty("java.version") + "\"");
+            writer.write(",\"runs\":[");
+            for (int i = 0; i < runs.size(); i++) {
+                writer.write(i == 0 ? "\n" : ",\n");
+                writer.write(runs.get(i));
+            }
+            writer.write("\n]}\n");
+        }
+    }
+
+    private static String fork(final String beans, final String percent)
+            throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<String>();
+        command.add(System.getProperty("java.home") + File.separator + "bin"
+            + File.separator + "java");
+        if (!System.getProperty("java.specification.version").startsWith("1.")) {
+            // CGLIB proxy generation defines classes through reflection
+            command.add("--add-opens=java.base/java.lang=ALL-UNNAMED");
+        }
+        command.addAll(split(System.getProperty("jvmArgs", ""), " "));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(StartupRun.class.getName());
+        command.add(beans);
+        command.add(percent);
+
+        final Process process = new ProcessBuilder(command)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+        String run = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("{")) {
+                    run = line;
+                }
+            }
+        }
+        if (process.waitFor() != 0 || run == null) {
+            throw new IllegalStateException("Startup run failed for " + beans
+                + " beans with " + percent + "% handlers");
+        }
+        return run;
+    }
+
+    private static List<String> split(final String values) {
+        return split(values, ",");
+    }
+
+    private static List<String> split(final String values, final String separator) {
+        final List<String> result = new ArrayList<String>();
+        for (final String value : Arrays.asList(values.split(separator))) {
+            if (!value.trim().isEmpty()) {
+                result.add(value.trim());
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.benchmark.startup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.annotation.AnnotationConfigUtils;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.events.BroadcastPublisher;
+import org.springframework.events.context.EventHandlerAdapter;
+
+/**
+ * Single measurement of context startup, meant to be run in a fresh JVM by
+ * {@link StartupBenchmark}. Prints the result as a JSON object on standard
+ * output.
+ * <p>
+ * The context is configured the same way as by {@code events:annotation-config}
+ * element, with {@link TimingPostProcessor} in place of the post processor,
+ * which times the real post processor on plain and on handler beans. After
+ * the refresh, bean classes are generated again in a new class loader and
+ * construction of {@link EventHandlerAdapter} instances for handler beans is
+ * timed on their instances.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+public final class StartupRun {
+
+    private StartupRun() {
+    }
+
+    /**
+     * Runs the measurement.
+     *
+     * @param args number of beans and percentage of handler beans
+     */
+    public static void main(final String[] args) {
+        if (args.length != 2) {
+            throw new IllegalArgumentException(
+                "Usage: StartupRun <beans> <handler percent>");
+        }
+        final int beans = Integer.parseInt(args[0]);
+        final int handlerPercent = Integer.parseInt(args[1]);
+
+        final BeanClassGenerator generator = new BeanClassGenerator();
+        final Class<?>[] classes = generator.generate(beans, handlerPercent);
+        final GenericApplicationContext context = new GenericApplicationContext();
+        context.setClassLoader(generator.getClassLoader());
+        AnnotationConfigUtils.registerAnnotationConfigProcessors(context);
+        register(context, "org.springframework.events.broadcastPublisher",
+            new RootBeanDefinition(BroadcastPublisher.class));
+        register(context, "org.springframework.events.context.annotationEventHandlerPostProcessor",
+            new RootBeanDefinition(TimingPostProcessor.class));
+        for (int i = 0; i < classes.length; i++) {
+            context.registerBeanDefinition("bean" + i,
+                new RootBeanDefinition(classes[i]));
+        }
+
+        final long heapBefore = getHeapUsed();
+        final long metaspaceBefore = getMetaspaceUsed();
+        final long classesBefore =
+            ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+        final long start = System.nanoTime();
+        context.refresh();
+        final long refreshNanos = System.nanoTime() - start;
+        final long loadedClasses =
+            ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount()
+            - classesBefore;
+        final long metaspace = getMetaspaceUsed() - metaspaceBefore;
+        final long heap = getHeapUsed() - heapBefore;
+
+        final TimingPostProcessor processor =
+            context.getBean(TimingPostProcessor.class);
+        final long adapterNanos = measureAdapters(beans, handlerPercent);
+
+        final StringBuilder json = new StringBuilder("{");
+        json.append("\"beans\":").append(beans);
+        json.append(",\"handlerPercent\":").append(handlerPercent);
+        json.append(",\"handlers\":").append(processor.getHandlers());
+        json.append(",\"processedBeans\":").append(processor.getBeans());
+        json.append(",\"refreshMillis\":").append(toMillis(refreshNanos));
+        json.append(",\"postProcessorMillis\":").append(toMillis(processor.getNanos()));
+        json.append(",\"plainBeanMillis\":").append(toMillis(processor.getPlainNanos()));
+        json.append(",\"handlerBeanMillis\":").append(toMillis(processor.getHandlerNanos()));
+        json.append(",\"adapterMillis\":").append(toMillis(adapterNanos));
+        json.append(",\"loadedClasses\":").append(loadedClasses);
+        json.append(",\"metaspaceBytes\":").append(metaspace);
+        json.append(",\"heapBytes\":").append(heap);
+        json.append('}');
+
+        context.close();
+        System.out.println(json);
+    }
+
+    private static void register(final GenericApplicationContext context,
+            final String name, final RootBeanDefinition definition) {
+        definition.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+        context.registerBeanDefinition(name, definition);
+    }
+
+    /**
+     * Times adapter construction for handler beans of fresh bean classes.
+     *
+     * @return total nanoseconds of adapter construction
+     */
+    private static long measureAdapters(final int beans, final int handlerPercent) {
+        final Class<?>[] classes =
+            new BeanClassGenerator().generate(beans, handlerPercent);
+        long nanos = 0L;
+        for (final Class<?> type : classes) {
+            if (AnnotatedBean.class.isAssignableFrom(type)) {
+                final Object bean = instantiate(type);
+                final long start = System.nanoTime();
+                new EventHandlerAdapter(bean);
+                nanos += System.nanoTime() - start;
+            }
+        }
+        return nanos;
+    }
+
+    private static Object instantiate(final Class<?> type) {
+        try {
+            return type.newInstance();
+        } catch (InstantiationException e) {
+            throw new IllegalStateException(e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long getHeapUsed() {
+        System.gc();
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long getMetaspaceUsed() {
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if ("Metaspace".equals(pool.getName())) {
+                return pool.getUsage().getUsed();
+            }
+        }
+        return -1L;
+    }
+
+    private static double toMillis(final long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+}
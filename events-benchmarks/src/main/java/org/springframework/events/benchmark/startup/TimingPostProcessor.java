@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.benchmark.startup;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.events.context.AnnotationEventHandlerPostProcessor;
+
+/**
+ * Decorates {@link AnnotationEventHandlerPostProcessor} measuring time spent
+ * in it during context refresh, separately for plain beans, which are only
+ * scanned, and for handler beans, which are also adapted, registered and
+ * proxied. Registered in place of the decorated processor, which is autowired
+ * the same way the container would do it.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+public final class TimingPostProcessor implements
+        DestructionAwareBeanPostProcessor, BeanFactoryAware {
+
+    private final AnnotationEventHandlerPostProcessor delegate =
+        new AnnotationEventHandlerPostProcessor();
+
+    private long plainNanos;
+
+    private long handlerNanos;
+
+    private int beans;
+
+    private int handlers;
+
+    @Override
+    public void setBeanFactory(final BeanFactory beanFactory) throws BeansException {
+        ((AutowireCapableBeanFactory) beanFactory).autowireBean(delegate);
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(final Object bean,
+            final String beanName) throws BeansException {
+        return delegate.postProcessBeforeInitialization(bean, beanName);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(final Object bean,
+            final String beanName) throws BeansException {
+        final long start = System.nanoTime();
+        final Object result = delegate.postProcessAfterInitialization(bean, beanName);
+        final long elapsed = System.nanoTime() - start;
+        beans++;
+        if (result != bean) {
+            handlerNanos += elapsed;
+            handlers++;
+        } else {
+            plainNanos += elapsed;
+        }
+        return result;
+    }
+
+    @Override
+    public void postProcessBeforeDestruction(final Object bean,
+            final String beanName) throws BeansException {
+        delegate.postProcessBeforeDestruction(bean, beanName);
+    }
+
+    long getNanos() {
+        return plainNanos + handlerNanos;
+    }
+
+    long getPlainNanos() {
+        return plainNanos;
+    }
+
+    long getHandlerNanos() {
+        return handlerNanos;
+    }
+
+    int getBeans() {
+        return beans;
+    }
+
+    int getHandlers() {
+        return handlers;
+    }
+
+}
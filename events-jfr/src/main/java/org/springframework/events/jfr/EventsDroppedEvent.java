@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event reporting events dropped by an asynchronous publisher
+ * since the previous report.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see QueueStatisticsRecorder
+ */
+@Name(EventsDroppedEvent.NAME)
+@Label("Events Dropped")
+@Description("Events rejected by a full asynchronous event queue")
+@Category({ "Spring Events" })
+@StackTrace(false)
+final class EventsDroppedEvent extends Event {
+
+    static final String NAME = "org.springframework.events.EventsDropped";
+
+    @Label("Publisher")
+    String publisher;
+
+    @Label("Dropped")
+    @Description("Events dropped since the previous report")
+    long dropped;
+
+    @Label("Total Dropped")
+    long totalDropped;
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.jfr;
+
+import java.util.ArrayDeque;
+
+import jdk.jfr.EventType;
+
+import org.springframework.core.Ordered;
+import org.springframework.events.DispatchInterceptor;
+import org.springframework.events.Event;
+import org.springframework.events.context.EventHandlerAdapter;
+
+/**
+ * {@link DispatchInterceptor} emitting flight recorder events for publishing of
+ * events and for their dispatching to each handler. Handlers adapted from
+ * annotated beans are reported by class of the bean, rather than as reflective
+ * invocations.
+ * <p>
+ * When neither event type is enabled in any running recording, callbacks
+ * amount to reading the state of event types and, after publishing and
+ * dispatching, looking up the stack of the current thread, which is only
+ * created once an event has been recorded on the thread. Thresholds are configured like
+ * for any other flight recorder event, e.g. in recording settings file, under
+ * {@code org.springframework.events.Publish} and
+ * {@code org.springframework.events.HandlerDispatch} names.
+ * <p>
+ * Recorded events in progress are kept on a per-thread stack. Should a
+ * following callback be missed, e.g. because another interceptor failed,
+ * the stale entry is discarded by the next following callback of an outer
+ * event.
+ * <p>
+ * The interceptor has the lowest precedence, so that recorded durations
+ * do not include time spent in other interceptors.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see PublishEvent
+ * @see HandlerDispatchEvent
+ */
+public final class FlightRecorderInterceptor implements DispatchInterceptor,
+        Ordered {
+
+    private static final EventType PUBLISH =
+            EventType.getEventType(PublishEvent.class);
+
+    private static final EventType DISPATCH =
+            EventType.getEventType(HandlerDispatchEvent.class);
+
+    private static final ThreadLocal<ArrayDeque<jdk.jfr.Event>> STACK =
+            new ThreadLocal<ArrayDeque<jdk.jfr.Event>>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void beforePublish(final Event event) {
+        if (!PUBLISH.isEnabled()) {
+            return;
+        }
+        final PublishEvent recorded = new PublishEvent();
+        recorded.source = event;
+        recorded.eventClass = event.getClass();
+        push(recorded);
+        recorded.begin();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void afterPublish(final Event event, final Throwable failure) {
+        final PublishEvent recorded = (PublishEvent) pop(event);
+        if (recorded == null) {
+            // Recording was not enabled when publishing started
+            return;
+        }
+        recorded.end();
+        if (recorded.shouldCommit()) {
+            recorded.source = null;
+            recorded.failed = failure != null;
+            recorded.commit();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void beforeDispatch(final Event event, final Event.Handler<?> handler) {
+        if (!DISPATCH.isEnabled()) {
+            return;
+        }
+        final HandlerDispatchEvent recorded = new HandlerDispatchEvent();
+        recorded.handler = handler;
+        recorded.eventClass = event.getClass();
+        recorded.handlerClass = handlerClassOf(handler);
+        push(recorded);
+        recorded.begin();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void afterDispatch(final Event event, final Event.Handler<?> handler,
+            final Throwable failure) {
+        final HandlerDispatchEvent recorded = (HandlerDispatchEvent) pop(handler);
+        if (recorded == null) {
+            // Recording was not enabled when dispatching started
+            return;
+        }
+        recorded.end();
+        if (recorded.shouldCommit()) {
+            recorded.handler = null;
+            recorded.failed = failure != null;
+            recorded.commit();
+        }
+    }
+
+    private static void push(final jdk.jfr.Event recorded) {
+        ArrayDeque<jdk.jfr.Event> stack = STACK.get();
+        if (stack == null) {
+            stack = new ArrayDeque<jdk.jfr.Event>();
+            STACK.set(stack);
+        }
+        stack.push(recorded);
+    }
+
+    /**
+     * Pops the innermost recorded event of the published event or handler
+     * from the stack of the current thread, together with any events above
+     * it, which were left behind by callbacks that did not complete.
+     *
+     * @param subject the published event or the handler
+     * @return the recorded event, or {@code null} if there is none
+     */
+    private static jdk.jfr.Event pop(final Object subject) {
+        final ArrayDeque<jdk.jfr.Event> stack = STACK.get();
+        if (stack == null || stack.isEmpty()) {
+            return null;
+        }
+        jdk.jfr.Event found = null;
+        for (final jdk.jfr.Event recorded : stack) {
+            if (subjectOf(recorded) == subject) {
+                found = recorded;
+                break;
+            }
+        }
+        if (found != null) {
+            while (stack.pop() != found) {
+                // Discard stale event
+            }
+        }
+        return found;
+    }
+
+    private static Object subjectOf(final jdk.jfr.Event recorded) {
+        return recorded instanceof PublishEvent ? ((PublishEvent) recorded).source
+                : ((HandlerDispatchEvent) recorded).handler;
+    }
+
+    private static Class<?> handlerClassOf(final Event.Handler<?> handler) {
+        if (handler instanceof EventHandlerAdapter) {
+            return ((EventHandlerAdapter) handler).getTarget().getClass();
+        }
+        return handler.getClass();
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event spanning publishing of a single event to all its
+ * handlers.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see FlightRecorderInterceptor
+ */
+@Name(PublishEvent.NAME)
+@Label("Event Publish")
+@Description("Publishing of an event to all its handlers")
+@Category({ "Spring Events" })
+@StackTrace(false)
+@Threshold("1 ms")
+final class PublishEvent extends Event {
+
+    static final String NAME = "org.springframework.events.Publish";
+
+    @Label("Event Class")
+    Class<?> eventClass;
+
+    @Label("Failed")
+    boolean failed;
+
+    /**
+     * Published event; used to match callbacks only, not recorded.
+     */
+    transient Object source;
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Periodic flight recorder event describing queue of an asynchronous publisher.
+ * Waiting time is estimated from the queue depth and dispatch throughput
+ * observed during the last period.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see QueueStatisticsRecorder
+ */
+@Name(QueueStatisticsEvent.NAME)
+@Label("Event Queue Statistics")
+@Description("Depth, throughput and estimated waiting time of asynchronous event queue")
+@Category({ "Spring Events" })
+@StackTrace(false)
+@Period("1 s")
+final class QueueStatisticsEvent extends Event {
+
+    static final String NAME = "org.springframework.events.QueueStatistics";
+
+    @Label("Publisher")
+    String publisher;
+
+    @Label("Queue Size")
+    int queueSize;
+
+    @Label("Dispatched")
+    @Description("Events dispatched during the period")
+    long dispatched;
+
+    @Label("Estimated Wait")
+    @Description("Queue size divided by dispatch throughput of the period")
+    @Timespan(Timespan.NANOSECONDS)
+    long estimatedWait;
+
+}
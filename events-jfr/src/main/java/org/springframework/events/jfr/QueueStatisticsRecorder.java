@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.jfr;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jdk.jfr.FlightRecorder;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.events.AsyncPublisher;
+
+/**
+ * Periodically emits {@link QueueStatisticsEvent} for each
+ * {@link AsyncPublisher} and {@link EventsDroppedEvent} whenever a publisher
+ * has dropped events since the previous period. Statistics are read from
+ * counters publishers maintain anyway, so nothing is added to the publishing
+ * path. The period is configured in recording settings under
+ * {@code org.springframework.events.QueueStatistics} name.
+ * <p>
+ * When defined as Spring bean, all {@link AsyncPublisher} beans are monitored.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see QueueStatisticsEvent
+ * @see EventsDroppedEvent
+ */
+public final class QueueStatisticsRecorder implements InitializingBean,
+        DisposableBean {
+
+    private final Map<String, PublisherState> publishers =
+            new LinkedHashMap<String, PublisherState>();
+
+    private final Runnable hook = new Runnable() {
+        @Override
+        public void run() {
+            emit();
+        }
+    };
+
+    /**
+     * Sets publishers to be monitored, keyed by name reported in events.
+     *
+     * @param publishers the publishers to be monitored
+     */
+    @Autowired(required = false)
+    public synchronized void setPublishers(
+            final Map<String, AsyncPublisher> publishers) {
+        this.publishers.clear();
+        for (final Map.Entry<String, AsyncPublisher> entry
+                : publishers.entrySet()) {
+            this.publishers.put(entry.getKey(),
+                    new PublisherState(entry.getValue()));
+        }
+    }
+
+    /**
+     * Registers periodic emission of statistics with the flight recorder.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        FlightRecorder.addPeriodicEvent(QueueStatisticsEvent.class, hook);
+    }
+
+    /**
+     * Unregisters periodic emission of statistics.
+     */
+    @Override
+    public void destroy() {
+        FlightRecorder.removePeriodicEvent(hook);
+    }
+
+    private synchronized void emit() {
+        final long now = System.nanoTime();
+        for (final Map.Entry<String, PublisherState> entry
+                : publishers.entrySet()) {
+            entry.getValue().emit(entry.getKey(), now);
+        }
+    }
+
+    /**
+     * Counters of a publisher observed during the previous period.
+     */
+    private static final class PublisherState {
+
+        private final AsyncPublisher publisher;
+
+        private long dispatched;
+
+        private long dropped;
+
+        private long time;
+
+        PublisherState(final AsyncPublisher publisher) {
+            this.publisher = publisher;
+            this.dispatched = publisher.getDispatchedCount();
+            this.dropped = publisher.getDroppedCount();
+            this.time = System.nanoTime();
+        }
+
+        void emit(final String name, final long now) {
+            final long totalDispatched = publisher.getDispatchedCount();
+            final long totalDropped = publisher.getDroppedCount();
+            final int queueSize = publisher.getQueueSize();
+
+            final QueueStatisticsEvent statistics = new QueueStatisticsEvent();
+            statistics.publisher = name;
+            statistics.queueSize = queueSize;
+            statistics.dispatched = totalDispatched - dispatched;
+            statistics.estimatedWait = estimateWait(queueSize,
+                    statistics.dispatched, now - time);
+            statistics.commit();
+
+            if (totalDropped > dropped) {
+                final EventsDroppedEvent drops = new EventsDroppedEvent();
+                drops.publisher = name;
+                drops.dropped = totalDropped - dropped;
+                drops.totalDropped = totalDropped;
+                drops.commit();
+            }
+
+            dispatched = totalDispatched;
+            dropped = totalDropped;
+            time = now;
+        }
+
+        private static long estimateWait(final int queueSize,
+                final long dispatched, final long elapsed) {
+            if (queueSize == 0) {
+                return 0L;
+            }
+            if (dispatched == 0) {
+                return elapsed;
+            }
+            return (long) ((double) queueSize * elapsed / dispatched);
+        }
+    }
+
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.jfr;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.events.AsyncPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.events.BroadcastPublisher;
+import org.springframework.events.DispatchInterceptorAdapter;
+import org.springframework.events.Event;
+import org.springframework.events.queue.HeapEventQueue;
+
+public class FlightRecorderInterceptorTest {
+
+    private Recording recording;
+
+    private File dump;
+
+    @Before
+    public void setUp() throws IOException {
+        recording = new Recording();
+        dump = File.createTempFile("events", ".jfr");
+    }
+
+    @After
+    public void tearDown() {
+        recording.close();
+        dump.delete();
+    }
+
+    @Test
+    public void shouldRecordPublishAndDispatch() throws IOException {
+        recording.enable(PublishEvent.NAME).withThreshold(Duration.ZERO);
+        recording.enable(HandlerDispatchEvent.NAME).withThreshold(Duration.ZERO);
+
+        final BroadcastPublisher publisher = new BroadcastPublisher();
+        publisher.addHandler(new MockHandler());
+        publisher.setInterceptors(
+                Collections.singletonList(new FlightRecorderInterceptor()));
+
+        recording.start();
+        publisher.publish(new MockEvent());
+        recording.stop();
+
+        final List<RecordedEvent> dispatches = read(HandlerDispatchEvent.NAME);
+        assertEquals("Unexpected dispatch events", 1, dispatches.size());
+        assertEquals("Unexpected handler class", MockHandler.class.getName(),
+                dispatches.get(0).getClass("handlerClass").getName());
+        assertEquals("Unexpected publish events", 1, read(PublishEvent.NAME).size());
+    }
+
+    @Test
+    public void shouldNotRecordWhenDisabled() throws IOException {
+        final BroadcastPublisher publisher = new BroadcastPublisher();
+        publisher.addHandler(new MockHandler());
+        publisher.setInterceptors(
+                Collections.singletonList(new FlightRecorderInterceptor()));
+
+        recording.start();
+        publisher.publish(new MockEvent());
+        recording.enable(PublishEvent.NAME).withThreshold(Duration.ZERO);
+        publisher.publish(new MockEvent());
+        recording.stop();
+
+        assertEquals("Unexpected publish events", 1, read(PublishEvent.NAME).size());
+        assertTrue("Unexpected dispatch events",
+                read(HandlerDispatchEvent.NAME).isEmpty());
+    }
+
+    @Test
+    public void shouldRecordAfterFailingInterceptor() throws IOException {
+        recording.enable(PublishEvent.NAME).withThreshold(Duration.ZERO);
+        recording.enable(HandlerDispatchEvent.NAME).withThreshold(Duration.ZERO);
+
+        final BroadcastPublisher publisher = new BroadcastPublisher();
+        publisher.addHandler(new MockHandler());
+        publisher.setInterceptors(Arrays.asList(new FlightRecorderInterceptor(),
+                new FailingInterceptor()));
+
+        recording.start();
+        try {
+            publisher.publish(new MockEvent());
+            fail("Interceptor failure not propagated");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        publisher.publish(new MockEvent());
+        recording.stop();
+
+        final List<RecordedEvent> dispatches = read(HandlerDispatchEvent.NAME);
+        assertEquals("Unexpected dispatch events", 2, dispatches.size());
+        assertTrue("Failure not recorded", dispatches.get(0).getBoolean("failed"));
+        assertFalse("Unexpected failure", dispatches.get(1).getBoolean("failed"));
+        assertEquals("Unexpected publish events", 2, read(PublishEvent.NAME).size());
+    }
+
+    @Test
+    public void shouldDiscardStaleEventsOfMissedCallbacks() throws IOException {
+        recording.enable(PublishEvent.NAME).withThreshold(Duration.ZERO);
+        recording.enable(HandlerDispatchEvent.NAME).withThreshold(Duration.ZERO);
+        final FlightRecorderInterceptor interceptor = new FlightRecorderInterceptor();
+        final MockEvent event = new MockEvent();
+
+        recording.start();
+        interceptor.beforePublish(event);
+        interceptor.beforeDispatch(event, new MockHandler());
+        interceptor.afterPublish(event, null);
+        final MockEvent next = new MockEvent();
+        interceptor.beforePublish(next);
+        interceptor.afterPublish(next, null);
+        recording.stop();
+
+        assertEquals("Unexpected publish events", 2, read(PublishEvent.NAME).size());
+        assertTrue("Unexpected dispatch events",
+                read(HandlerDispatchEvent.NAME).isEmpty());
+    }
+
+    @Test
+    public void shouldRecordQueueStatisticsAndDrops() throws Exception {
+        recording.enable(QueueStatisticsEvent.NAME).withPeriod(Duration.ofMillis(50));
+        recording.enable(EventsDroppedEvent.NAME);
+
+        final AsyncPublisher publisher =
+                new AsyncPublisher(new BroadcastPublisher(), new HeapEventQueue(1));
+        publisher.publish(new MockEvent());
+        publisher.publish(new MockEvent());
+
+        final QueueStatisticsRecorder recorder = new QueueStatisticsRecorder();
+        recorder.setPublishers(Collections.singletonMap("publisher", publisher));
+        publisher.publish(new MockEvent());
+        recorder.afterPropertiesSet();
+        try {
+            recording.start();
+            Thread.sleep(200);
+            recording.stop();
+        } finally {
+            recorder.destroy();
+        }
+
+        final List<RecordedEvent> statistics = read(QueueStatisticsEvent.NAME);
+        assertFalse("No queue statistics", statistics.isEmpty());
+        assertEquals("Unexpected queue size", 1,
+                statistics.get(0).getInt("queueSize"));
+        final List<RecordedEvent> drops = read(EventsDroppedEvent.NAME);
+        assertEquals("Unexpected drop events", 1, drops.size());
+        assertEquals("Unexpected drop count", 1L, drops.get(0).getLong("dropped"));
+    }
+
+    private List<RecordedEvent> read(final String name) throws IOException {
+        final Path path = dump.toPath();
+        recording.dump(path);
+        final List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+        for (final RecordedEvent event : RecordingFile.readAllEvents(path)) {
+            if (event.getEventType().getName().equals(name)) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    private static final class MockEvent extends Event.AbstractEvent {
+    }
+
+    private static final class FailingInterceptor extends DispatchInterceptorAdapter
+            implements Ordered {
+
+        private boolean failed;
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+        @Override
+        public void beforeDispatch(final Event event, final Event.Handler<?> handler) {
+            if (!failed) {
+                failed = true;
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    private static final class MockHandler implements Event.Handler<Event> {
+
+        @Override
+        public void handleEvent(final Event event) {
+        }
+    }
+}
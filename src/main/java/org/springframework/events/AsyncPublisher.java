@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.context.SmartLifecycle;
+
+import org.springframework.events.queue.EventQueue;
+import org.springframework.events.queue.HeapEventQueue;
+
+/**
+ * Asynchronous adapter for {@link EventBus} interface. Published events are put
+ * into an {@link EventQueue} and dispatched to the delegate by a single
+ * background thread, in the order they were published. The queue backend is
+ * chosen per instance; events rejected by a full queue are dropped and counted.
+ * <p>
+ * The dispatching thread runs between {@link #start()} and {@link #stop()}.
+ * Events published while the publisher is stopped remain queued until it is
+ * started again. An {@link Error} thrown by the delegate terminates the
+ * dispatching thread and stops the publisher; exceptions are logged.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see EventQueue
+ */
+public final class AsyncPublisher implements EventBus, SmartLifecycle {
+
+    private static final Log LOG = LogFactory.getLog(AsyncPublisher.class);
+
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final EventBus delegate;
+
+    private final EventQueue queue;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final AtomicLong dispatched = new AtomicLong();
+
+    private final Object pollLock = new Object();
+
+    private final Object lifecycleMonitor = new Object();
+
+    private volatile Thread worker;
+
+    private volatile boolean running;
+
+    private volatile boolean waiting;
+
+    /**
+     * Constructs {@link AsyncPublisher} queuing events on the heap, without
+     * bound.
+     *
+     * @param delegate
+     *            not-{@code null} reference to the delegate {@link EventBus}
+     */
+    public AsyncPublisher(final EventBus delegate) {
+        this(delegate, new HeapEventQueue());
+    }
+
+    /**
+     * Constructs {@link AsyncPublisher} queuing events in the given queue.
+     *
+     * @param delegate
+     *            not-{@code null} reference to the delegate {@link EventBus}
+     * @param queue
+     *            not-{@code null} reference to the queue of pending events
+     */
+    public AsyncPublisher(final EventBus delegate, final EventQueue queue) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate must not be null");
+        }
+        if (queue == null) {
+            throw new IllegalArgumentException("Queue must not be null");
+        }
+        this.delegate = delegate;
+        this.queue = queue;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(final Event event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event must not be null");
+        }
+        if (!queue.offer(event)) {
+            dropped.incrementAndGet();
+            return;
+        }
+        if (waiting) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * Gets the number of events awaiting dispatch.
+     *
+     * @return the number of queued events
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the number of events dropped because the queue was full.
+     *
+     * @return the number of dropped events
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Gets the number of events dispatched to the delegate so far.
+     *
+     * @return the number of dispatched events
+     */
+    public long getDispatchedCount() {
+        return dispatched.get();
+    }
+
+    /**
+     * Discards events awaiting dispatch at the time of the call. Events
+     * published concurrently may or may not be discarded; events published
+     * afterwards are dispatched. The event being currently dispatched, if any,
+     * is not affected.
+     *
+     * @return the number of discarded events
+     */
+    public int drainQueue() {
+        synchronized (pollLock) {
+            final int size = queue.size();
+            int count = 0;
+            while (count < size && queue.poll() != null) {
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Starts the dispatching thread.
+     */
+    @Override
+    public void start() {
+        synchronized (lifecycleMonitor) {
+            if (running) {
+                return;
+            }
+            running = true;
+            worker = new Thread(new Dispatcher(), "event-dispatcher");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Stops the dispatching thread. Waits for the event being currently
+     * dispatched; events still in the queue are left there.
+     */
+    @Override
+    public void stop() {
+        synchronized (lifecycleMonitor) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            LockSupport.unpark(worker);
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stop(final Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Takes events from the queue and dispatches them to the delegate until
+     * the publisher is stopped.
+     */
+    private final class Dispatcher implements Runnable {
+
+        @Override
+        public void run() {
+            while (running) {
+                final Event event;
+                synchronized (pollLock) {
+                    event = queue.poll();
+                }
+                if (event == null) {
+                    awaitEvent();
+                    continue;
+                }
+                try {
+                    delegate.publish(event);
+                } catch (RuntimeException e) {
+                    LOG.error("Failed to dispatch event " + event, e);
+                } catch (Error e) {
+                    running = false;
+                    LOG.error("Dispatching thread terminated by event " + event, e);
+                    throw e;
+                }
+                dispatched.lazySet(dispatched.get() + 1);
+            }
+        }
+
+        private void awaitEvent() {
+            waiting = true;
+            if (running && queue.size() == 0) {
+                LockSupport.parkNanos(AsyncPublisher.this, PARK_NANOS);
+            }
+            waiting = false;
+        }
+    }
+
+}
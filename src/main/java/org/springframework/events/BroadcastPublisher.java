@@ -19,6 +19,8 @@ package org.springframework.events;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Autowired;
+
 import org.springframework.events.Event.Handler;
 
 /**
@@ -26,6 +28,9 @@ import org.springframework.events.Event.Handler;
  * {@link Event} to all registered handlers. This publisher works in broadcast
  * mode, that is, all registered parties are meant to receive event. It's up to
  * them to decide, if they are interested in particular event or not.
+ * <p>
+ * Publishing and dispatching may be observed by {@link DispatchInterceptor}
+ * objects.
  *
  * @author Robert Bala
  * @author Piotr Dyraga
@@ -33,12 +38,16 @@ import org.springframework.events.Event.Handler;
  * @version %I%, %G%
  *
  * @see HasBroadcastEventHandlers
+ * @see DispatchInterceptor
  */
 public final class BroadcastPublisher implements HasBroadcastEventHandlers {
 
     private final List<Handler< ? >> handlers =
         new LinkedList<Handler< ? >>();
 
+    private volatile DispatchInterceptor[] interceptors =
+        DispatchInterceptors.NONE;
+
     /**
      * {@inheritDoc}
      */
@@ -63,17 +72,62 @@ public final class BroadcastPublisher implements HasBroadcastEventHandlers {
        };
     }
 
+    /**
+     * Sets interceptors observing publishing and dispatching of events.
+     * Interceptors are ordered according to {@link org.springframework.core.Ordered}
+     * interface or {@link org.springframework.core.annotation.Order} annotation.
+     *
+     * @param interceptors the interceptors; {@code null} or empty list
+     *        removes all interceptors
+     */
+    @Autowired(required = false)
+    public void setInterceptors(
+            final List<? extends DispatchInterceptor> interceptors) {
+        this.interceptors = DispatchInterceptors.compile(interceptors);
+    }
+
+    /**
+     * Gets the number of registered handlers.
+     *
+     * @return the number of registered handlers
+     */
+    public int getHandlerCount() {
+        return handlers.size();
+    }
+
     private <E extends Event, H extends Event.Handler<E>> void doPublish(
             final E event) {
         if (event == null) {
             throw new IllegalArgumentException("Event must not be null");
         }
         final List<H> observers = getObservers();
+        final DispatchInterceptor[] chain = interceptors;
+        if (chain.length != 0) {
+            doPublish(event, observers, chain);
+            return;
+        }
         for (final H handler : observers) {
             event.dispatch(handler);
         }
     }
 
+    private static <H extends Event.Handler< ? >> void doPublish(
+            final Event event, final List<H> observers,
+            final DispatchInterceptor[] chain) {
+        DispatchInterceptors.beforePublish(chain, event);
+        Throwable failure = null;
+        try {
+            for (final H handler : observers) {
+                DispatchInterceptors.dispatch(chain, event, handler);
+            }
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            DispatchInterceptors.afterPublish(chain, event, failure);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private <H extends Handler< ? >> List<H> getObservers() {
         return (List<H>) handlers;
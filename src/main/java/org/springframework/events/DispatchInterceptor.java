@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events;
+
+/**
+ * Callback interface for observing publishing of events and their dispatching
+ * to handlers, e.g. for tracing, propagating diagnostic context or logging
+ * slow handlers.
+ * <p>
+ * Interceptors are handed over to {@link BroadcastPublisher} and
+ * {@link SimpleEventBus} which compile them into a flat array. Buses without
+ * interceptors publish events exactly as they would without this facility.
+ * When interceptors are defined as Spring beans, they are picked up
+ * automatically and ordered according to
+ * {@link org.springframework.core.Ordered} or
+ * {@link org.springframework.core.annotation.Order}. Callbacks preceding
+ * an action are invoked in that order, callbacks following an action in
+ * the reverse order.
+ * <p>
+ * Every interceptor whose preceding callback has completed gets the
+ * following callback, even if a later interceptor, or the action itself,
+ * has failed; interceptors whose preceding callback has not completed do not.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see DispatchInterceptorAdapter
+ */
+public interface DispatchInterceptor {
+
+    /**
+     * Invoked before the event is dispatched to any handler.
+     *
+     * @param event the published event
+     */
+    void beforePublish(Event event);
+
+    /**
+     * Invoked after the event has been dispatched to all handlers or after
+     * dispatching has failed.
+     *
+     * @param event the published event
+     * @param failure the failure or {@code null} if publishing has succeeded
+     */
+    void afterPublish(Event event, Throwable failure);
+
+    /**
+     * Invoked before the event is dispatched to the handler.
+     *
+     * @param event the published event
+     * @param handler the handler receiving the event
+     */
+    void beforeDispatch(Event event, Event.Handler<?> handler);
+
+    /**
+     * Invoked after the event has been dispatched to the handler.
+     *
+     * @param event the published event
+     * @param handler the handler receiving the event
+     * @param failure the failure or {@code null} if the handler has succeeded
+     */
+    void afterDispatch(Event event, Event.Handler<?> handler, Throwable failure);
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events;
+
+/**
+ * Abstract adapter class for the {@link DispatchInterceptor} interface,
+ * for simplified implementation of interceptors interested in some of
+ * the callbacks only.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+public abstract class DispatchInterceptorAdapter implements DispatchInterceptor {
+
+    /**
+     * This implementation is empty.
+     */
+    @Override
+    public void beforePublish(final Event event) {
+    }
+
+    /**
+     * This implementation is empty.
+     */
+    @Override
+    public void afterPublish(final Event event, final Throwable failure) {
+    }
+
+    /**
+     * This implementation is empty.
+     */
+    @Override
+    public void beforeDispatch(final Event event, final Event.Handler<?> handler) {
+    }
+
+    /**
+     * This implementation is empty.
+     */
+    @Override
+    public void afterDispatch(final Event event, final Event.Handler<?> handler,
+            final Throwable failure) {
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+
+/**
+ * Helper class invoking chain of {@link DispatchInterceptor} objects. This is
+ * a package protected class used by event buses supporting interceptors.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+final class DispatchInterceptors {
+
+    static final DispatchInterceptor[] NONE = new DispatchInterceptor[0];
+
+    private DispatchInterceptors() {
+    }
+
+    /**
+     * Sorts interceptors and compiles them into an array.
+     *
+     * @param interceptors the interceptors; may be {@code null}
+     * @return ordered array of interceptors
+     */
+    static DispatchInterceptor[] compile(
+            final List<? extends DispatchInterceptor> interceptors) {
+        if (interceptors == null || interceptors.isEmpty()) {
+            return NONE;
+        }
+        final List<DispatchInterceptor> sorted =
+                new ArrayList<DispatchInterceptor>(interceptors);
+        for (final DispatchInterceptor interceptor : sorted) {
+            if (interceptor == null) {
+                throw new IllegalArgumentException("Interceptor must not be null");
+            }
+        }
+        AnnotationAwareOrderComparator.sort(sorted);
+        return sorted.toArray(new DispatchInterceptor[sorted.size()]);
+    }
+
+    /**
+     * Invokes callbacks preceding publishing. If one of them fails, callbacks
+     * following publishing are invoked for interceptors whose preceding
+     * callbacks have completed, before the failure is propagated.
+     */
+    static void beforePublish(final DispatchInterceptor[] chain,
+            final Event event) {
+        int completed = 0;
+        try {
+            for (; completed < chain.length; completed++) {
+                chain[completed].beforePublish(event);
+            }
+        } catch (RuntimeException | Error e) {
+            afterPublish(chain, completed, event, e);
+            throw e;
+        }
+    }
+
+    static void afterPublish(final DispatchInterceptor[] chain,
+            final Event event, final Throwable failure) {
+        afterPublish(chain, chain.length, event, failure);
+    }
+
+    static void dispatch(final DispatchInterceptor[] chain, final Event event,
+            final Event.Handler<?> handler) {
+        int completed = 0;
+        Throwable failure = null;
+        try {
+            for (; completed < chain.length; completed++) {
+                chain[completed].beforeDispatch(event, handler);
+            }
+            event.dispatch(handler);
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            for (int i = completed - 1; i >= 0; i--) {
+                chain[i].afterDispatch(event, handler, failure);
+            }
+        }
+    }
+
+    private static void afterPublish(final DispatchInterceptor[] chain,
+            final int count, final Event event, final Throwable failure) {
+        for (int i = count - 1; i >= 0; i--) {
+            chain[i].afterPublish(event, failure);
+        }
+    }
+
+}
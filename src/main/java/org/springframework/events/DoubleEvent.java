@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events;
+
+/**
+ * Base class for events carrying a single {@code double} value such as a gauge
+ * reading or a rate. The value is kept as a primitive, so it can be
+ * dispatched to {@link DoubleEventHandler} objects without boxing.
+ * <p>
+ * Concrete subclasses identify the event type and are used for routing just as
+ * any other {@link Event}. Ordinary {@link Event.Handler} objects registered
+ * for the subclass receive the event object itself.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see DoubleEventHandler
+ * @see HasPrimitiveEventHandlers
+ */
+public abstract class DoubleEvent extends Event.AbstractEvent {
+
+    private final double value;
+
+    /**
+     * Constructs event carrying the given value.
+     *
+     * @param value the value carried by this event
+     */
+    protected DoubleEvent(final double value) {
+        this.value = value;
+    }
+
+    /**
+     * Gets the value carried by this event.
+     *
+     * @return the value carried by this event
+     */
+    public final double getValue() {
+        return value;
+    }
+
+    /**
+     * Dispatches the value carried by this event to primitive event handler.
+     *
+     * @param handler primitive event handler implementation
+     */
+    public final void dispatch(final DoubleEventHandler handler) {
+        if (handler == null) {
+            throw new IllegalArgumentException("Handler is required");
+        }
+        handler.handleEvent(value);
+    }
+
+}
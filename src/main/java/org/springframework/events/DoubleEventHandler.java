@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events;
+
+/**
+ * Receives values of {@link DoubleEvent} events as primitives. Handlers of this
+ * type are registered in {@link HasPrimitiveEventHandlers} for particular
+ * {@link DoubleEvent} subclass and are never given boxed values nor event objects.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see DoubleEvent
+ */
+public interface DoubleEventHandler {
+
+    /**
+     * Handles received value.
+     *
+     * @param value the value carried by published event
+     */
+    void handleEvent(double value);
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events;
+
+/**
+ * Extends {@link HasEventHandlers} with routing of primitive-specialized events.
+ * Values of {@link LongEvent} and {@link DoubleEvent} are delivered to
+ * {@link LongEventHandler} and {@link DoubleEventHandler} objects without
+ * boxing. Values may be published without constructing event object at all.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see LongEvent
+ * @see DoubleEvent
+ */
+public interface HasPrimitiveEventHandlers extends HasEventHandlers {
+
+    /**
+     * Adds handler to receive values of {@link LongEvent} of certain type.
+     *
+     * @param <E> The type of event
+     * @param type the event type associated with this handler
+     * @param handler the handler
+     *
+     * @return the {@link HandlerRegistration} that can be stored in order to remove the
+     *         handler later
+     */
+    <E extends LongEvent> HandlerRegistration addHandler(final Class<E> type,
+            final LongEventHandler handler);
+
+    /**
+     * Adds handler to receive values of {@link DoubleEvent} of certain type.
+     *
+     * @param <E> The type of event
+     * @param type the event type associated with this handler
+     * @param handler the handler
+     *
+     * @return the {@link HandlerRegistration} that can be stored in order to remove the
+     *         handler later
+     */
+    <E extends DoubleEvent> HandlerRegistration addHandler(final Class<E> type,
+            final DoubleEventHandler handler);
+
+    /**
+     * Publish the value on behalf of {@link LongEvent} of given type. Only
+     * {@link LongEventHandler} objects registered for the type will receive it.
+     *
+     * @param type the event type; must not be {@code null}
+     * @param value the value to be published
+     */
+    void publish(Class<? extends LongEvent> type, long value);
+
+    /**
+     * Publish the value on behalf of {@link DoubleEvent} of given type. Only
+     * {@link DoubleEventHandler} objects registered for the type will receive it.
+     *
+     * @param type the event type; must not be {@code null}
+     * @param value the value to be published
+     */
+    void publish(Class<? extends DoubleEvent> type, double value);
+
+}
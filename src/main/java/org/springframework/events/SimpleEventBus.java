@@ -17,14 +17,26 @@
 package org.springframework.events;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Autowired;
+
 /**
  * Basic event bus implementation. Usually, there will be only one
  * instance of this class per application.
+ * <p>
+ * Handlers of primitive-specialized events are kept in separate per-type
+ * arrays, so that publishing {@link LongEvent} and {@link DoubleEvent} values
+ * neither boxes them nor allocates iterators.
+ * <p>
+ * Publishing and dispatching of event objects may be observed by
+ * {@link DispatchInterceptor} objects. Values published by type only, as
+ * well as their delivery to primitive event handlers, are not intercepted.
  *
  * @author Robert Bala
  * @author Piotr Dyraga
@@ -33,12 +45,32 @@ import java.util.Map;
  *
  * @see EventBus
  * @see HasEventHandlers
+ * @see HasPrimitiveEventHandlers
+ * @see DispatchInterceptor
  */
-public final class SimpleEventBus implements HasEventHandlers {
+public final class SimpleEventBus implements HasPrimitiveEventHandlers {
+
+    private static final LongEventHandler[] NO_LONG_HANDLERS =
+        new LongEventHandler[0];
+
+    private static final DoubleEventHandler[] NO_DOUBLE_HANDLERS =
+        new DoubleEventHandler[0];
 
     private final Map<Class<? extends Event>, List<?>> dispatchers =
         new HashMap<Class<? extends Event>, List<?>>();
 
+    private final Map<Class<? extends Event>, LongEventHandler[]> longDispatchers =
+        new HashMap<Class<? extends Event>, LongEventHandler[]>();
+
+    private final Map<Class<? extends Event>, DoubleEventHandler[]> doubleDispatchers =
+        new HashMap<Class<? extends Event>, DoubleEventHandler[]>();
+
+    private volatile DispatchInterceptor[] interceptors =
+        DispatchInterceptors.NONE;
+
+    private volatile Map<Class<? extends Event>, Integer> handlerCounts =
+        Collections.emptyMap();
+
     /**
      * {@inheritDoc}
      */
@@ -63,6 +95,122 @@ public final class SimpleEventBus implements HasEventHandlers {
         };
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E extends LongEvent> HandlerRegistration addHandler(
+            final Class<E> type, final LongEventHandler handler) {
+        checkRegistration(type, handler);
+        longDispatchers.put(type, append(getLongHandlers(type), handler));
+        countHandlers(type, 1);
+
+        return new HandlerRegistration() {
+            @Override
+            public void removeHandler() {
+                final LongEventHandler[] current = getLongHandlers(type);
+                final LongEventHandler[] handlers = remove(current, handler);
+                countHandlers(type, handlers.length - current.length);
+                if (handlers.length == 0) {
+                    longDispatchers.remove(type);
+                } else {
+                    longDispatchers.put(type, handlers);
+                }
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E extends DoubleEvent> HandlerRegistration addHandler(
+            final Class<E> type, final DoubleEventHandler handler) {
+        checkRegistration(type, handler);
+        doubleDispatchers.put(type, append(getDoubleHandlers(type), handler));
+        countHandlers(type, 1);
+
+        return new HandlerRegistration() {
+            @Override
+            public void removeHandler() {
+                final DoubleEventHandler[] current = getDoubleHandlers(type);
+                final DoubleEventHandler[] handlers = remove(current, handler);
+                countHandlers(type, handlers.length - current.length);
+                if (handlers.length == 0) {
+                    doubleDispatchers.remove(type);
+                } else {
+                    doubleDispatchers.put(type, handlers);
+                }
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(final Class<? extends LongEvent> type, final long value) {
+        if (type == null) {
+            throw new IllegalArgumentException("Event type is required");
+        }
+        doPublish(getLongHandlers(type), value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(final Class<? extends DoubleEvent> type,
+            final double value) {
+        if (type == null) {
+            throw new IllegalArgumentException("Event type is required");
+        }
+        doPublish(getDoubleHandlers(type), value);
+    }
+
+    /**
+     * Sets interceptors observing publishing and dispatching of events.
+     * Interceptors are ordered according to {@link org.springframework.core.Ordered}
+     * interface or {@link org.springframework.core.annotation.Order} annotation.
+     *
+     * @param interceptors the interceptors; {@code null} or empty list
+     *        removes all interceptors
+     */
+    @Autowired(required = false)
+    public void setInterceptors(
+            final List<? extends DispatchInterceptor> interceptors) {
+        this.interceptors = DispatchInterceptors.compile(interceptors);
+    }
+
+    /**
+     * Gets the number of handlers registered per event type, including
+     * handlers of primitive-specialized events. Unlike the rest of this class,
+     * this method may be called from any thread: counts are kept in
+     * a snapshot replaced whenever a handler is added or removed.
+     *
+     * @return unmodifiable map of the number of handlers per event type
+     */
+    public Map<Class<? extends Event>, Integer> getHandlerCounts() {
+        return handlerCounts;
+    }
+
+    private void countHandlers(final Class<? extends Event> type,
+            final int delta) {
+        if (delta == 0) {
+            return;
+        }
+        final Map<Class<? extends Event>, Integer> counts =
+                new LinkedHashMap<Class<? extends Event>, Integer>(handlerCounts);
+        final Integer current = counts.get(type);
+        final int count = (current == null ? 0 : current) + delta;
+        if (count == 0) {
+            counts.remove(type);
+        } else {
+            counts.put(type, count);
+        }
+        handlerCounts = Collections.unmodifiableMap(counts);
+    }
+
     private <E extends Event, H extends Event.Handler<E>>
             void doAdd(final Class<E> type, final H handler) {
         if (type == null) {
@@ -77,12 +225,16 @@ public final class SimpleEventBus implements HasEventHandlers {
             dispatchers.put(type, handlers);
         }
         handlers.add(handler);
+        countHandlers(type, 1);
     }
 
     private <E extends Event, H extends Event.Handler<E>>
             void doRemove(final Class<E> type, final H handler) {
         final List<H> handlers = getHandlers(type);
         final boolean removed = handlers.remove(handler);
+        if (removed) {
+            countHandlers(type, -1);
+        }
         if (removed && handlers.isEmpty()) {
             dispatchers.remove(type);
         }
@@ -93,10 +245,104 @@ public final class SimpleEventBus implements HasEventHandlers {
         if (event == null) {
             throw new IllegalArgumentException("Event must not be null");
         }
+        final DispatchInterceptor[] chain = interceptors;
+        if (chain.length != 0) {
+            doPublish(event, chain);
+            return;
+        }
         final List<H> handlers = getHandlers(event.getClass());
         for (final H handler : handlers) {
             event.dispatch(handler);
         }
+        doPublishValue(event);
+    }
+
+    private <H extends Event.Handler<Event>> void doPublish(final Event event,
+            final DispatchInterceptor[] chain) {
+        DispatchInterceptors.beforePublish(chain, event);
+        Throwable failure = null;
+        try {
+            final List<H> handlers = getHandlers(event.getClass());
+            for (final H handler : handlers) {
+                DispatchInterceptors.dispatch(chain, event, handler);
+            }
+            doPublishValue(event);
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            DispatchInterceptors.afterPublish(chain, event, failure);
+        }
+    }
+
+    private void doPublishValue(final Event event) {
+        if (event instanceof LongEvent) {
+            doPublish(getLongHandlers(event.getClass()),
+                    ((LongEvent) event).getValue());
+        } else if (event instanceof DoubleEvent) {
+            doPublish(getDoubleHandlers(event.getClass()),
+                    ((DoubleEvent) event).getValue());
+        }
+    }
+
+    private static void doPublish(final LongEventHandler[] handlers,
+            final long value) {
+        for (int i = 0; i < handlers.length; i++) {
+            handlers[i].handleEvent(value);
+        }
+    }
+
+    private static void doPublish(final DoubleEventHandler[] handlers,
+            final double value) {
+        for (int i = 0; i < handlers.length; i++) {
+            handlers[i].handleEvent(value);
+        }
+    }
+
+    private static void checkRegistration(final Class<?> type,
+            final Object handler) {
+        if (type == null) {
+            throw new IllegalArgumentException("Event type is required");
+        }
+        if (handler == null) {
+            throw new IllegalArgumentException("Event handler is required");
+        }
+    }
+
+    private LongEventHandler[] getLongHandlers(
+            final Class<? extends Event> type) {
+        final LongEventHandler[] handlers = longDispatchers.get(type);
+        if (handlers == null) {
+            return NO_LONG_HANDLERS;
+        }
+        return handlers;
+    }
+
+    private DoubleEventHandler[] getDoubleHandlers(
+            final Class<? extends Event> type) {
+        final DoubleEventHandler[] handlers = doubleDispatchers.get(type);
+        if (handlers == null) {
+            return NO_DOUBLE_HANDLERS;
+        }
+        return handlers;
+    }
+
+    private static <T> T[] append(final T[] handlers, final T handler) {
+        final T[] result = Arrays.copyOf(handlers, handlers.length + 1);
+        result[handlers.length] = handler;
+        return result;
+    }
+
+    private static <T> T[] remove(final T[] handlers, final T handler) {
+        for (int i = 0; i < handlers.length; i++) {
+            if (handlers[i].equals(handler)) {
+                final T[] result = Arrays.copyOf(handlers, handlers.length - 1);
+                System.arraycopy(handlers, i + 1, result, i,
+                        handlers.length - i - 1);
+                return result;
+            }
+        }
+        return handlers;
     }
 
     private <H extends Event.Handler<? extends Event>> List<H>
@@ -76,11 +76,24 @@ public final class ThreadSafePublisher implements HasBroadcastEventHandlers {
     @Override
     public <H extends Handler<? extends Event>> HandlerRegistration addHandler(
             final H handler) {
+        final HandlerRegistration registration;
         try {
             lock.writeLock().lock();
-            return delegate.addHandler(handler);
+            registration = delegate.addHandler(handler);
         } finally {
             lock.writeLock().unlock();
         }
+        return new HandlerRegistration() {
+
+            @Override
+            public void removeHandler() {
+                try {
+                    lock.writeLock().lock();
+                    registration.removeHandler();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        };
     }
 }
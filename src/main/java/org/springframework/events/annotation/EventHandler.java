@@ -51,4 +51,26 @@ import java.lang.annotation.Target;
 @Target(ElementType.METHOD)
 public @interface EventHandler {
 
+    /**
+     * Name of durable subscription the method is registered under. Durable
+     * handler methods receive journaled events of their parameter type,
+     * resuming after restart from the last checkpointed event, and are
+     * registered with {@link org.springframework.events.journal.DurableSubscriptions}
+     * rather than with the event publisher. Empty by default, which stands
+     * for an ordinary handler method.
+     */
+    String durable() default "";
+
+    /**
+     * Filters on properties of the event, such as {@code region=EU} or
+     * {@code amount>=100}, in the syntax of
+     * {@link org.springframework.events.filter.AttributeFilter#parse(String)}.
+     * Filtered handler methods receive only events matching all filters and
+     * are registered with
+     * {@link org.springframework.events.filter.FilteringEventBus} rather than
+     * with the event publisher. Empty by default, which stands for an
+     * unfiltered handler method. Filtered methods can not be durable.
+     */
+    String[] filter() default {};
+
 }
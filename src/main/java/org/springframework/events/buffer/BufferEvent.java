@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import org.springframework.events.Event;
+
+/**
+ * Base class for events carrying binary payload held in {@link ByteBuffer}.
+ * The payload is typically a slice of direct buffer obtained from a
+ * {@link BufferPool}, so it can be published without copying into heap arrays.
+ * <p>
+ * Each handler obtains its own read-only view of the payload through
+ * {@link #getPayload()}; views share the content but not position and limit,
+ * so handlers do not interfere with one another.
+ * <p>
+ * The buffer is reference counted. Newly created event holds a single
+ * reference owned by the publisher, who releases it once {@code publish}
+ * returns. Handlers that keep the payload beyond {@code handleEvent} must
+ * {@link #retain()} the event and {@link #release()} it when done. The buffer
+ * goes back to the pool when the last reference is released.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see BufferPool
+ */
+public abstract class BufferEvent extends Event.AbstractEvent {
+
+    private static final AtomicIntegerFieldUpdater<BufferEvent> REFERENCES =
+        AtomicIntegerFieldUpdater.newUpdater(BufferEvent.class, "references");
+
+    private final ByteBuffer buffer;
+
+    private final ByteBuffer payload;
+
+    private final BufferPool pool;
+
+    private volatile int references = 1;
+
+    /**
+     * Constructs event with payload that is not pooled. Releasing the last
+     * reference just makes the payload inaccessible.
+     *
+     * @param payload the payload; content between its position and limit
+     *        is carried by this event
+     */
+    protected BufferEvent(final ByteBuffer payload) {
+        this(payload, null);
+    }
+
+    /**
+     * Constructs event with pooled payload. Content between position and limit
+     * of the buffer is carried by this event; the whole buffer is given back
+     * to the pool when the last reference is released.
+     *
+     * @param buffer the buffer obtained from the pool
+     * @param pool the pool buffer is given back to; may be {@code null}
+     *        if the buffer is not pooled
+     */
+    protected BufferEvent(final ByteBuffer buffer, final BufferPool pool) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("Payload is required");
+        }
+        this.buffer = buffer;
+        this.payload = buffer.slice();
+        this.pool = pool;
+    }
+
+    /**
+     * Gets read-only view of the payload. The view is positioned at the
+     * beginning of the payload and content is not copied.
+     *
+     * @return read-only view of the payload
+     * @throws IllegalStateException if the event has already been released
+     */
+    public final ByteBuffer getPayload() {
+        if (references <= 0) {
+            throw new IllegalStateException("Event has already been released");
+        }
+        return payload.asReadOnlyBuffer();
+    }
+
+    /**
+     * Gets the size of the payload in bytes.
+     *
+     * @return the size of the payload
+     */
+    public final int getPayloadSize() {
+        return payload.remaining();
+    }
+
+    /**
+     * Gets current number of references to this event.
+     *
+     * @return the number of references
+     */
+    public final int getReferenceCount() {
+        return references;
+    }
+
+    /**
+     * Acquires additional reference to this event.
+     *
+     * @return this event
+     * @throws IllegalStateException if the event has already been released
+     */
+    public final BufferEvent retain() {
+        for (;;) {
+            final int current = references;
+            if (current <= 0) {
+                throw new IllegalStateException("Event has already been released");
+            }
+            if (REFERENCES.compareAndSet(this, current, current + 1)) {
+                return this;
+            }
+        }
+    }
+
+    /**
+     * Releases one reference to this event. The buffer is given back to the
+     * pool when the last reference is released.
+     *
+     * @return {@code true} if the last reference has been released
+     * @throws IllegalStateException if the event has already been released
+     */
+    public final boolean release() {
+        for (;;) {
+            final int current = references;
+            if (current <= 0) {
+                throw new IllegalStateException("Event has already been released");
+            }
+            if (REFERENCES.compareAndSet(this, current, current - 1)) {
+                if (current == 1) {
+                    deallocate();
+                    return true;
+                }
+                return false;
+            }
+        }
+    }
+
+    private void deallocate() {
+        if (pool != null) {
+            pool.release(buffer);
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.buffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Source of reusable {@link ByteBuffer} objects used as payload of
+ * {@link BufferEvent}. Buffers obtained from the pool are given back to it
+ * when the last reference to event holding them is released.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see BufferEvent
+ * @see DirectBufferPool
+ */
+public interface BufferPool {
+
+    /**
+     * Acquires buffer able to hold at least the given number of bytes.
+     * Returned buffer is cleared and its limit is set to requested capacity.
+     *
+     * @param capacity the minimum number of bytes the buffer must hold
+     * @return buffer ready to be written
+     */
+    ByteBuffer acquire(int capacity);
+
+    /**
+     * Gives the buffer back to the pool. Buffer must not be used by the caller
+     * after it has been released.
+     *
+     * @param buffer buffer previously obtained from {@link #acquire(int)}
+     */
+    void release(ByteBuffer buffer);
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Thread-safe {@link BufferPool} of direct buffers. Buffers are pooled in
+ * power-of-two size classes between minimum and maximum capacity; each class
+ * retains a bounded number of idle buffers. Requests exceeding the maximum
+ * capacity are served with unpooled buffers which are left to the garbage
+ * collector on release.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see BufferPool
+ */
+public final class DirectBufferPool implements BufferPool {
+
+    private static final int MAX_POOLED_CAPACITY = 1 << 30;
+
+    private final int minShift;
+
+    private final int maxShift;
+
+    private final int maxIdlePerClass;
+
+    private final Queue<ByteBuffer>[] pools;
+
+    private final AtomicIntegerArray idle;
+
+    /**
+     * Constructs pool serving buffers between 1KB and 64KB and keeping at
+     * most 64 idle buffers of each size.
+     */
+    public DirectBufferPool() {
+        this(1024, 64 * 1024, 64);
+    }
+
+    /**
+     * Constructs pool with the given size classes. Capacities are rounded up
+     * to the nearest power of two.
+     *
+     * @param minCapacity capacity of the smallest pooled buffer
+     * @param maxCapacity capacity of the largest pooled buffer
+     * @param maxIdlePerClass maximum number of idle buffers kept per size class
+     */
+    public DirectBufferPool(final int minCapacity, final int maxCapacity,
+            final int maxIdlePerClass) {
+        if (minCapacity <= 0 || maxCapacity < minCapacity
+                || maxCapacity > MAX_POOLED_CAPACITY) {
+            throw new IllegalArgumentException("Invalid buffer capacity range");
+        }
+        if (maxIdlePerClass < 0) {
+            throw new IllegalArgumentException(
+                    "Maximum number of idle buffers must not be negative");
+        }
+        this.minShift = shiftFor(minCapacity);
+        this.maxShift = shiftFor(maxCapacity);
+        this.maxIdlePerClass = maxIdlePerClass;
+        @SuppressWarnings("unchecked")
+        final Queue<ByteBuffer>[] queues =
+                (Queue<ByteBuffer>[]) new Queue<?>[maxShift - minShift + 1];
+        this.pools = queues;
+        for (int i = 0; i < pools.length; i++) {
+            pools[i] = new ConcurrentLinkedQueue<ByteBuffer>();
+        }
+        this.idle = new AtomicIntegerArray(pools.length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ByteBuffer acquire(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative");
+        }
+        final int shift = Math.max(shiftFor(capacity), minShift);
+        if (shift > maxShift) {
+            return ByteBuffer.allocateDirect(capacity);
+        }
+        final int index = shift - minShift;
+        ByteBuffer buffer = pools[index].poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(1 << shift);
+        } else {
+            idle.decrementAndGet(index);
+            buffer.clear();
+        }
+        buffer.limit(capacity);
+        return buffer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void release(final ByteBuffer buffer) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("Buffer is required");
+        }
+        final int capacity = buffer.capacity();
+        if (!buffer.isDirect() || Integer.bitCount(capacity) != 1) {
+            return;
+        }
+        final int shift = Integer.numberOfTrailingZeros(capacity);
+        if (shift < minShift || shift > maxShift) {
+            return;
+        }
+        final int index = shift - minShift;
+        if (idle.incrementAndGet(index) > maxIdlePerClass) {
+            idle.decrementAndGet(index);
+            return;
+        }
+        pools[index].offer(buffer);
+    }
+
+    /**
+     * Gets number of idle buffers currently kept by this pool.
+     *
+     * @return number of idle buffers
+     */
+    public int getIdleCount() {
+        int count = 0;
+        for (int i = 0; i < idle.length(); i++) {
+            count += idle.get(i);
+        }
+        return count;
+    }
+
+    private static int shiftFor(final int capacity) {
+        if (capacity <= 1) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1);
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.cache;
+
+/**
+ * Optional interface of events describing state of one of many entities,
+ * such as price of an instrument. The latest sticky event is then kept for
+ * every key rather than for the event type, and queued events are conflated
+ * per key.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see LastValueEventBus
+ * @see org.springframework.events.queue.ConflatingEventQueue
+ */
+public interface Keyed {
+
+    /**
+     * Gets key of the entity the event describes.
+     *
+     * @return not-{@code null} key, with proper {@code equals} and
+     *         {@code hashCode} methods
+     */
+    Object getEventKey();
+
+}
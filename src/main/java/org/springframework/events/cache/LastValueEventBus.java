@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.events.Event;
+import org.springframework.events.HandlerRegistration;
+import org.springframework.events.HasEventHandlers;
+import org.springframework.events.annotation.Sticky;
+
+/**
+ * Last-value caching adapter for {@link HasEventHandlers} interface. The
+ * latest published event of every sticky type is kept, or the latest event
+ * per key for events implementing {@link Keyed}, and delivered to handlers of
+ * that type as soon as they are added. Event types are sticky if they are
+ * annotated with {@link Sticky} or are assignable to one of configured types;
+ * other events are passed to the delegate only.
+ * <p>
+ * Cached events are delivered on the thread adding the handler, after the
+ * handler is added to the delegate, so no later event is missed; an event
+ * published concurrently may be received twice.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see Keyed
+ */
+public final class LastValueEventBus implements HasEventHandlers {
+
+    private final HasEventHandlers delegate;
+
+    private final ConcurrentMap<Class<?>, Boolean> sticky =
+        new ConcurrentHashMap<Class<?>, Boolean>();
+
+    private final ConcurrentMap<Class<?>, LastValues> cache =
+        new ConcurrentHashMap<Class<?>, LastValues>();
+
+    private volatile Set<Class<?>> stickyTypes = Collections.emptySet();
+
+    /**
+     * Constructs {@link LastValueEventBus} with delegate
+     * {@link HasEventHandlers} instance.
+     *
+     * @param delegate
+     *            not-{@code null} reference to the delegate
+     *            {@link HasEventHandlers}
+     */
+    public LastValueEventBus(final HasEventHandlers delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate must not be null");
+        }
+        this.delegate = delegate;
+    }
+
+    /**
+     * Sets sticky event types in addition to those annotated with
+     * {@link Sticky}. Subtypes of the given types are sticky as well.
+     *
+     * @param types the event types
+     */
+    public void setStickyTypes(final Collection<Class<? extends Event>> types) {
+        stickyTypes = new HashSet<Class<?>>(types);
+        sticky.clear();
+    }
+
+    /**
+     * Checks if the latest event of the given type is kept.
+     *
+     * @param type the event type
+     * @return {@code true} if the event type is sticky
+     */
+    public boolean isSticky(final Class<? extends Event> type) {
+        Boolean result = sticky.get(type);
+        if (result == null) {
+            result = AnnotationUtils.findAnnotation(type, Sticky.class) != null;
+            for (final Class<?> stickyType : stickyTypes) {
+                result |= stickyType.isAssignableFrom(type);
+            }
+            sticky.put(type, result);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the latest event of the given type without a key.
+     *
+     * @param <E> the event type
+     * @param type the event type
+     * @return the event, or {@code null} if there is none
+     */
+    public <E extends Event> E getLastEvent(final Class<E> type) {
+        final LastValues values = cache.get(type);
+        return values == null ? null : type.cast(values.last);
+    }
+
+    /**
+     * Gets the latest event of the given type and key.
+     *
+     * @param <E> the event type
+     * @param type the event type
+     * @param key the key
+     * @return the event, or {@code null} if there is none
+     */
+    public <E extends Event> E getLastEvent(final Class<E> type, final Object key) {
+        final LastValues values = cache.get(type);
+        return values == null ? null : type.cast(values.keyed.get(key));
+    }
+
+    /**
+     * Removes all kept events.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(final Event event) {
+        if (event != null && isSticky(event.getClass())) {
+            remember(event);
+        }
+        delegate.publish(event);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E extends Event, H extends Event.Handler<E>> HandlerRegistration
+            addHandler(final Class<E> type, final H handler) {
+        final HandlerRegistration registration = delegate.addHandler(type, handler);
+        final LastValues values = cache.get(type);
+        if (values != null) {
+            values.replay(handler);
+        }
+        return registration;
+    }
+
+    private void remember(final Event event) {
+        LastValues values = cache.get(event.getClass());
+        if (values == null) {
+            final LastValues created = new LastValues();
+            values = cache.putIfAbsent(event.getClass(), created);
+            if (values == null) {
+                values = created;
+            }
+        }
+        if (event instanceof Keyed) {
+            final Object key = ((Keyed) event).getEventKey();
+            if (key == null) {
+                throw new IllegalArgumentException("Event key must not be null");
+            }
+            values.keyed.put(key, event);
+        } else {
+            values.last = event;
+        }
+    }
+
+    /**
+     * Latest events of one type, without a key and per key.
+     */
+    private static final class LastValues {
+
+        private final ConcurrentMap<Object, Event> keyed =
+            new ConcurrentHashMap<Object, Event>(4);
+
+        private volatile Event last;
+
+        @SuppressWarnings("unchecked")
+        <E extends Event> void replay(final Event.Handler<E> handler) {
+            final Event.Handler<Event> target = (Event.Handler<Event>) handler;
+            for (final Event event : keyed.values()) {
+                event.dispatch(target);
+            }
+            final Event event = last;
+            if (event != null) {
+                event.dispatch(target);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.codec;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Primitives of the binary format used by {@link TaggedBinaryCodec}: variable
+ * length integers, zig-zag encoding of signed values and UTF-8 strings, all
+ * written to and read from {@link ByteBuffer} directly.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+final class BinaryFormat {
+
+    static final int VARINT = 0;
+
+    static final int FIXED64 = 1;
+
+    static final int LENGTH_DELIMITED = 2;
+
+    static final int FIXED32 = 5;
+
+    private BinaryFormat() {
+    }
+
+    static void writeVarint(final ByteBuffer target, final long value) {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            target.put((byte) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        target.put((byte) remaining);
+    }
+
+    static long readVarint(final ByteBuffer source) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = source.get();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes string as its UTF-8 length followed by UTF-8 bytes, encoding
+     * characters straight into the buffer.
+     */
+    static void writeString(final ByteBuffer target, final String value) {
+        final int length = value.length();
+        int utf8Length = length;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c >= 0x800) {
+                utf8Length += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                utf8Length++;
+            }
+        }
+        writeVarint(target, utf8Length);
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                target.put((byte) c);
+            } else if (c < 0x800) {
+                target.put((byte) (0xC0 | c >> 6));
+                target.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                target.put((byte) (0xF0 | codePoint >> 18));
+                target.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                target.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                target.put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogate, counted as two bytes above
+                target.put((byte) '?');
+                target.put((byte) '?');
+            } else {
+                target.put((byte) (0xE0 | c >> 12));
+                target.put((byte) (0x80 | c >> 6 & 0x3F));
+                target.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    static String readString(final ByteBuffer source) {
+        final int utf8Length = readLength(source);
+        final int end = source.position() + utf8Length;
+        final char[] chars = new char[utf8Length];
+        int count = 0;
+        while (source.position() < end) {
+            final int b = source.get();
+            if (b >= 0) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[count++] = (char) ((b & 0x1F) << 6 | source.get() & 0x3F);
+            } else if ((b & 0xF0) == 0xE0) {
+                chars[count++] = (char) ((b & 0x0F) << 12
+                        | (source.get() & 0x3F) << 6 | source.get() & 0x3F);
+            } else {
+                final int codePoint = (b & 0x07) << 18 | (source.get() & 0x3F) << 12
+                        | (source.get() & 0x3F) << 6 | source.get() & 0x3F;
+                count += Character.toChars(codePoint, chars, count);
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    static int readLength(final ByteBuffer source) {
+        final long length = readVarint(source);
+        if (length < 0 || length > source.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        return (int) length;
+    }
+
+    /**
+     * Skips value of the given wire type.
+     */
+    static void skip(final ByteBuffer source, final int wireType) {
+        switch (wireType) {
+        case VARINT:
+            readVarint(source);
+            break;
+        case FIXED64:
+            source.position(source.position() + 8);
+            break;
+        case LENGTH_DELIMITED:
+            final int length = readLength(source);
+            source.position(source.position() + length);
+            break;
+        case FIXED32:
+            source.position(source.position() + 4);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown wire type " + wireType);
+        }
+    }
+
+}
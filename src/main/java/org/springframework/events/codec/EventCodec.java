@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.codec;
+
+import java.nio.ByteBuffer;
+
+import org.springframework.events.Event;
+
+/**
+ * Strategy for converting {@link Event} objects to and from binary form.
+ * Codecs write directly into and read directly from {@link ByteBuffer}
+ * objects, so that events can be stored off-heap without intermediate
+ * arrays.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see SerializationCodec
+ */
+public interface EventCodec {
+
+    /**
+     * Encodes event into the buffer starting at its current position. The
+     * position is advanced past the encoded content.
+     *
+     * @param event the event to be encoded
+     * @param target the buffer to write to
+     * @throws java.nio.BufferOverflowException if the remaining space of the
+     *         buffer is not sufficient to hold encoded event
+     * @throws IllegalArgumentException if the event is not supported
+     */
+    void encode(Event event, ByteBuffer target);
+
+    /**
+     * Decodes event from the buffer. All content between position and limit
+     * of the buffer belongs to a single event.
+     *
+     * @param source the buffer to read from
+     * @return decoded event
+     * @throws IllegalArgumentException if the content can not be decoded
+     */
+    Event decode(ByteBuffer source);
+
+}
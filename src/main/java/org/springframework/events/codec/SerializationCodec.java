@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.events.Event;
+
+/**
+ * {@link EventCodec} based on standard Java serialization. Applicable to any
+ * {@link Event} implementing {@link Serializable}. Serialized form is streamed
+ * straight into the target buffer.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see EventCodec
+ */
+public final class SerializationCodec implements EventCodec {
+
+    private final ClassLoader classLoader;
+
+    /**
+     * Constructs codec resolving classes the way standard Java serialization
+     * does.
+     */
+    public SerializationCodec() {
+        this(null);
+    }
+
+    /**
+     * Constructs codec resolving classes with the given class loader.
+     *
+     * @param classLoader class loader used to resolve classes of decoded
+     *        events; {@code null} stands for standard resolution
+     */
+    public SerializationCodec(final ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void encode(final Event event, final ByteBuffer target) {
+        if (!(event instanceof Serializable)) {
+            throw new IllegalArgumentException("Event is not serializable");
+        }
+        try {
+            final ObjectOutputStream out =
+                    new ObjectOutputStream(new BufferOutputStream(target));
+            out.writeObject(event);
+            out.flush();
+        } catch (NotSerializableException e) {
+            throw new IllegalArgumentException("Event is not serializable", e);
+        } catch (IOException e) {
+            throw new IllegalStateException("Event serialization failed", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Event decode(final ByteBuffer source) {
+        try {
+            final ObjectInputStream in = new ConfigurableObjectInputStream(
+                    new BufferInputStream(source), classLoader);
+            return (Event) in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unknown event type", e);
+        } catch (ClassCastException e) {
+            throw new IllegalArgumentException("Not an event", e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed event", e);
+        }
+    }
+
+    /**
+     * {@link OutputStream} writing to {@link ByteBuffer}. Running out of
+     * space results in {@link java.nio.BufferOverflowException}.
+     */
+    private static final class BufferOutputStream extends OutputStream {
+
+        private final ByteBuffer target;
+
+        BufferOutputStream(final ByteBuffer target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(final int b) {
+            target.put((byte) b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            target.put(b, off, len);
+        }
+    }
+
+    /**
+     * {@link InputStream} reading from {@link ByteBuffer}.
+     */
+    private static final class BufferInputStream extends InputStream {
+
+        private final ByteBuffer source;
+
+        BufferInputStream(final ByteBuffer source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read() {
+            if (!source.hasRemaining()) {
+                return -1;
+            }
+            return source.get() & 0xff;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!source.hasRemaining()) {
+                return -1;
+            }
+            final int count = Math.min(len, source.remaining());
+            source.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return source.remaining();
+        }
+    }
+
+}
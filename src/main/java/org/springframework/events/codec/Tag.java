@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.codec;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to be placed on event fields encoded by {@link TaggedBinaryCodec}.
+ * Fields are identified in the binary form by their tags rather than names or
+ * positions, so that fields may be added, removed or reordered without
+ * breaking compatibility with data encoded earlier, as long as tags of
+ * removed fields are not reused.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see TaggedBinaryCodec
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Tag {
+
+    /**
+     * Tag of the field, unique within event class hierarchy, from {@code 1}
+     * to {@link TaggedBinaryCodec#MAX_TAG}.
+     */
+    int value();
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.codec;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.events.Event;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Compact {@link EventCodec} encoding fields annotated with {@link Tag}.
+ * Every field is written as its tag and wire type followed by the value:
+ * integers as zig-zag variable length numbers, floating point numbers in fixed
+ * width, strings, byte arrays and enum constant names prefixed with their
+ * length. Fields without {@link Tag} annotation and {@code null} values are
+ * not written. Supported field types are primitives, their wrappers,
+ * {@link String}, {@code byte[]} and enums.
+ * <p>
+ * Schema evolution is supported by tags: decoding skips fields with unknown
+ * tags or changed wire types, and fields missing from the binary form keep
+ * values assigned by the no-argument constructor of the event class, or
+ * default values if there is no such constructor.
+ * <p>
+ * An encoded event starts with its type identifier. Event classes may be
+ * registered with compact numeric identifiers with {@link #register(Class, int)};
+ * other classes are identified by their names. Serializers of event classes
+ * are built on first use and cached. Events are written straight into the
+ * target buffer, without intermediate arrays.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see Tag
+ * @see EventCodec
+ */
+public final class TaggedBinaryCodec implements EventCodec {
+
+    /**
+     * Maximum value of a field tag.
+     */
+    public static final int MAX_TAG = (1 << 28) - 1;
+
+    private final ClassLoader classLoader;
+
+    private final ConcurrentMap<Class<?>, TaggedSerializer> serializers =
+        new ConcurrentHashMap<Class<?>, TaggedSerializer>();
+
+    private final ConcurrentMap<Class<?>, Integer> typeIds =
+        new ConcurrentHashMap<Class<?>, Integer>();
+
+    private final ConcurrentMap<Integer, Class<?>> types =
+        new ConcurrentHashMap<Integer, Class<?>>();
+
+    private final ConcurrentMap<String, Class<?>> typesByName =
+        new ConcurrentHashMap<String, Class<?>>();
+
+    /**
+     * Constructs codec resolving event classes with the default class loader.
+     */
+    public TaggedBinaryCodec() {
+        this(ClassUtils.getDefaultClassLoader());
+    }
+
+    /**
+     * Constructs codec resolving event classes with the given class loader.
+     *
+     * @param classLoader class loader used to resolve classes of decoded events
+     */
+    public TaggedBinaryCodec(final ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Registers numeric identifier of an event class, written instead of
+     * the class name. Encoding and decoding sides must register the same
+     * identifiers.
+     *
+     * @param type the event class
+     * @param id the identifier, positive
+     * @throws IllegalArgumentException if the identifier is not positive or is
+     *         already registered for another class
+     */
+    public void register(final Class<? extends Event> type, final int id) {
+        if (type == null) {
+            throw new IllegalArgumentException("Event type must not be null");
+        }
+        if (id <= 0) {
+            throw new IllegalArgumentException("Type identifier must be positive");
+        }
+        final Class<?> registered = types.putIfAbsent(id, type);
+        if (registered != null && registered != type) {
+            throw new IllegalArgumentException("Type identifier " + id
+                    + " already registered for " + registered);
+        }
+        typeIds.put(type, id);
+        getSerializer(type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void encode(final Event event, final ByteBuffer target) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event must not be null");
+        }
+        final Class<?> type = event.getClass();
+        final Integer id = typeIds.get(type);
+        if (id != null) {
+            BinaryFormat.writeVarint(target, id);
+        } else {
+            BinaryFormat.writeVarint(target, 0);
+            BinaryFormat.writeString(target, type.getName());
+        }
+        getSerializer(type).write(event, target);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Event decode(final ByteBuffer source) {
+        try {
+            final Class<?> type = readType(source);
+            return (Event) getSerializer(type).read(source);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Malformed event", e);
+        }
+    }
+
+    private Class<?> readType(final ByteBuffer source) {
+        final int id = (int) BinaryFormat.readVarint(source);
+        if (id != 0) {
+            final Class<?> type = types.get(id);
+            if (type == null) {
+                throw new IllegalArgumentException("Unknown type identifier " + id);
+            }
+            return type;
+        }
+        final String name = BinaryFormat.readString(source);
+        Class<?> type = typesByName.get(name);
+        if (type == null) {
+            try {
+                type = ClassUtils.forName(name, classLoader);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("Unknown event type", e);
+            } catch (LinkageError e) {
+                throw new IllegalArgumentException("Unknown event type", e);
+            }
+            if (!Event.class.isAssignableFrom(type)) {
+                throw new IllegalArgumentException("Not an event");
+            }
+            typesByName.put(name, type);
+        }
+        return type;
+    }
+
+    private TaggedSerializer getSerializer(final Class<?> type) {
+        TaggedSerializer serializer = serializers.get(type);
+        if (serializer == null) {
+            serializer = new TaggedSerializer(type);
+            final TaggedSerializer existing = serializers.putIfAbsent(type, serializer);
+            if (existing != null) {
+                serializer = existing;
+            }
+        }
+        return serializer;
+    }
+
+}
@@ -0,0 +1,407 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.codec;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.objenesis.Objenesis;
+import org.springframework.objenesis.ObjenesisStd;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Serializer of a single event class, built by {@link TaggedBinaryCodec} on
+ * first use of the class. Tagged fields are resolved once and kept sorted by
+ * tag; encoding and decoding then only walk the field array.
+ * <p>
+ * Decoded events are instantiated with the no-argument constructor if there
+ * is one, so that fields missing from the binary form keep their initial
+ * values, and without calling any constructor otherwise.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+final class TaggedSerializer {
+
+    private static final Objenesis OBJENESIS = new ObjenesisStd(true);
+
+    private final Class<?> type;
+
+    private final Constructor<?> constructor;
+
+    private final FieldCodec[] fields;
+
+    TaggedSerializer(final Class<?> type) {
+        this.type = type;
+        this.constructor = findConstructor(type);
+        this.fields = findFields(type);
+    }
+
+    void write(final Object event, final ByteBuffer target) {
+        try {
+            for (final FieldCodec field : fields) {
+                field.write(event, target);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        BinaryFormat.writeVarint(target, 0);
+    }
+
+    Object read(final ByteBuffer source) {
+        final Object event = instantiate();
+        try {
+            long key;
+            while ((key = BinaryFormat.readVarint(source)) != 0) {
+                final int tag = (int) (key >>> 3);
+                final int wireType = (int) (key & 0x7);
+                final FieldCodec field = find(tag);
+                if (field != null && field.wireType == wireType) {
+                    field.read(event, source);
+                } else {
+                    BinaryFormat.skip(source, wireType);
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        return event;
+    }
+
+    private FieldCodec find(final int tag) {
+        int low = 0;
+        int high = fields.length - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final int current = fields[middle].tag;
+            if (current < tag) {
+                low = middle + 1;
+            } else if (current > tag) {
+                high = middle - 1;
+            } else {
+                return fields[middle];
+            }
+        }
+        return null;
+    }
+
+    private Object instantiate() {
+        if (constructor == null) {
+            return OBJENESIS.newInstance(type);
+        }
+        try {
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Can not instantiate " + type, e);
+        }
+    }
+
+    private static Constructor<?> findConstructor(final Class<?> type) {
+        try {
+            final Constructor<?> constructor = type.getDeclaredConstructor();
+            ReflectionUtils.makeAccessible(constructor);
+            return constructor;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static FieldCodec[] findFields(final Class<?> type) {
+        final List<FieldCodec> result = new ArrayList<FieldCodec>();
+        for (Class<?> current = type; current != Object.class;
+                current = current.getSuperclass()) {
+            for (final Field field : current.getDeclaredFields()) {
+                final Tag tag = field.getAnnotation(Tag.class);
+                if (tag == null) {
+                    continue;
+                }
+                if (Modifier.isStatic(field.getModifiers())) {
+                    throw new IllegalArgumentException("Static field " + field
+                            + " can not be tagged");
+                }
+                if (tag.value() < 1 || tag.value() > TaggedBinaryCodec.MAX_TAG) {
+                    throw new IllegalArgumentException("Tag of field " + field
+                            + " out of range");
+                }
+                ReflectionUtils.makeAccessible(field);
+                result.add(new FieldCodec(field, tag.value()));
+            }
+        }
+        final FieldCodec[] fields = result.toArray(new FieldCodec[result.size()]);
+        Arrays.sort(fields, new Comparator<FieldCodec>() {
+
+            @Override
+            public int compare(final FieldCodec a, final FieldCodec b) {
+                return a.tag < b.tag ? -1 : a.tag == b.tag ? 0 : 1;
+            }
+        });
+        for (int i = 1; i < fields.length; i++) {
+            if (fields[i].tag == fields[i - 1].tag) {
+                throw new IllegalArgumentException("Duplicate tag "
+                        + fields[i].tag + " in " + type);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Kinds of supported fields.
+     */
+    private enum Kind {
+        BOOLEAN, BYTE, SHORT, CHAR, INT, LONG, FLOAT, DOUBLE, STRING, BYTES, ENUM
+    }
+
+    /**
+     * Encodes and decodes a single tagged field. Primitive fields are accessed
+     * without boxing, wrapper fields are omitted from the binary form when
+     * {@code null}.
+     */
+    private static final class FieldCodec {
+
+        private final Field field;
+
+        private final int tag;
+
+        private final Kind kind;
+
+        private final boolean primitive;
+
+        private final int wireType;
+
+        private final long key;
+
+        FieldCodec(final Field field, final int tag) {
+            this.field = field;
+            this.tag = tag;
+            final Class<?> type = field.getType();
+            this.primitive = type.isPrimitive();
+            this.kind = kindOf(type, field);
+            switch (kind) {
+            case FLOAT:
+                wireType = BinaryFormat.FIXED32;
+                break;
+            case DOUBLE:
+                wireType = BinaryFormat.FIXED64;
+                break;
+            case STRING:
+            case BYTES:
+            case ENUM:
+                wireType = BinaryFormat.LENGTH_DELIMITED;
+                break;
+            default:
+                wireType = BinaryFormat.VARINT;
+            }
+            this.key = (long) tag << 3 | wireType;
+        }
+
+        void write(final Object event, final ByteBuffer target)
+                throws IllegalAccessException {
+            if (primitive) {
+                BinaryFormat.writeVarint(target, key);
+                writePrimitive(event, target);
+                return;
+            }
+            final Object value = field.get(event);
+            if (value == null) {
+                return;
+            }
+            BinaryFormat.writeVarint(target, key);
+            switch (kind) {
+            case BOOLEAN:
+                BinaryFormat.writeVarint(target, (Boolean) value ? 1 : 0);
+                break;
+            case CHAR:
+                BinaryFormat.writeVarint(target, (Character) value);
+                break;
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                BinaryFormat.writeVarint(target,
+                        BinaryFormat.zigZag(((Number) value).longValue()));
+                break;
+            case FLOAT:
+                target.putFloat((Float) value);
+                break;
+            case DOUBLE:
+                target.putDouble((Double) value);
+                break;
+            case STRING:
+                BinaryFormat.writeString(target, (String) value);
+                break;
+            case BYTES:
+                final byte[] bytes = (byte[]) value;
+                BinaryFormat.writeVarint(target, bytes.length);
+                target.put(bytes);
+                break;
+            default:
+                BinaryFormat.writeString(target, ((Enum<?>) value).name());
+            }
+        }
+
+        private void writePrimitive(final Object event, final ByteBuffer target)
+                throws IllegalAccessException {
+            switch (kind) {
+            case BOOLEAN:
+                BinaryFormat.writeVarint(target, field.getBoolean(event) ? 1 : 0);
+                break;
+            case CHAR:
+                BinaryFormat.writeVarint(target, field.getChar(event));
+                break;
+            case FLOAT:
+                target.putFloat(field.getFloat(event));
+                break;
+            case DOUBLE:
+                target.putDouble(field.getDouble(event));
+                break;
+            default:
+                BinaryFormat.writeVarint(target,
+                        BinaryFormat.zigZag(field.getLong(event)));
+            }
+        }
+
+        void read(final Object event, final ByteBuffer source)
+                throws IllegalAccessException {
+            switch (kind) {
+            case BOOLEAN:
+                final boolean bool = BinaryFormat.readVarint(source) != 0;
+                if (primitive) {
+                    field.setBoolean(event, bool);
+                } else {
+                    field.set(event, bool);
+                }
+                break;
+            case CHAR:
+                final char c = (char) BinaryFormat.readVarint(source);
+                if (primitive) {
+                    field.setChar(event, c);
+                } else {
+                    field.set(event, c);
+                }
+                break;
+            case BYTE:
+                final byte b = (byte) readSigned(source);
+                if (primitive) {
+                    field.setByte(event, b);
+                } else {
+                    field.set(event, b);
+                }
+                break;
+            case SHORT:
+                final short s = (short) readSigned(source);
+                if (primitive) {
+                    field.setShort(event, s);
+                } else {
+                    field.set(event, s);
+                }
+                break;
+            case INT:
+                final int i = (int) readSigned(source);
+                if (primitive) {
+                    field.setInt(event, i);
+                } else {
+                    field.set(event, i);
+                }
+                break;
+            case LONG:
+                final long l = readSigned(source);
+                if (primitive) {
+                    field.setLong(event, l);
+                } else {
+                    field.set(event, l);
+                }
+                break;
+            case FLOAT:
+                final float f = source.getFloat();
+                if (primitive) {
+                    field.setFloat(event, f);
+                } else {
+                    field.set(event, f);
+                }
+                break;
+            case DOUBLE:
+                final double d = source.getDouble();
+                if (primitive) {
+                    field.setDouble(event, d);
+                } else {
+                    field.set(event, d);
+                }
+                break;
+            case STRING:
+                field.set(event, BinaryFormat.readString(source));
+                break;
+            case BYTES:
+                final byte[] bytes = new byte[BinaryFormat.readLength(source)];
+                source.get(bytes);
+                field.set(event, bytes);
+                break;
+            default:
+                field.set(event, readEnum(source));
+            }
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private Object readEnum(final ByteBuffer source) {
+            final String name = BinaryFormat.readString(source);
+            try {
+                return Enum.valueOf((Class) field.getType(), name);
+            } catch (IllegalArgumentException e) {
+                // constant removed in newer version of the event class
+                return null;
+            }
+        }
+
+        private static long readSigned(final ByteBuffer source) {
+            return BinaryFormat.unZigZag(BinaryFormat.readVarint(source));
+        }
+
+        private static Kind kindOf(final Class<?> type, final Field field) {
+            if (type == boolean.class || type == Boolean.class) {
+                return Kind.BOOLEAN;
+            } else if (type == byte.class || type == Byte.class) {
+                return Kind.BYTE;
+            } else if (type == short.class || type == Short.class) {
+                return Kind.SHORT;
+            } else if (type == char.class || type == Character.class) {
+                return Kind.CHAR;
+            } else if (type == int.class || type == Integer.class) {
+                return Kind.INT;
+            } else if (type == long.class || type == Long.class) {
+                return Kind.LONG;
+            } else if (type == float.class || type == Float.class) {
+                return Kind.FLOAT;
+            } else if (type == double.class || type == Double.class) {
+                return Kind.DOUBLE;
+            } else if (type == String.class) {
+                return Kind.STRING;
+            } else if (type == byte[].class) {
+                return Kind.BYTES;
+            } else if (type.isEnum()) {
+                return Kind.ENUM;
+            }
+            throw new IllegalArgumentException("Unsupported type of field " + field);
+        }
+    }
+
+}
@@ -17,25 +17,34 @@
 package org.springframework.events.context;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
 import org.springframework.events.HasBroadcastEventHandlers;
 import org.springframework.events.annotation.EventHandler;
+import org.springframework.events.filter.AttributeFilter;
+import org.springframework.events.filter.FilteringEventBus;
+import org.springframework.events.journal.DurableSubscriptions;
 import org.springframework.util.ReflectionUtils;
 
 import org.springframework.events.Event;
 import org.springframework.events.HandlerRegistration;
-import org.springframework.events.Event.Handler;
 
 /**
  * Spring post processor responsible for automatic detection of event handlers
  * based on methods. Any bean object that is managed by Spring that
  * has methods annotated with {@link org.springframework.events.annotation.EventHandler}
  * and accepting event type as parameter becomes {@link Event.Handler}.
+ * Methods declaring durable subscription are registered with
+ * {@link DurableSubscriptions} instead, and methods declaring filters with
+ * {@link FilteringEventBus}, which must then be available in the context.
  *
  * @author Robert Bala
  * @author Piotr Dyraga
@@ -48,8 +57,17 @@ public final class AnnotationEventHandlerPostProcessor implements
     @Autowired
     private HasBroadcastEventHandlers publisher;
 
-    private final Map<String, HandlerRegistration> adapters =
-        new HashMap<String, HandlerRegistration>();
+    @Autowired(required = false)
+    private DurableSubscriptions durableSubscriptions;
+
+    @Autowired(required = false)
+    private FilteringEventBus filteringEventBus;
+
+    private final Map<String, HandlerRegistration> registrations =
+        new ConcurrentHashMap<String, HandlerRegistration>();
+
+    private final Map<String, EventHandlerAdapter> adapters =
+        new ConcurrentHashMap<String, EventHandlerAdapter>();
 
     /**
      * {@inheritDoc}
@@ -79,7 +97,51 @@ public final class AnnotationEventHandlerPostProcessor implements
     @Override
     public void postProcessBeforeDestruction(final Object bean,
             final String beanName) throws BeansException {
-        adapters.get(beanName).removeHandler();
+        final HandlerRegistration registration = registrations.remove(beanName);
+        if (registration != null) {
+            adapters.remove(beanName);
+            registration.removeHandler();
+        }
+    }
+
+    /**
+     * Gets names of beans registered as event handlers.
+     *
+     * @return names of handler beans
+     */
+    public Set<String> getHandlerNames() {
+        return new TreeSet<String>(adapters.keySet());
+    }
+
+    /**
+     * Checks if handler bean of the given name is paused.
+     *
+     * @param beanName name of handler bean
+     * @return {@code true} if the handler is paused
+     * @throws IllegalArgumentException if there is no such handler bean
+     */
+    public boolean isPaused(final String beanName) {
+        return getAdapter(beanName).isPaused();
+    }
+
+    /**
+     * Pauses or resumes handler bean of the given name. Paused handler ignores
+     * published events.
+     *
+     * @param beanName name of handler bean
+     * @param paused whether the handler should ignore events
+     * @throws IllegalArgumentException if there is no such handler bean
+     */
+    public void setPaused(final String beanName, final boolean paused) {
+        getAdapter(beanName).setPaused(paused);
+    }
+
+    private EventHandlerAdapter getAdapter(final String beanName) {
+        final EventHandlerAdapter adapter = adapters.get(beanName);
+        if (adapter == null) {
+            throw new IllegalArgumentException("No event handler named " + beanName);
+        }
+        return adapter;
     }
 
     /**
@@ -92,12 +154,106 @@ public final class AnnotationEventHandlerPostProcessor implements
      * @return Spring's AOP proxy object.
      */
     private Object registerHandler(final Object bean, final String beanName) {
-        final Handler<Event> adapter = new EventHandlerAdapter(bean);
-        adapters.put(beanName, publisher.addHandler(adapter));
+        final EventHandlerAdapter adapter = new EventHandlerAdapter(bean);
+        final List<HandlerRegistration> beanRegistrations =
+            registerMethodHandlers(bean);
+        beanRegistrations.add(publisher.addHandler(adapter));
+        registrations.put(beanName, beanRegistrations.size() == 1
+                ? beanRegistrations.get(0) : composite(beanRegistrations));
+        adapters.put(beanName, adapter);
         return AdapterIntroductionInterceptor.createAdapterProxy(bean,
                 adapter, Event.Handler.class);
     }
 
+    /**
+     * Registers durable handler methods of the bean with
+     * {@link DurableSubscriptions} and filtered ones with
+     * {@link FilteringEventBus}. If any registration fails, those already
+     * made are removed.
+     *
+     * @param bean reference to the bean that was identified as event handler
+     * @return registrations of durable and filtered handler methods
+     */
+    private List<HandlerRegistration> registerMethodHandlers(final Object bean) {
+        final List<HandlerRegistration> result = new ArrayList<HandlerRegistration>();
+        try {
+            ReflectionUtils.doWithMethods(bean.getClass(),
+                    new ReflectionUtils.MethodCallback() {
+
+                        @Override
+                        public void doWith(final Method method) {
+                            final EventHandler annotation =
+                                    method.getAnnotation(EventHandler.class);
+                            if (annotation == null) {
+                                return;
+                            }
+                            if (annotation.filter().length != 0) {
+                                result.add(registerFilteredHandler(bean, method,
+                                        annotation));
+                            } else if (!annotation.durable().isEmpty()) {
+                                result.add(registerDurableHandler(bean, method,
+                                        annotation.durable()));
+                            }
+                        }
+                    });
+        } catch (RuntimeException e) {
+            composite(result).removeHandler();
+            throw e;
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private HandlerRegistration registerDurableHandler(final Object bean,
+            final Method method, final String name) {
+        if (durableSubscriptions == null) {
+            throw new IllegalStateException("Durable subscriptions are not "
+                    + "configured for handler " + method);
+        }
+        final Class<?>[] parameters = method.getParameterTypes();
+        if (parameters.length != 1 || !Event.class.isAssignableFrom(parameters[0])) {
+            throw new IllegalArgumentException("Ambiguous event handler");
+        }
+        return durableSubscriptions.addHandler(name,
+                (Class<Event>) parameters[0], new MethodEventHandler(bean, method));
+    }
+
+    @SuppressWarnings("unchecked")
+    private HandlerRegistration registerFilteredHandler(final Object bean,
+            final Method method, final EventHandler annotation) {
+        if (!annotation.durable().isEmpty()) {
+            throw new IllegalArgumentException("Durable handler can not be "
+                    + "filtered " + method);
+        }
+        if (filteringEventBus == null) {
+            throw new IllegalStateException("Filtering event bus is not "
+                    + "configured for handler " + method);
+        }
+        final Class<?>[] parameters = method.getParameterTypes();
+        if (parameters.length != 1 || !Event.class.isAssignableFrom(parameters[0])) {
+            throw new IllegalArgumentException("Ambiguous event handler");
+        }
+        final AttributeFilter[] filters = new AttributeFilter[annotation.filter().length];
+        for (int i = 0; i < filters.length; i++) {
+            filters[i] = AttributeFilter.parse(annotation.filter()[i]);
+        }
+        return filteringEventBus.addHandler((Class<Event>) parameters[0],
+                new MethodEventHandler(bean, method), filters);
+    }
+
+    private static HandlerRegistration composite(
+            final List<HandlerRegistration> registrations) {
+        return new HandlerRegistration() {
+
+            @Override
+            public void removeHandler() {
+                for (final HandlerRegistration registration : registrations) {
+                    registration.removeHandler();
+                }
+            }
+        };
+    }
+
     /**
      * Helper class that scans for methods annotated with
      * {@link org.springframework.events.annotation.EventHandler}.
@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.context;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.ApplicationEventMulticaster;
+import org.springframework.context.event.GenericApplicationListenerAdapter;
+import org.springframework.context.event.SmartApplicationListener;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+
+import org.springframework.events.AsyncPublisher;
+import org.springframework.events.Event;
+import org.springframework.events.EventBus;
+import org.springframework.events.queue.EventQueue;
+import org.springframework.events.queue.HeapEventQueue;
+
+/**
+ * {@link ApplicationEventMulticaster} dispatching Spring application events
+ * the way {@link org.springframework.events.SimpleEventBus} dispatches events:
+ * listeners supporting an event type are resolved once, kept in an ordered
+ * array per event type and invoked without further lookups. The arrays are
+ * rebuilt lazily after listeners are added or removed.
+ * <p>
+ * In asynchronous mode events are dispatched by an {@link AsyncPublisher}
+ * with the given {@link EventQueue}, running while this multicaster is
+ * running. Events multicast before the multicaster is started, such as those
+ * published during context refresh, are queued until it is started;
+ * listener failures are then logged instead of being propagated.
+ * <p>
+ * Non-singleton listener beans are obtained once per event type.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see org.springframework.context.support.AbstractApplicationContext#APPLICATION_EVENT_MULTICASTER_BEAN_NAME
+ */
+public final class EventBusApplicationEventMulticaster implements
+        ApplicationEventMulticaster, BeanFactoryAware, SmartLifecycle {
+
+    private static final ApplicationListener<?>[] NO_LISTENERS =
+        new ApplicationListener<?>[0];
+
+    private final Set<ApplicationListener<?>> listeners =
+        new LinkedHashSet<ApplicationListener<?>>();
+
+    private final Set<String> listenerBeans = new LinkedHashSet<String>();
+
+    private final Map<Class<?>, ApplicationListener<?>[]> dispatchers =
+        new ConcurrentHashMap<Class<?>, ApplicationListener<?>[]>();
+
+    private final Object registryMonitor = new Object();
+
+    private final EventBus dispatcher = new EventBus() {
+
+        @Override
+        public void publish(final Event event) {
+            dispatch(((Envelope) event).event);
+        }
+    };
+
+    private BeanFactory beanFactory;
+
+    private EventQueue queue;
+
+    private volatile AsyncPublisher asyncPublisher;
+
+    private volatile boolean running;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setBeanFactory(final BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    /**
+     * Sets whether events are dispatched asynchronously, in a background
+     * thread. Events are queued on the heap, unless a queue is set.
+     *
+     * @param async {@code true} to dispatch events asynchronously
+     */
+    public void setAsync(final boolean async) {
+        if (!async) {
+            asyncPublisher = null;
+            return;
+        }
+        asyncPublisher = new AsyncPublisher(dispatcher,
+                queue != null ? queue : new HeapEventQueue());
+    }
+
+    /**
+     * Sets queue of events awaiting asynchronous dispatch and switches to
+     * asynchronous mode. Application events are queued as they are, so the
+     * queue must keep event objects on the heap.
+     *
+     * @param queue not-{@code null} reference to the queue
+     */
+    public void setQueue(final EventQueue queue) {
+        if (queue == null) {
+            throw new IllegalArgumentException("Queue must not be null");
+        }
+        this.queue = queue;
+        setAsync(true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addApplicationListener(final ApplicationListener<?> listener) {
+        synchronized (registryMonitor) {
+            listeners.add(listener);
+            dispatchers.clear();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addApplicationListenerBean(final String listenerBeanName) {
+        synchronized (registryMonitor) {
+            listenerBeans.add(listenerBeanName);
+            dispatchers.clear();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeApplicationListener(final ApplicationListener<?> listener) {
+        synchronized (registryMonitor) {
+            listeners.remove(listener);
+            dispatchers.clear();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeApplicationListenerBean(final String listenerBeanName) {
+        synchronized (registryMonitor) {
+            listenerBeans.remove(listenerBeanName);
+            dispatchers.clear();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeAllListeners() {
+        synchronized (registryMonitor) {
+            listeners.clear();
+            listenerBeans.clear();
+            dispatchers.clear();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void multicastEvent(final ApplicationEvent event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event must not be null");
+        }
+        final AsyncPublisher publisher = asyncPublisher;
+        if (publisher == null) {
+            dispatch(event);
+        } else {
+            publisher.publish(new Envelope(event));
+        }
+    }
+
+    /**
+     * Starts dispatching thread in asynchronous mode.
+     */
+    @Override
+    public void start() {
+        final AsyncPublisher publisher = asyncPublisher;
+        if (publisher != null) {
+            publisher.start();
+        }
+        running = true;
+    }
+
+    /**
+     * Stops dispatching thread in asynchronous mode. Events still queued are
+     * not dispatched.
+     */
+    @Override
+    public void stop() {
+        final AsyncPublisher publisher = asyncPublisher;
+        if (publisher != null) {
+            publisher.stop();
+        }
+        running = false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stop(final Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    /**
+     * Gets the phase of the multicaster: the lowest, so that it is started
+     * before and stopped after other beans publishing events.
+     *
+     * @return {@link Integer#MIN_VALUE}
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void dispatch(final ApplicationEvent event) {
+        final ApplicationListener<?>[] targets = getListeners(event.getClass());
+        for (int i = 0; i < targets.length; i++) {
+            final ApplicationListener<?> listener = targets[i];
+            if (listener instanceof SmartApplicationListener
+                    && !((SmartApplicationListener) listener).supportsSourceType(
+                            event.getSource().getClass())) {
+                continue;
+            }
+            ((ApplicationListener<ApplicationEvent>) listener).onApplicationEvent(event);
+        }
+    }
+
+    private ApplicationListener<?>[] getListeners(final Class<?> type) {
+        ApplicationListener<?>[] result = dispatchers.get(type);
+        if (result != null) {
+            return result;
+        }
+        synchronized (registryMonitor) {
+            result = dispatchers.get(type);
+            if (result == null) {
+                result = resolveListeners(type);
+                dispatchers.put(type, result);
+            }
+            return result;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private ApplicationListener<?>[] resolveListeners(final Class<?> type) {
+        final List<ApplicationListener<?>> result =
+                new ArrayList<ApplicationListener<?>>();
+        for (final ApplicationListener<?> listener : listeners) {
+            if (supportsEventType(listener, type)) {
+                result.add(listener);
+            }
+        }
+        if (!listenerBeans.isEmpty() && beanFactory == null) {
+            throw new IllegalStateException("Listener beans can not be "
+                    + "resolved without bean factory");
+        }
+        for (final String name : listenerBeans) {
+            final ApplicationListener<?> listener =
+                    beanFactory.getBean(name, ApplicationListener.class);
+            if (!result.contains(listener) && supportsEventType(listener, type)) {
+                result.add(listener);
+            }
+        }
+        if (result.isEmpty()) {
+            return NO_LISTENERS;
+        }
+        AnnotationAwareOrderComparator.sort(result);
+        return result.toArray(new ApplicationListener<?>[result.size()]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean supportsEventType(final ApplicationListener<?> listener,
+            final Class<?> type) {
+        final SmartApplicationListener smartListener =
+                listener instanceof SmartApplicationListener
+                ? (SmartApplicationListener) listener
+                : new GenericApplicationListenerAdapter(listener);
+        return smartListener.supportsEventType(
+                (Class<? extends ApplicationEvent>) type);
+    }
+
+    /**
+     * Application event queued for asynchronous dispatch.
+     */
+    private static final class Envelope extends Event.AbstractEvent {
+
+        private final ApplicationEvent event;
+
+        Envelope(final ApplicationEvent event) {
+            this.event = event;
+        }
+    }
+
+}
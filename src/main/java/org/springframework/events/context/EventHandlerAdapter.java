@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.springframework.events.annotation.EventHandler;
+import org.springframework.events.reply.Replies;
 import org.springframework.util.ReflectionUtils;
 
 import org.springframework.events.Event;
@@ -36,6 +37,11 @@ import org.springframework.events.Event.Handler;
  * method looks up for matching handler from a list of methods that
  * have been detected upon adapter instantiation. All found matching handlers
  * are invoked.
+ * <p>
+ * Adapter may be paused, in which case events are ignored until it is resumed.
+ * <p>
+ * Values returned by handler methods are passed to {@link Replies}, which
+ * collects them if the event was published to be replied to.
  *
  * @author Robert Bala
  * @author Piotr Dyraga
@@ -51,6 +57,8 @@ public final class EventHandlerAdapter implements Handler<Event> {
     private final Map<Class<?>, List<Method>> handlers =
             new HashMap<Class<?>, List<Method>>();
 
+    private volatile boolean paused;
+
     /**
      * Class constructor accepting prospective event handler object.
      * If passed object does not have any methods that meet event handler
@@ -65,18 +73,51 @@ public final class EventHandlerAdapter implements Handler<Event> {
         this.target = target;
     }
 
+    /**
+     * Gets the adapted object.
+     *
+     * @return the object containing event handling methods
+     */
+    public Object getTarget() {
+        return target;
+    }
+
+    /**
+     * Checks if the adapter is paused.
+     *
+     * @return {@code true} if events are ignored
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Pauses or resumes the adapter. Events published while the adapter is
+     * paused are ignored.
+     *
+     * @param paused whether events should be ignored
+     */
+    public void setPaused(final boolean paused) {
+        this.paused = paused;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void handleEvent(final Event event) {
+        if (paused) {
+            return;
+        }
         for (final Method method : getMethods(event.getClass())) {
-            ReflectionUtils.invokeMethod(method, target, event);
+            Replies.reply(event, ReflectionUtils.invokeMethod(method, target, event));
         }
     }
 
     /**
      * Scans for methods decorated with {@link org.springframework.events.annotation.EventHandler} annotations.
+     * Durable and filtered handler methods are left out, as they are
+     * registered separately.
      * Found methods are recorded for the later invocation and associated with
      * event type they wish to receive.
      *
@@ -90,7 +131,10 @@ public final class EventHandlerAdapter implements Handler<Event> {
                     public void doWith(final Method method)
                             throws IllegalArgumentException,
                             IllegalAccessException {
-                        if (method.getAnnotation(EventHandler.class) != null) {
+                        final EventHandler annotation =
+                                method.getAnnotation(EventHandler.class);
+                        if (annotation != null && annotation.durable().isEmpty()
+                                && annotation.filter().length == 0) {
                             EventHandlerAdapter.this.addHandler(method);
                         }
                     }
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.context;
+
+import java.lang.reflect.Method;
+
+import org.springframework.events.Event;
+import org.springframework.events.Event.Handler;
+import org.springframework.events.reply.Replies;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Adapter of a single handler method, used by
+ * {@link AnnotationEventHandlerPostProcessor} for methods registered apart
+ * from the adapter of their bean, such as durable methods registered with
+ * {@link org.springframework.events.journal.DurableSubscriptions} and filtered
+ * methods registered with
+ * {@link org.springframework.events.filter.FilteringEventBus}. Like
+ * {@link EventHandlerAdapter}, it passes values returned by the method to
+ * {@link Replies}.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see org.springframework.events.annotation.EventHandler#durable()
+ * @see org.springframework.events.annotation.EventHandler#filter()
+ */
+final class MethodEventHandler implements Handler<Event> {
+
+    private final Object target;
+
+    private final Method method;
+
+    MethodEventHandler(final Object target, final Method method) {
+        this.target = target;
+        this.method = method;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void handleEvent(final Event event) {
+        Replies.reply(event, ReflectionUtils.invokeMethod(method, target, event));
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.dedup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.events.Event;
+import org.springframework.events.EventBus;
+
+/**
+ * Deduplicating adapter for {@link EventBus} interface. Events implementing
+ * {@link Identifiable} are published to the delegate only if no event of the
+ * same identifier has been published within the deduplication window;
+ * duplicates are dropped and counted. Other events are always published.
+ * <p>
+ * Identifiers are remembered in two sets of primitive values: the current
+ * one and the previous one. When the current set is full, or older than the
+ * window time if one is set, the previous set is cleared and the two swap
+ * roles. An identifier is thus remembered for at least the given number of
+ * following events, and at least the window time unless the events come at
+ * a rate filling a set earlier. Memory use is fixed and lookup takes constant
+ * time regardless of the event rate.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see Identifiable
+ */
+public final class DeduplicatingPublisher implements EventBus {
+
+    private static final long NO_WINDOW = Long.MAX_VALUE / 2;
+
+    private final EventBus delegate;
+
+    private final long windowNanos;
+
+    private final AtomicLong duplicates = new AtomicLong();
+
+    private final Object monitor = new Object();
+
+    private LongHashSet current;
+
+    private LongHashSet previous;
+
+    private long rotated = System.nanoTime();
+
+    /**
+     * Constructs {@link DeduplicatingPublisher} remembering identifiers of the
+     * given number of events.
+     *
+     * @param delegate
+     *            not-{@code null} reference to the delegate {@link EventBus}
+     * @param capacity
+     *            the number of identifiers in each of two sets
+     */
+    public DeduplicatingPublisher(final EventBus delegate, final int capacity) {
+        this(delegate, capacity, NO_WINDOW, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Constructs {@link DeduplicatingPublisher} remembering identifiers of
+     * events published within the given time, bounded by the given number of
+     * events.
+     *
+     * @param delegate
+     *            not-{@code null} reference to the delegate {@link EventBus}
+     * @param capacity
+     *            the number of identifiers in each of two sets
+     * @param window
+     *            positive duration identifiers are remembered for
+     * @param unit
+     *            unit of the window duration
+     */
+    public DeduplicatingPublisher(final EventBus delegate, final int capacity,
+            final long window, final TimeUnit unit) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate must not be null");
+        }
+        if (window <= 0 || unit == null) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        this.delegate = delegate;
+        this.current = new LongHashSet(capacity);
+        this.previous = new LongHashSet(capacity);
+        this.windowNanos = Math.min(unit.toNanos(window), NO_WINDOW);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(final Event event) {
+        if (event instanceof Identifiable
+                && !remember(((Identifiable) event).getEventId())) {
+            duplicates.incrementAndGet();
+            return;
+        }
+        delegate.publish(event);
+    }
+
+    /**
+     * Gets the number of dropped duplicate events.
+     *
+     * @return the number of duplicates
+     */
+    public long getDuplicateCount() {
+        return duplicates.get();
+    }
+
+    private boolean remember(final long id) {
+        synchronized (monitor) {
+            if (windowNanos != NO_WINDOW) {
+                final long elapsed = System.nanoTime() - rotated;
+                if (elapsed >= windowNanos * 2) {
+                    previous.clear();
+                    current.clear();
+                    rotated = System.nanoTime();
+                } else if (elapsed >= windowNanos) {
+                    rotate();
+                }
+            }
+            if (previous.contains(id)) {
+                return false;
+            }
+            if (current.isFull()) {
+                if (current.contains(id)) {
+                    return false;
+                }
+                rotate();
+            }
+            return current.add(id);
+        }
+    }
+
+    private void rotate() {
+        final LongHashSet oldest = previous;
+        oldest.clear();
+        previous = current;
+        current = oldest;
+        rotated = System.nanoTime();
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.dedup;
+
+/**
+ * Optional interface of events carrying an identifier, which is the same
+ * for all copies of one event, for example when it is delivered again by a
+ * retrying upstream system.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see DeduplicatingPublisher
+ */
+public interface Identifiable {
+
+    /**
+     * Gets identifier of the event.
+     *
+     * @return the identifier
+     */
+    long getEventId();
+
+}
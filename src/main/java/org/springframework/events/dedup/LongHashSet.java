@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.dedup;
+
+import java.util.Arrays;
+
+/**
+ * Set of primitive {@code long} values of bounded size, with open addressing
+ * and linear probing. The table is kept at most half full, so lookups stay
+ * short; values can not be removed one by one, only all at once.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+final class LongHashSet {
+
+    private static final long EMPTY = 0L;
+
+    private final long[] table;
+
+    private final int mask;
+
+    private final int maxSize;
+
+    private boolean containsEmpty;
+
+    private int size;
+
+    /**
+     * Constructs set holding up to the given number of values.
+     *
+     * @param maxSize the maximum number of values
+     */
+    LongHashSet(final int maxSize) {
+        if (maxSize <= 0 || maxSize > 1 << 29) {
+            throw new IllegalArgumentException("Invalid maximum size " + maxSize);
+        }
+        this.table = new long[Integer.highestOneBit(maxSize * 2 - 1) << 1];
+        this.mask = table.length - 1;
+        this.maxSize = maxSize;
+    }
+
+    boolean contains(final long value) {
+        if (value == EMPTY) {
+            return containsEmpty;
+        }
+        for (int i = index(value); ; i = (i + 1) & mask) {
+            final long current = table[i];
+            if (current == value) {
+                return true;
+            }
+            if (current == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Adds value to the set.
+     *
+     * @param value the value
+     * @return {@code false} if the value was already in the set
+     * @throws IllegalStateException if the set is full
+     */
+    boolean add(final long value) {
+        if (value == EMPTY) {
+            if (containsEmpty) {
+                return false;
+            }
+            checkFull();
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+        for (int i = index(value); ; i = (i + 1) & mask) {
+            final long current = table[i];
+            if (current == value) {
+                return false;
+            }
+            if (current == EMPTY) {
+                checkFull();
+                table[i] = value;
+                size++;
+                return true;
+            }
+        }
+    }
+
+    boolean isFull() {
+        return size == maxSize;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        if (size != 0) {
+            Arrays.fill(table, EMPTY);
+            containsEmpty = false;
+            size = 0;
+        }
+    }
+
+    private void checkFull() {
+        if (isFull()) {
+            throw new IllegalStateException("Set is full");
+        }
+    }
+
+    private int index(final long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 32;
+        return (int) hash & mask;
+    }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.filter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Predicate on a property of events: equality, set membership or an
+ * inclusive range. Subscriptions of {@link FilteringEventBus} receive events
+ * matching all their filters. Values are converted to the type of the
+ * property when the subscription is added; events whose property is
+ * {@code null} match no filter.
+ * <p>
+ * Filters may be written as expressions, as in
+ * {@link org.springframework.events.annotation.EventHandler#filter()}:
+ * <ul>
+ * <li>{@code region=EU} for equality,
+ * <li>{@code status=NEW|OPEN} for set membership,
+ * <li>{@code amount=100..500} for an inclusive range,
+ * <li>{@code amount>=100} and {@code amount<=500} for half-bounded ranges.
+ * </ul>
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see FilteringEventBus
+ */
+public final class AttributeFilter {
+
+    private static final Pattern EXPRESSION =
+        Pattern.compile("\\s*([A-Za-z_$][A-Za-z0-9_$]*)\\s*(=|>=|<=)\\s*(.*?)\\s*");
+
+    private final String property;
+
+    private final Set<Object> values;
+
+    private final Object lower;
+
+    private final Object upper;
+
+    private AttributeFilter(final String property, final Set<Object> values,
+            final Object lower, final Object upper) {
+        if (property == null || property.isEmpty()) {
+            throw new IllegalArgumentException("Property name is required");
+        }
+        this.property = property;
+        this.values = values;
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    /**
+     * Creates filter matching events whose property equals the value.
+     *
+     * @param property name of the property
+     * @param value not-{@code null} value
+     * @return the filter
+     */
+    public static AttributeFilter equalTo(final String property, final Object value) {
+        return in(property, value);
+    }
+
+    /**
+     * Creates filter matching events whose property equals one of the values.
+     *
+     * @param property name of the property
+     * @param values not-{@code null} values
+     * @return the filter
+     */
+    public static AttributeFilter in(final String property, final Object... values) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("Values are required");
+        }
+        final Set<Object> set = new LinkedHashSet<Object>(Arrays.asList(values));
+        if (set.contains(null)) {
+            throw new IllegalArgumentException("Value must not be null");
+        }
+        return new AttributeFilter(property, Collections.unmodifiableSet(set),
+                null, null);
+    }
+
+    /**
+     * Creates filter matching events whose property is within the range.
+     *
+     * @param property name of the property
+     * @param lower not-{@code null} inclusive lower bound
+     * @param upper not-{@code null} inclusive upper bound
+     * @return the filter
+     */
+    public static AttributeFilter between(final String property,
+            final Object lower, final Object upper) {
+        if (lower == null || upper == null) {
+            throw new IllegalArgumentException("Bounds must not be null");
+        }
+        return new AttributeFilter(property, null, lower, upper);
+    }
+
+    /**
+     * Creates filter matching events whose property is not less than
+     * the bound.
+     *
+     * @param property name of the property
+     * @param lower not-{@code null} inclusive lower bound
+     * @return the filter
+     */
+    public static AttributeFilter atLeast(final String property, final Object lower) {
+        if (lower == null) {
+            throw new IllegalArgumentException("Bound must not be null");
+        }
+        return new AttributeFilter(property, null, lower, null);
+    }
+
+    /**
+     * Creates filter matching events whose property is not greater than
+     * the bound.
+     *
+     * @param property name of the property
+     * @param upper not-{@code null} inclusive upper bound
+     * @return the filter
+     */
+    public static AttributeFilter atMost(final String property, final Object upper) {
+        if (upper == null) {
+            throw new IllegalArgumentException("Bound must not be null");
+        }
+        return new AttributeFilter(property, null, null, upper);
+    }
+
+    /**
+     * Parses filter expression.
+     *
+     * @param expression the expression
+     * @return the filter
+     * @throws IllegalArgumentException if the expression is invalid
+     */
+    public static AttributeFilter parse(final String expression) {
+        final Matcher matcher = EXPRESSION.matcher(expression);
+        if (!matcher.matches() || matcher.group(3).isEmpty()) {
+            throw new IllegalArgumentException("Invalid filter " + expression);
+        }
+        final String property = matcher.group(1);
+        final String value = matcher.group(3);
+        if (">=".equals(matcher.group(2))) {
+            return atLeast(property, value);
+        }
+        if ("<=".equals(matcher.group(2))) {
+            return atMost(property, value);
+        }
+        final int range = value.indexOf("..");
+        if (range >= 0) {
+            return between(property, value.substring(0, range).trim(),
+                    value.substring(range + 2).trim());
+        }
+        return in(property, (Object[]) value.split("\\s*\\|\\s*"));
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    boolean isRange() {
+        return values == null;
+    }
+
+    Set<Object> getValues() {
+        return values;
+    }
+
+    Object getLower() {
+        return lower;
+    }
+
+    Object getUpper() {
+        return upper;
+    }
+
+    @Override
+    public String toString() {
+        if (values != null) {
+            return property + (values.size() == 1 ? " = " + values.iterator().next()
+                    : " in " + values);
+        }
+        return property + " in [" + (lower != null ? lower : "") + ".."
+                + (upper != null ? upper : "") + "]";
+    }
+
+}
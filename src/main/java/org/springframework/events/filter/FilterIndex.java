@@ -0,0 +1,417 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.SimpleTypeConverter;
+import org.springframework.beans.TypeMismatchException;
+
+import org.springframework.events.Event;
+
+/**
+ * Index of filtered subscriptions to one event type, matching events with
+ * the counting algorithm. Every property used by any filter is read once per
+ * event; its value is looked up among equality and set membership values of
+ * filters on the property, and compared with range filters sorted by lower
+ * bound. Each matched filter increments the counter of its subscription, and
+ * subscriptions whose counters reach the number of their filters are invoked,
+ * in the order they were added.
+ * <p>
+ * The index is immutable and rebuilt when subscriptions change, so events
+ * are matched without locking, and subscriptions may be removed by handlers.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @param <E> the event type
+ */
+final class FilterIndex<E extends Event> implements Event.Handler<E> {
+
+    private final Class<E> type;
+
+    private final Map<String, PropertyExtractor> extractors =
+        new HashMap<String, PropertyExtractor>();
+
+    private final List<Subscription<E>> subscriptions =
+        new ArrayList<Subscription<E>>();
+
+    private final ThreadLocal<Counters> counters = new ThreadLocal<Counters>();
+
+    private volatile Snapshot<E> snapshot = new Snapshot<E>(
+            new ArrayList<Subscription<E>>(), new Attribute[0]);
+
+    FilterIndex(final Class<E> type) {
+        this.type = type;
+    }
+
+    /**
+     * Adds subscription, converting filter values to types of properties.
+     *
+     * @param handler the handler
+     * @param filters filters of the subscription
+     * @return the subscription
+     */
+    synchronized Object add(final Event.Handler<E> handler,
+            final AttributeFilter[] filters) {
+        final SimpleTypeConverter converter = new SimpleTypeConverter();
+        final Predicate[] predicates = new Predicate[filters.length];
+        for (int i = 0; i < filters.length; i++) {
+            predicates[i] = predicate(filters[i], converter);
+        }
+        final Subscription<E> subscription = new Subscription<E>(handler, predicates);
+        subscriptions.add(subscription);
+        rebuild();
+        return subscription;
+    }
+
+    synchronized void remove(final Object subscription) {
+        if (subscriptions.remove(subscription)) {
+            rebuild();
+        }
+    }
+
+    synchronized int size() {
+        return subscriptions.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void handleEvent(final E event) {
+        final Snapshot<E> current = snapshot;
+        final Subscription<E>[] all = current.subscriptions;
+        if (all.length == 0) {
+            return;
+        }
+        Counters borrowed = counters.get();
+        if (borrowed == null || !borrowed.fits(current)) {
+            borrowed = new Counters(current);
+        }
+        counters.set(null);
+        try {
+            final int matched = match(current, event, borrowed);
+            for (int i = 0; i < matched; i++) {
+                all[borrowed.matched[i]].handler.handleEvent(event);
+            }
+        } finally {
+            counters.set(borrowed);
+        }
+    }
+
+    private static <E extends Event> int match(final Snapshot<E> current,
+            final E event, final Counters borrowed) {
+        final int[] counts = borrowed.counts;
+        final int[] touched = borrowed.touched;
+        final int[] matched = borrowed.matched;
+        final int[] required = current.required;
+        int matchedCount = 0;
+        int touchedCount = 0;
+        for (final int id : current.unconditional) {
+            matched[matchedCount++] = id;
+        }
+        for (final Attribute attribute : current.attributes) {
+            final Object value = attribute.extractor.extract(event);
+            if (value == null) {
+                continue;
+            }
+            final int[] equal = attribute.equal.get(value);
+            if (equal != null) {
+                for (final int id : equal) {
+                    touched[touchedCount++] = id;
+                    if (++counts[id] == required[id]) {
+                        matched[matchedCount++] = id;
+                    }
+                }
+            }
+            for (final Range range : attribute.ranges) {
+                if (range.lower != null && compare(range.lower, value) > 0) {
+                    break;
+                }
+                if (range.upper == null || compare(value, range.upper) <= 0) {
+                    touched[touchedCount++] = range.id;
+                    if (++counts[range.id] == required[range.id]) {
+                        matched[matchedCount++] = range.id;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < touchedCount; i++) {
+            counts[touched[i]] = 0;
+        }
+        Arrays.sort(matched, 0, matchedCount);
+        return matchedCount;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(final Object left, final Object right) {
+        return ((Comparable<Object>) left).compareTo(right);
+    }
+
+    private Predicate predicate(final AttributeFilter filter,
+            final SimpleTypeConverter converter) {
+        PropertyExtractor extractor = extractors.get(filter.getProperty());
+        if (extractor == null) {
+            extractor = new PropertyExtractor(type, filter.getProperty());
+            extractors.put(filter.getProperty(), extractor);
+        }
+        if (!filter.isRange()) {
+            final List<Object> values = new ArrayList<Object>();
+            for (final Object value : filter.getValues()) {
+                final Object converted = convert(value, extractor, converter);
+                if (!values.contains(converted)) {
+                    values.add(converted);
+                }
+            }
+            return new Predicate(extractor, values.toArray(), null, null);
+        }
+        if (!Comparable.class.isAssignableFrom(extractor.getType())) {
+            throw new IllegalArgumentException("Property " + filter.getProperty()
+                    + " of " + type.getName() + " is not comparable");
+        }
+        return new Predicate(extractor, null,
+                convert(filter.getLower(), extractor, converter),
+                convert(filter.getUpper(), extractor, converter));
+    }
+
+    private Object convert(final Object value, final PropertyExtractor extractor,
+            final SimpleTypeConverter converter) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return converter.convertIfNecessary(value, extractor.getType());
+        } catch (TypeMismatchException e) {
+            throw new IllegalArgumentException("Value " + value + " is not "
+                    + "applicable to property " + extractor.getProperty() + " of "
+                    + type.getName(), e);
+        }
+    }
+
+    private void rebuild() {
+        final Map<PropertyExtractor, AttributeBuilder> builders =
+            new LinkedHashMap<PropertyExtractor, AttributeBuilder>();
+        for (int id = 0; id < subscriptions.size(); id++) {
+            for (final Predicate predicate : subscriptions.get(id).predicates) {
+                AttributeBuilder builder = builders.get(predicate.extractor);
+                if (builder == null) {
+                    builder = new AttributeBuilder(predicate.extractor);
+                    builders.put(predicate.extractor, builder);
+                }
+                builder.add(predicate, id);
+            }
+        }
+        final Attribute[] attributes = new Attribute[builders.size()];
+        int i = 0;
+        for (final AttributeBuilder builder : builders.values()) {
+            attributes[i++] = builder.build();
+        }
+        snapshot = new Snapshot<E>(subscriptions, attributes);
+    }
+
+    /**
+     * Filter with values converted to the type of its property.
+     */
+    private static final class Predicate {
+
+        final PropertyExtractor extractor;
+
+        final Object[] values;
+
+        final Object lower;
+
+        final Object upper;
+
+        Predicate(final PropertyExtractor extractor, final Object[] values,
+                final Object lower, final Object upper) {
+            this.extractor = extractor;
+            this.values = values;
+            this.lower = lower;
+            this.upper = upper;
+        }
+    }
+
+    private static final class Subscription<E extends Event> {
+
+        final Event.Handler<E> handler;
+
+        final Predicate[] predicates;
+
+        Subscription(final Event.Handler<E> handler, final Predicate[] predicates) {
+            this.handler = handler;
+            this.predicates = predicates;
+        }
+    }
+
+    private static final class Range {
+
+        final Object lower;
+
+        final Object upper;
+
+        final int id;
+
+        Range(final Object lower, final Object upper, final int id) {
+            this.lower = lower;
+            this.upper = upper;
+            this.id = id;
+        }
+    }
+
+    /**
+     * Filters on one property, indexed by value and by lower bound.
+     */
+    private static final class Attribute {
+
+        final PropertyExtractor extractor;
+
+        final Map<Object, int[]> equal;
+
+        final Range[] ranges;
+
+        Attribute(final PropertyExtractor extractor, final Map<Object, int[]> equal,
+                final Range[] ranges) {
+            this.extractor = extractor;
+            this.equal = equal;
+            this.ranges = ranges;
+        }
+    }
+
+    private static final class AttributeBuilder {
+
+        private static final Comparator<Range> BY_LOWER = new Comparator<Range>() {
+
+            @Override
+            public int compare(final Range left, final Range right) {
+                if (left.lower == null || right.lower == null) {
+                    return left.lower == null ? (right.lower == null ? 0 : -1) : 1;
+                }
+                return FilterIndex.compare(left.lower, right.lower);
+            }
+        };
+
+        private final PropertyExtractor extractor;
+
+        private final Map<Object, List<Integer>> equal =
+            new HashMap<Object, List<Integer>>();
+
+        private final List<Range> ranges = new ArrayList<Range>();
+
+        AttributeBuilder(final PropertyExtractor extractor) {
+            this.extractor = extractor;
+        }
+
+        void add(final Predicate predicate, final int id) {
+            if (predicate.values == null) {
+                ranges.add(new Range(predicate.lower, predicate.upper, id));
+                return;
+            }
+            for (final Object value : predicate.values) {
+                List<Integer> ids = equal.get(value);
+                if (ids == null) {
+                    ids = new ArrayList<Integer>();
+                    equal.put(value, ids);
+                }
+                ids.add(id);
+            }
+        }
+
+        Attribute build() {
+            final Map<Object, int[]> index = new HashMap<Object, int[]>();
+            for (final Map.Entry<Object, List<Integer>> entry : equal.entrySet()) {
+                final int[] ids = new int[entry.getValue().size()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = entry.getValue().get(i);
+                }
+                index.put(entry.getKey(), ids);
+            }
+            final Range[] sorted = ranges.toArray(new Range[ranges.size()]);
+            Arrays.sort(sorted, BY_LOWER);
+            return new Attribute(extractor, index, sorted);
+        }
+    }
+
+    private static final class Snapshot<E extends Event> {
+
+        final Subscription<E>[] subscriptions;
+
+        final int[] required;
+
+        final int[] unconditional;
+
+        final Attribute[] attributes;
+
+        final int predicateCount;
+
+        @SuppressWarnings("unchecked")
+        Snapshot(final List<Subscription<E>> subscriptions, final Attribute[] attributes) {
+            this.subscriptions = subscriptions.toArray(
+                    (Subscription<E>[]) new Subscription<?>[subscriptions.size()]);
+            this.required = new int[this.subscriptions.length];
+            int predicates = 0;
+            int unconditionalCount = 0;
+            for (int id = 0; id < required.length; id++) {
+                required[id] = this.subscriptions[id].predicates.length;
+                predicates += required[id];
+                if (required[id] == 0) {
+                    unconditionalCount++;
+                }
+            }
+            this.unconditional = new int[unconditionalCount];
+            for (int id = 0, i = 0; id < required.length; id++) {
+                if (required[id] == 0) {
+                    unconditional[i++] = id;
+                }
+            }
+            this.attributes = attributes;
+            this.predicateCount = predicates;
+        }
+    }
+
+    /**
+     * Per-thread counters of matched filters, borrowed for one event at
+     * a time so that handlers publishing further events get their own.
+     */
+    private static final class Counters {
+
+        final int[] counts;
+
+        final int[] touched;
+
+        final int[] matched;
+
+        Counters(final Snapshot<?> snapshot) {
+            counts = new int[snapshot.subscriptions.length];
+            touched = new int[snapshot.predicateCount];
+            matched = new int[snapshot.subscriptions.length];
+        }
+
+        boolean fits(final Snapshot<?> snapshot) {
+            return counts.length >= snapshot.subscriptions.length
+                    && touched.length >= snapshot.predicateCount;
+        }
+    }
+
+}
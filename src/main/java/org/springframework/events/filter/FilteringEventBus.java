@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.filter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.events.Event;
+import org.springframework.events.HandlerRegistration;
+import org.springframework.events.HasEventHandlers;
+
+/**
+ * Content-based filtering adapter for {@link HasEventHandlers} interface.
+ * Handlers may subscribe to events of a type with {@link AttributeFilter}s
+ * on their properties, and receive only events matching all of them.
+ * Filtered subscriptions of each event type are kept in an index added to
+ * the delegate as a single handler, which reads every filtered property once
+ * per event and invokes matching handlers only, so the cost of an event
+ * depends on the number of matched filters rather than the number of
+ * subscriptions. Properties are read through method handles resolved when
+ * the subscription is added.
+ * <p>
+ * The index of an event type is rebuilt whenever its subscriptions change,
+ * and stays added to the delegate once created. Handlers added without
+ * filters are added to the delegate directly.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see AttributeFilter
+ */
+public final class FilteringEventBus implements HasEventHandlers {
+
+    private final HasEventHandlers delegate;
+
+    private final ConcurrentMap<Class<?>, FilterIndex<?>> indexes =
+        new ConcurrentHashMap<Class<?>, FilterIndex<?>>();
+
+    /**
+     * Constructs {@link FilteringEventBus} with delegate
+     * {@link HasEventHandlers} instance.
+     *
+     * @param delegate
+     *            not-{@code null} reference to the delegate
+     *            {@link HasEventHandlers}
+     */
+    public FilteringEventBus(final HasEventHandlers delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate must not be null");
+        }
+        this.delegate = delegate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(final Event event) {
+        delegate.publish(event);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E extends Event, H extends Event.Handler<E>> HandlerRegistration
+            addHandler(final Class<E> type, final H handler) {
+        return delegate.addHandler(type, handler);
+    }
+
+    /**
+     * Adds handler receiving events of the given type matching all filters.
+     *
+     * @param <E> the event type
+     * @param type the event type
+     * @param handler the handler
+     * @param filters filters on properties of the event type
+     * @return the {@link HandlerRegistration} that can be stored in order to
+     *         remove the handler later
+     * @throws IllegalArgumentException if a filtered property is not readable,
+     *         or filter values are not applicable to it
+     */
+    public <E extends Event> HandlerRegistration addHandler(final Class<E> type,
+            final Event.Handler<E> handler, final AttributeFilter... filters) {
+        if (type == null) {
+            throw new IllegalArgumentException("Event type is required");
+        }
+        if (handler == null) {
+            throw new IllegalArgumentException("Event handler is required");
+        }
+        final FilterIndex<E> index = getIndex(type);
+        final Object subscription = index.add(handler, filters);
+        return new HandlerRegistration() {
+
+            @Override
+            public void removeHandler() {
+                index.remove(subscription);
+            }
+        };
+    }
+
+    /**
+     * Gets the number of filtered subscriptions to the event type.
+     *
+     * @param type the event type
+     * @return the number of subscriptions
+     */
+    public int getSubscriptionCount(final Class<? extends Event> type) {
+        final FilterIndex<?> index = indexes.get(type);
+        return index == null ? 0 : index.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E extends Event> FilterIndex<E> getIndex(final Class<E> type) {
+        FilterIndex<E> index = (FilterIndex<E>) indexes.get(type);
+        if (index == null) {
+            synchronized (indexes) {
+                index = (FilterIndex<E>) indexes.get(type);
+                if (index == null) {
+                    index = new FilterIndex<E>(type);
+                    delegate.addHandler(type, index);
+                    indexes.put(type, index);
+                }
+            }
+        }
+        return index;
+    }
+
+}
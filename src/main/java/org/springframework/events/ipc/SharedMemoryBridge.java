@@ -0,0 +1,453 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.ipc;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.context.SmartLifecycle;
+
+import org.springframework.events.Event;
+import org.springframework.events.HandlerRegistration;
+import org.springframework.events.HasEventHandlers;
+import org.springframework.events.codec.EventCodec;
+
+/**
+ * Bridge connecting {@link HasEventHandlers} instances of processes on one
+ * host through shared memory. Every bridge writes events of exported types
+ * published to its local bus into its own ring file in a shared directory,
+ * {@code /dev/shm} by default, and reads ring files of other bridges in
+ * the directory, publishing events read from them to its local bus. Events
+ * received from other processes are not exported again.
+ * <p>
+ * Each ring has a single writer, so no cross-process synchronization is
+ * needed; threads of one process publishing concurrently are serialized by
+ * a lock. Writing and reading are plain memory accesses; the reading thread
+ * spins, then yields and finally parks briefly when there is nothing to read.
+ * Readers start from the most recent event of a ring when they discover it
+ * and lose events if they fall behind by more than the ring capacity.
+ * <p>
+ * The reading thread runs between {@link #start()} and {@link #stop()}, and
+ * rescans the directory for new, replaced and removed rings periodically.
+ * Exported event types must be set before the bridge is started.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+public final class SharedMemoryBridge implements SmartLifecycle {
+
+    /**
+     * Default capacity of ring data area, 16 MB.
+     */
+    public static final int DEFAULT_CAPACITY = 16 * 1024 * 1024;
+
+    private static final Log LOG = LogFactory.getLog(SharedMemoryBridge.class);
+
+    private static final String SUFFIX = ".ring";
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9._@-]+");
+
+    private static final int READ_BATCH = 256;
+
+    private static final int SPIN_TRIES = 100;
+
+    private static final int YIELD_TRIES = 200;
+
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final HasEventHandlers bus;
+
+    private final File directory;
+
+    private final String name;
+
+    private final EventCodec codec;
+
+    private final int capacity;
+
+    private final ThreadLocal<Event> receiving = new ThreadLocal<Event>();
+
+    private final List<HandlerRegistration> registrations =
+        new ArrayList<HandlerRegistration>();
+
+    private final Map<String, SharedMemoryRing> peers =
+        new HashMap<String, SharedMemoryRing>();
+
+    private final AtomicLong sent = new AtomicLong();
+
+    private final AtomicLong received = new AtomicLong();
+
+    private final AtomicLong lost = new AtomicLong();
+
+    private final Object writeLock = new Object();
+
+    private final Object lifecycleMonitor = new Object();
+
+    private volatile Set<Class<? extends Event>> eventTypes =
+        Collections.emptySet();
+
+    private volatile long scanInterval = TimeUnit.SECONDS.toNanos(1);
+
+    private SharedMemoryRing ring;
+
+    private volatile Thread reader;
+
+    private volatile boolean running;
+
+    /**
+     * Constructs bridge in the default directory, named after the current
+     * process, with ring of default capacity.
+     *
+     * @param bus the local bus
+     * @param codec codec of exchanged events
+     */
+    public SharedMemoryBridge(final HasEventHandlers bus, final EventCodec codec) {
+        this(bus, getDefaultDirectory(),
+                ManagementFactory.getRuntimeMXBean().getName(), codec,
+                DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs bridge.
+     *
+     * @param bus the local bus
+     * @param directory the directory shared by bridges, created if needed
+     * @param name name of the bridge, unique in the directory, consisting of
+     *        letters, digits and {@code .@_-} characters
+     * @param codec codec of exchanged events
+     * @param capacity capacity of the ring in bytes, a power of two
+     */
+    public SharedMemoryBridge(final HasEventHandlers bus, final File directory,
+            final String name, final EventCodec codec, final int capacity) {
+        if (bus == null) {
+            throw new IllegalArgumentException("Event bus must not be null");
+        }
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory must not be null");
+        }
+        if (name == null || !NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid bridge name " + name);
+        }
+        if (codec == null) {
+            throw new IllegalArgumentException("Codec must not be null");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException("Can not create directory " + directory);
+        }
+        this.bus = bus;
+        this.directory = directory;
+        this.name = name;
+        this.codec = codec;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets the default directory of ring files: {@code spring-events} in
+     * {@code /dev/shm} if it is available, in the temporary directory
+     * otherwise.
+     *
+     * @return the directory
+     */
+    public static File getDefaultDirectory() {
+        final File shm = new File("/dev/shm");
+        return new File(shm.isDirectory() ? shm
+                : new File(System.getProperty("java.io.tmpdir")), "spring-events");
+    }
+
+    /**
+     * Sets types of events exported to other processes.
+     *
+     * @param types the event types
+     */
+    public void setEventTypes(final Collection<Class<? extends Event>> types) {
+        eventTypes = new HashSet<Class<? extends Event>>(types);
+    }
+
+    /**
+     * Sets interval of scanning the directory for rings of other bridges.
+     *
+     * @param scanInterval the interval in milliseconds
+     */
+    public void setScanInterval(final long scanInterval) {
+        if (scanInterval <= 0) {
+            throw new IllegalArgumentException("Scan interval must be positive");
+        }
+        this.scanInterval = TimeUnit.MILLISECONDS.toNanos(scanInterval);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the number of events exported to other processes.
+     *
+     * @return the number of exported events
+     */
+    public long getSentCount() {
+        return sent.get();
+    }
+
+    /**
+     * Gets the number of events received from other processes.
+     *
+     * @return the number of received events
+     */
+    public long getReceivedCount() {
+        return received.get();
+    }
+
+    /**
+     * Gets the approximate number of events lost because they were overwritten
+     * before they were read.
+     *
+     * @return the number of lost events
+     */
+    public long getLostCount() {
+        return lost.get();
+    }
+
+    /**
+     * Creates the ring, starts exporting events and starts the reading thread.
+     */
+    @Override
+    public void start() {
+        synchronized (lifecycleMonitor) {
+            if (running) {
+                return;
+            }
+            synchronized (writeLock) {
+                ring = SharedMemoryRing.create(new File(directory, name + SUFFIX),
+                        capacity);
+            }
+            final Exporter exporter = new Exporter();
+            for (final Class<? extends Event> type : eventTypes) {
+                registrations.add(export(type, exporter));
+            }
+            scanPeers();
+            running = true;
+            reader = new Thread(new Reader(), "event-ipc-reader");
+            reader.setDaemon(true);
+            reader.start();
+        }
+    }
+
+    /**
+     * Stops the reading thread, stops exporting events and removes the ring.
+     */
+    @Override
+    public void stop() {
+        synchronized (lifecycleMonitor) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            LockSupport.unpark(reader);
+            try {
+                reader.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            reader = null;
+            for (final HandlerRegistration registration : registrations) {
+                registration.removeHandler();
+            }
+            registrations.clear();
+            peers.clear();
+            synchronized (writeLock) {
+                if (!ring.getFile().delete()) {
+                    LOG.warn("Can not delete ring file " + ring.getFile());
+                }
+                ring = null;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stop(final Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
+    @SuppressWarnings("unchecked")
+    private HandlerRegistration export(final Class<? extends Event> type,
+            final Exporter exporter) {
+        return bus.addHandler((Class<Event>) type, exporter);
+    }
+
+    /**
+     * Opens rings that appeared in the directory and forgets those that
+     * disappeared. Rings whose files were replaced, by a peer restarted under
+     * the same name, are opened again. Called by the reading thread, or before
+     * it is started.
+     */
+    private void scanPeers() {
+        final File[] files = directory.listFiles(new FileFilter() {
+
+            @Override
+            public boolean accept(final File file) {
+                return file.getName().endsWith(SUFFIX);
+            }
+        });
+        final Set<String> present = new HashSet<String>();
+        for (final File file : files != null ? files : new File[0]) {
+            final String peer = file.getName();
+            if (peer.equals(name + SUFFIX)) {
+                continue;
+            }
+            present.add(peer);
+            final SharedMemoryRing known = peers.get(peer);
+            if (known != null && known.isReplaced()) {
+                peers.remove(peer);
+            }
+            if (!peers.containsKey(peer)) {
+                try {
+                    final SharedMemoryRing peerRing = SharedMemoryRing.open(file);
+                    if (peerRing != null) {
+                        peers.put(peer, peerRing);
+                    }
+                } catch (RuntimeException e) {
+                    LOG.warn("Can not open ring " + file, e);
+                }
+            }
+        }
+        peers.keySet().retainAll(present);
+    }
+
+    /**
+     * Handler writing exported events to the ring, unless they have just been
+     * received from another process.
+     */
+    private final class Exporter implements Event.Handler<Event> {
+
+        @Override
+        public void handleEvent(final Event event) {
+            if (event == receiving.get()) {
+                return;
+            }
+            synchronized (writeLock) {
+                if (ring != null) {
+                    ring.write(event, codec);
+                    sent.lazySet(sent.get() + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads rings of other bridges and publishes read events to the local bus
+     * until the bridge is stopped.
+     */
+    private final class Reader implements Runnable, SharedMemoryRing.Consumer {
+
+        @Override
+        public void run() {
+            long nextScan = System.nanoTime() + scanInterval;
+            int idle = 0;
+            while (running) {
+                if (System.nanoTime() - nextScan >= 0) {
+                    scanPeers();
+                    nextScan = System.nanoTime() + scanInterval;
+                }
+                if (readPeers() > 0) {
+                    idle = 0;
+                } else if (++idle > YIELD_TRIES) {
+                    LockSupport.parkNanos(SharedMemoryBridge.this, PARK_NANOS);
+                } else if (idle > SPIN_TRIES) {
+                    Thread.yield();
+                }
+            }
+        }
+
+        @Override
+        public void accept(final Event event) {
+            receiving.set(event);
+            try {
+                bus.publish(event);
+            } catch (RuntimeException e) {
+                LOG.error("Failed to dispatch event " + event, e);
+            } finally {
+                receiving.set(null);
+            }
+            received.lazySet(received.get() + 1);
+        }
+
+        private int readPeers() {
+            int count = 0;
+            final Iterator<SharedMemoryRing> iterator = peers.values().iterator();
+            while (iterator.hasNext()) {
+                final SharedMemoryRing peer = iterator.next();
+                final long lostBefore = peer.getLostCount();
+                try {
+                    count += peer.read(codec, this, READ_BATCH);
+                } catch (RuntimeException e) {
+                    LOG.error("Failed to read ring " + peer.getFile(), e);
+                    iterator.remove();
+                }
+                if (peer.getLostCount() != lostBefore) {
+                    lost.addAndGet(peer.getLostCount() - lostBefore);
+                }
+            }
+            return count;
+        }
+    }
+
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.ipc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.UUID;
+
+import org.springframework.events.Event;
+import org.springframework.events.codec.EventCodec;
+
+import sun.misc.Unsafe;
+
+/**
+ * Broadcast ring of encoded events in a memory-mapped file, written by a single
+ * process and read by any number of other processes. The writer never waits for
+ * readers: a reader falling behind by more than the ring capacity loses
+ * the overwritten events and continues from the most recent ones.
+ * <p>
+ * The file starts with a header holding the capacity and the epoch, the claim
+ * position and the commit position, each on its own cache line, followed by
+ * the data area. The epoch is chosen randomly whenever the writer initializes
+ * the file, so that readers can tell a file replaced by a restarted writer of
+ * the same name from the one they have mapped.
+ * Positions grow monotonically and are mapped onto the data area modulo its
+ * capacity. Records are laid out as {@code [int length][int reserved][payload]}
+ * aligned to 8 bytes; a record that would not fit before the end of the data
+ * area is preceded by a padding marker and written at its beginning.
+ * <p>
+ * Before writing, the writer publishes a claim covering the area about to be
+ * overwritten; after writing, it publishes the commit position with an ordered
+ * store. Readers read records up to the commit position and afterwards check
+ * the claim position, discarding records that may have been overwritten while
+ * they were read. Neither side makes system calls.
+ * <p>
+ * Volatile and ordered accesses to the mapped memory are made through
+ * {@link Unsafe}, which is the only way to get them on Java 7.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+final class SharedMemoryRing {
+
+    static final int HEADER_SIZE = 192;
+
+    private static final int MAGIC = 0x45565452;
+
+    private static final int MAGIC_OFFSET = 0;
+
+    private static final int CAPACITY_OFFSET = 4;
+
+    private static final int EPOCH_OFFSET = 8;
+
+    private static final int CLAIM_OFFSET = 64;
+
+    private static final int COMMIT_OFFSET = 128;
+
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private static final int PADDING = -1;
+
+    private static final Unsafe UNSAFE;
+
+    private static final long ADDRESS_OFFSET;
+
+    static {
+        try {
+            final Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            UNSAFE = (Unsafe) field.get(null);
+            ADDRESS_OFFSET = UNSAFE.objectFieldOffset(
+                    Buffer.class.getDeclaredField("address"));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final File file;
+
+    private final MappedByteBuffer buffer;
+
+    private final ByteBuffer data;
+
+    private final long address;
+
+    private final int capacity;
+
+    private final int mask;
+
+    private final int maxRecordSize;
+
+    private final long epoch;
+
+    private long position;
+
+    private long lost;
+
+    private SharedMemoryRing(final File file, final MappedByteBuffer buffer,
+            final int capacity) {
+        this.file = file;
+        this.buffer = buffer;
+        this.address = UNSAFE.getLong(buffer, ADDRESS_OFFSET);
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.maxRecordSize = capacity / 4;
+        this.epoch = buffer.getLong(EPOCH_OFFSET);
+        buffer.position(HEADER_SIZE);
+        this.data = buffer.slice();
+    }
+
+    /**
+     * Creates ring to be written by the calling process. If a ring of the same
+     * capacity exists in the file, writing continues after its last record, so
+     * that readers of a restarted writer are not confused.
+     *
+     * @param file the ring file
+     * @param capacity capacity of the data area, a power of two
+     * @return the ring
+     */
+    static SharedMemoryRing create(final File file, final int capacity) {
+        if (capacity < 1024 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException(
+                    "Capacity must be a power of two, at least 1024");
+        }
+        final MappedByteBuffer buffer = map(file, HEADER_SIZE + capacity, true);
+        if (buffer.getInt(MAGIC_OFFSET) != MAGIC
+                || buffer.getInt(CAPACITY_OFFSET) != capacity) {
+            final long address = UNSAFE.getLong(buffer, ADDRESS_OFFSET);
+            buffer.putInt(CAPACITY_OFFSET, capacity);
+            buffer.putLong(EPOCH_OFFSET, UUID.randomUUID().getLeastSignificantBits());
+            UNSAFE.putLongVolatile(null, address + CLAIM_OFFSET, 0L);
+            UNSAFE.putLongVolatile(null, address + COMMIT_OFFSET, 0L);
+            UNSAFE.putIntVolatile(null, address + MAGIC_OFFSET, MAGIC);
+        }
+        final SharedMemoryRing ring = new SharedMemoryRing(file, buffer, capacity);
+        ring.position = ring.getCommitPosition();
+        return ring;
+    }
+
+    /**
+     * Opens ring written by another process for reading. Reading starts at
+     * the current commit position.
+     *
+     * @param file the ring file
+     * @return the ring, or {@code null} if the file does not hold an
+     *         initialized ring yet
+     */
+    static SharedMemoryRing open(final File file) {
+        if (file.length() < HEADER_SIZE) {
+            return null;
+        }
+        final MappedByteBuffer buffer = map(file, -1, false);
+        final long address = UNSAFE.getLong(buffer, ADDRESS_OFFSET);
+        if (UNSAFE.getIntVolatile(null, address + MAGIC_OFFSET) != MAGIC) {
+            return null;
+        }
+        final int capacity = buffer.getInt(CAPACITY_OFFSET);
+        if (buffer.capacity() != HEADER_SIZE + capacity) {
+            return null;
+        }
+        final SharedMemoryRing ring = new SharedMemoryRing(file, buffer, capacity);
+        ring.position = ring.getCommitPosition();
+        return ring;
+    }
+
+    /**
+     * Writes event to the ring. Not thread-safe.
+     *
+     * @param event the event
+     * @param codec the codec encoding the event
+     * @throws IllegalArgumentException if the encoded event exceeds a quarter
+     *         of the ring capacity
+     */
+    void write(final Event event, final EventCodec codec) {
+        long current = position;
+        int index = (int) (current & mask);
+        if (capacity - index < maxRecordSize) {
+            data.putInt(index, PADDING);
+            current += capacity - index;
+            index = 0;
+        }
+        UNSAFE.putLongVolatile(null, address + CLAIM_OFFSET, current + maxRecordSize);
+        data.limit(index + maxRecordSize).position(index + RECORD_HEADER_SIZE);
+        try {
+            codec.encode(event, data);
+        } catch (BufferOverflowException e) {
+            throw new IllegalArgumentException("Event exceeds maximum record size", e);
+        } finally {
+            data.limit(capacity);
+        }
+        final int length = data.position() - index - RECORD_HEADER_SIZE;
+        data.putInt(index, length);
+        position = current + align(RECORD_HEADER_SIZE + length);
+        UNSAFE.putOrderedLong(null, address + COMMIT_OFFSET, position);
+    }
+
+    /**
+     * Reads events committed since the last read. Not thread-safe.
+     *
+     * @param codec the codec decoding events
+     * @param consumer consumer of read events
+     * @param limit maximum number of events to be read
+     * @return the number of events read
+     */
+    int read(final EventCodec codec, final Consumer consumer, final int limit) {
+        int count = 0;
+        long commit = getCommitPosition();
+        while (position < commit && count < limit) {
+            if (commit - position > capacity) {
+                skipTo(commit);
+                continue;
+            }
+            final int index = (int) (position & mask);
+            final int length = data.getInt(index);
+            if (length == PADDING) {
+                position += capacity - index;
+                continue;
+            }
+            Event event = null;
+            RuntimeException failure = null;
+            if (length > 0 && length <= maxRecordSize) {
+                data.limit(index + RECORD_HEADER_SIZE + length)
+                        .position(index + RECORD_HEADER_SIZE);
+                try {
+                    event = codec.decode(data);
+                } catch (RuntimeException e) {
+                    failure = e;
+                } finally {
+                    data.limit(capacity);
+                }
+            }
+            if (UNSAFE.getLongVolatile(null, address + CLAIM_OFFSET)
+                    - position > capacity) {
+                // overwritten while being read
+                commit = getCommitPosition();
+                skipTo(commit);
+                continue;
+            }
+            if (event == null) {
+                throw new IllegalStateException("Malformed record in " + file,
+                        failure);
+            }
+            position += align(RECORD_HEADER_SIZE + length);
+            consumer.accept(event);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of events lost by this reader because they had been
+     * overwritten before they were read.
+     *
+     * @return the approximate number of lost events
+     */
+    long getLostCount() {
+        return lost;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Checks whether the ring file has been removed or replaced, by a restarted
+     * writer for instance, since this ring was mapped. Makes system calls.
+     *
+     * @return {@code true} if the file no longer holds this ring
+     */
+    boolean isReplaced() {
+        try {
+            final RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                if (raf.length() < HEADER_SIZE) {
+                    return true;
+                }
+                raf.seek(EPOCH_OFFSET);
+                return raf.readLong() != epoch;
+            } finally {
+                raf.close();
+            }
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private long getCommitPosition() {
+        return UNSAFE.getLongVolatile(null, address + COMMIT_OFFSET);
+    }
+
+    private void skipTo(final long commit) {
+        // actual count of skipped records is unknown, one is a lower bound
+        lost++;
+        position = commit;
+    }
+
+    private static long align(final int size) {
+        return (size + 7) & ~7;
+    }
+
+    private static MappedByteBuffer map(final File file, final long size,
+            final boolean writable) {
+        try {
+            final RandomAccessFile raf = new RandomAccessFile(file,
+                    writable ? "rw" : "r");
+            try {
+                if (writable && raf.length() != size) {
+                    raf.setLength(0);
+                    raf.setLength(size);
+                }
+                return raf.getChannel().map(writable
+                        ? FileChannel.MapMode.READ_WRITE
+                        : FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            } finally {
+                raf.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Can not map ring file " + file, e);
+        }
+    }
+
+    /**
+     * Receiver of events read from the ring.
+     */
+    interface Consumer {
+
+        void accept(Event event);
+
+    }
+
+}
@@ -0,0 +1,759 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.ipc;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.context.SmartLifecycle;
+
+import org.springframework.events.Event;
+import org.springframework.events.HandlerRegistration;
+import org.springframework.events.HasEventHandlers;
+import org.springframework.events.codec.EventCodec;
+
+/**
+ * Bridge connecting {@link HasEventHandlers} instances of different nodes over
+ * TCP. Events of exported types published to the local bus are sent to every
+ * configured peer; events received from bridges connected to the listening
+ * address are published to the local bus and are not exported again. Nodes
+ * exchanging events in both directions list each other as peers.
+ * <p>
+ * All network I/O is non-blocking and performed by a single thread. Publishing
+ * threads encode events into the outbound buffer of each peer, which the I/O
+ * thread sends as one frame, so events published while a frame is being
+ * written are coalesced into the next one. Events that do not fit into the
+ * buffer of a slow or disconnected peer are dropped. Broken connections are
+ * re-established after the reconnect interval; events of the frame being
+ * written when a connection breaks are lost. Received events are dispatched
+ * by the I/O thread.
+ * <p>
+ * The I/O thread runs between {@link #start()} and {@link #stop()}. Exported
+ * event types, peers and the listening address must be set before the bridge
+ * is started.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see SharedMemoryBridge
+ */
+public final class TcpBridge implements SmartLifecycle {
+
+    /**
+     * Default size of outbound buffers, and of the largest accepted frame,
+     * 1 MB.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private static final Log LOG = LogFactory.getLog(TcpBridge.class);
+
+    private static final int FRAME_HEADER_SIZE = 8;
+
+    private static final int RECORD_HEADER_SIZE = 4;
+
+    private static final long SELECT_TIMEOUT = 100;
+
+    private final HasEventHandlers bus;
+
+    private final EventCodec codec;
+
+    private final ThreadLocal<Event> receiving = new ThreadLocal<Event>();
+
+    private final List<HandlerRegistration> registrations =
+        new ArrayList<HandlerRegistration>();
+
+    private final Queue<Peer> flushRequests = new ConcurrentLinkedQueue<Peer>();
+
+    private final AtomicLong sent = new AtomicLong();
+
+    private final AtomicLong received = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Object lifecycleMonitor = new Object();
+
+    private volatile Set<Class<? extends Event>> eventTypes =
+        Collections.emptySet();
+
+    private volatile List<InetSocketAddress> peerAddresses =
+        Collections.emptyList();
+
+    private volatile InetSocketAddress listenAddress;
+
+    private volatile int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    private volatile long reconnectInterval = TimeUnit.SECONDS.toNanos(1);
+
+    private volatile List<Peer> peers = Collections.emptyList();
+
+    private volatile Selector selector;
+
+    private volatile InetSocketAddress localAddress;
+
+    private volatile Thread worker;
+
+    private volatile boolean running;
+
+    /**
+     * Constructs bridge.
+     *
+     * @param bus the local bus
+     * @param codec codec of exchanged events
+     */
+    public TcpBridge(final HasEventHandlers bus, final EventCodec codec) {
+        if (bus == null) {
+            throw new IllegalArgumentException("Event bus must not be null");
+        }
+        if (codec == null) {
+            throw new IllegalArgumentException("Codec must not be null");
+        }
+        this.bus = bus;
+        this.codec = codec;
+    }
+
+    /**
+     * Sets types of events exported to peers.
+     *
+     * @param types the event types
+     */
+    public void setEventTypes(final Collection<Class<? extends Event>> types) {
+        eventTypes = new HashSet<Class<? extends Event>>(types);
+    }
+
+    /**
+     * Sets addresses of bridges exported events are sent to.
+     *
+     * @param addresses the peer addresses
+     */
+    public void setPeers(final Collection<InetSocketAddress> addresses) {
+        peerAddresses = new ArrayList<InetSocketAddress>(addresses);
+    }
+
+    /**
+     * Sets address to accept connections of other bridges on. Port {@code 0}
+     * selects an ephemeral port. By default the bridge does not listen and
+     * only sends events.
+     *
+     * @param address the listening address
+     */
+    public void setListenAddress(final InetSocketAddress address) {
+        this.listenAddress = address;
+    }
+
+    /**
+     * Sets size of outbound buffers. Every peer has two of them, one being
+     * sent and one collecting events for the next frame. The size also limits
+     * frames accepted from other bridges, so it must not be larger than the
+     * size set on the receiving bridges.
+     *
+     * @param bufferSize the buffer size in bytes
+     */
+    public void setBufferSize(final int bufferSize) {
+        if (bufferSize <= RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("Buffer size too small");
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Sets delay between a connection failure and the next attempt to
+     * connect.
+     *
+     * @param reconnectInterval the interval in milliseconds
+     */
+    public void setReconnectInterval(final long reconnectInterval) {
+        if (reconnectInterval <= 0) {
+            throw new IllegalArgumentException("Reconnect interval must be positive");
+        }
+        this.reconnectInterval = TimeUnit.MILLISECONDS.toNanos(reconnectInterval);
+    }
+
+    /**
+     * Gets the address the bridge accepts connections on.
+     *
+     * @return the bound address, or {@code null} if the bridge is not listening
+     */
+    public InetSocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    /**
+     * Gets the number of peers currently connected.
+     *
+     * @return the number of connected peers
+     */
+    public int getConnectedCount() {
+        int count = 0;
+        for (final Peer peer : peers) {
+            if (peer.connected) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of events sent to peers, counted once per peer.
+     *
+     * @return the number of sent events
+     */
+    public long getSentCount() {
+        return sent.get();
+    }
+
+    /**
+     * Gets the number of events received from other bridges.
+     *
+     * @return the number of received events
+     */
+    public long getReceivedCount() {
+        return received.get();
+    }
+
+    /**
+     * Gets the number of events dropped because an outbound buffer was full,
+     * or lost with a broken connection, counted once per peer.
+     *
+     * @return the number of dropped events
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Starts listening, starts exporting events and starts the I/O thread,
+     * which connects to peers.
+     */
+    @Override
+    public void start() {
+        synchronized (lifecycleMonitor) {
+            if (running) {
+                return;
+            }
+            ServerSocketChannel server = null;
+            try {
+                selector = Selector.open();
+                if (listenAddress != null) {
+                    server = ServerSocketChannel.open();
+                    server.setOption(StandardSocketOptions.SO_REUSEADDR, Boolean.TRUE);
+                    server.bind(listenAddress);
+                    server.configureBlocking(false);
+                    server.register(selector, SelectionKey.OP_ACCEPT);
+                    localAddress = (InetSocketAddress) server.getLocalAddress();
+                }
+            } catch (IOException e) {
+                closeQuietly(server);
+                close();
+                throw new IllegalStateException("Starting TCP bridge failed", e);
+            }
+            final List<Peer> created = new ArrayList<Peer>();
+            for (final InetSocketAddress address : peerAddresses) {
+                created.add(new Peer(address));
+            }
+            peers = Collections.unmodifiableList(created);
+            final Exporter exporter = new Exporter();
+            for (final Class<? extends Event> type : eventTypes) {
+                registrations.add(export(type, exporter));
+            }
+            running = true;
+            worker = new Thread(new Worker(), "event-tcp-io");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Stops exporting events, stops the I/O thread and closes all
+     * connections. Events not sent yet are discarded.
+     */
+    @Override
+    public void stop() {
+        synchronized (lifecycleMonitor) {
+            if (!running) {
+                return;
+            }
+            for (final HandlerRegistration registration : registrations) {
+                registration.removeHandler();
+            }
+            registrations.clear();
+            running = false;
+            selector.wakeup();
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+            close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stop(final Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
+    @SuppressWarnings("unchecked")
+    private HandlerRegistration export(final Class<? extends Event> type,
+            final Exporter exporter) {
+        return bus.addHandler((Class<Event>) type, exporter);
+    }
+
+    /**
+     * Closes all channels and the selector.
+     */
+    private void close() {
+        if (selector != null) {
+            for (final SelectionKey key : selector.keys()) {
+                closeQuietly(key.channel());
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                LOG.warn("Can not close selector", e);
+            }
+        }
+        peers = Collections.emptyList();
+        flushRequests.clear();
+        localAddress = null;
+    }
+
+    private static void closeQuietly(final Channel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOG.debug("Can not close channel", e);
+        }
+    }
+
+    private static void configure(final SocketChannel channel) throws IOException {
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, Boolean.TRUE);
+    }
+
+    /**
+     * Handler appending exported events to outbound buffers of all peers,
+     * unless they have just been received from another bridge.
+     */
+    private final class Exporter implements Event.Handler<Event> {
+
+        @Override
+        public void handleEvent(final Event event) {
+            if (event == receiving.get()) {
+                return;
+            }
+            for (final Peer peer : peers) {
+                peer.append(event);
+            }
+        }
+    }
+
+    /**
+     * Outbound connection to a peer bridge. Events are encoded into the
+     * pending buffer by publishing threads; everything else is done by the
+     * I/O thread.
+     */
+    private final class Peer {
+
+        private final InetSocketAddress address;
+
+        private final ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+
+        private final ByteBuffer[] frame = new ByteBuffer[2];
+
+        private ByteBuffer pending;
+
+        private int pendingCount;
+
+        private boolean flushRequested;
+
+        private ByteBuffer sending;
+
+        private int sendingCount;
+
+        private SocketChannel channel;
+
+        private SelectionKey key;
+
+        private long reconnectAt;
+
+        private volatile boolean connected;
+
+        Peer(final InetSocketAddress address) {
+            this.address = address;
+            this.pending = ByteBuffer.allocateDirect(bufferSize);
+            this.sending = ByteBuffer.allocateDirect(bufferSize);
+            this.sending.limit(0);
+            this.header.limit(0);
+            this.reconnectAt = System.nanoTime();
+        }
+
+        void append(final Event event) {
+            synchronized (this) {
+                final int start = pending.position();
+                if (pending.remaining() <= RECORD_HEADER_SIZE) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                try {
+                    pending.position(start + RECORD_HEADER_SIZE);
+                    codec.encode(event, pending);
+                } catch (BufferOverflowException e) {
+                    pending.position(start);
+                    if (start == 0) {
+                        throw new IllegalArgumentException(
+                                "Event does not fit into outbound buffer " + event, e);
+                    }
+                    dropped.incrementAndGet();
+                    return;
+                } catch (RuntimeException e) {
+                    pending.position(start);
+                    throw e;
+                }
+                pending.putInt(start, pending.position() - start - RECORD_HEADER_SIZE);
+                pendingCount++;
+                if (flushRequested) {
+                    return;
+                }
+                flushRequested = true;
+            }
+            flushRequests.offer(this);
+            selector.wakeup();
+        }
+
+        void connect() {
+            try {
+                channel = SocketChannel.open();
+                configure(channel);
+                key = channel.register(selector, SelectionKey.OP_CONNECT, this);
+                if (channel.connect(address)) {
+                    connected();
+                }
+            } catch (IOException e) {
+                disconnect(e);
+            }
+        }
+
+        boolean isDisconnected() {
+            return channel == null;
+        }
+
+        long getReconnectAt() {
+            return reconnectAt;
+        }
+
+        void ready() {
+            try {
+                if (key.isConnectable()) {
+                    if (channel.finishConnect()) {
+                        connected();
+                    }
+                } else if (key.isWritable()) {
+                    flush();
+                }
+            } catch (IOException e) {
+                disconnect(e);
+            }
+        }
+
+        void flushIfConnected() {
+            if (connected) {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    disconnect(e);
+                }
+            }
+        }
+
+        private void connected() throws IOException {
+            LOG.info("Connected to " + address);
+            connected = true;
+            key.interestOps(0);
+            flush();
+        }
+
+        /**
+         * Writes the current frame and following frames until there is
+         * nothing to send or the socket buffer is full.
+         */
+        private void flush() throws IOException {
+            while (true) {
+                if (!header.hasRemaining() && !sending.hasRemaining()) {
+                    sent.lazySet(sent.get() + sendingCount);
+                    sendingCount = 0;
+                    if (!nextFrame()) {
+                        key.interestOps(0);
+                        return;
+                    }
+                }
+                channel.write(frame);
+                if (header.hasRemaining() || sending.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Swaps pending and sending buffers and prepares the frame header.
+         *
+         * @return {@code false} if there are no pending events
+         */
+        private boolean nextFrame() {
+            synchronized (this) {
+                if (pendingCount == 0) {
+                    flushRequested = false;
+                    return false;
+                }
+                final ByteBuffer next = pending;
+                pending = sending;
+                pending.clear();
+                sending = next;
+                sendingCount = pendingCount;
+                pendingCount = 0;
+            }
+            sending.flip();
+            header.clear();
+            header.putInt(sending.remaining()).putInt(sendingCount).flip();
+            frame[0] = header;
+            frame[1] = sending;
+            return true;
+        }
+
+        private void disconnect(final IOException cause) {
+            if (connected) {
+                LOG.warn("Connection to " + address + " failed", cause);
+            } else {
+                LOG.debug("Can not connect to " + address, cause);
+            }
+            closeQuietly(channel);
+            channel = null;
+            key = null;
+            connected = false;
+            dropped.addAndGet(sendingCount);
+            sendingCount = 0;
+            sending.limit(0);
+            header.limit(0);
+            reconnectAt = System.nanoTime() + reconnectInterval;
+        }
+    }
+
+    /**
+     * Inbound connection accepted from another bridge. Frames are read into
+     * a buffer and their events published to the local bus.
+     */
+    private final class Inbound {
+
+        private final SocketChannel channel;
+
+        private final ByteBuffer buffer;
+
+        Inbound(final SocketChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(bufferSize + FRAME_HEADER_SIZE);
+        }
+
+        void ready() {
+            try {
+                if (channel.read(buffer) < 0) {
+                    channel.close();
+                    return;
+                }
+                buffer.flip();
+                while (readFrame()) {
+                    // Next frame
+                }
+                buffer.compact();
+            } catch (IOException e) {
+                LOG.debug("Inbound connection failed", e);
+                closeQuietly(channel);
+            } catch (IllegalStateException e) {
+                LOG.error("Closing inbound connection", e);
+                closeQuietly(channel);
+            }
+        }
+
+        private boolean readFrame() {
+            if (buffer.remaining() < FRAME_HEADER_SIZE) {
+                return false;
+            }
+            final int start = buffer.position();
+            final int length = buffer.getInt(start);
+            if (length < 0 || length > buffer.capacity() - FRAME_HEADER_SIZE) {
+                throw new IllegalStateException("Invalid frame length " + length);
+            }
+            if (buffer.remaining() < FRAME_HEADER_SIZE + length) {
+                return false;
+            }
+            final int count = buffer.getInt(start + RECORD_HEADER_SIZE);
+            final int end = start + FRAME_HEADER_SIZE + length;
+            final int limit = buffer.limit();
+            buffer.position(start + FRAME_HEADER_SIZE);
+            for (int i = 0; i < count; i++) {
+                if (end - buffer.position() < RECORD_HEADER_SIZE) {
+                    throw new IllegalStateException("Malformed frame");
+                }
+                final int size = buffer.getInt();
+                final int next = buffer.position() + size;
+                if (size < 0 || next > end) {
+                    throw new IllegalStateException("Malformed frame");
+                }
+                buffer.limit(next);
+                dispatch();
+                buffer.limit(limit);
+                buffer.position(next);
+            }
+            buffer.position(end);
+            return true;
+        }
+
+        private void dispatch() {
+            final Event event;
+            try {
+                event = codec.decode(buffer);
+            } catch (IllegalArgumentException e) {
+                LOG.error("Failed to decode event", e);
+                return;
+            }
+            receiving.set(event);
+            try {
+                bus.publish(event);
+            } catch (RuntimeException e) {
+                LOG.error("Failed to dispatch event " + event, e);
+            } finally {
+                receiving.set(null);
+            }
+            received.lazySet(received.get() + 1);
+        }
+    }
+
+    /**
+     * Accepts connections, reads and writes ready channels, sends frames
+     * requested by publishing threads and reconnects peers until the bridge
+     * is stopped.
+     */
+    private final class Worker implements Runnable {
+
+        @Override
+        public void run() {
+            final long timeout = Math.max(1L, Math.min(SELECT_TIMEOUT,
+                    TimeUnit.NANOSECONDS.toMillis(reconnectInterval)));
+            while (running) {
+                try {
+                    selector.select(timeout);
+                } catch (IOException e) {
+                    LOG.error("Selecting channels failed", e);
+                }
+                final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept((ServerSocketChannel) key.channel());
+                    } else if (key.attachment() instanceof Peer) {
+                        ((Peer) key.attachment()).ready();
+                    } else {
+                        ((Inbound) key.attachment()).ready();
+                    }
+                }
+                Peer peer;
+                while ((peer = flushRequests.poll()) != null) {
+                    peer.flushIfConnected();
+                }
+                final long now = System.nanoTime();
+                for (final Peer each : peers) {
+                    if (each.isDisconnected() && now - each.getReconnectAt() >= 0) {
+                        each.connect();
+                    }
+                }
+            }
+        }
+
+        private void accept(final ServerSocketChannel server) {
+            SocketChannel channel = null;
+            try {
+                channel = server.accept();
+                if (channel != null) {
+                    configure(channel);
+                    channel.register(selector, SelectionKey.OP_READ,
+                            new Inbound(channel));
+                }
+            } catch (IOException e) {
+                LOG.warn("Can not accept connection", e);
+                closeQuietly(channel);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.jmx;
+
+/**
+ * Management interface of {@link org.springframework.events.AsyncPublisher}.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see AsyncPublisherMonitor
+ */
+public interface AsyncPublisherMXBean {
+
+    /**
+     * Checks if the dispatching thread is running.
+     *
+     * @return {@code true} if events are being dispatched
+     */
+    boolean isRunning();
+
+    /**
+     * Gets the number of events awaiting dispatch.
+     *
+     * @return the number of queued events
+     */
+    int getQueueSize();
+
+    /**
+     * Gets the number of events dispatched so far.
+     *
+     * @return the number of dispatched events
+     */
+    long getDispatchedCount();
+
+    /**
+     * Gets the number of events dropped because the queue was full.
+     *
+     * @return the number of dropped events
+     */
+    long getDroppedCount();
+
+    /**
+     * Gets the number of events dispatched per second since the previous
+     * reading of this attribute.
+     *
+     * @return dispatch throughput in events per second
+     */
+    double getThroughput();
+
+    /**
+     * Discards events awaiting dispatch.
+     *
+     * @return the number of discarded events
+     */
+    int drainQueue();
+
+}
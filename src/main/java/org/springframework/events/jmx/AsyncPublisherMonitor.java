@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.jmx;
+
+import org.springframework.events.AsyncPublisher;
+
+/**
+ * Exposes {@link AsyncPublisher} through {@link AsyncPublisherMXBean}.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see EventBusMBeanExporter
+ */
+public final class AsyncPublisherMonitor implements AsyncPublisherMXBean {
+
+    private final AsyncPublisher publisher;
+
+    private long lastCount;
+
+    private long lastTime = System.nanoTime();
+
+    /**
+     * Constructs monitor of the given publisher.
+     *
+     * @param publisher the monitored publisher
+     */
+    public AsyncPublisherMonitor(final AsyncPublisher publisher) {
+        if (publisher == null) {
+            throw new IllegalArgumentException("Publisher must not be null");
+        }
+        this.publisher = publisher;
+        this.lastCount = publisher.getDispatchedCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRunning() {
+        return publisher.isRunning();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getQueueSize() {
+        return publisher.getQueueSize();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDispatchedCount() {
+        return publisher.getDispatchedCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDroppedCount() {
+        return publisher.getDroppedCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized double getThroughput() {
+        final long count = publisher.getDispatchedCount();
+        final long time = System.nanoTime();
+        final long elapsed = time - lastTime;
+        final double throughput = elapsed > 0
+                ? (count - lastCount) * 1e9d / elapsed : 0d;
+        lastCount = count;
+        lastTime = time;
+        return throughput;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int drainQueue() {
+        return publisher.drainQueue();
+    }
+
+}
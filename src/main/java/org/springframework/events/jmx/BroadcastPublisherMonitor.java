@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.jmx;
+
+import org.springframework.events.BroadcastPublisher;
+
+/**
+ * Exposes {@link BroadcastPublisher} through {@link BroadcastPublisherMXBean}.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see EventBusMBeanExporter
+ */
+public final class BroadcastPublisherMonitor implements BroadcastPublisherMXBean {
+
+    private final BroadcastPublisher publisher;
+
+    /**
+     * Constructs monitor of the given publisher.
+     *
+     * @param publisher the monitored publisher
+     */
+    public BroadcastPublisherMonitor(final BroadcastPublisher publisher) {
+        if (publisher == null) {
+            throw new IllegalArgumentException("Publisher must not be null");
+        }
+        this.publisher = publisher;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getHandlerCount() {
+        return publisher.getHandlerCount();
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.jmx.export.MBeanExportException;
+
+import org.springframework.events.AsyncPublisher;
+import org.springframework.events.BroadcastPublisher;
+import org.springframework.events.SimpleEventBus;
+import org.springframework.events.context.AnnotationEventHandlerPostProcessor;
+import org.springframework.events.metrics.EventMetrics;
+
+/**
+ * Registers management beans of event infrastructure found in application
+ * context once the context is refreshed: {@link SimpleEventBus},
+ * {@link BroadcastPublisher}, {@link AsyncPublisher}, {@link EventMetrics} and
+ * handler beans detected by {@link AnnotationEventHandlerPostProcessor}.
+ * Management beans are named after the monitored beans and the id of the
+ * context, within the {@value #DOMAIN} domain, so that contexts in one
+ * virtual machine do not clash, and are unregistered when the context is
+ * closed. Registration fails if a management bean of the same name has been
+ * registered by someone else; beans registered by this exporter on earlier
+ * refresh of the context are replaced.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+public final class EventBusMBeanExporter implements ApplicationContextAware,
+        ApplicationListener<ContextRefreshedEvent>, DisposableBean {
+
+    /**
+     * Domain of registered management beans.
+     */
+    public static final String DOMAIN = "org.springframework.events";
+
+    private final List<ObjectName> registered = new ArrayList<ObjectName>();
+
+    private MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+    private ApplicationContext applicationContext;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setApplicationContext(final ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * Sets the server management beans are registered with. Platform server is
+     * used by default.
+     *
+     * @param server the management bean server
+     */
+    public void setServer(final MBeanServer server) {
+        if (server == null) {
+            throw new IllegalArgumentException("Server must not be null");
+        }
+        this.server = server;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onApplicationEvent(final ContextRefreshedEvent event) {
+        final ApplicationContext context = event.getApplicationContext();
+        if (context != applicationContext) {
+            // Refresh of child context, its own exporter takes care of it
+            return;
+        }
+        for (final Map.Entry<String, SimpleEventBus> entry
+                : beansOfType(context, SimpleEventBus.class).entrySet()) {
+            register(new SimpleEventBusMonitor(entry.getValue()),
+                    "SimpleEventBus", entry.getKey());
+        }
+        for (final Map.Entry<String, BroadcastPublisher> entry
+                : beansOfType(context, BroadcastPublisher.class).entrySet()) {
+            register(new BroadcastPublisherMonitor(entry.getValue()),
+                    "BroadcastPublisher", entry.getKey());
+        }
+        for (final Map.Entry<String, AsyncPublisher> entry
+                : beansOfType(context, AsyncPublisher.class).entrySet()) {
+            register(new AsyncPublisherMonitor(entry.getValue()),
+                    "AsyncPublisher", entry.getKey());
+        }
+        for (final Map.Entry<String, EventMetrics> entry
+                : beansOfType(context, EventMetrics.class).entrySet()) {
+            register(new EventMetricsMonitor(entry.getValue()),
+                    "EventMetrics", entry.getKey());
+        }
+        for (final Map.Entry<String, AnnotationEventHandlerPostProcessor> entry
+                : beansOfType(context, AnnotationEventHandlerPostProcessor.class)
+                        .entrySet()) {
+            register(new EventHandlersMonitor(entry.getValue()),
+                    "EventHandlers", entry.getKey());
+        }
+    }
+
+    /**
+     * Unregisters all management beans registered by this exporter.
+     */
+    @Override
+    public synchronized void destroy() {
+        for (final ObjectName name : registered) {
+            try {
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (JMException e) {
+                throw new MBeanExportException("Failed to unregister " + name, e);
+            }
+        }
+        registered.clear();
+    }
+
+    private static <T> Map<String, T> beansOfType(
+            final ApplicationContext context, final Class<T> type) {
+        return context.getBeansOfType(type, false, false);
+    }
+
+    private void register(final Object monitor, final String type,
+            final String beanName) {
+        try {
+            final ObjectName name = new ObjectName(DOMAIN + ":type=" + type
+                    + ",context=" + ObjectName.quote(applicationContext.getId())
+                    + ",name=" + ObjectName.quote(beanName));
+            if (registered.remove(name) && server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(monitor, name);
+            registered.add(name);
+        } catch (JMException e) {
+            throw new MBeanExportException("Failed to register management bean of "
+                    + beanName, e);
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.jmx;
+
+import java.util.Set;
+
+/**
+ * Management interface of event handler beans detected by
+ * {@link org.springframework.events.context.AnnotationEventHandlerPostProcessor}.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see EventHandlersMonitor
+ */
+public interface EventHandlersMXBean {
+
+    /**
+     * Gets names of beans registered as event handlers.
+     *
+     * @return names of handler beans
+     */
+    Set<String> getHandlerNames();
+
+    /**
+     * Gets names of paused handler beans.
+     *
+     * @return names of paused handler beans
+     */
+    Set<String> getPausedHandlerNames();
+
+    /**
+     * Pauses handler bean of the given name. Paused handler ignores events.
+     *
+     * @param beanName name of handler bean
+     */
+    void pauseHandler(String beanName);
+
+    /**
+     * Resumes handler bean of the given name.
+     *
+     * @param beanName name of handler bean
+     */
+    void resumeHandler(String beanName);
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.jmx;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.events.context.AnnotationEventHandlerPostProcessor;
+
+/**
+ * Exposes handler beans detected by {@link AnnotationEventHandlerPostProcessor}
+ * through {@link EventHandlersMXBean}.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see EventBusMBeanExporter
+ */
+public final class EventHandlersMonitor implements EventHandlersMXBean {
+
+    private final AnnotationEventHandlerPostProcessor postProcessor;
+
+    /**
+     * Constructs monitor of handlers detected by the given post processor.
+     *
+     * @param postProcessor the post processor
+     */
+    public EventHandlersMonitor(
+            final AnnotationEventHandlerPostProcessor postProcessor) {
+        if (postProcessor == null) {
+            throw new IllegalArgumentException("Post processor must not be null");
+        }
+        this.postProcessor = postProcessor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getHandlerNames() {
+        return postProcessor.getHandlerNames();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getPausedHandlerNames() {
+        final Set<String> paused = new TreeSet<String>();
+        for (final String beanName : postProcessor.getHandlerNames()) {
+            if (postProcessor.isPaused(beanName)) {
+                paused.add(beanName);
+            }
+        }
+        return paused;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void pauseHandler(final String beanName) {
+        postProcessor.setPaused(beanName, true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void resumeHandler(final String beanName) {
+        postProcessor.setPaused(beanName, false);
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.jmx;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Management interface of {@link org.springframework.events.metrics.EventMetrics}.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see EventMetricsMonitor
+ */
+public interface EventMetricsMXBean {
+
+    /**
+     * Checks if recording is enabled.
+     *
+     * @return {@code true} if recording is enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Enables or disables recording.
+     *
+     * @param enabled whether recording is enabled
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Gets the number of published events per event type.
+     *
+     * @return the number of events keyed by name of event class
+     */
+    Map<String, Long> getPublishCounts();
+
+    /**
+     * Gets the number of handler invocations per handler.
+     *
+     * @return the number of invocations keyed by name of handler class
+     */
+    Map<String, Long> getHandlerInvocationCounts();
+
+    /**
+     * Gets statistics of handlers with the highest 99th percentile of
+     * invocation latency, the slowest first.
+     *
+     * @return statistics of the slowest handlers
+     */
+    List<String> getSlowestHandlers();
+
+    /**
+     * Discards all recorded statistics.
+     */
+    void reset();
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.jmx;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.events.metrics.EventMetrics;
+import org.springframework.events.metrics.TimerSnapshot;
+
+/**
+ * Exposes {@link EventMetrics} through {@link EventMetricsMXBean}.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see EventBusMBeanExporter
+ */
+public final class EventMetricsMonitor implements EventMetricsMXBean {
+
+    private static final int SLOWEST_HANDLERS_LIMIT = 10;
+
+    private final EventMetrics metrics;
+
+    /**
+     * Constructs monitor of the given metrics registry.
+     *
+     * @param metrics the metrics registry
+     */
+    public EventMetricsMonitor(final EventMetrics metrics) {
+        if (metrics == null) {
+            throw new IllegalArgumentException("Metrics must not be null");
+        }
+        this.metrics = metrics;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEnabled() {
+        return metrics.isEnabled();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setEnabled(final boolean enabled) {
+        metrics.setEnabled(enabled);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Long> getPublishCounts() {
+        return countsOf(metrics.snapshot().getPublishes());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Long> getHandlerInvocationCounts() {
+        return countsOf(metrics.snapshot().getHandlers());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> getSlowestHandlers() {
+        final List<TimerSnapshot> handlers = new ArrayList<TimerSnapshot>(
+                metrics.snapshot().getHandlers().values());
+        Collections.sort(handlers, new Comparator<TimerSnapshot>() {
+            @Override
+            public int compare(final TimerSnapshot first,
+                    final TimerSnapshot second) {
+                final long firstLatency = first.getLatency().getValueAtPercentile(99d);
+                final long secondLatency = second.getLatency().getValueAtPercentile(99d);
+                return firstLatency < secondLatency ? 1
+                        : (firstLatency == secondLatency ? 0 : -1);
+            }
+        });
+        final List<String> slowest = new ArrayList<String>();
+        for (final TimerSnapshot handler : handlers) {
+            if (slowest.size() == SLOWEST_HANDLERS_LIMIT) {
+                break;
+            }
+            slowest.add(handler.toString());
+        }
+        return slowest;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        metrics.reset();
+    }
+
+    private static Map<String, Long> countsOf(
+            final Map<String, TimerSnapshot> timers) {
+        final Map<String, Long> counts = new TreeMap<String, Long>();
+        for (final Map.Entry<String, TimerSnapshot> entry : timers.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().getCount());
+        }
+        return counts;
+    }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.jmx;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link org.springframework.events.SimpleEventBus}.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see SimpleEventBusMonitor
+ */
+public interface SimpleEventBusMXBean {
+
+    /**
+     * Gets the number of registered handlers per event type.
+     *
+     * @return the number of handlers keyed by name of event class
+     */
+    Map<String, Integer> getHandlerCounts();
+
+    /**
+     * Gets the total number of registered handlers.
+     *
+     * @return the number of registered handlers
+     */
+    int getHandlerCount();
+
+}
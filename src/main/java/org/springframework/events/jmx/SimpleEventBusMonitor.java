@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.jmx;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.events.Event;
+import org.springframework.events.SimpleEventBus;
+
+/**
+ * Exposes {@link SimpleEventBus} through {@link SimpleEventBusMXBean}.
+ * <p>
+ * Attributes are read on management threads from the snapshot of handler
+ * counts the bus maintains as handlers are added and removed, so reading them
+ * neither races with nor slows down the bus.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see EventBusMBeanExporter
+ */
+public final class SimpleEventBusMonitor implements SimpleEventBusMXBean {
+
+    private final SimpleEventBus eventBus;
+
+    /**
+     * Constructs monitor of the given event bus.
+     *
+     * @param eventBus the monitored event bus
+     */
+    public SimpleEventBusMonitor(final SimpleEventBus eventBus) {
+        if (eventBus == null) {
+            throw new IllegalArgumentException("Event bus must not be null");
+        }
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Integer> getHandlerCounts() {
+        final Map<String, Integer> counts = new TreeMap<String, Integer>();
+        for (final Map.Entry<Class<? extends Event>, Integer> entry
+                : eventBus.getHandlerCounts().entrySet()) {
+            counts.put(entry.getKey().getName(), entry.getValue());
+        }
+        return counts;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getHandlerCount() {
+        int count = 0;
+        for (final Integer typeCount : eventBus.getHandlerCounts().values()) {
+            count += typeCount;
+        }
+        return count;
+    }
+
+}
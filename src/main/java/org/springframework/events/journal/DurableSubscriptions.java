@@ -0,0 +1,305 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.events.Event;
+import org.springframework.events.HandlerRegistration;
+
+/**
+ * Registry of durable subscriptions to journaled events. A durable subscription
+ * is a handler identified by a name, whose position in {@link EventJournal}
+ * survives restarts: on registration, the handler is caught up with events
+ * journaled since the last one it has handled, and then continues with live
+ * events.
+ * <p>
+ * Positions of subscriptions are kept in memory on dispatch and checkpointed
+ * periodically by a background thread, one file per subscription. Events
+ * handled after the last checkpoint are delivered again after restart, so
+ * handlers should tolerate duplicates.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see JournalingEventBus#addHandler(Class, Event.Handler, long)
+ */
+public final class DurableSubscriptions implements Closeable {
+
+    /**
+     * Default interval between checkpoints, in milliseconds.
+     */
+    public static final long DEFAULT_CHECKPOINT_INTERVAL = 1000L;
+
+    private static final Log LOG = LogFactory.getLog(DurableSubscriptions.class);
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9._-]+");
+
+    private static final String SUFFIX = ".offset";
+
+    private final JournalingEventBus bus;
+
+    private final File directory;
+
+    private final ConcurrentMap<String, Subscription<?>> subscriptions =
+        new ConcurrentHashMap<String, Subscription<?>>();
+
+    private final ScheduledExecutorService checkpointer =
+        Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "event-checkpoint");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+    /**
+     * Constructs registry checkpointing every
+     * {@link #DEFAULT_CHECKPOINT_INTERVAL} milliseconds.
+     *
+     * @param bus the bus journaling events
+     * @param directory the directory of offset files, created if needed
+     */
+    public DurableSubscriptions(final JournalingEventBus bus, final File directory) {
+        this(bus, directory, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Constructs registry.
+     *
+     * @param bus the bus journaling events
+     * @param directory the directory of offset files, created if needed
+     * @param checkpointInterval interval between checkpoints, in milliseconds
+     */
+    public DurableSubscriptions(final JournalingEventBus bus, final File directory,
+            final long checkpointInterval) {
+        if (bus == null) {
+            throw new IllegalArgumentException("Event bus must not be null");
+        }
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory must not be null");
+        }
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException("Can not create offset directory "
+                    + directory);
+        }
+        this.bus = bus;
+        this.directory = directory;
+        checkpointer.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                checkpoint();
+            }
+        }, checkpointInterval, checkpointInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds durable handler of journaled events. The handler first receives
+     * events journaled after the last checkpointed one, or all retained
+     * events if the subscription is new, and then live events.
+     *
+     * @param <E> the event type
+     * @param <H> the handler type
+     * @param name name of the subscription, consisting of letters, digits,
+     *        dots, dashes and underscores
+     * @param type the journaled event type
+     * @param handler the handler
+     * @return the {@link HandlerRegistration} that can be stored in order to
+     *         remove the handler later; removal checkpoints the subscription
+     * @throws IllegalArgumentException if the name is invalid or already in
+     *         use, or the event type is not journaled
+     */
+    public <E extends Event, H extends Event.Handler<E>> HandlerRegistration
+            addHandler(final String name, final Class<E> type, final H handler) {
+        if (name == null || !NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid subscription name " + name);
+        }
+        if (handler == null) {
+            throw new IllegalArgumentException("Event handler is required");
+        }
+        final Subscription<E> subscription = new Subscription<E>(name, handler,
+                readOffset(name));
+        if (subscriptions.putIfAbsent(name, subscription) != null) {
+            throw new IllegalArgumentException("Duplicate subscription " + name);
+        }
+        final HandlerRegistration registration;
+        try {
+            registration = bus.addHandler(type, subscription,
+                    subscription.checkpointed + 1);
+        } catch (RuntimeException e) {
+            subscriptions.remove(name);
+            throw e;
+        }
+        return new HandlerRegistration() {
+
+            @Override
+            public void removeHandler() {
+                registration.removeHandler();
+                if (subscriptions.remove(name, subscription)) {
+                    checkpoint(subscription);
+                }
+            }
+        };
+    }
+
+    /**
+     * Gets sequence number of the last event handled by the subscription.
+     *
+     * @param name name of the subscription
+     * @return the sequence number, {@code 0} if no event has been handled
+     */
+    public long getSequence(final String name) {
+        final Subscription<?> subscription = subscriptions.get(name);
+        return subscription != null ? subscription.sequence : readOffset(name);
+    }
+
+    /**
+     * Writes positions of all subscriptions that have changed since the last
+     * checkpoint.
+     */
+    public void checkpoint() {
+        for (final Subscription<?> subscription : subscriptions.values()) {
+            try {
+                checkpoint(subscription);
+            } catch (RuntimeException e) {
+                LOG.error("Checkpoint of subscription " + subscription.name
+                        + " failed", e);
+            }
+        }
+    }
+
+    /**
+     * Stops periodic checkpoints and checkpoints all subscriptions for
+     * the last time.
+     */
+    @Override
+    public void close() {
+        checkpointer.shutdown();
+        try {
+            checkpointer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkpoint();
+    }
+
+    private synchronized void checkpoint(final Subscription<?> subscription) {
+        final long sequence = subscription.sequence;
+        if (sequence == subscription.checkpointed) {
+            return;
+        }
+        final File target = new File(directory, subscription.name + SUFFIX);
+        final File temporary = new File(directory, subscription.name + SUFFIX + ".tmp");
+        try {
+            final FileChannel channel = FileChannel.open(temporary.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                final ByteBuffer buffer = ByteBuffer.allocate(8);
+                buffer.putLong(0, sequence);
+                channel.write(buffer);
+                channel.force(true);
+            } finally {
+                channel.close();
+            }
+            Files.move(temporary.toPath(), target.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Can not write offset file " + target, e);
+        }
+        subscription.checkpointed = sequence;
+    }
+
+    private long readOffset(final String name) {
+        final File file = new File(directory, name + SUFFIX);
+        if (!file.exists()) {
+            return 0L;
+        }
+        try {
+            final RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                return raf.readLong();
+            } finally {
+                raf.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Can not read offset file " + file, e);
+        }
+    }
+
+    /**
+     * Handler recording sequence number of the last handled event. Recording
+     * is a single volatile write, so that dispatch is never blocked by
+     * checkpoints.
+     *
+     * @param <E> the event type
+     */
+    private final class Subscription<E extends Event> implements Event.Handler<E> {
+
+        private final String name;
+
+        private final Event.Handler<E> delegate;
+
+        private volatile long sequence;
+
+        private long checkpointed;
+
+        Subscription(final String name, final Event.Handler<E> delegate,
+                final long offset) {
+            this.name = name;
+            this.delegate = delegate;
+            this.sequence = offset;
+            this.checkpointed = offset;
+        }
+
+        @Override
+        public void handleEvent(final E event) {
+            delegate.handleEvent(event);
+            final long current = bus.getCurrentSequence();
+            if (current != 0) {
+                sequence = current;
+            }
+        }
+    }
+
+}
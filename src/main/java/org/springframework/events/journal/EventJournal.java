@@ -0,0 +1,397 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.events.Event;
+import org.springframework.events.codec.EventCodec;
+
+/**
+ * Append-only journal of events stored in memory-mapped segment files.
+ * Every appended event is assigned a sequence number, starting from
+ * {@code 1} and growing by one, and encoded with the given {@link EventCodec}
+ * straight into the mapped segment.
+ * <p>
+ * Segments have fixed size and are named after the sequence number of their
+ * first event. When an event does not fit into the current segment, a new one
+ * is started. Only the configured number of most recent segments is retained,
+ * older ones are deleted when a new segment is started.
+ * <p>
+ * Appending does not involve system calls except when a segment is rolled.
+ * Written data reaches the disk whenever the operating system writes back
+ * the mapped pages, which survives a crash of the process but not of
+ * the machine. To bound the loss in the latter case the journal may be
+ * synchronized every given number of appends, or explicitly with
+ * {@link #sync()}.
+ * <p>
+ * Records are laid out as {@code [int length][long sequence][payload]}.
+ * A zero length marks the end of written data, so that the journal can be
+ * reopened after restart.
+ * <p>
+ * Appending is thread-safe. Journal contents are read with
+ * {@link JournalReader}, concurrently with appending.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see JournalReader
+ * @see JournalingEventBus
+ */
+public final class EventJournal implements Closeable {
+
+    /**
+     * Default size of segment files, 64 MB.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Default number of retained segments.
+     */
+    public static final int DEFAULT_RETAINED_SEGMENTS = 16;
+
+    static final int HEADER_SIZE = 12;
+
+    private static final String SUFFIX = ".journal";
+
+    private final File directory;
+
+    private final EventCodec codec;
+
+    private final int segmentSize;
+
+    private final int retainedSegments;
+
+    private final int syncBatch;
+
+    private final Object lock = new Object();
+
+    private final TreeMap<Long, File> segments = new TreeMap<Long, File>();
+
+    private MappedByteBuffer segment;
+
+    private int writePosition;
+
+    private int unsynced;
+
+    private boolean closed;
+
+    private volatile long lastSequence;
+
+    /**
+     * Opens journal in the given directory with default segment size and
+     * retention, without synchronizing appends.
+     *
+     * @param directory the directory of segment files, created if needed
+     * @param codec codec of journaled events
+     */
+    public EventJournal(final File directory, final EventCodec codec) {
+        this(directory, codec, DEFAULT_SEGMENT_SIZE, DEFAULT_RETAINED_SEGMENTS, 0);
+    }
+
+    /**
+     * Opens journal in the given directory. Existing segments are recovered
+     * and appending continues after their last event.
+     *
+     * @param directory the directory of segment files, created if needed
+     * @param codec codec of journaled events
+     * @param segmentSize size of segment files in bytes
+     * @param retainedSegments maximum number of segment files kept
+     * @param syncBatch number of appends after which the journal is
+     *        synchronized with the disk; {@code 0} leaves writing back to
+     *        the operating system
+     */
+    public EventJournal(final File directory, final EventCodec codec,
+            final int segmentSize, final int retainedSegments,
+            final int syncBatch) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory must not be null");
+        }
+        if (codec == null) {
+            throw new IllegalArgumentException("Codec must not be null");
+        }
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("Segment size too small");
+        }
+        if (retainedSegments < 1) {
+            throw new IllegalArgumentException("At least one segment must be retained");
+        }
+        if (syncBatch < 0) {
+            throw new IllegalArgumentException("Sync batch must not be negative");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException("Can not create journal directory "
+                    + directory);
+        }
+        this.directory = directory;
+        this.codec = codec;
+        this.segmentSize = segmentSize;
+        this.retainedSegments = retainedSegments;
+        this.syncBatch = syncBatch;
+        recover();
+    }
+
+    /**
+     * Appends event to the journal.
+     *
+     * @param event the event
+     * @return sequence number assigned to the event
+     * @throws IllegalArgumentException if the event can not be encoded or
+     *         does not fit into an empty segment
+     * @throws IllegalStateException if the journal is closed
+     */
+    public long append(final Event event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event must not be null");
+        }
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            if (!write(event)) {
+                if (writePosition == 0) {
+                    throw new IllegalArgumentException("Event exceeds segment size");
+                }
+                roll(lastSequence + 1);
+                if (!write(event)) {
+                    throw new IllegalArgumentException("Event exceeds segment size");
+                }
+            }
+            return lastSequence;
+        }
+    }
+
+    /**
+     * Forces appended events to the disk.
+     */
+    public void sync() {
+        synchronized (lock) {
+            if (!closed) {
+                segment.force();
+                unsynced = 0;
+            }
+        }
+    }
+
+    /**
+     * Synchronizes and closes the journal. Events can not be appended
+     * afterwards.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (!closed) {
+                segment.force();
+                segment = null;
+                closed = true;
+            }
+        }
+    }
+
+    /**
+     * Opens reader of the journal.
+     *
+     * @param fromSequence sequence number of the first event to be read; if
+     *        it is no longer retained, reading starts from the oldest retained
+     *        event
+     * @return the reader
+     */
+    public JournalReader openReader(final long fromSequence) {
+        return new JournalReader(this, fromSequence);
+    }
+
+    /**
+     * Gets sequence number of the last appended event.
+     *
+     * @return the sequence number, {@code 0} if the journal is empty
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Gets sequence number of the oldest retained event.
+     *
+     * @return the sequence number, or the sequence number the next event will
+     *         get if no events are retained
+     */
+    public long getFirstSequence() {
+        synchronized (lock) {
+            return segments.firstKey();
+        }
+    }
+
+    /**
+     * Gets number of retained segment files.
+     *
+     * @return number of segments
+     */
+    public int getSegmentCount() {
+        synchronized (lock) {
+            return segments.size();
+        }
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    EventCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * Finds segment containing event of the given sequence number.
+     *
+     * @return base sequence number and file of the segment, the oldest
+     *         segment if the event is no longer retained
+     */
+    Map.Entry<Long, File> findSegment(final long sequence) {
+        synchronized (lock) {
+            final Map.Entry<Long, File> entry = segments.floorEntry(sequence);
+            return entry != null ? entry : segments.firstEntry();
+        }
+    }
+
+    static MappedByteBuffer map(final File file, final boolean writable,
+            final long size) {
+        try {
+            final RandomAccessFile raf =
+                    new RandomAccessFile(file, writable ? "rw" : "r");
+            try {
+                return raf.getChannel().map(writable
+                        ? FileChannel.MapMode.READ_WRITE
+                        : FileChannel.MapMode.READ_ONLY,
+                        0, size < 0 ? raf.length() : size);
+            } finally {
+                raf.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Can not map journal segment "
+                    + file, e);
+        }
+    }
+
+    private boolean write(final Event event) {
+        final int start = writePosition;
+        if (segment.capacity() - start <= HEADER_SIZE) {
+            return false;
+        }
+        segment.limit(segment.capacity());
+        segment.position(start + HEADER_SIZE);
+        boolean encoded = false;
+        try {
+            codec.encode(event, segment);
+            encoded = true;
+        } catch (BufferOverflowException e) {
+            return false;
+        } finally {
+            if (!encoded) {
+                // bytes of a partially encoded event must not be read as
+                // a header of a record written after them
+                clear(start + HEADER_SIZE, segment.position());
+            }
+        }
+        final int length = segment.position() - start - HEADER_SIZE;
+        if (length == 0) {
+            throw new IllegalArgumentException("Event encoded to empty record");
+        }
+        final long sequence = lastSequence + 1;
+        segment.putLong(start + 4, sequence);
+        segment.putInt(start, length);
+        writePosition = segment.position();
+        lastSequence = sequence;
+        if (syncBatch > 0 && ++unsynced >= syncBatch) {
+            segment.force();
+            unsynced = 0;
+        }
+        return true;
+    }
+
+    private void clear(final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            segment.put(i, (byte) 0);
+        }
+    }
+
+    private void roll(final long base) {
+        if (syncBatch > 0 && segment != null) {
+            segment.force();
+            unsynced = 0;
+        }
+        final File file = new File(directory, String.format("%020d", base) + SUFFIX);
+        segment = map(file, true, segmentSize);
+        segments.put(base, file);
+        writePosition = 0;
+        while (segments.size() > retainedSegments) {
+            final File oldest = segments.pollFirstEntry().getValue();
+            if (!oldest.delete()) {
+                throw new IllegalStateException("Can not delete journal segment "
+                        + oldest);
+            }
+        }
+    }
+
+    private void recover() {
+        final File[] files = directory.listFiles(new FileFilter() {
+
+            @Override
+            public boolean accept(final File file) {
+                return file.isFile() && file.getName().endsWith(SUFFIX);
+            }
+        });
+        for (final File file : files) {
+            final String name = file.getName();
+            try {
+                segments.put(Long.valueOf(name.substring(0,
+                        name.length() - SUFFIX.length())), file);
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException("Unexpected journal file " + file, e);
+            }
+        }
+        if (segments.isEmpty()) {
+            roll(1L);
+            return;
+        }
+
+        final Map.Entry<Long, File> last = segments.lastEntry();
+        segment = map(last.getValue(), true, -1);
+        long sequence = last.getKey() - 1;
+        int position = 0;
+        while (position + HEADER_SIZE <= segment.capacity()) {
+            final int length = segment.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > segment.capacity()) {
+                break;
+            }
+            sequence = segment.getLong(position + 4);
+            position += HEADER_SIZE + length;
+        }
+        writePosition = position;
+        lastSequence = sequence;
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.journal;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import org.springframework.events.Event;
+
+/**
+ * Sequential reader of {@link EventJournal}. Segments are mapped read-only
+ * and events are decoded straight from the mapped memory. Reading stops at
+ * the last event appended so far; further events appended to the journal are
+ * returned by subsequent reads.
+ * <p>
+ * Readers are not thread-safe; each one is meant to be used by a single thread.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see EventJournal#openReader(long)
+ */
+public final class JournalReader {
+
+    private final EventJournal journal;
+
+    private final long fromSequence;
+
+    private ByteBuffer segment;
+
+    private long segmentBase;
+
+    private int position;
+
+    private long sequence;
+
+    JournalReader(final EventJournal journal, final long fromSequence) {
+        this.journal = journal;
+        this.fromSequence = fromSequence;
+        this.sequence = Math.max(fromSequence, 1L) - 1;
+    }
+
+    /**
+     * Reads next event.
+     *
+     * @return the event, or {@code null} if all appended events have been read
+     */
+    public Event read() {
+        while (sequence < journal.getLastSequence()) {
+            if (segment == null || !hasRecord()) {
+                openSegment();
+                continue;
+            }
+            final int length = segment.getInt(position);
+            final long recordSequence = segment.getLong(position + 4);
+            final int payload = position + EventJournal.HEADER_SIZE;
+            position = payload + length;
+            if (recordSequence < fromSequence) {
+                continue;
+            }
+            sequence = recordSequence;
+            segment.limit(position).position(payload);
+            try {
+                return journal.getCodec().decode(segment);
+            } finally {
+                segment.limit(segment.capacity());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets sequence number of the last read event.
+     *
+     * @return the sequence number, or the one preceding the first requested
+     *         event if nothing has been read yet
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    private boolean hasRecord() {
+        return position + EventJournal.HEADER_SIZE <= segment.capacity()
+                && segment.getInt(position) > 0;
+    }
+
+    private void openSegment() {
+        final Map.Entry<Long, File> entry = journal.findSegment(sequence + 1);
+        if (segment != null && entry.getKey() <= segmentBase) {
+            throw new IllegalStateException("Journal segment "
+                    + entry.getValue() + " is corrupted");
+        }
+        segment = EventJournal.map(entry.getValue(), false, -1);
+        segmentBase = entry.getKey();
+        position = 0;
+        if (segmentBase > sequence + 1) {
+            // requested events are no longer retained
+            sequence = segmentBase - 1;
+        }
+    }
+
+}
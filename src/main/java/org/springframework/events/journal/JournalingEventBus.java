@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.journal;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.events.Event;
+import org.springframework.events.HandlerRegistration;
+import org.springframework.events.HasEventHandlers;
+import org.springframework.events.annotation.Journaled;
+
+/**
+ * Journaling adapter for {@link HasEventHandlers} interface. Published events
+ * of journaled types are appended to {@link EventJournal} before they are
+ * passed to the delegate. Event types are journaled if they are annotated with
+ * {@link Journaled} or are assignable to one of configured types; other events
+ * are passed to the delegate only.
+ * <p>
+ * While a journaled event is dispatched, its sequence number is available to
+ * handlers through {@link #getCurrentSequence()}. Handlers may be added with
+ * a replay of journaled events, after which they continue with live events.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see EventJournal
+ */
+public final class JournalingEventBus implements HasEventHandlers {
+
+    private final HasEventHandlers delegate;
+
+    private final EventJournal journal;
+
+    private final ConcurrentMap<Class<?>, Boolean> journaled =
+        new ConcurrentHashMap<Class<?>, Boolean>();
+
+    private final ThreadLocal<long[]> currentSequence = new ThreadLocal<long[]>() {
+
+        @Override
+        protected long[] initialValue() {
+            return new long[1];
+        }
+    };
+
+    private volatile Set<Class<?>> journaledTypes = Collections.emptySet();
+
+    /**
+     * Constructs {@link JournalingEventBus} with delegate
+     * {@link HasEventHandlers} instance and the journal.
+     *
+     * @param delegate
+     *            not-{@code null} reference to the delegate
+     *            {@link HasEventHandlers}
+     * @param journal
+     *            not-{@code null} reference to the journal
+     */
+    public JournalingEventBus(final HasEventHandlers delegate,
+            final EventJournal journal) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate must not be null");
+        }
+        if (journal == null) {
+            throw new IllegalArgumentException("Journal must not be null");
+        }
+        this.delegate = delegate;
+        this.journal = journal;
+    }
+
+    /**
+     * Sets event types to be journaled in addition to those annotated with
+     * {@link Journaled}. Subtypes of the given types are journaled as well.
+     *
+     * @param types the event types
+     */
+    public void setJournaledTypes(final Collection<Class<? extends Event>> types) {
+        journaledTypes = new HashSet<Class<?>>(types);
+        journaled.clear();
+    }
+
+    /**
+     * Checks if events of the given type are journaled.
+     *
+     * @param type the event type
+     * @return {@code true} if events are appended to the journal
+     */
+    public boolean isJournaled(final Class<? extends Event> type) {
+        Boolean result = journaled.get(type);
+        if (result == null) {
+            result = AnnotationUtils.findAnnotation(type, Journaled.class) != null;
+            for (final Class<?> journaledType : journaledTypes) {
+                result |= journaledType.isAssignableFrom(type);
+            }
+            journaled.put(type, result);
+        }
+        return result;
+    }
+
+    /**
+     * Gets sequence number of journaled event being dispatched by the calling
+     * thread.
+     *
+     * @return the sequence number, or {@code 0} if no journaled event is being
+     *         dispatched
+     */
+    public long getCurrentSequence() {
+        return currentSequence.get()[0];
+    }
+
+    /**
+     * Sets sequence number of journaled event being dispatched by the calling
+     * thread.
+     *
+     * @param sequence the sequence number
+     * @return the previous sequence number, to be restored afterwards
+     */
+    long enterSequence(final long sequence) {
+        final long[] current = currentSequence.get();
+        final long previous = current[0];
+        current[0] = sequence;
+        return previous;
+    }
+
+    public EventJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(final Event event) {
+        if (event == null || !isJournaled(event.getClass())) {
+            delegate.publish(event);
+            return;
+        }
+        final long previous = enterSequence(journal.append(event));
+        try {
+            delegate.publish(event);
+        } finally {
+            enterSequence(previous);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E extends Event, H extends Event.Handler<E>> HandlerRegistration
+            addHandler(final Class<E> type, final H handler) {
+        return delegate.addHandler(type, handler);
+    }
+
+    /**
+     * Adds handler catching up with journaled events of the given type first.
+     * Events of exactly the given type, starting from the given sequence
+     * number, are read from the journal and passed to the handler on
+     * the calling thread, without going through the delegate. Afterwards
+     * the handler receives live events, with no event missed or received
+     * twice. Replayed events are also numbered by {@link #getCurrentSequence()}.
+     * <p>
+     * Live events published during the replay are held back until it is
+     * over. If the replay fails, the handler is removed.
+     *
+     * @param <E> the event type
+     * @param <H> the handler type
+     * @param type the journaled event type
+     * @param handler the handler
+     * @param fromSequence sequence number of the first event to be replayed
+     * @return the {@link HandlerRegistration} that can be stored in order to
+     *         remove the handler later
+     * @throws IllegalArgumentException if the event type is not journaled
+     */
+    public <E extends Event, H extends Event.Handler<E>> HandlerRegistration
+            addHandler(final Class<E> type, final H handler,
+                    final long fromSequence) {
+        if (type == null || !isJournaled(type)) {
+            throw new IllegalArgumentException("Event type is not journaled");
+        }
+        if (handler == null) {
+            throw new IllegalArgumentException("Event handler is required");
+        }
+        final ReplayingHandler<E> replaying =
+            new ReplayingHandler<E>(type, handler, this);
+        final HandlerRegistration registration =
+            delegate.addHandler(type, replaying);
+        boolean replayed = false;
+        try {
+            replaying.replay(journal.openReader(fromSequence));
+            replayed = true;
+        } finally {
+            if (!replayed) {
+                registration.removeHandler();
+            }
+        }
+        return registration;
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.journal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.events.Event;
+
+/**
+ * Handler feeding journaled events to its delegate before switching it to live
+ * events. It is registered for live events before the replay starts, so that
+ * live events published during the replay are buffered rather than missed.
+ * Once the journal has been read up to its end, buffered events not covered by
+ * the replay are passed to the delegate and subsequent live events go straight
+ * through. Live events covered by the replay are recognized by their sequence
+ * numbers and skipped.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @param <E> the event type
+ */
+final class ReplayingHandler<E extends Event> implements Event.Handler<E> {
+
+    private final Class<E> type;
+
+    private final Event.Handler<E> delegate;
+
+    private final JournalingEventBus bus;
+
+    private final Object lock = new Object();
+
+    private List<Pending<E>> pending = new ArrayList<Pending<E>>();
+
+    private volatile long replayedSequence;
+
+    private volatile boolean live;
+
+    ReplayingHandler(final Class<E> type, final Event.Handler<E> delegate,
+            final JournalingEventBus bus) {
+        this.type = type;
+        this.delegate = delegate;
+        this.bus = bus;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void handleEvent(final E event) {
+        final long sequence = bus.getCurrentSequence();
+        if (!live) {
+            synchronized (lock) {
+                if (!live) {
+                    pending.add(new Pending<E>(sequence, event));
+                    return;
+                }
+            }
+        }
+        if (sequence == 0 || sequence > replayedSequence) {
+            delegate.handleEvent(event);
+        }
+    }
+
+    /**
+     * Replays journaled events of handled type and switches to live events.
+     * The bulk of events is replayed without holding the lock, live events
+     * are blocked only while the last few events appended meanwhile are
+     * caught up.
+     *
+     * @param reader reader positioned at the first event to be replayed
+     */
+    void replay(final JournalReader reader) {
+        replayAvailable(reader);
+        synchronized (lock) {
+            replayAvailable(reader);
+            replayedSequence = reader.getSequence();
+            // the delegate may publish events buffered meanwhile
+            while (!pending.isEmpty()) {
+                final List<Pending<E>> events = pending;
+                pending = new ArrayList<Pending<E>>();
+                for (final Pending<E> event : events) {
+                    if (event.sequence == 0 || event.sequence > replayedSequence) {
+                        handle(event.event, event.sequence);
+                    }
+                }
+            }
+            pending = null;
+            live = true;
+        }
+    }
+
+    private void replayAvailable(final JournalReader reader) {
+        Event event;
+        while ((event = reader.read()) != null) {
+            if (event.getClass() == type) {
+                handle(type.cast(event), reader.getSequence());
+            }
+        }
+    }
+
+    private void handle(final E event, final long sequence) {
+        final long previous = bus.enterSequence(sequence);
+        try {
+            delegate.handleEvent(event);
+        } finally {
+            bus.enterSequence(previous);
+        }
+    }
+
+    private static final class Pending<E> {
+
+        private final long sequence;
+
+        private final E event;
+
+        Pending(final long sequence, final E event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
+    }
+
+}
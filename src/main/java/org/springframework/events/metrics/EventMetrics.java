@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.events.Event;
+import org.springframework.events.context.EventHandlerAdapter;
+
+/**
+ * Registry of {@link Timer} objects recording publishing of events per event
+ * type and invocations of handlers per handler class. Recording is done by
+ * {@link MeteredPublisher} and {@link MeteredEventBus}; statistics are pulled
+ * with {@link #snapshot()}.
+ * <p>
+ * Recording may be switched off at runtime, in which case instrumented
+ * objects merely delegate after a single volatile read.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see MeteredPublisher
+ * @see MeteredEventBus
+ */
+public final class EventMetrics {
+
+    private final ConcurrentMap<Class<?>, Timer> publishes =
+        new ConcurrentHashMap<Class<?>, Timer>();
+
+    private final ConcurrentMap<String, Timer> handlers =
+        new ConcurrentHashMap<String, Timer>();
+
+    private volatile boolean enabled = true;
+
+    /**
+     * Checks if recording is enabled.
+     *
+     * @return {@code true} if recording is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables recording. Recorded statistics are retained.
+     *
+     * @param enabled whether recording is enabled
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets timer recording publishing of events of the given type.
+     *
+     * @param type the event type
+     * @return the timer of event type
+     */
+    public Timer getPublishTimer(final Class<? extends Event> type) {
+        final Timer timer = publishes.get(type);
+        if (timer != null) {
+            return timer;
+        }
+        final Timer created = new Timer(type.getName());
+        final Timer existing = publishes.putIfAbsent(type, created);
+        return existing != null ? existing : created;
+    }
+
+    /**
+     * Gets timer recording invocations of the given handler. Handlers of
+     * the same class share a timer; for {@link EventHandlerAdapter} class of
+     * the adapted object is taken into account.
+     *
+     * @param handler the handler
+     * @return the timer of handler
+     */
+    public Timer getHandlerTimer(final Event.Handler<?> handler) {
+        final String name = nameOf(handler);
+        final Timer timer = handlers.get(name);
+        if (timer != null) {
+            return timer;
+        }
+        final Timer created = new Timer(name);
+        final Timer existing = handlers.putIfAbsent(name, created);
+        return existing != null ? existing : created;
+    }
+
+    /**
+     * Takes snapshot of all timers.
+     *
+     * @return snapshot of all timers
+     */
+    public MetricsSnapshot snapshot() {
+        final Map<String, TimerSnapshot> publishSnapshots =
+                new TreeMap<String, TimerSnapshot>();
+        for (final Timer timer : publishes.values()) {
+            publishSnapshots.put(timer.getName(), timer.snapshot());
+        }
+        final Map<String, TimerSnapshot> handlerSnapshots =
+                new TreeMap<String, TimerSnapshot>();
+        for (final Timer timer : handlers.values()) {
+            handlerSnapshots.put(timer.getName(), timer.snapshot());
+        }
+        return new MetricsSnapshot(publishSnapshots, handlerSnapshots);
+    }
+
+    /**
+     * Discards all recorded statistics.
+     */
+    public void reset() {
+        for (final Timer timer : publishes.values()) {
+            timer.reset();
+        }
+        for (final Timer timer : handlers.values()) {
+            timer.reset();
+        }
+    }
+
+    private static String nameOf(final Event.Handler<?> handler) {
+        if (handler instanceof EventHandlerAdapter) {
+            return ((EventHandlerAdapter) handler).getTarget().getClass().getName();
+        }
+        return handler.getClass().getName();
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.metrics;
+
+/**
+ * Immutable snapshot of {@link LatencyHistogram}.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see LatencyHistogram
+ */
+public final class HistogramSnapshot {
+
+    private final long[] counts;
+
+    private final long count;
+
+    private final long sum;
+
+    private final long max;
+
+    HistogramSnapshot(final long[] counts, final long count, final long sum,
+            final long max) {
+        this.counts = counts;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the highest recorded value.
+     *
+     * @return the highest recorded value or zero if there are no values
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the arithmetic mean of recorded values.
+     *
+     * @return the mean or zero if there are no values
+     */
+    public double getMean() {
+        if (count == 0) {
+            return 0d;
+        }
+        return (double) sum / count;
+    }
+
+    /**
+     * Gets the value below which the given percentage of recorded values fall.
+     * The result is the upper bound of the bucket holding that value, hence
+     * it may exceed the exact value by the precision of the histogram.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the value at the percentile or zero if there are no values
+     */
+    public long getValueAtPercentile(final double percentile) {
+        if (percentile < 0d || percentile > 100d) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        if (count == 0) {
+            return 0L;
+        }
+        final long rank = Math.max(1L, (long) Math.ceil(percentile / 100d * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestValueAt(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "count=" + count + ", mean=" + getMean()
+                + ", p50=" + getValueAtPercentile(50d)
+                + ", p99=" + getValueAtPercentile(99d)
+                + ", max=" + max;
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative values, typically latencies in
+ * nanoseconds. Values are counted in log-linear buckets: each power of two
+ * range is split into 32 equal sub-buckets, which bounds the relative error of
+ * reported percentiles to about 3% over the whole range of {@code long}.
+ * Recording is a single atomic increment plus updates of the running totals.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see HistogramSnapshot
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT << 1;
+
+    private static final int BUCKET_COUNT = LINEAR_LIMIT
+            + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong sum = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a single value.
+     *
+     * @param value the value to be recorded; negative values are recorded
+     *        as zero
+     */
+    public void record(final long value) {
+        final long normalized = Math.max(value, 0L);
+        counts.incrementAndGet(indexOf(normalized));
+        count.incrementAndGet();
+        sum.addAndGet(normalized);
+        long current = max.get();
+        while (normalized > current && !max.compareAndSet(current, normalized)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Takes snapshot of recorded values. Values recorded concurrently with
+     * taking the snapshot may or may not be included.
+     *
+     * @return snapshot of this histogram
+     */
+    public HistogramSnapshot snapshot() {
+        final long[] copy = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new HistogramSnapshot(copy, total, sum.get(), max.get());
+    }
+
+    /**
+     * Discards all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0L);
+        }
+        count.set(0L);
+        sum.set(0L);
+        max.set(0L);
+    }
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    static int indexOf(final long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKET_COUNT
+                + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    static long highestValueAt(final int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        final int shift = (index - LINEAR_LIMIT) / SUB_BUCKET_COUNT + 1;
+        final long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKET_COUNT
+                + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+}
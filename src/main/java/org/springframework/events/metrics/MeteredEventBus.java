@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.metrics;
+
+import org.springframework.events.Event;
+import org.springframework.events.HandlerRegistration;
+import org.springframework.events.HasEventHandlers;
+
+/**
+ * Instrumenting adapter for {@link HasEventHandlers} interface. Publishing of
+ * events is recorded per event type and every added handler is decorated so
+ * that its invocations are recorded per handler, all in the given
+ * {@link EventMetrics}.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see EventMetrics
+ * @see MeteredPublisher
+ */
+public final class MeteredEventBus implements HasEventHandlers {
+
+    private final HasEventHandlers delegate;
+
+    private final EventMetrics metrics;
+
+    /**
+     * Constructs {@link MeteredEventBus} with delegate {@link HasEventHandlers}
+     * instance and metrics registry.
+     *
+     * @param delegate
+     *            not-{@code null} reference to the delegate
+     *            {@link HasEventHandlers}
+     * @param metrics
+     *            not-{@code null} reference to the metrics registry
+     */
+    public MeteredEventBus(final HasEventHandlers delegate,
+            final EventMetrics metrics) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate must not be null");
+        }
+        if (metrics == null) {
+            throw new IllegalArgumentException("Metrics must not be null");
+        }
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(final Event event) {
+        if (!metrics.isEnabled() || event == null) {
+            delegate.publish(event);
+            return;
+        }
+        final Timer timer = metrics.getPublishTimer(event.getClass());
+        boolean failed = true;
+        final long start = System.nanoTime();
+        try {
+            delegate.publish(event);
+            failed = false;
+        } finally {
+            timer.record(System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E extends Event, H extends Event.Handler<E>> HandlerRegistration
+            addHandler(final Class<E> type, final H handler) {
+        if (handler == null) {
+            throw new IllegalArgumentException("Event handler is required");
+        }
+        return delegate.addHandler(type, new MeteredHandler<E>(handler, metrics));
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.metrics;
+
+import org.springframework.events.Event;
+
+/**
+ * {@link Event.Handler} decorator recording invocations of the delegate in
+ * {@link Timer} obtained from {@link EventMetrics}. This is a package protected
+ * class used by {@link MeteredPublisher} and {@link MeteredEventBus}.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @param <E> type of supported {@link Event} by this object.
+ */
+final class MeteredHandler<E extends Event> implements Event.Handler<E> {
+
+    private final Event.Handler<E> delegate;
+
+    private final EventMetrics metrics;
+
+    private final Timer timer;
+
+    MeteredHandler(final Event.Handler<E> delegate, final EventMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.timer = metrics.getHandlerTimer(delegate);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void handleEvent(final E event) {
+        if (!metrics.isEnabled()) {
+            event.dispatch(delegate);
+            return;
+        }
+        boolean failed = true;
+        final long start = System.nanoTime();
+        try {
+            event.dispatch(delegate);
+            failed = false;
+        } finally {
+            timer.record(System.nanoTime() - start, failed);
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of all timers maintained by {@link EventMetrics}.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see EventMetrics#snapshot()
+ */
+public final class MetricsSnapshot {
+
+    private final Map<String, TimerSnapshot> publishes;
+
+    private final Map<String, TimerSnapshot> handlers;
+
+    MetricsSnapshot(final Map<String, TimerSnapshot> publishes,
+            final Map<String, TimerSnapshot> handlers) {
+        this.publishes = Collections.unmodifiableMap(publishes);
+        this.handlers = Collections.unmodifiableMap(handlers);
+    }
+
+    /**
+     * Gets publishing statistics keyed by name of event class.
+     *
+     * @return publishing statistics per event type
+     */
+    public Map<String, TimerSnapshot> getPublishes() {
+        return publishes;
+    }
+
+    /**
+     * Gets handler invocation statistics keyed by name of handler class.
+     *
+     * @return invocation statistics per handler
+     */
+    public Map<String, TimerSnapshot> getHandlers() {
+        return handlers;
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts invocations and failures of a single operation, such as publishing
+ * events of certain type or invoking certain handler, and records their
+ * latency in a {@link LatencyHistogram}.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see EventMetrics
+ */
+public final class Timer {
+
+    private final String name;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final AtomicLong errors = new AtomicLong();
+
+    Timer(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the name of timed operation.
+     *
+     * @return the name of timed operation
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records a single invocation.
+     *
+     * @param nanos duration of the invocation in nanoseconds
+     * @param failed whether the invocation has failed
+     */
+    public void record(final long nanos, final boolean failed) {
+        latency.record(nanos);
+        if (failed) {
+            errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * Takes snapshot of this timer.
+     *
+     * @return snapshot of this timer
+     */
+    public TimerSnapshot snapshot() {
+        return new TimerSnapshot(name, errors.get(), latency.snapshot());
+    }
+
+    void reset() {
+        latency.reset();
+        errors.set(0L);
+    }
+
+}
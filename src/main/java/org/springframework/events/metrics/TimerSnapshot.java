@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.metrics;
+
+/**
+ * Immutable snapshot of {@link Timer}.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see Timer
+ */
+public final class TimerSnapshot {
+
+    private final String name;
+
+    private final long errors;
+
+    private final HistogramSnapshot latency;
+
+    TimerSnapshot(final String name, final long errors,
+            final HistogramSnapshot latency) {
+        this.name = name;
+        this.errors = errors;
+        this.latency = latency;
+    }
+
+    /**
+     * Gets the name of timed operation.
+     *
+     * @return the name of timed operation
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the number of recorded invocations.
+     *
+     * @return the number of invocations
+     */
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    /**
+     * Gets the number of failed invocations.
+     *
+     * @return the number of failures
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Gets latency distribution of recorded invocations, in nanoseconds.
+     *
+     * @return the latency distribution
+     */
+    public HistogramSnapshot getLatency() {
+        return latency;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return name + " [errors=" + errors + ", " + latency + "]";
+    }
+
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.queue;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.events.Event;
+import org.springframework.events.cache.Keyed;
+
+/**
+ * {@link EventQueue} conflating events of configured types. An event of
+ * a conflated type replaces the event of the same type and key waiting in the
+ * queue, if there is one, keeping its position; otherwise it is queued at the
+ * tail. The key is the one of {@link Keyed} events, and the event type for
+ * other events, so the number of queued events of conflated types is bounded
+ * by the number of their distinct keys. Events of other types are queued as
+ * they are.
+ * <p>
+ * Offering and polling are non-blocking. The queue may be bounded; once the
+ * capacity is reached, events that do not replace a queued one are rejected.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see EventQueue
+ * @see Keyed
+ */
+public final class ConflatingEventQueue implements EventQueue {
+
+    private final Queue<Slot> slots = new ConcurrentLinkedQueue<Slot>();
+
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Object, Slot>> pending =
+        new ConcurrentHashMap<Class<?>, ConcurrentMap<Object, Slot>>();
+
+    private final ConcurrentMap<Class<?>, Boolean> conflated =
+        new ConcurrentHashMap<Class<?>, Boolean>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicLong replaced = new AtomicLong();
+
+    private final Set<Class<?>> conflatedTypes;
+
+    private final int capacity;
+
+    /**
+     * Constructs unbounded queue conflating events of the given types.
+     *
+     * @param types the conflated event types; subtypes are conflated as well
+     */
+    public ConflatingEventQueue(final Collection<Class<? extends Event>> types) {
+        this(types, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructs queue conflating events of the given types and holding at
+     * most the given number of events.
+     *
+     * @param types the conflated event types; subtypes are conflated as well
+     * @param capacity the maximum number of queued events
+     */
+    public ConflatingEventQueue(final Collection<Class<? extends Event>> types,
+            final int capacity) {
+        if (types == null) {
+            throw new IllegalArgumentException("Conflated types must not be null");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.conflatedTypes = new HashSet<Class<?>>(types);
+        this.capacity = capacity;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean offer(final Event event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event must not be null");
+        }
+        if (!isConflated(event.getClass())) {
+            if (!reserve()) {
+                return false;
+            }
+            slots.offer(new Slot(null, null, event));
+            return true;
+        }
+        final Object key = event instanceof Keyed
+                ? ((Keyed) event).getEventKey() : event.getClass();
+        if (key == null) {
+            throw new IllegalArgumentException("Event key must not be null");
+        }
+        final ConcurrentMap<Object, Slot> keys = getKeys(event.getClass());
+        while (true) {
+            final Slot slot = keys.get(key);
+            if (slot != null) {
+                final Event current = slot.event.get();
+                if (current != null) {
+                    if (slot.event.compareAndSet(current, event)) {
+                        replaced.incrementAndGet();
+                        return true;
+                    }
+                    continue;
+                }
+            }
+            if (!reserve()) {
+                return false;
+            }
+            final Slot created = new Slot(keys, key, event);
+            if (slot == null ? keys.putIfAbsent(key, created) == null
+                    : keys.replace(key, slot, created)) {
+                slots.offer(created);
+                return true;
+            }
+            size.decrementAndGet();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Event poll() {
+        final Slot slot = slots.poll();
+        if (slot == null) {
+            return null;
+        }
+        final Event event = slot.event.getAndSet(null);
+        if (slot.keys != null) {
+            slot.keys.remove(slot.key, slot);
+        }
+        size.decrementAndGet();
+        return event;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Gets the number of events replaced by newer events of the same key.
+     *
+     * @return the number of conflated events
+     */
+    public long getConflatedCount() {
+        return replaced.get();
+    }
+
+    private boolean reserve() {
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isConflated(final Class<?> type) {
+        Boolean result = conflated.get(type);
+        if (result == null) {
+            result = false;
+            for (final Class<?> conflatedType : conflatedTypes) {
+                result |= conflatedType.isAssignableFrom(type);
+            }
+            conflated.put(type, result);
+        }
+        return result;
+    }
+
+    private ConcurrentMap<Object, Slot> getKeys(final Class<?> type) {
+        ConcurrentMap<Object, Slot> keys = pending.get(type);
+        if (keys == null) {
+            final ConcurrentMap<Object, Slot> created =
+                    new ConcurrentHashMap<Object, Slot>();
+            keys = pending.putIfAbsent(type, created);
+            if (keys == null) {
+                keys = created;
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Position in the queue, holding the latest event of its key until it is
+     * polled.
+     */
+    private static final class Slot {
+
+        private final ConcurrentMap<Object, Slot> keys;
+
+        private final Object key;
+
+        private final AtomicReference<Event> event;
+
+        Slot(final ConcurrentMap<Object, Slot> keys, final Object key,
+                final Event event) {
+            this.keys = keys;
+            this.key = key;
+            this.event = new AtomicReference<Event>(event);
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.queue;
+
+import org.springframework.events.Event;
+
+/**
+ * Storage of events awaiting asynchronous dispatch. Implementations must
+ * allow events to be offered by many threads concurrently; events are taken
+ * by a single dispatching thread, in the order they were offered.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see HeapEventQueue
+ * @see OffHeapEventQueue
+ * @see org.springframework.events.AsyncPublisher
+ */
+public interface EventQueue {
+
+    /**
+     * Inserts event at the tail of this queue if it is possible to do so
+     * without exceeding its capacity.
+     *
+     * @param event the event to be queued; must not be {@code null}
+     * @return {@code true} if the event has been queued, {@code false}
+     *         if the queue is full
+     */
+    boolean offer(Event event);
+
+    /**
+     * Retrieves and removes the event at the head of this queue.
+     *
+     * @return the head of this queue or {@code null} if the queue is empty
+     */
+    Event poll();
+
+    /**
+     * Gets the number of events in this queue.
+     *
+     * @return the number of queued events
+     */
+    int size();
+
+}
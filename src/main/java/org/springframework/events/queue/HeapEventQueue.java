@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.queue;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.events.Event;
+
+/**
+ * Default {@link EventQueue} keeping events as heap objects in a non-blocking
+ * linked queue. The queue may be bounded; once the capacity is reached new
+ * events are rejected.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see EventQueue
+ */
+public final class HeapEventQueue implements EventQueue {
+
+    private final Queue<Event> events = new ConcurrentLinkedQueue<Event>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final int capacity;
+
+    /**
+     * Constructs unbounded queue.
+     */
+    public HeapEventQueue() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructs queue holding at most the given number of events.
+     *
+     * @param capacity the maximum number of queued events
+     */
+    public HeapEventQueue(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean offer(final Event event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event must not be null");
+        }
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            return false;
+        }
+        events.offer(event);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Event poll() {
+        final Event event = events.poll();
+        if (event != null) {
+            size.decrementAndGet();
+        }
+        return event;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.queue;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.springframework.events.Event;
+import org.springframework.events.codec.EventCodec;
+
+/**
+ * {@link EventQueue} keeping pending events outside of the Java heap. Events
+ * are encoded with {@link EventCodec} into direct memory segments as soon as
+ * they are offered and decoded lazily, when they are taken for dispatch.
+ * Heap usage of this queue does not depend on the number of pending events,
+ * which makes it suitable for very deep backlogs.
+ * <p>
+ * Each record occupies a four byte length prefix followed by encoded event.
+ * A single event must fit within one segment. The queue is bounded by the
+ * maximum number of segments; offers exceeding it are rejected. A segment
+ * read to the end is released on the next poll and does not count towards
+ * the bound, so a drained queue accepts events even if it is not polled again.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see EventQueue
+ * @see EventCodec
+ */
+public final class OffHeapEventQueue implements EventQueue {
+
+    private static final int LENGTH_SIZE = 4;
+
+    private static final int MAX_SPARE_SEGMENTS = 2;
+
+    private final EventCodec codec;
+
+    private final int segmentSize;
+
+    private final int maxSegments;
+
+    private final Object lock = new Object();
+
+    private final Deque<Segment> segments = new ArrayDeque<Segment>();
+
+    private final Deque<Segment> spares = new ArrayDeque<Segment>();
+
+    private int size;
+
+    /**
+     * Constructs queue of 1MB segments and no bound other than available
+     * direct memory.
+     *
+     * @param codec the codec used to encode and decode events
+     */
+    public OffHeapEventQueue(final EventCodec codec) {
+        this(codec, 1024 * 1024, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructs queue of given segment size bounded by given number of
+     * segments.
+     *
+     * @param codec the codec used to encode and decode events
+     * @param segmentSize size of single memory segment in bytes
+     * @param maxSegments maximum number of segments allocated at once
+     */
+    public OffHeapEventQueue(final EventCodec codec, final int segmentSize,
+            final int maxSegments) {
+        if (codec == null) {
+            throw new IllegalArgumentException("Codec is required");
+        }
+        if (segmentSize <= LENGTH_SIZE) {
+            throw new IllegalArgumentException("Segment size is too small");
+        }
+        if (maxSegments <= 0) {
+            throw new IllegalArgumentException(
+                    "Maximum number of segments must be positive");
+        }
+        this.codec = codec;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean offer(final Event event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event must not be null");
+        }
+        synchronized (lock) {
+            Segment tail = segments.peekLast();
+            if (tail != null && tail.write(event, codec)) {
+                size++;
+                return true;
+            }
+            if (getSegmentsInUse() >= maxSegments) {
+                return false;
+            }
+            tail = newSegment();
+            if (!tail.write(event, codec)) {
+                spares.push(tail);
+                throw new IllegalArgumentException(
+                        "Event does not fit in a single segment");
+            }
+            segments.addLast(tail);
+            size++;
+            return true;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Event poll() {
+        final ByteBuffer record;
+        synchronized (lock) {
+            Segment head = segments.peekFirst();
+            if (head == null) {
+                return null;
+            }
+            if (head.isExhausted() && segments.size() > 1) {
+                segments.pollFirst();
+                recycle(head);
+                head = segments.peekFirst();
+            }
+            record = head.read();
+            if (record == null) {
+                return null;
+            }
+            size--;
+        }
+        // Segments are recycled by the consuming thread only, so the record
+        // stays intact until the next poll and can be decoded without locking.
+        return codec.decode(record);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        synchronized (lock) {
+            return size;
+        }
+    }
+
+    /**
+     * Gets the number of memory segments currently holding events.
+     *
+     * @return the number of segments in use
+     */
+    public int getSegmentCount() {
+        synchronized (lock) {
+            return segments.size();
+        }
+    }
+
+    /**
+     * Gets the number of segments counting towards the bound: the head
+     * segment is left out once it is read to the end.
+     */
+    private int getSegmentsInUse() {
+        final Segment head = segments.peekFirst();
+        return head != null && head.isExhausted() ? segments.size() - 1
+                : segments.size();
+    }
+
+    private Segment newSegment() {
+        final Segment spare = spares.poll();
+        if (spare != null) {
+            return spare;
+        }
+        return new Segment(ByteBuffer.allocateDirect(segmentSize));
+    }
+
+    private void recycle(final Segment segment) {
+        if (spares.size() < MAX_SPARE_SEGMENTS) {
+            segment.reset();
+            spares.push(segment);
+        }
+    }
+
+    /**
+     * Fixed-size block of direct memory holding consecutive records. Records
+     * are appended by producers under the queue lock; the read view is used
+     * by the consuming thread only.
+     */
+    private static final class Segment {
+
+        private final ByteBuffer writeView;
+
+        private final ByteBuffer readView;
+
+        private int writeIndex;
+
+        private int readIndex;
+
+        Segment(final ByteBuffer memory) {
+            this.writeView = memory.duplicate();
+            this.readView = memory.duplicate();
+        }
+
+        boolean write(final Event event, final EventCodec codec) {
+            final int start = writeIndex + LENGTH_SIZE;
+            if (start > writeView.capacity()) {
+                return false;
+            }
+            writeView.limit(writeView.capacity());
+            writeView.position(start);
+            try {
+                codec.encode(event, writeView);
+            } catch (BufferOverflowException e) {
+                return false;
+            }
+            writeView.putInt(writeIndex, writeView.position() - start);
+            writeIndex = writeView.position();
+            return true;
+        }
+
+        ByteBuffer read() {
+            if (readIndex == writeIndex) {
+                return null;
+            }
+            readView.limit(readView.capacity());
+            final int length = readView.getInt(readIndex);
+            final int start = readIndex + LENGTH_SIZE;
+            readView.limit(start + length);
+            readView.position(start);
+            readIndex = start + length;
+            return readView;
+        }
+
+        boolean isExhausted() {
+            return readIndex == writeIndex;
+        }
+
+        void reset() {
+            writeIndex = 0;
+            readIndex = 0;
+        }
+    }
+
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.reactive;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import org.springframework.events.Event;
+import org.springframework.events.EventBus;
+
+/**
+ * Reactive Streams {@link Subscriber} publishing received events to an
+ * {@link EventBus}. Events are requested and published in batches: the
+ * subscriber requests a batch, collects it and publishes it in the order
+ * received before requesting the next one, so the upstream is signalled once
+ * per batch rather than once per event. A partial batch is published when
+ * the stream terminates or on {@link #flush()}.
+ * <p>
+ * Failures of the target bus are logged and do not cancel the subscription.
+ * Instances subscribe to one publisher only.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @param <E> the event type
+ *
+ * @see EventPublisher
+ */
+public final class BatchingSubscriber<E extends Event> implements Subscriber<E> {
+
+    /**
+     * Default number of events requested and published at once.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private static final Log LOG = LogFactory.getLog(BatchingSubscriber.class);
+
+    private final EventBus target;
+
+    private final int batchSize;
+
+    private final List<E> batch;
+
+    private Subscription subscription;
+
+    private long published;
+
+    /**
+     * Constructs subscriber publishing events in batches of default size.
+     *
+     * @param target the bus events are published to
+     */
+    public BatchingSubscriber(final EventBus target) {
+        this(target, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs subscriber.
+     *
+     * @param target the bus events are published to
+     * @param batchSize positive number of events requested and published at once
+     */
+    public BatchingSubscriber(final EventBus target, final int batchSize) {
+        if (target == null) {
+            throw new IllegalArgumentException("Target bus must not be null");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.target = target;
+        this.batchSize = batchSize;
+        this.batch = new ArrayList<E>(batchSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onSubscribe(final Subscription subscription) {
+        if (subscription == null) {
+            throw new NullPointerException("Subscription must not be null");
+        }
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(batchSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onNext(final E event) {
+        if (event == null) {
+            throw new NullPointerException("Event must not be null");
+        }
+        final Subscription current;
+        synchronized (this) {
+            batch.add(event);
+            if (batch.size() < batchSize) {
+                return;
+            }
+            publishBatch();
+            current = subscription;
+        }
+        current.request(batchSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onError(final Throwable cause) {
+        if (cause == null) {
+            throw new NullPointerException("Cause must not be null");
+        }
+        LOG.error("Event stream failed", cause);
+        flush();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onComplete() {
+        flush();
+    }
+
+    /**
+     * Publishes events of the current, partial batch.
+     */
+    public synchronized void flush() {
+        publishBatch();
+    }
+
+    /**
+     * Cancels the subscription, dropping events of the current batch.
+     */
+    public void cancel() {
+        final Subscription current;
+        synchronized (this) {
+            batch.clear();
+            current = subscription;
+        }
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    /**
+     * Gets the number of events published to the target bus.
+     *
+     * @return the number of published events
+     */
+    public synchronized long getPublishedCount() {
+        return published;
+    }
+
+    private void publishBatch() {
+        for (final E event : batch) {
+            try {
+                target.publish(event);
+            } catch (RuntimeException e) {
+                LOG.error("Failed to publish event " + event, e);
+            }
+        }
+        published += batch.size();
+        batch.clear();
+    }
+
+}
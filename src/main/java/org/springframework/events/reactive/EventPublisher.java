@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.reactive;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+import org.springframework.events.Event;
+import org.springframework.events.HandlerRegistration;
+import org.springframework.events.HasBroadcastEventHandlers;
+import org.springframework.events.HasEventHandlers;
+
+/**
+ * Reactive Streams {@link Publisher} of events of one type published to
+ * a {@link HasEventHandlers} or {@link HasBroadcastEventHandlers} instance.
+ * Subscribers receive events published after they subscribed, as many as
+ * they requested. Events arriving while there is no outstanding demand are
+ * buffered per subscriber up to the buffer size; beyond it, the
+ * {@link OverflowStrategy} applies.
+ * <p>
+ * Events are delivered by the publishing thread if the subscriber has
+ * requested them, or otherwise by the thread requesting them. A single
+ * handler is added to the bus on the first subscription and removed by
+ * {@link #close()}, which also completes all subscriptions; subscriptions
+ * are cancelled without touching the bus, so they may be cancelled from
+ * within {@code onNext}.
+ * <p>
+ * On Java 9 and later, {@code org.reactivestreams.FlowAdapters} exposes
+ * the publisher as {@code java.util.concurrent.Flow.Publisher}.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @param <E> the event type
+ *
+ * @see BatchingSubscriber
+ */
+public final class EventPublisher<E extends Event> implements Publisher<E>,
+        Closeable {
+
+    /**
+     * Default size of subscriber buffers.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 256;
+
+    private final HasEventHandlers bus;
+
+    private final HasBroadcastEventHandlers broadcastBus;
+
+    private final Class<E> type;
+
+    private final List<EventSubscription<E>> subscriptions =
+        new CopyOnWriteArrayList<EventSubscription<E>>();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Object registrationMonitor = new Object();
+
+    private volatile int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    private volatile OverflowStrategy overflowStrategy = OverflowStrategy.DROP_LATEST;
+
+    private HandlerRegistration registration;
+
+    private boolean closed;
+
+    /**
+     * Constructs publisher of events of the given type published to the bus.
+     *
+     * @param bus the bus
+     * @param type the event type
+     */
+    public EventPublisher(final HasEventHandlers bus, final Class<E> type) {
+        this(bus, null, type);
+    }
+
+    /**
+     * Constructs publisher of events of the given type, or its subtypes,
+     * published to the broadcast bus.
+     *
+     * @param bus the broadcast bus
+     * @param type the event type
+     */
+    public EventPublisher(final HasBroadcastEventHandlers bus, final Class<E> type) {
+        this(null, bus, type);
+    }
+
+    private EventPublisher(final HasEventHandlers bus,
+            final HasBroadcastEventHandlers broadcastBus, final Class<E> type) {
+        if (bus == null && broadcastBus == null) {
+            throw new IllegalArgumentException("Event bus must not be null");
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("Event type is required");
+        }
+        this.bus = bus;
+        this.broadcastBus = broadcastBus;
+        this.type = type;
+    }
+
+    /**
+     * Sets the number of events buffered per subscriber without demand.
+     *
+     * @param bufferSize positive buffer size
+     */
+    public void setBufferSize(final int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Sets strategy applied when a subscriber buffer is full.
+     *
+     * @param overflowStrategy the strategy
+     */
+    public void setOverflowStrategy(final OverflowStrategy overflowStrategy) {
+        if (overflowStrategy == null) {
+            throw new IllegalArgumentException("Overflow strategy must not be null");
+        }
+        this.overflowStrategy = overflowStrategy;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void subscribe(final Subscriber<? super E> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber must not be null");
+        }
+        final EventSubscription<E> subscription = new EventSubscription<E>(this,
+                subscriber, bufferSize, overflowStrategy);
+        subscriber.onSubscribe(subscription);
+        synchronized (registrationMonitor) {
+            if (closed) {
+                subscription.complete();
+                return;
+            }
+            subscriptions.add(subscription);
+            if (registration == null) {
+                registration = register();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of active subscriptions.
+     *
+     * @return the number of subscriptions
+     */
+    public int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Gets the number of events dropped, across all subscriptions, because
+     * subscriber buffers were full.
+     *
+     * @return the number of dropped events
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Removes the handler from the bus and completes all subscriptions once
+     * their buffered events are delivered.
+     */
+    @Override
+    public void close() {
+        synchronized (registrationMonitor) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (registration != null) {
+                registration.removeHandler();
+                registration = null;
+            }
+        }
+        for (final EventSubscription<E> subscription : subscriptions) {
+            subscription.complete();
+        }
+        subscriptions.clear();
+    }
+
+    void dropped() {
+        dropped.incrementAndGet();
+    }
+
+    void cancelled(final EventSubscription<E> subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    private HandlerRegistration register() {
+        if (bus != null) {
+            return bus.addHandler(type, new Event.Handler<E>() {
+
+                @Override
+                public void handleEvent(final E event) {
+                    dispatch(event);
+                }
+            });
+        }
+        return broadcastBus.addHandler(new Event.Handler<Event>() {
+
+            @Override
+            public void handleEvent(final Event event) {
+                if (type.isInstance(event)) {
+                    dispatch(type.cast(event));
+                }
+            }
+        });
+    }
+
+    private void dispatch(final E event) {
+        for (final EventSubscription<E> subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    /**
+     * Signalled to subscribers cancelled because of buffer overflow with
+     * {@link OverflowStrategy#FAIL} strategy.
+     */
+    public static final class OverflowException extends IllegalStateException {
+
+        private static final long serialVersionUID = 1L;
+
+        OverflowException(final String message) {
+            super(message);
+        }
+    }
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.reactive;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import org.springframework.events.Event;
+
+/**
+ * Subscription of one subscriber to {@link EventPublisher}. Events are
+ * buffered and delivered by whichever thread finds demand and buffered
+ * events; signals are serialized by a work-in-progress counter, so only one
+ * thread delivers at a time.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @param <E> the event type
+ */
+final class EventSubscription<E extends Event> implements Subscription {
+
+    private final EventPublisher<E> publisher;
+
+    private final Subscriber<? super E> subscriber;
+
+    private final int bufferSize;
+
+    private final OverflowStrategy overflowStrategy;
+
+    private final Deque<E> buffer = new ArrayDeque<E>();
+
+    private final AtomicLong requested = new AtomicLong();
+
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private volatile Throwable failure;
+
+    private volatile boolean completed;
+
+    private volatile boolean cancelled;
+
+    EventSubscription(final EventPublisher<E> publisher,
+            final Subscriber<? super E> subscriber, final int bufferSize,
+            final OverflowStrategy overflowStrategy) {
+        this.publisher = publisher;
+        this.subscriber = subscriber;
+        this.bufferSize = bufferSize;
+        this.overflowStrategy = overflowStrategy;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void request(final long n) {
+        if (n <= 0) {
+            fail(new IllegalArgumentException("Requested " + n
+                    + " events, which violates rule 3.9"));
+            return;
+        }
+        long current;
+        long next;
+        do {
+            current = requested.get();
+            next = current + n < 0 ? Long.MAX_VALUE : current + n;
+        } while (!requested.compareAndSet(current, next));
+        drain();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cancel() {
+        if (!cancelled) {
+            cancelled = true;
+            publisher.cancelled(this);
+            drain();
+        }
+    }
+
+    void offer(final E event) {
+        if (cancelled) {
+            return;
+        }
+        boolean overflowed = false;
+        synchronized (buffer) {
+            if (buffer.size() < bufferSize) {
+                buffer.offerLast(event);
+            } else if (overflowStrategy == OverflowStrategy.DROP_OLDEST) {
+                buffer.pollFirst();
+                buffer.offerLast(event);
+                publisher.dropped();
+            } else if (overflowStrategy == OverflowStrategy.DROP_LATEST) {
+                publisher.dropped();
+                return;
+            } else {
+                overflowed = true;
+            }
+        }
+        if (overflowed) {
+            publisher.dropped();
+            fail(new EventPublisher.OverflowException("Buffer of " + bufferSize
+                    + " events overflowed"));
+            return;
+        }
+        drain();
+    }
+
+    void complete() {
+        completed = true;
+        drain();
+    }
+
+    private void fail(final Throwable cause) {
+        failure = cause;
+        publisher.cancelled(this);
+        drain();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        while (true) {
+            if (cancelled) {
+                clear();
+                return;
+            }
+            final Throwable cause = failure;
+            if (cause != null) {
+                cancelled = true;
+                clear();
+                subscriber.onError(cause);
+                return;
+            }
+            final long demand = requested.get();
+            long emitted = 0;
+            while (emitted != demand && !cancelled) {
+                final E event;
+                synchronized (buffer) {
+                    event = buffer.pollFirst();
+                }
+                if (event == null) {
+                    break;
+                }
+                subscriber.onNext(event);
+                emitted++;
+            }
+            if (emitted != 0 && demand != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+            if (completed && !cancelled && isEmpty()) {
+                cancelled = true;
+                subscriber.onComplete();
+                return;
+            }
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    private boolean isEmpty() {
+        synchronized (buffer) {
+            return buffer.isEmpty();
+        }
+    }
+
+    private void clear() {
+        synchronized (buffer) {
+            buffer.clear();
+        }
+    }
+
+}
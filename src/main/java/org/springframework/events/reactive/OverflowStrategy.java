@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.reactive;
+
+/**
+ * Strategy of handling events arriving for a subscriber whose buffer is
+ * full, because it has not requested them yet.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see EventPublisher
+ */
+public enum OverflowStrategy {
+
+    /**
+     * Drops the arriving event.
+     */
+    DROP_LATEST,
+
+    /**
+     * Drops the oldest buffered event to make room for the arriving one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Cancels the subscription and signals
+     * {@link org.springframework.events.reactive.EventPublisher.OverflowException}
+     * to the subscriber.
+     */
+    FAIL
+
+}
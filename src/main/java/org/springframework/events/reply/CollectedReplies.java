@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.reply;
+
+import java.util.List;
+
+/**
+ * Replies collected for one event. Replies still pending when the collection
+ * timed out are counted but not included.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @param <T> the reply type
+ *
+ * @see ReplyingPublisher
+ */
+public final class CollectedReplies<T> {
+
+    private final List<T> values;
+
+    private final List<Throwable> failures;
+
+    private final int pendingCount;
+
+    CollectedReplies(final List<T> values, final List<Throwable> failures,
+            final int pendingCount) {
+        this.values = values;
+        this.failures = failures;
+        this.pendingCount = pendingCount;
+    }
+
+    /**
+     * Gets the replied values, in the order they became available.
+     *
+     * @return unmodifiable list of values
+     */
+    public List<T> getValues() {
+        return values;
+    }
+
+    /**
+     * Gets failures of handlers and of replied futures, as well as replies
+     * of unexpected type.
+     *
+     * @return unmodifiable list of failures
+     */
+    public List<Throwable> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Gets the number of replied futures not done before the timeout.
+     *
+     * @return the number of pending replies
+     */
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * Checks if all replies were collected before the timeout.
+     *
+     * @return {@code true} if no reply was pending
+     */
+    public boolean isComplete() {
+        return pendingCount == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "CollectedReplies[values=" + values + ", failures=" + failures
+                + ", pending=" + pendingCount + "]";
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.reply;
+
+import org.springframework.events.Event;
+
+/**
+ * Access point of handlers replying to events published by
+ * {@link ReplyingPublisher#publishAndCollect}. Replies name the event they
+ * answer and are collected only while that event is being dispatched on
+ * the current thread; replies to other events, such as events published by
+ * handlers to the bus directly, are ignored. Annotated handler methods reply
+ * with their return values.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see ReplyingPublisher
+ */
+public final class Replies {
+
+    private static final ThreadLocal<ReplyCollector<?>> CURRENT =
+        new ThreadLocal<ReplyCollector<?>>();
+
+    private Replies() {
+    }
+
+    /**
+     * Checks if replies to an event being dispatched on the current thread
+     * are collected.
+     *
+     * @return {@code true} if replies are collected
+     */
+    public static boolean isCollecting() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Replies to the event being dispatched on the current thread. The reply
+     * may be a value, or a {@link java.util.concurrent.Future} of it, which
+     * is collected once it is done. {@code null} replies, and replies to
+     * events whose replies are not collected, are ignored.
+     *
+     * @param event the event replied to
+     * @param reply the reply
+     */
+    public static void reply(final Event event, final Object reply) {
+        final ReplyCollector<?> collector = CURRENT.get();
+        if (collector != null && reply != null && collector.isReplyTo(event)) {
+            collector.add(reply);
+        }
+    }
+
+    static ReplyCollector<?> bind(final ReplyCollector<?> collector) {
+        final ReplyCollector<?> previous = CURRENT.get();
+        CURRENT.set(collector);
+        return previous;
+    }
+
+    static void restore(final ReplyCollector<?> previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.reply;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.util.concurrent.ListenableFutureCallbackRegistry;
+
+import org.springframework.events.Event;
+
+/**
+ * Collection of replies to one event, completed as a future once the event
+ * is dispatched and all replied futures are done, or when it times out.
+ * Replied {@link ListenableFuture} instances are collected as soon as they
+ * complete; other futures are collected when they are found done by
+ * {@link #poll()}, or when the collection times out.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @param <T> the reply type
+ */
+final class ReplyCollector<T> implements ListenableFuture<CollectedReplies<T>> {
+
+    private final Class<T> type;
+
+    private final Event event;
+
+    private final List<T> values = new ArrayList<T>();
+
+    private final List<Throwable> failures = new ArrayList<Throwable>();
+
+    private final List<Future<?>> polled = new ArrayList<Future<?>>();
+
+    private final ListenableFutureCallbackRegistry<CollectedReplies<T>> callbacks =
+        new ListenableFutureCallbackRegistry<CollectedReplies<T>>();
+
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    private int pending;
+
+    private boolean dispatched;
+
+    private boolean cancelled;
+
+    private CollectedReplies<T> result;
+
+    private ScheduledFuture<?> timeout;
+
+    private ScheduledFuture<?> poller;
+
+    ReplyCollector(final Class<T> type, final Event event) {
+        this.type = type;
+        this.event = event;
+    }
+
+    boolean isReplyTo(final Event candidate) {
+        return candidate == event;
+    }
+
+    void add(final Object reply) {
+        if (reply instanceof ListenableFuture) {
+            synchronized (this) {
+                pending++;
+            }
+            ((ListenableFuture<?>) reply).addCallback(
+                    new ListenableFutureCallback<Object>() {
+
+                        @Override
+                        public void onSuccess(final Object value) {
+                            resolved(value, null);
+                        }
+
+                        @Override
+                        public void onFailure(final Throwable cause) {
+                            resolved(null, cause);
+                        }
+                    });
+        } else if (reply instanceof Future) {
+            final Future<?> future = (Future<?>) reply;
+            if (future.isDone()) {
+                synchronized (this) {
+                    collectDone(future);
+                }
+            } else {
+                synchronized (this) {
+                    pending++;
+                    polled.add(future);
+                }
+            }
+        } else {
+            synchronized (this) {
+                collect(reply);
+            }
+        }
+    }
+
+    void failed(final Throwable cause) {
+        synchronized (this) {
+            failures.add(cause);
+        }
+    }
+
+    /**
+     * Marks the event as dispatched, completing the collection if no reply is
+     * pending.
+     *
+     * @return {@code true} if replies are still pending
+     */
+    boolean dispatched() {
+        synchronized (this) {
+            dispatched = true;
+            if (pending > 0 && result == null) {
+                return true;
+            }
+        }
+        complete();
+        return false;
+    }
+
+    synchronized void setTimeout(final ScheduledFuture<?> timeout) {
+        if (result == null) {
+            this.timeout = timeout;
+        } else {
+            timeout.cancel(false);
+        }
+    }
+
+    /**
+     * Checks if any replied future must be polled for completion.
+     *
+     * @return {@code true} if there are futures to be polled
+     */
+    synchronized boolean isPolling() {
+        return !polled.isEmpty();
+    }
+
+    synchronized void setPoller(final ScheduledFuture<?> poller) {
+        if (result == null) {
+            this.poller = poller;
+        } else {
+            poller.cancel(false);
+        }
+    }
+
+    /**
+     * Collects replied futures that are done, completing the collection if
+     * no reply is pending any more.
+     */
+    void poll() {
+        synchronized (this) {
+            collectPolled();
+            if (pending > 0) {
+                return;
+            }
+        }
+        complete();
+    }
+
+    /**
+     * Completes the collection with replies collected so far, collecting
+     * replied futures that are already done.
+     */
+    void timedOut() {
+        synchronized (this) {
+            collectPolled();
+        }
+        complete();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addCallback(final ListenableFutureCallback<? super CollectedReplies<T>> callback) {
+        callbacks.addCallback(callback);
+    }
+
+    /**
+     * Completes the collection with replies collected so far. Pending
+     * replies are not cancelled.
+     */
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+        synchronized (this) {
+            if (result != null) {
+                return false;
+            }
+            cancelled = true;
+        }
+        complete();
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean isDone() {
+        return result != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CollectedReplies<T> get() throws InterruptedException {
+        done.await();
+        return getResult();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CollectedReplies<T> get(final long timeout, final TimeUnit unit)
+            throws InterruptedException, TimeoutException {
+        if (!done.await(timeout, unit)) {
+            throw new TimeoutException("Replies not collected in " + timeout
+                    + " " + unit);
+        }
+        return getResult();
+    }
+
+    private synchronized CollectedReplies<T> getResult() {
+        if (cancelled) {
+            throw new CancellationException("Collection of replies cancelled");
+        }
+        return result;
+    }
+
+    private void resolved(final Object value, final Throwable cause) {
+        synchronized (this) {
+            if (result != null) {
+                return;
+            }
+            pending--;
+            if (cause != null) {
+                failures.add(cause);
+            } else if (value != null) {
+                collect(value);
+            }
+            if (pending > 0 || !dispatched) {
+                return;
+            }
+        }
+        complete();
+    }
+
+    private void collectPolled() {
+        final Iterator<Future<?>> iterator = polled.iterator();
+        while (iterator.hasNext()) {
+            final Future<?> future = iterator.next();
+            if (future.isDone()) {
+                iterator.remove();
+                pending--;
+                collectDone(future);
+            }
+        }
+    }
+
+    private void collectDone(final Future<?> future) {
+        try {
+            final Object value = future.get();
+            if (value != null) {
+                collect(value);
+            }
+        } catch (ExecutionException e) {
+            failures.add(e.getCause());
+        } catch (CancellationException e) {
+            failures.add(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.add(e);
+        }
+    }
+
+    private void collect(final Object value) {
+        if (type.isInstance(value)) {
+            values.add(type.cast(value));
+        } else {
+            failures.add(new ClassCastException("Reply " + value
+                    + " is not of type " + type.getName()));
+        }
+    }
+
+    private void complete() {
+        final CollectedReplies<T> completed;
+        synchronized (this) {
+            if (result != null) {
+                return;
+            }
+            result = new CollectedReplies<T>(
+                    Collections.unmodifiableList(new ArrayList<T>(values)),
+                    Collections.unmodifiableList(new ArrayList<Throwable>(failures)),
+                    pending);
+            completed = result;
+            if (timeout != null) {
+                timeout.cancel(false);
+                timeout = null;
+            }
+            if (poller != null) {
+                poller.cancel(false);
+                poller = null;
+            }
+        }
+        done.countDown();
+        if (cancelled) {
+            callbacks.failure(new CancellationException("Collection of replies cancelled"));
+        } else {
+            callbacks.success(completed);
+        }
+    }
+
+}
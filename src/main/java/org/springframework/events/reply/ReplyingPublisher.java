@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.reply;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+
+import org.springframework.events.Event;
+import org.springframework.events.EventBus;
+
+/**
+ * Decorator of {@link EventBus} publishing events and collecting replies of
+ * their handlers. Handlers reply through {@link Replies}; annotated handler
+ * methods reply with their return values, which may be futures. Replies are
+ * aggregated into a {@link ListenableFuture} completed once all replies are
+ * available, or with partial results once the timeout expires, so the
+ * publishing thread never waits for them. Replied futures other than
+ * {@link ListenableFuture} are polled for completion every millisecond.
+ * <p>
+ * Replies are collected from handlers dispatched on the publishing thread,
+ * so the delegate must dispatch synchronously. Exceptions thrown by handlers
+ * are collected as failures rather than propagated. Events published with
+ * {@link #publish(Event)} or directly to the delegate, even from within
+ * handlers, are not replied to.
+ * <p>
+ * Timeouts and polling are run by a daemon thread until {@link #close()} is
+ * called.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see Replies
+ * @see CollectedReplies
+ */
+public final class ReplyingPublisher implements EventBus, Closeable {
+
+    private static final long POLL_INTERVAL = 1L;
+
+    private final EventBus delegate;
+
+    private final Set<ReplyCollector<?>> collecting =
+        Collections.newSetFromMap(new ConcurrentHashMap<ReplyCollector<?>, Boolean>());
+
+    private final ScheduledExecutorService timer =
+        Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "event-reply-timer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+    /**
+     * Constructs publisher.
+     *
+     * @param delegate the bus dispatching events synchronously
+     */
+    public ReplyingPublisher(final EventBus delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate must not be null");
+        }
+        this.delegate = delegate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(final Event event) {
+        final ReplyCollector<?> previous = Replies.bind(null);
+        try {
+            delegate.publish(event);
+        } finally {
+            Replies.restore(previous);
+        }
+    }
+
+    /**
+     * Publishes the event and collects replies of its handlers.
+     *
+     * @param event the event
+     * @param type the expected type of replies; replies of other types are
+     *        collected as failures
+     * @param timeout the time to wait for replied futures
+     * @param unit unit of the timeout
+     * @param <T> the reply type
+     * @return future of the collected replies; once this publisher is closed,
+     *         completed with the replies available when the event has been
+     *         dispatched
+     */
+    public <T> ListenableFuture<CollectedReplies<T>> publishAndCollect(
+            final Event event, final Class<T> type, final long timeout,
+            final TimeUnit unit) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event must not be null");
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("Reply type is required");
+        }
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("Timeout must be positive");
+        }
+        final ReplyCollector<T> collector = new ReplyCollector<T>(type, event);
+        final ReplyCollector<?> previous = Replies.bind(collector);
+        try {
+            delegate.publish(event);
+        } catch (RuntimeException e) {
+            collector.failed(e);
+        } finally {
+            Replies.restore(previous);
+        }
+        if (collector.dispatched()) {
+            schedule(collector, timeout, unit);
+        }
+        return collector;
+    }
+
+    /**
+     * Stops the timeout thread. Collections pending at that time are completed
+     * with the replies collected so far.
+     */
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        for (final ReplyCollector<?> collector : collecting) {
+            collector.timedOut();
+        }
+    }
+
+    private <T> void schedule(final ReplyCollector<T> collector,
+            final long timeout, final TimeUnit unit) {
+        collecting.add(collector);
+        collector.addCallback(new ListenableFutureCallback<CollectedReplies<T>>() {
+
+            @Override
+            public void onSuccess(final CollectedReplies<T> replies) {
+                collecting.remove(collector);
+            }
+
+            @Override
+            public void onFailure(final Throwable cause) {
+                collecting.remove(collector);
+            }
+        });
+        try {
+            collector.setTimeout(timer.schedule(new Runnable() {
+
+                @Override
+                public void run() {
+                    collector.timedOut();
+                }
+            }, timeout, unit));
+            if (collector.isPolling()) {
+                collector.setPoller(timer.scheduleWithFixedDelay(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        collector.poll();
+                    }
+                }, POLL_INTERVAL, POLL_INTERVAL, TimeUnit.MILLISECONDS));
+            }
+        } catch (RejectedExecutionException e) {
+            // Closed, nothing would complete the collection later
+            collector.timedOut();
+        }
+    }
+
+}
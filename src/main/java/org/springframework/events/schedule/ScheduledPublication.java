@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.schedule;
+
+/**
+ * Use the scheduled publication instance to cancel publishing of an event
+ * that is no longer needed.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see ScheduledPublisher
+ */
+public interface ScheduledPublication {
+
+    /**
+     * Cancels publishing of the event.
+     *
+     * @return {@code true} if the event will not be published, {@code false}
+     *         if it has already been published or cancelled
+     */
+    boolean cancel();
+
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.context.SmartLifecycle;
+
+import org.springframework.events.Event;
+import org.springframework.events.EventBus;
+
+/**
+ * Adapter for {@link EventBus} interface publishing events at a later time.
+ * Events scheduled with {@link #publishAfter(Event, long, TimeUnit)} or
+ * {@link #publishAt(Event, long)} are kept in a hierarchical timing wheel
+ * and published to the delegate by a single timer thread when their tick
+ * comes; events published with {@link #publish(Event)} are published to the
+ * delegate immediately.
+ * <p>
+ * Scheduling and cancelling only enqueue the timeout for the timer thread,
+ * which links it into or out of the wheel in constant time, so there is no
+ * lock and no per-timeout heap node shared between threads. Events are never
+ * published before their time, and are published up to one tick after it if
+ * the timer thread keeps up. Handlers run in the timer thread, so slow ones
+ * delay other scheduled events; {@link org.springframework.events.AsyncPublisher}
+ * can be used as the delegate to dispatch them elsewhere.
+ * <p>
+ * The timer thread runs between {@link #start()} and {@link #stop()}. Events
+ * whose time comes while the publisher is stopped are published when it is
+ * started again.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see ScheduledPublication
+ */
+public final class ScheduledPublisher implements EventBus, SmartLifecycle {
+
+    private static final Log LOG = LogFactory.getLog(ScheduledPublisher.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final long MAX_DELAY = Long.MAX_VALUE / 4;
+
+    private final EventBus delegate;
+
+    private final long tickNanos;
+
+    private final long startNanos = System.nanoTime();
+
+    private final TimingWheel wheel = new TimingWheel(0);
+
+    private final Queue<ScheduledTimeout> scheduled =
+        new ConcurrentLinkedQueue<ScheduledTimeout>();
+
+    private final Queue<ScheduledTimeout> cancelled =
+        new ConcurrentLinkedQueue<ScheduledTimeout>();
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicLong published = new AtomicLong();
+
+    private final Object lifecycleMonitor = new Object();
+
+    private volatile Thread worker;
+
+    private volatile boolean running;
+
+    private volatile boolean waiting;
+
+    /**
+     * Constructs {@link ScheduledPublisher} with wheel of one millisecond
+     * ticks.
+     *
+     * @param delegate
+     *            not-{@code null} reference to the delegate {@link EventBus}
+     */
+    public ScheduledPublisher(final EventBus delegate) {
+        this(delegate, 1, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Constructs {@link ScheduledPublisher} with wheel of the given tick
+     * duration, which is the precision of publishing time.
+     *
+     * @param delegate
+     *            not-{@code null} reference to the delegate {@link EventBus}
+     * @param tickDuration
+     *            positive duration of one tick
+     * @param unit
+     *            unit of tick duration
+     */
+    public ScheduledPublisher(final EventBus delegate, final long tickDuration,
+            final TimeUnit unit) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate must not be null");
+        }
+        if (tickDuration <= 0 || unit == null) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        this.delegate = delegate;
+        this.tickNanos = unit.toNanos(tickDuration);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(final Event event) {
+        delegate.publish(event);
+    }
+
+    /**
+     * Publishes event after the given delay.
+     *
+     * @param event the event to be published
+     * @param delay the delay, not negative
+     * @param unit unit of the delay
+     * @return the publication, which can be cancelled
+     */
+    public ScheduledPublication publishAfter(final Event event, final long delay,
+            final TimeUnit unit) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event must not be null");
+        }
+        if (delay < 0 || unit == null) {
+            throw new IllegalArgumentException("Delay must not be negative");
+        }
+        final long deadlineNanos = System.nanoTime() - startNanos
+                + Math.min(unit.toNanos(delay), MAX_DELAY);
+        final ScheduledTimeout timeout = new ScheduledTimeout(this, event,
+                (deadlineNanos + tickNanos - 1) / tickNanos);
+        pending.incrementAndGet();
+        scheduled.offer(timeout);
+        if (waiting) {
+            LockSupport.unpark(worker);
+        }
+        return timeout;
+    }
+
+    /**
+     * Publishes event at the given time. Events of time already passed are
+     * published as soon as possible.
+     *
+     * @param event the event to be published
+     * @param time the time in milliseconds since the epoch
+     * @return the publication, which can be cancelled
+     */
+    public ScheduledPublication publishAt(final Event event, final long time) {
+        return publishAfter(event, Math.max(0, time - System.currentTimeMillis()),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets the number of events scheduled and neither published nor
+     * cancelled yet.
+     *
+     * @return the number of pending events
+     */
+    public long getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Gets the number of scheduled events published so far.
+     *
+     * @return the number of published events
+     */
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    /**
+     * Starts the timer thread.
+     */
+    @Override
+    public void start() {
+        synchronized (lifecycleMonitor) {
+            if (running) {
+                return;
+            }
+            running = true;
+            worker = new Thread(new Timer(), "event-timer");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Stops the timer thread. Waits for events being currently published;
+     * other scheduled events are kept.
+     */
+    @Override
+    public void stop() {
+        synchronized (lifecycleMonitor) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            LockSupport.unpark(worker);
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stop(final Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
+    void cancelled(final ScheduledTimeout timeout) {
+        pending.decrementAndGet();
+        cancelled.offer(timeout);
+    }
+
+    /**
+     * Moves scheduled and cancelled timeouts into and out of the wheel and
+     * publishes events of expired ones, tick by tick, until the publisher is
+     * stopped.
+     */
+    private final class Timer implements Runnable {
+
+        private final List<ScheduledTimeout> expired = new ArrayList<ScheduledTimeout>();
+
+        @Override
+        public void run() {
+            while (running) {
+                transfer();
+                if (wheel.size() == 0) {
+                    awaitTimeout();
+                    continue;
+                }
+                final long wait = startNanos + wheel.getTick() * tickNanos
+                        - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(ScheduledPublisher.this, wait);
+                    continue;
+                }
+                wheel.advance(expired);
+                for (int i = 0; i < expired.size(); i++) {
+                    publishExpired(expired.get(i));
+                }
+                expired.clear();
+            }
+        }
+
+        private void transfer() {
+            ScheduledTimeout timeout;
+            while ((timeout = scheduled.poll()) != null) {
+                if (!timeout.isCancelled()) {
+                    wheel.add(timeout);
+                }
+            }
+            while ((timeout = cancelled.poll()) != null) {
+                wheel.remove(timeout);
+            }
+        }
+
+        private void awaitTimeout() {
+            waiting = true;
+            if (running && scheduled.isEmpty()) {
+                LockSupport.parkNanos(ScheduledPublisher.this, IDLE_PARK_NANOS);
+            }
+            waiting = false;
+            wheel.skipTo((System.nanoTime() - startNanos) / tickNanos);
+        }
+
+        private void publishExpired(final ScheduledTimeout timeout) {
+            if (!timeout.expire()) {
+                return;
+            }
+            pending.decrementAndGet();
+            try {
+                delegate.publish(timeout.event);
+            } catch (RuntimeException e) {
+                LOG.error("Failed to dispatch event " + timeout.event, e);
+            }
+            published.lazySet(published.get() + 1);
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.schedule;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import org.springframework.events.Event;
+
+/**
+ * Event scheduled for publishing at a given tick of {@link TimingWheel}.
+ * Timeouts are linked into buckets of the wheel by the timer thread;
+ * their state is changed by whichever thread publishes or cancels them first.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+final class ScheduledTimeout implements ScheduledPublication {
+
+    static final int PENDING = 0;
+
+    static final int CANCELLED = 1;
+
+    static final int EXPIRED = 2;
+
+    private static final AtomicIntegerFieldUpdater<ScheduledTimeout> STATE =
+        AtomicIntegerFieldUpdater.newUpdater(ScheduledTimeout.class, "state");
+
+    final Event event;
+
+    final long deadline;
+
+    ScheduledTimeout previous;
+
+    ScheduledTimeout next;
+
+    int bucket = -1;
+
+    private final ScheduledPublisher owner;
+
+    private volatile int state;
+
+    ScheduledTimeout(final ScheduledPublisher owner, final Event event,
+            final long deadline) {
+        this.owner = owner;
+        this.event = event;
+        this.deadline = deadline;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean cancel() {
+        if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+            return false;
+        }
+        owner.cancelled(this);
+        return true;
+    }
+
+    boolean expire() {
+        return STATE.compareAndSet(this, PENDING, EXPIRED);
+    }
+
+    boolean isCancelled() {
+        return state == CANCELLED;
+    }
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.schedule;
+
+import java.util.List;
+
+/**
+ * Hierarchical hashed timing wheel. Each level has {@link #WHEEL_SIZE}
+ * buckets of doubly linked timeouts; a timeout is kept on the level of the
+ * highest digit in which its deadline differs from the current tick, in the
+ * bucket of that digit. When the current tick reaches the start of a bucket
+ * on a higher level, its timeouts are moved to lower levels, so adding and
+ * removing a timeout takes constant time and every timeout is moved at most
+ * once per level. Levels cover the whole range of {@code long} ticks.
+ * <p>
+ * This class is not thread-safe; it is used by the timer thread of
+ * {@link ScheduledPublisher} only.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+final class TimingWheel {
+
+    static final int WHEEL_BITS = 8;
+
+    static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    private static final int LEVELS = (Long.SIZE + WHEEL_BITS - 1) / WHEEL_BITS;
+
+    private final ScheduledTimeout[] buckets =
+        new ScheduledTimeout[LEVELS * WHEEL_SIZE];
+
+    private long tick;
+
+    private int size;
+
+    /**
+     * Constructs empty wheel.
+     *
+     * @param tick the first tick to be processed
+     */
+    TimingWheel(final long tick) {
+        this.tick = tick;
+    }
+
+    /**
+     * Gets the next tick to be processed.
+     *
+     * @return the tick
+     */
+    long getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets the number of timeouts in the wheel.
+     *
+     * @return the number of timeouts
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds timeout to the wheel. Timeouts with deadline already passed expire
+     * on the next processed tick.
+     *
+     * @param timeout the timeout
+     */
+    void add(final ScheduledTimeout timeout) {
+        link(timeout);
+        size++;
+    }
+
+    /**
+     * Removes timeout from the wheel, if it is there.
+     *
+     * @param timeout the timeout
+     */
+    void remove(final ScheduledTimeout timeout) {
+        if (timeout.bucket >= 0) {
+            unlink(timeout);
+            size--;
+        }
+    }
+
+    /**
+     * Moves the next tick forward without processing ticks in between. Only
+     * an empty wheel can skip ticks.
+     *
+     * @param next the next tick to be processed
+     */
+    void skipTo(final long next) {
+        if (size != 0) {
+            throw new IllegalStateException("Only empty wheel can skip ticks");
+        }
+        if (next > tick) {
+            tick = next;
+        }
+    }
+
+    /**
+     * Processes the next tick: moves timeouts of higher level buckets
+     * starting at this tick to lower levels and takes out timeouts expiring
+     * at this tick.
+     *
+     * @param expired list to add expired timeouts to
+     */
+    void advance(final List<ScheduledTimeout> expired) {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((tick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+                cascade(bucketOf(level, tick));
+            }
+        }
+        final int index = bucketOf(0, tick);
+        ScheduledTimeout timeout = buckets[index];
+        while (timeout != null) {
+            final ScheduledTimeout next = timeout.next;
+            timeout.previous = null;
+            timeout.next = null;
+            timeout.bucket = -1;
+            expired.add(timeout);
+            timeout = next;
+            size--;
+        }
+        buckets[index] = null;
+        tick++;
+    }
+
+    private void cascade(final int index) {
+        ScheduledTimeout timeout = buckets[index];
+        buckets[index] = null;
+        while (timeout != null) {
+            final ScheduledTimeout next = timeout.next;
+            timeout.previous = null;
+            timeout.next = null;
+            link(timeout);
+            timeout = next;
+        }
+    }
+
+    private void link(final ScheduledTimeout timeout) {
+        final long deadline = Math.max(timeout.deadline, tick);
+        final long difference = deadline ^ tick;
+        final int level = difference == 0 ? 0
+                : (Long.SIZE - 1 - Long.numberOfLeadingZeros(difference)) / WHEEL_BITS;
+        final int index = bucketOf(level, deadline);
+        final ScheduledTimeout head = buckets[index];
+        timeout.bucket = index;
+        timeout.next = head;
+        if (head != null) {
+            head.previous = timeout;
+        }
+        buckets[index] = timeout;
+    }
+
+    private void unlink(final ScheduledTimeout timeout) {
+        if (timeout.previous == null) {
+            buckets[timeout.bucket] = timeout.next;
+        } else {
+            timeout.previous.next = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.previous = timeout.previous;
+        }
+        timeout.previous = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+    }
+
+    private static int bucketOf(final int level, final long tick) {
+        return level * WHEEL_SIZE + (int) ((tick >>> (WHEEL_BITS * level)) & MASK);
+    }
+
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.topic;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.events.Event;
+import org.springframework.events.EventBus;
+import org.springframework.events.HandlerRegistration;
+
+/**
+ * Adapter for {@link EventBus} interface routing events by named topics in
+ * addition to their types. Topics consist of non-empty words separated by
+ * dots, such as {@code orders.eu.created}. Handlers subscribe to topic
+ * patterns, in which word {@code *} matches exactly one word and word
+ * {@code #} matches any number of words, including none: both
+ * {@code orders.*.created} and {@code orders.#} match the topic above.
+ * <p>
+ * Subscriptions are indexed by a {@link TopicTrie}, and handlers matching
+ * a topic are cached when it is first published to, so publishing to a topic
+ * costs a map lookup, and a trie walk proportional to the topic depth on a
+ * cache miss, regardless of the number of subscriptions. Adding or removing
+ * a subscription evicts only cached topics matching its pattern. The cache
+ * holds up to {@link #DEFAULT_CACHE_SIZE} topics by default and is cleared
+ * when it is full.
+ * <p>
+ * Events implementing {@link Topical} are routed to their topic after they
+ * are passed to the delegate. Each subscription receives an event once,
+ * even if its pattern matches the topic in several ways.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see Topical
+ */
+public final class TopicEventBus implements EventBus {
+
+    /**
+     * Default maximum number of cached topics.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 10000;
+
+    private final EventBus delegate;
+
+    private final TopicTrie trie = new TopicTrie();
+
+    private final ConcurrentMap<String, Route> routes =
+        new ConcurrentHashMap<String, Route>();
+
+    private final Object monitor = new Object();
+
+    private volatile int cacheSize = DEFAULT_CACHE_SIZE;
+
+    private volatile long version;
+
+    /**
+     * Constructs {@link TopicEventBus} with delegate {@link EventBus}
+     * instance.
+     *
+     * @param delegate
+     *            not-{@code null} reference to the delegate {@link EventBus}
+     */
+    public TopicEventBus(final EventBus delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate must not be null");
+        }
+        this.delegate = delegate;
+    }
+
+    /**
+     * Sets the maximum number of topics whose matching handlers are cached.
+     *
+     * @param cacheSize positive number of topics
+     */
+    public void setCacheSize(final int cacheSize) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Passes the event to the delegate and, if it is {@link Topical}, to
+     * handlers subscribed to its topic.
+     *
+     * @param event the event
+     */
+    @Override
+    public void publish(final Event event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event must not be null");
+        }
+        delegate.publish(event);
+        if (event instanceof Topical) {
+            dispatch(((Topical) event).getTopic(), event);
+        }
+    }
+
+    /**
+     * Publishes the event to handlers subscribed to the topic. The event is
+     * not passed to the delegate.
+     *
+     * @param topic the topic
+     * @param event the event
+     */
+    public void publish(final String topic, final Event event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event must not be null");
+        }
+        dispatch(topic, event);
+    }
+
+    /**
+     * Subscribes handler to topics matching the pattern.
+     *
+     * @param pattern the topic pattern
+     * @param handler the handler
+     * @return registration removing the subscription
+     */
+    public HandlerRegistration addHandler(final String pattern,
+            final Event.Handler<Event> handler) {
+        if (handler == null) {
+            throw new IllegalArgumentException("Event handler is required");
+        }
+        final TopicTrie.Subscription subscription =
+            new TopicTrie.Subscription(split(pattern, true), handler);
+        synchronized (monitor) {
+            trie.add(subscription);
+            changed(subscription.pattern);
+        }
+        return new HandlerRegistration() {
+
+            @Override
+            public void removeHandler() {
+                synchronized (monitor) {
+                    if (trie.remove(subscription)) {
+                        changed(subscription.pattern);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Gets the number of subscriptions.
+     *
+     * @return the number of subscriptions
+     */
+    public int getSubscriptionCount() {
+        synchronized (monitor) {
+            return trie.size();
+        }
+    }
+
+    /**
+     * Gets the number of topics whose matching handlers are cached.
+     *
+     * @return the number of cached topics
+     */
+    public int getCachedTopicCount() {
+        return routes.size();
+    }
+
+    private void dispatch(final String topic, final Event event) {
+        Route route = routes.get(topic);
+        if (route == null) {
+            route = resolve(topic);
+        }
+        for (final TopicTrie.Subscription subscription : route.subscriptions) {
+            subscription.handler.handleEvent(event);
+        }
+    }
+
+    /**
+     * Matches the topic against the trie and caches the result, unless
+     * subscriptions changed in the meantime.
+     */
+    private Route resolve(final String topic) {
+        final String[] words = split(topic, false);
+        final long matchedVersion = version;
+        final Route route = new Route(words, trie.match(words));
+        synchronized (monitor) {
+            if (matchedVersion == version) {
+                if (routes.size() >= cacheSize) {
+                    routes.clear();
+                }
+                routes.put(topic, route);
+            }
+        }
+        return route;
+    }
+
+    /**
+     * Evicts cached topics matching the pattern. Called with the monitor held.
+     */
+    private void changed(final String[] pattern) {
+        version++;
+        final Iterator<Route> iterator = routes.values().iterator();
+        while (iterator.hasNext()) {
+            if (TopicTrie.matches(pattern, iterator.next().topic)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static String[] split(final String topic, final boolean pattern) {
+        if (topic == null) {
+            throw new IllegalArgumentException("Topic must not be null");
+        }
+        final List<String> words = new ArrayList<String>();
+        int start = 0;
+        while (true) {
+            final int end = topic.indexOf('.', start);
+            final String word = topic.substring(start, end < 0 ? topic.length() : end);
+            if (word.isEmpty()) {
+                throw new IllegalArgumentException("Empty word in topic " + topic);
+            }
+            if ((word.indexOf('*') >= 0 || word.indexOf('#') >= 0)
+                    && (!pattern || !TopicTrie.ONE.equals(word) && !TopicTrie.ANY.equals(word))) {
+                throw new IllegalArgumentException("Invalid wildcard in topic " + topic);
+            }
+            words.add(word);
+            if (end < 0) {
+                return words.toArray(new String[words.size()]);
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Subscriptions matching a topic.
+     */
+    private static final class Route {
+
+        final String[] topic;
+
+        final TopicTrie.Subscription[] subscriptions;
+
+        Route(final String[] topic, final TopicTrie.Subscription[] subscriptions) {
+            this.topic = topic;
+            this.subscriptions = subscriptions;
+        }
+    }
+
+}
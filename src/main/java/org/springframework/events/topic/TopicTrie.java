@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.topic;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.events.Event;
+
+/**
+ * Trie of subscriptions indexed by words of their topic patterns. Wildcard
+ * words are kept as children named after them: {@code *} matches exactly
+ * one word of a topic, {@code #} matches any number of words, including
+ * none. Matching a topic visits only the nodes on paths matching it.
+ * <p>
+ * Subscriptions are added and removed by one thread at a time, while
+ * topics may be matched concurrently.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ */
+final class TopicTrie {
+
+    static final String ONE = "*";
+
+    static final String ANY = "#";
+
+    static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+
+    private final Node root = new Node();
+
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void add(final Subscription subscription) {
+        Node node = root;
+        for (final String word : subscription.pattern) {
+            Node child = node.children.get(word);
+            if (child == null) {
+                child = new Node();
+                node.children.put(word, child);
+            }
+            node = child;
+        }
+        final Subscription[] subscriptions =
+            Arrays.copyOf(node.subscriptions, node.subscriptions.length + 1);
+        subscriptions[subscriptions.length - 1] = subscription;
+        node.subscriptions = subscriptions;
+        size++;
+    }
+
+    boolean remove(final Subscription subscription) {
+        if (remove(root, subscription, 0)) {
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    Subscription[] match(final String[] topic) {
+        final Set<Subscription> result = new LinkedHashSet<Subscription>();
+        match(root, topic, 0, result);
+        return result.isEmpty() ? NO_SUBSCRIPTIONS
+                : result.toArray(new Subscription[result.size()]);
+    }
+
+    /**
+     * Checks if the pattern matches the topic.
+     *
+     * @param pattern words of the pattern
+     * @param topic words of the topic
+     * @return {@code true} if the pattern matches
+     */
+    static boolean matches(final String[] pattern, final String[] topic) {
+        return matches(pattern, 0, topic, 0);
+    }
+
+    private static boolean matches(final String[] pattern, final int p,
+            final String[] topic, final int t) {
+        if (p == pattern.length) {
+            return t == topic.length;
+        }
+        if (ANY.equals(pattern[p])) {
+            for (int i = t; i <= topic.length; i++) {
+                if (matches(pattern, p + 1, topic, i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return t < topic.length
+                && (ONE.equals(pattern[p]) || pattern[p].equals(topic[t]))
+                && matches(pattern, p + 1, topic, t + 1);
+    }
+
+    private static void match(final Node node, final String[] topic,
+            final int index, final Set<Subscription> result) {
+        final Node any = node.children.get(ANY);
+        if (index == topic.length) {
+            result.addAll(Arrays.asList(node.subscriptions));
+            if (any != null) {
+                match(any, topic, index, result);
+            }
+            return;
+        }
+        final Node exact = node.children.get(topic[index]);
+        if (exact != null) {
+            match(exact, topic, index + 1, result);
+        }
+        final Node one = node.children.get(ONE);
+        if (one != null) {
+            match(one, topic, index + 1, result);
+        }
+        if (any != null) {
+            for (int i = index; i <= topic.length; i++) {
+                match(any, topic, i, result);
+            }
+        }
+    }
+
+    /**
+     * Removes the subscription from the subtree, pruning nodes left empty.
+     */
+    private static boolean remove(final Node node, final Subscription subscription,
+            final int depth) {
+        if (depth == subscription.pattern.length) {
+            final Subscription[] subscriptions = node.subscriptions;
+            for (int i = 0; i < subscriptions.length; i++) {
+                if (subscriptions[i] == subscription) {
+                    final Subscription[] remaining =
+                        new Subscription[subscriptions.length - 1];
+                    System.arraycopy(subscriptions, 0, remaining, 0, i);
+                    System.arraycopy(subscriptions, i + 1, remaining, i,
+                            remaining.length - i);
+                    node.subscriptions = remaining;
+                    return true;
+                }
+            }
+            return false;
+        }
+        final String word = subscription.pattern[depth];
+        final Node child = node.children.get(word);
+        if (child == null || !remove(child, subscription, depth + 1)) {
+            return false;
+        }
+        if (child.subscriptions.length == 0 && child.children.isEmpty()) {
+            node.children.remove(word);
+        }
+        return true;
+    }
+
+    /**
+     * Handler subscribed to a topic pattern.
+     */
+    static final class Subscription {
+
+        final String[] pattern;
+
+        final Event.Handler<Event> handler;
+
+        Subscription(final String[] pattern, final Event.Handler<Event> handler) {
+            this.pattern = pattern;
+            this.handler = handler;
+        }
+    }
+
+    private static final class Node {
+
+        final ConcurrentMap<String, Node> children =
+            new ConcurrentHashMap<String, Node>();
+
+        volatile Subscription[] subscriptions = NO_SUBSCRIPTIONS;
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.topic;
+
+/**
+ * Optional interface of events published to a named topic, such as
+ * {@code orders.eu.created}. Such events are delivered by
+ * {@link TopicEventBus} to handlers subscribed to matching topic patterns.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see TopicEventBus
+ */
+public interface Topical {
+
+    /**
+     * Gets the topic the event is published to.
+     *
+     * @return not-{@code null} topic, non-empty words separated by dots
+     */
+    String getTopic();
+
+}
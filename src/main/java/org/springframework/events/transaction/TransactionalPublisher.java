@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import org.springframework.events.Event;
+import org.springframework.events.EventBus;
+
+/**
+ * Transaction-aware adapter for {@link EventBus} interface. Events published
+ * while Spring transaction synchronization is active are buffered in a list
+ * bound to the current transaction and published to the delegate in one
+ * batch after the transaction commits, or discarded if it rolls back. Events
+ * published outside of a transaction, or by handlers while a batch is being
+ * published, are published immediately.
+ * <p>
+ * Batches are published after transaction completion, so failures of
+ * handlers can not affect its outcome; they are logged and the remaining
+ * events of the batch are still published. Suspended transactions keep their
+ * own batches.
+ *
+ * @author Piotr Dyraga
+ * @since 0.1-RELEASE
+ * @version %I%, %G%
+ *
+ * @see TransactionSynchronizationManager
+ */
+public final class TransactionalPublisher implements EventBus {
+
+    private static final Log LOG = LogFactory.getLog(TransactionalPublisher.class);
+
+    private final EventBus delegate;
+
+    /**
+     * Constructs {@link TransactionalPublisher} with delegate {@link EventBus}
+     * instance.
+     *
+     * @param delegate
+     *            not-{@code null} reference to the delegate {@link EventBus}
+     */
+    public TransactionalPublisher(final EventBus delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate must not be null");
+        }
+        this.delegate = delegate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(final Event event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event must not be null");
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            delegate.publish(event);
+            return;
+        }
+        Batch batch = (Batch) TransactionSynchronizationManager.getResource(this);
+        if (batch == null) {
+            batch = new Batch();
+            TransactionSynchronizationManager.bindResource(this, batch);
+            TransactionSynchronizationManager.registerSynchronization(batch);
+        }
+        if (batch.completed) {
+            delegate.publish(event);
+        } else {
+            batch.events.add(event);
+        }
+    }
+
+    /**
+     * Gets the number of events buffered in the current transaction.
+     *
+     * @return the number of buffered events, {@code 0} if there is no
+     *         transaction
+     */
+    public int getBufferedCount() {
+        final Batch batch = (Batch) TransactionSynchronizationManager.getResource(this);
+        return batch == null || batch.completed ? 0 : batch.events.size();
+    }
+
+    /**
+     * Events buffered in one transaction, published on its commit.
+     */
+    private final class Batch extends TransactionSynchronizationAdapter {
+
+        private final List<Event> events = new ArrayList<Event>();
+
+        private boolean completed;
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(TransactionalPublisher.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(TransactionalPublisher.this,
+                    this);
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            completed = true;
+            try {
+                if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                    publishAll();
+                } else if (LOG.isDebugEnabled()) {
+                    LOG.debug("Discarding " + events.size()
+                            + " events of rolled back transaction");
+                }
+            } finally {
+                events.clear();
+                TransactionSynchronizationManager.unbindResourceIfPossible(
+                        TransactionalPublisher.this);
+            }
+        }
+
+        private void publishAll() {
+            for (int i = 0; i < events.size(); i++) {
+                final Event event = events.get(i);
+                try {
+                    delegate.publish(event);
+                } catch (RuntimeException e) {
+                    LOG.error("Failed to dispatch event " + event, e);
+                }
+            }
+        }
+    }
+
+}
@@ -20,13 +20,19 @@ import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.beans.factory.xml.BeanDefinitionParser;
 import org.springframework.beans.factory.xml.ParserContext;
+import org.springframework.context.support.AbstractApplicationContext;
 import org.w3c.dom.Element;
 
 /**
  * {@link BeanDefinitionParser} implementation intended to parse
  * {@code <events:annotation-config>} tag. Registers bean definitions for
- * {@link org.springframework.events.BroadcastPublisher} and
- * {@link org.springframework.events.context.AnnotationEventHandlerPostProcessor}.
+ * {@link org.springframework.events.BroadcastPublisher},
+ * {@link org.springframework.events.context.AnnotationEventHandlerPostProcessor}
+ * and, unless {@code jmx} attribute is set to {@code false},
+ * {@link org.springframework.events.jmx.EventBusMBeanExporter}. If
+ * {@code multicaster} attribute is {@code sync} or {@code async},
+ * {@link org.springframework.events.context.EventBusApplicationEventMulticaster}
+ * is registered as application event multicaster of the context.
  *
  * @author Piotr Dyraga
  * @since 0.1-RELEASE
@@ -38,6 +44,10 @@ public final class AnnotationConfigDefinitionParser implements BeanDefinitionPar
 
     private static final String BASE_PACKAGE = "org.springframework.events";
 
+    private static final String JMX_ATTRIBUTE = "jmx";
+
+    private static final String MULTICASTER_ATTRIBUTE = "multicaster";
+
     /**
      * {@inheritDoc}
      */
@@ -57,6 +67,26 @@ public final class AnnotationConfigDefinitionParser implements BeanDefinitionPar
         parserContext.getRegistry().registerBeanDefinition(annotationEventHandlerPostProcessorName,
             annotationEventHandlerPostProcessorDef);
 
+        if (!"false".equals(element.getAttribute(JMX_ATTRIBUTE))) {
+            final RootBeanDefinition mbeanExporterDef =
+                    new RootBeanDefinition(BASE_PACKAGE + ".jmx.EventBusMBeanExporter");
+            mbeanExporterDef.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+            final String mbeanExporterName = BASE_PACKAGE + ".jmx.eventBusMBeanExporter";
+            parserContext.getRegistry().registerBeanDefinition(mbeanExporterName,
+                mbeanExporterDef);
+        }
+
+        final String multicaster = element.getAttribute(MULTICASTER_ATTRIBUTE);
+        if ("sync".equals(multicaster) || "async".equals(multicaster)) {
+            final RootBeanDefinition multicasterDef = new RootBeanDefinition(
+                    BASE_PACKAGE + ".context.EventBusApplicationEventMulticaster");
+            multicasterDef.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+            multicasterDef.getPropertyValues().add("async", "async".equals(multicaster));
+            parserContext.getRegistry().registerBeanDefinition(
+                AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME,
+                multicasterDef);
+        }
+
         return null;
     }
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.events.mock.MockAEvent;
+import org.springframework.events.mock.MockHandler;
+import org.springframework.events.queue.HeapEventQueue;
+
+public class AsyncPublisherTest {
+
+    private BroadcastPublisher delegate;
+
+    private AsyncPublisher publisher;
+
+    @Before
+    public void setUp() {
+        delegate = new BroadcastPublisher();
+        publisher = new AsyncPublisher(delegate, new HeapEventQueue(2));
+    }
+
+    @After
+    public void tearDown() {
+        publisher.stop();
+        publisher = null;
+        delegate = null;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotConstructWithNullDelegate() {
+        new AsyncPublisher(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotConstructWithNullQueue() {
+        new AsyncPublisher(delegate, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotPublishNullEvent() {
+        publisher.publish(null);
+    }
+
+    @Test
+    public void shouldDispatchOnBackgroundThread() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Thread[] dispatchers = new Thread[1];
+        delegate.addHandler(new Event.Handler<MockAEvent>() {
+            @Override
+            public void handleEvent(final MockAEvent event) {
+                dispatchers[0] = Thread.currentThread();
+                event.setHandled(true);
+                latch.countDown();
+            }
+        });
+
+        final MockAEvent event = new MockAEvent();
+        publisher.start();
+        publisher.publish(event);
+
+        assertTrue("Event not dispatched", latch.await(5, TimeUnit.SECONDS));
+        assertTrue("Event not handled", event.isHandled());
+        assertNotSame("Dispatched on publishing thread",
+                Thread.currentThread(), dispatchers[0]);
+    }
+
+    @Test
+    public void shouldQueueEventsUntilStarted() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(2);
+        delegate.addHandler(new Event.Handler<MockAEvent>() {
+            @Override
+            public void handleEvent(final MockAEvent event) {
+                latch.countDown();
+            }
+        });
+
+        publisher.publish(new MockAEvent());
+        publisher.publish(new MockAEvent());
+        publisher.publish(new MockAEvent());
+        assertEquals("Unexpected queue size", 2, publisher.getQueueSize());
+        assertEquals("Unexpected number of dropped events", 1,
+                publisher.getDroppedCount());
+
+        publisher.start();
+        assertTrue("Events not dispatched", latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldDrainQueue() throws InterruptedException {
+        final MockAEvent event = new MockAEvent();
+        delegate.addHandler(new MockHandler<MockAEvent>());
+
+        publisher.publish(event);
+        publisher.publish(new MockAEvent());
+        assertEquals("Unexpected number of drained events", 2,
+                publisher.drainQueue());
+        assertEquals("Queue not drained", 0, publisher.getQueueSize());
+
+        publisher.start();
+        publisher.stop();
+        assertFalse("Drained event dispatched", event.isHandled());
+        assertEquals("Drained event dispatched", 0L,
+                publisher.getDispatchedCount());
+    }
+
+    @Test
+    public void shouldDrainOnlyEventsQueuedBeforeDrain() throws InterruptedException {
+        final CountDownLatch dispatching = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch dispatched = new CountDownLatch(2);
+        delegate.addHandler(new Event.Handler<MockAEvent>() {
+            @Override
+            public void handleEvent(final MockAEvent event) {
+                dispatching.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                event.setHandled(true);
+                dispatched.countDown();
+            }
+        });
+        publisher.start();
+        publisher.publish(new MockAEvent());
+        assertTrue("Event not dispatched", dispatching.await(5, TimeUnit.SECONDS));
+
+        final MockAEvent drained = new MockAEvent();
+        publisher.publish(drained);
+        publisher.publish(new MockAEvent());
+        assertEquals("Unexpected number of drained events", 2,
+                publisher.drainQueue());
+        final MockAEvent later = new MockAEvent();
+        publisher.publish(later);
+        release.countDown();
+
+        assertTrue("Later event not dispatched", dispatched.await(5, TimeUnit.SECONDS));
+        assertTrue("Later event not handled", later.isHandled());
+        assertFalse("Drained event dispatched", drained.isHandled());
+    }
+
+    @Test
+    public void shouldStopWhenDelegateThrowsError() throws InterruptedException {
+        delegate.addHandler(new Event.Handler<MockAEvent>() {
+            @Override
+            public void handleEvent(final MockAEvent event) {
+                throw new Error("Expected");
+            }
+        });
+        publisher.start();
+        publisher.publish(new MockAEvent());
+
+        final long deadline = System.currentTimeMillis() + 5000L;
+        while (publisher.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertFalse("Running after dispatching thread terminated",
+                publisher.isRunning());
+    }
+}
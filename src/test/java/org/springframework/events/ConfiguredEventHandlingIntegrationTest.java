@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationListener;
+import org.springframework.events.mock.MockAEvent;
+import org.springframework.events.mock.MockInterceptor;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(value = "classpath:/META-INF/spring/testApplicationContext-events-configured.xml")
+public class ConfiguredEventHandlingIntegrationTest {
+
+    @Autowired
+    private EventBus publisher;
+
+    @Autowired
+    private MockInterceptor interceptor;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Autowired
+    private MockApplicationListener applicationListener;
+
+    @Test
+    public void shouldInterceptPublishing() {
+        final int published = interceptor.getPublishedCount();
+
+        publisher.publish(new MockAEvent());
+        assertEquals("Publishing not intercepted", published + 1,
+                interceptor.getPublishedCount());
+    }
+
+    @Test
+    public void shouldMulticastApplicationEvents() {
+        final ApplicationEvent event = new ApplicationEvent(this) {
+
+            private static final long serialVersionUID = 1L;
+        };
+
+        applicationEventPublisher.publishEvent(event);
+        assertSame("Application event not multicast", event,
+                applicationListener.getLastEvent());
+    }
+
+    public static class MockApplicationListener
+            implements ApplicationListener<ApplicationEvent> {
+
+        private ApplicationEvent lastEvent;
+
+        @Override
+        public void onApplicationEvent(final ApplicationEvent event) {
+            this.lastEvent = event;
+        }
+
+        public ApplicationEvent getLastEvent() {
+            return lastEvent;
+        }
+    }
+
+}
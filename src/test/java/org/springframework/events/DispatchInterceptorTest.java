@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.Ordered;
+
+import org.springframework.events.mock.MockAEvent;
+import org.springframework.events.mock.MockHandler;
+
+public class DispatchInterceptorTest {
+
+    private List<String> calls;
+
+    @Before
+    public void setUp() {
+        calls = new ArrayList<String>();
+    }
+
+    @Test
+    public void shouldInvokeInterceptorsInOrder() {
+        final BroadcastPublisher publisher = new BroadcastPublisher();
+        publisher.addHandler(new MockHandler<MockAEvent>());
+        publisher.setInterceptors(Arrays.asList(
+                new RecordingInterceptor("second", 2),
+                new RecordingInterceptor("first", 1)));
+
+        final MockAEvent event = new MockAEvent();
+        publisher.publish(event);
+
+        assertTrue("Event not handled", event.isHandled());
+        assertEquals("Unexpected interceptor calls", Arrays.asList(
+                "first.beforePublish", "second.beforePublish",
+                "first.beforeDispatch", "second.beforeDispatch",
+                "second.afterDispatch", "first.afterDispatch",
+                "second.afterPublish", "first.afterPublish"), calls);
+    }
+
+    @Test
+    public void shouldInterceptOnlyRegisteredHandlers() {
+        final SimpleEventBus eventBus = new SimpleEventBus();
+        eventBus.addHandler(MockAEvent.class, new MockHandler<MockAEvent>());
+        eventBus.addHandler(MockAEvent.class, new MockHandler<MockAEvent>());
+        eventBus.setInterceptors(Arrays.asList(new RecordingInterceptor("only", 0)));
+
+        eventBus.publish(new MockAEvent());
+
+        assertEquals("Unexpected interceptor calls", Arrays.asList(
+                "only.beforePublish",
+                "only.beforeDispatch", "only.afterDispatch",
+                "only.beforeDispatch", "only.afterDispatch",
+                "only.afterPublish"), calls);
+    }
+
+    @Test
+    public void shouldReportHandlerFailure() {
+        final IllegalStateException failure = new IllegalStateException();
+        final Throwable[] reported = new Throwable[2];
+        final SimpleEventBus eventBus = new SimpleEventBus();
+        eventBus.addHandler(MockAEvent.class, new Event.Handler<MockAEvent>() {
+            @Override
+            public void handleEvent(final MockAEvent event) {
+                throw failure;
+            }
+        });
+        eventBus.setInterceptors(Arrays.asList(new DispatchInterceptorAdapter() {
+            @Override
+            public void afterDispatch(final Event event,
+                    final Event.Handler<?> handler, final Throwable failure) {
+                reported[0] = failure;
+            }
+
+            @Override
+            public void afterPublish(final Event event, final Throwable failure) {
+                reported[1] = failure;
+            }
+        }));
+
+        try {
+            eventBus.publish(new MockAEvent());
+            fail("Handler failure not propagated");
+        } catch (IllegalStateException e) {
+            assertSame("Unexpected failure", failure, e);
+        }
+        assertSame("Failure not reported after dispatch", failure, reported[0]);
+        assertSame("Failure not reported after publish", failure, reported[1]);
+    }
+
+    @Test
+    public void shouldUnwindCompletedCallbacksWhenInterceptorFails() {
+        final IllegalStateException failure = new IllegalStateException();
+        final SimpleEventBus eventBus = new SimpleEventBus();
+        eventBus.addHandler(MockAEvent.class, new MockHandler<MockAEvent>());
+        eventBus.setInterceptors(Arrays.asList(
+                new RecordingInterceptor("first", 1),
+                new RecordingInterceptor("second", 2) {
+
+                    @Override
+                    public void beforeDispatch(final Event event,
+                            final Event.Handler<?> handler) {
+                        throw failure;
+                    }
+                },
+                new RecordingInterceptor("third", 3)));
+
+        final MockAEvent event = new MockAEvent();
+        try {
+            eventBus.publish(event);
+            fail("Interceptor failure not propagated");
+        } catch (IllegalStateException e) {
+            assertSame("Unexpected failure", failure, e);
+        }
+
+        assertFalse("Event handled", event.isHandled());
+        assertEquals("Unexpected interceptor calls", Arrays.asList(
+                "first.beforePublish", "second.beforePublish", "third.beforePublish",
+                "first.beforeDispatch", "first.afterDispatch",
+                "third.afterPublish", "second.afterPublish", "first.afterPublish"),
+                calls);
+    }
+
+    @Test
+    public void shouldUnwindCompletedCallbacksWhenPublishInterceptorFails() {
+        final IllegalStateException failure = new IllegalStateException();
+        final BroadcastPublisher publisher = new BroadcastPublisher();
+        publisher.setInterceptors(Arrays.asList(
+                new RecordingInterceptor("first", 1),
+                new RecordingInterceptor("second", 2) {
+
+                    @Override
+                    public void beforePublish(final Event event) {
+                        throw failure;
+                    }
+                }));
+
+        try {
+            publisher.publish(new MockAEvent());
+            fail("Interceptor failure not propagated");
+        } catch (IllegalStateException e) {
+            assertSame("Unexpected failure", failure, e);
+        }
+
+        assertEquals("Unexpected interceptor calls", Arrays.asList(
+                "first.beforePublish", "first.afterPublish"), calls);
+    }
+
+    @Test
+    public void shouldRemoveInterceptors() {
+        final BroadcastPublisher publisher = new BroadcastPublisher();
+        publisher.setInterceptors(Arrays.asList(new RecordingInterceptor("any", 0)));
+        publisher.setInterceptors(null);
+
+        publisher.publish(new MockAEvent());
+        assertTrue("Removed interceptor invoked", calls.isEmpty());
+    }
+
+    private class RecordingInterceptor implements DispatchInterceptor,
+            Ordered {
+
+        private final String name;
+
+        private final int order;
+
+        RecordingInterceptor(final String name, final int order) {
+            this.name = name;
+            this.order = order;
+        }
+
+        @Override
+        public int getOrder() {
+            return order;
+        }
+
+        @Override
+        public void beforePublish(final Event event) {
+            calls.add(name + ".beforePublish");
+        }
+
+        @Override
+        public void afterPublish(final Event event, final Throwable failure) {
+            calls.add(name + ".afterPublish");
+        }
+
+        @Override
+        public void beforeDispatch(final Event event,
+                final Event.Handler<?> handler) {
+            calls.add(name + ".beforeDispatch");
+        }
+
+        @Override
+        public void afterDispatch(final Event event,
+                final Event.Handler<?> handler, final Throwable failure) {
+            calls.add(name + ".afterDispatch");
+        }
+    }
+}
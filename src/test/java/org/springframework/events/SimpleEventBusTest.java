@@ -18,6 +18,9 @@ package org.springframework.events;
 
 import static org.junit.Assert.*;
 
+import java.util.Collections;
+import java.util.Map;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -25,7 +28,9 @@ import org.junit.Test;
 import org.springframework.events.mock.MockAEvent;
 import org.springframework.events.mock.MockBEvent;
 import org.springframework.events.mock.MockCEvent;
+import org.springframework.events.mock.MockDoubleEvent;
 import org.springframework.events.mock.MockHandler;
+import org.springframework.events.mock.MockLongEvent;
 
 public class SimpleEventBusTest {
 
@@ -94,4 +99,119 @@ public class SimpleEventBusTest {
         eventBus.publish(mockAEvent);
         assertFalse("Event A handled", mockAEvent.isHandled());
     }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void canNotAddNullLongHandler() {
+        new SimpleEventBus().addHandler(MockLongEvent.class,
+                (LongEventHandler) null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void canNotPublishValueWithoutType() {
+        new SimpleEventBus().publish((Class<MockLongEvent>) null, 1L);
+    }
+
+    @Test
+    public void shouldPublishPrimitiveValues() {
+        final SimpleEventBus eventBus = new SimpleEventBus();
+        final MockLongHandler longHandler = new MockLongHandler();
+        final MockDoubleHandler doubleHandler = new MockDoubleHandler();
+
+        eventBus.addHandler(MockLongEvent.class, longHandler);
+        eventBus.addHandler(MockDoubleEvent.class, doubleHandler);
+
+        eventBus.publish(MockLongEvent.class, 42L);
+        assertEquals("Unexpected long value", 42L, longHandler.value);
+
+        eventBus.publish(MockDoubleEvent.class, 0.5d);
+        assertEquals("Unexpected double value", 0.5d, doubleHandler.value, 0d);
+    }
+
+    @Test
+    public void shouldPublishPrimitiveEventsToAllHandlers() {
+        final SimpleEventBus eventBus = new SimpleEventBus();
+        final MockLongHandler longHandler = new MockLongHandler();
+        final MockHandler<MockAEvent> objectHandler = new MockHandler<MockAEvent>();
+        final boolean[] handled = new boolean[1];
+
+        eventBus.addHandler(MockLongEvent.class, longHandler);
+        eventBus.addHandler(MockLongEvent.class,
+                new Event.Handler<MockLongEvent>() {
+                    @Override
+                    public void handleEvent(final MockLongEvent event) {
+                        handled[0] = true;
+                    }
+                });
+        eventBus.addHandler(MockAEvent.class, objectHandler);
+
+        eventBus.publish(new MockLongEvent(7L));
+        assertEquals("Unexpected long value", 7L, longHandler.value);
+        assertTrue("Long event not handled", handled[0]);
+        assertFalse("Event A handled", mockAEvent.isHandled());
+    }
+
+    @Test
+    public void shouldNotPublishValueToRemovedHandler() {
+        final SimpleEventBus eventBus = new SimpleEventBus();
+        final MockLongHandler first = new MockLongHandler();
+        final MockLongHandler second = new MockLongHandler();
+
+        final HandlerRegistration registration =
+            eventBus.addHandler(MockLongEvent.class, first);
+        eventBus.addHandler(MockLongEvent.class, second);
+
+        registration.removeHandler();
+        eventBus.publish(MockLongEvent.class, 3L);
+        assertEquals("Removed handler received value", 0L, first.value);
+        assertEquals("Unexpected long value", 3L, second.value);
+    }
+
+    @Test
+    public void shouldCountHandlersPerEventType() {
+        final SimpleEventBus eventBus = new SimpleEventBus();
+        final HandlerRegistration longRegistration =
+            eventBus.addHandler(MockLongEvent.class, new MockLongHandler());
+        eventBus.addHandler(MockLongEvent.class,
+                new Event.Handler<MockLongEvent>() {
+                    @Override
+                    public void handleEvent(final MockLongEvent event) {
+                    }
+                });
+        final HandlerRegistration registration =
+            eventBus.addHandler(MockAEvent.class, new MockHandler<MockAEvent>());
+        final Map<Class<? extends Event>, Integer> before =
+            eventBus.getHandlerCounts();
+
+        longRegistration.removeHandler();
+        longRegistration.removeHandler();
+        registration.removeHandler();
+
+        assertEquals("Unexpected long event handlers", Integer.valueOf(2),
+                before.get(MockLongEvent.class));
+        assertEquals("Unexpected event A handlers", Integer.valueOf(1),
+                before.get(MockAEvent.class));
+        assertEquals("Unexpected handler counts",
+                Collections.singletonMap(MockLongEvent.class, 1),
+                eventBus.getHandlerCounts());
+    }
+
+    private static final class MockLongHandler implements LongEventHandler {
+
+        private long value;
+
+        @Override
+        public void handleEvent(final long value) {
+            this.value = value;
+        }
+    }
+
+    private static final class MockDoubleHandler implements DoubleEventHandler {
+
+        private double value;
+
+        @Override
+        public void handleEvent(final double value) {
+            this.value = value;
+        }
+    }
 }
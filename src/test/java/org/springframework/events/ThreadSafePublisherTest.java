@@ -30,7 +30,6 @@ import org.springframework.events.mock.MockHandler;
 
 import static org.easymock.EasyMock.*;
 import static org.junit.Assert.assertNotNull;
-import static org.junit.Assert.assertSame;
 
 public class ThreadSafePublisherTest {
 
@@ -83,14 +82,14 @@ public class ThreadSafePublisherTest {
 
         expect(mockDelegate.addHandler(same(mockHandler)))
             .andReturn(mockHandlerRegistration);
+        mockHandlerRegistration.removeHandler();
+        expectLastCall();
 
         replay(mockHandler, mockHandlerRegistration, mockDelegate);
         final HandlerRegistration result = publisher.addHandler(mockHandler);
-        verify(mockHandler, mockHandlerRegistration, mockDelegate);
-
         assertNotNull("Null handler registration returned", result);
-        assertSame("Unexpected handler registration returned",
-                mockHandlerRegistration, result);
+        result.removeHandler();
+        verify(mockHandler, mockHandlerRegistration, mockDelegate);
     }
 
     /**
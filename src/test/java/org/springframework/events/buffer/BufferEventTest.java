@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.buffer;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.events.BroadcastPublisher;
+import org.springframework.events.Event;
+
+public class BufferEventTest {
+
+    private DirectBufferPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new DirectBufferPool(64, 1024, 4);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void canNotConstructWithoutPayload() {
+        new MockBufferEvent(null, pool);
+    }
+
+    @Test
+    public void shouldExposeReadOnlyViewOfPayload() {
+        final MockBufferEvent event = newEvent(1, 2, 3);
+
+        final ByteBuffer first = event.getPayload();
+        final ByteBuffer second = event.getPayload();
+
+        assertTrue("Payload view is writable", first.isReadOnly());
+        assertTrue("Payload is not direct", first.isDirect());
+        assertEquals("Unexpected payload size", 3, event.getPayloadSize());
+        assertEquals("Unexpected first byte", 1, first.get());
+        assertEquals("Views share position", 0, second.position());
+    }
+
+    @Test
+    public void shouldReturnBufferToPoolWhenLastReferenceIsReleased() {
+        final MockBufferEvent event = newEvent(1, 2, 3);
+        final List<BufferEvent> retained = new ArrayList<BufferEvent>();
+
+        final BroadcastPublisher publisher = new BroadcastPublisher();
+        for (int i = 0; i < 2; i++) {
+            publisher.addHandler(new Event.Handler<MockBufferEvent>() {
+                @Override
+                public void handleEvent(final MockBufferEvent event) {
+                    retained.add(event.retain());
+                }
+            });
+        }
+
+        publisher.publish(event);
+        assertFalse("Released while retained by handlers", event.release());
+        assertEquals("Unexpected reference count", 2, event.getReferenceCount());
+
+        assertFalse("Released while retained by handler",
+                retained.get(0).release());
+        assertEquals("Buffer pooled too early", 0, pool.getIdleCount());
+        assertTrue("Not released by last handler", retained.get(1).release());
+        assertEquals("Buffer not given back to pool", 1, pool.getIdleCount());
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void canNotAccessReleasedPayload() {
+        final MockBufferEvent event = newEvent(1);
+        event.release();
+        event.getPayload();
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void canNotRetainReleasedEvent() {
+        final MockBufferEvent event = newEvent(1);
+        event.release();
+        event.retain();
+    }
+
+    @Test
+    public void shouldReuseBuffersOfTheSameSizeClass() {
+        final ByteBuffer buffer = pool.acquire(100);
+        assertEquals("Unexpected limit", 100, buffer.limit());
+        assertEquals("Capacity not rounded", 128, buffer.capacity());
+
+        pool.release(buffer);
+        assertSame("Buffer not reused", buffer, pool.acquire(120));
+        assertEquals("Unpooled buffer kept", 0, pool.getIdleCount());
+
+        pool.release(pool.acquire(4096));
+        assertEquals("Oversized buffer pooled", 0, pool.getIdleCount());
+    }
+
+    private MockBufferEvent newEvent(final int... bytes) {
+        final ByteBuffer buffer = pool.acquire(bytes.length);
+        for (final int b : bytes) {
+            buffer.put((byte) b);
+        }
+        buffer.flip();
+        return new MockBufferEvent(buffer, pool);
+    }
+
+    private static final class MockBufferEvent extends BufferEvent {
+
+        MockBufferEvent(final ByteBuffer buffer, final BufferPool pool) {
+            super(buffer, pool);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.events.Event;
+import org.springframework.events.SimpleEventBus;
+import org.springframework.events.annotation.Sticky;
+import org.springframework.events.mock.MockAEvent;
+import org.springframework.events.mock.MockBEvent;
+
+public class LastValueEventBusTest {
+
+    private LastValueEventBus bus;
+
+    @Before
+    public void setUp() {
+        bus = new LastValueEventBus(new SimpleEventBus());
+        bus.setStickyTypes(Collections.<Class<? extends Event>>singleton(
+                MockAEvent.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotConstructWithNullDelegate() {
+        new LastValueEventBus(null);
+    }
+
+    @Test
+    public void shouldDetectStickyTypes() {
+        assertTrue("Configured type not sticky", bus.isSticky(MockAEvent.class));
+        assertTrue("Annotated type not sticky", bus.isSticky(PriceEvent.class));
+        assertFalse("Other type sticky", bus.isSticky(MockBEvent.class));
+    }
+
+    @Test
+    public void shouldDeliverLastEventToNewHandler() {
+        final MockAEvent first = new MockAEvent();
+        final MockAEvent last = new MockAEvent();
+        bus.publish(first);
+        bus.publish(last);
+
+        final Recorder<MockAEvent> handler = new Recorder<MockAEvent>();
+        bus.addHandler(MockAEvent.class, handler);
+
+        assertEquals("Unexpected replayed events", Arrays.asList(last), handler.events);
+        assertSame("Unexpected last event", last, bus.getLastEvent(MockAEvent.class));
+
+        final MockAEvent live = new MockAEvent();
+        bus.publish(live);
+        assertEquals("Live event not received", Arrays.asList(last, live),
+                handler.events);
+    }
+
+    @Test
+    public void shouldNotKeepEventsOfOtherTypes() {
+        bus.publish(new MockBEvent());
+
+        final Recorder<MockBEvent> handler = new Recorder<MockBEvent>();
+        bus.addHandler(MockBEvent.class, handler);
+
+        assertTrue("Event of other type replayed", handler.events.isEmpty());
+        assertNull("Event of other type kept", bus.getLastEvent(MockBEvent.class));
+    }
+
+    @Test
+    public void shouldDeliverLastEventPerKey() {
+        bus.publish(new PriceEvent("A", 1));
+        bus.publish(new PriceEvent("B", 2));
+        bus.publish(new PriceEvent("A", 3));
+
+        final Recorder<PriceEvent> handler = new Recorder<PriceEvent>();
+        bus.addHandler(PriceEvent.class, handler);
+
+        final HashSet<Integer> prices = new HashSet<Integer>();
+        for (final PriceEvent event : handler.events) {
+            prices.add(event.price);
+        }
+        assertEquals("Unexpected replayed prices",
+                new HashSet<Integer>(Arrays.asList(2, 3)), prices);
+        assertEquals("Unexpected last price", 3,
+                bus.getLastEvent(PriceEvent.class, "A").price);
+    }
+
+    @Test
+    public void shouldForgetEventsWhenCleared() {
+        bus.publish(new MockAEvent());
+        bus.clear();
+
+        final Recorder<MockAEvent> handler = new Recorder<MockAEvent>();
+        bus.addHandler(MockAEvent.class, handler);
+
+        assertTrue("Cleared event replayed", handler.events.isEmpty());
+    }
+
+    private static final class Recorder<E extends Event> implements Event.Handler<E> {
+
+        private final List<E> events = new ArrayList<E>();
+
+        @Override
+        public void handleEvent(final E event) {
+            events.add(event);
+        }
+    }
+
+    @Sticky
+    private static final class PriceEvent extends Event.AbstractEvent implements Keyed {
+
+        private final String instrument;
+
+        private final int price;
+
+        PriceEvent(final String instrument, final int price) {
+            this.instrument = instrument;
+            this.price = price;
+        }
+
+        @Override
+        public Object getEventKey() {
+            return instrument;
+        }
+    }
+
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.codec;
+
+import static org.junit.Assert.*;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.events.Event;
+import org.springframework.events.mock.MockAEvent;
+
+public class TaggedBinaryCodecTest {
+
+    private TaggedBinaryCodec codec;
+
+    private ByteBuffer buffer;
+
+    @Before
+    public void setUp() {
+        codec = new TaggedBinaryCodec();
+        buffer = ByteBuffer.allocateDirect(1024);
+    }
+
+    @Test
+    public void shouldEncodeAndDecodeAllFieldTypes() {
+        final AllTypesEvent event = new AllTypesEvent();
+        event.flag = true;
+        event.b = -7;
+        event.s = 1234;
+        event.c = '\u0119';
+        event.i = -123456;
+        event.l = Long.MIN_VALUE;
+        event.f = 1.5f;
+        event.d = -2.25d;
+        event.boxed = 42;
+        event.text = "za\u017c\u00f3\u0142\u0107 \ud83d\ude00";
+        event.bytes = new byte[] {1, 2, 3};
+        event.unit = Unit.SECONDS;
+        event.untagged = "ignored";
+
+        final AllTypesEvent result = roundTrip(event);
+
+        assertTrue(result.flag);
+        assertEquals(-7, result.b);
+        assertEquals(1234, result.s);
+        assertEquals('\u0119', result.c);
+        assertEquals(-123456, result.i);
+        assertEquals(Long.MIN_VALUE, result.l);
+        assertEquals(1.5f, result.f, 0f);
+        assertEquals(-2.25d, result.d, 0d);
+        assertEquals(Integer.valueOf(42), result.boxed);
+        assertEquals("za\u017c\u00f3\u0142\u0107 \ud83d\ude00", result.text);
+        assertArrayEquals(new byte[] {1, 2, 3}, result.bytes);
+        assertSame(Unit.SECONDS, result.unit);
+        assertNull("Untagged field encoded", result.untagged);
+    }
+
+    @Test
+    public void shouldOmitNullFields() {
+        codec.encode(new AllTypesEvent(), buffer);
+        final int withNulls = buffer.position();
+
+        final AllTypesEvent event = new AllTypesEvent();
+        event.text = "text";
+        buffer.clear();
+        codec.encode(event, buffer);
+
+        assertTrue("Null field encoded", buffer.position() > withNulls);
+        buffer.flip();
+        assertNull("Null field decoded",
+                ((AllTypesEvent) codec.decode(buffer)).boxed);
+    }
+
+    @Test
+    public void shouldDecodeImmutableEventWithoutDefaultConstructor() {
+        final ImmutableEvent result = roundTrip(new ImmutableEvent(17L, "id"));
+        assertEquals(17L, result.timestamp);
+        assertEquals("id", result.id);
+    }
+
+    @Test
+    public void shouldEncodeRegisteredTypesCompactly() {
+        codec.encode(new ImmutableEvent(1L, "a"), buffer);
+        final int byName = buffer.position();
+
+        codec.register(ImmutableEvent.class, 1);
+        buffer.clear();
+        codec.encode(new ImmutableEvent(1L, "a"), buffer);
+
+        assertTrue("Registered type not compact", buffer.position() < byName);
+        assertEquals("Unexpected encoded size", 7, buffer.position());
+    }
+
+    @Test
+    public void shouldSkipUnknownFieldsAndKeepDefaultsOfMissingOnes() {
+        final TaggedBinaryCodec newer = new TaggedBinaryCodec();
+        codec.register(VersionOne.class, 1);
+        newer.register(VersionTwo.class, 1);
+
+        final VersionOne one = new VersionOne();
+        one.name = "name";
+        one.removed = 5;
+        codec.encode(one, buffer);
+        buffer.flip();
+        final VersionTwo two = (VersionTwo) newer.decode(buffer);
+
+        assertEquals("name", two.name);
+        assertEquals("Missing field not defaulted", "default", two.added);
+
+        buffer.clear();
+        newer.encode(two, buffer);
+        buffer.flip();
+        assertEquals("name", ((VersionOne) codec.decode(buffer)).name);
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void shouldFailWhenBufferIsTooSmall() {
+        codec.encode(new ImmutableEvent(1L, "some identifier"),
+                ByteBuffer.allocate(8));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotDecodeTruncatedEvent() {
+        codec.encode(new ImmutableEvent(1L, "some identifier"), buffer);
+        buffer.flip();
+        buffer.limit(buffer.limit() - 4);
+        codec.decode(buffer);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotEncodeUnsupportedFieldType() {
+        codec.encode(new UnsupportedEvent(), buffer);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotRegisterSameIdentifierTwice() {
+        codec.register(VersionOne.class, 1);
+        codec.register(VersionTwo.class, 1);
+    }
+
+    @Test
+    public void shouldEncodeEventWithoutTaggedFields() {
+        assertTrue(roundTrip(new MockAEvent()) instanceof MockAEvent);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E extends Event> E roundTrip(final E event) {
+        buffer.clear();
+        codec.encode(event, buffer);
+        buffer.flip();
+        final Event result = codec.decode(buffer);
+        assertFalse("Event not fully decoded", buffer.hasRemaining());
+        return (E) result;
+    }
+
+    private enum Unit {
+        MILLISECONDS, SECONDS
+    }
+
+    private static final class AllTypesEvent extends Event.AbstractEvent {
+        @Tag(1) private boolean flag;
+        @Tag(2) private byte b;
+        @Tag(3) private short s;
+        @Tag(4) private char c;
+        @Tag(5) private int i;
+        @Tag(6) private long l;
+        @Tag(7) private float f;
+        @Tag(8) private double d;
+        @Tag(9) private Integer boxed;
+        @Tag(10) private String text;
+        @Tag(11) private byte[] bytes;
+        @Tag(12) private Unit unit;
+        private String untagged;
+    }
+
+    private static final class ImmutableEvent extends Event.AbstractEvent {
+        @Tag(1) private final long timestamp;
+        @Tag(2) private final String id;
+
+        ImmutableEvent(final long timestamp, final String id) {
+            this.timestamp = timestamp;
+            this.id = id;
+        }
+    }
+
+    private static final class VersionOne extends Event.AbstractEvent {
+        @Tag(1) private String name;
+        @Tag(2) private int removed;
+    }
+
+    private static final class VersionTwo extends Event.AbstractEvent {
+        @Tag(1) private String name;
+        @Tag(3) private String added = "default";
+    }
+
+    private static final class UnsupportedEvent extends Event.AbstractEvent {
+        @Tag(1) private Object value = new Object();
+    }
+
+}
@@ -16,21 +16,42 @@
 
 package org.springframework.events.context;
 
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import org.springframework.events.HandlerRegistration;
 import org.springframework.events.HasBroadcastEventHandlers;
+import org.springframework.events.SimpleEventBus;
+import org.springframework.events.annotation.EventHandler;
+import org.springframework.events.codec.SerializationCodec;
+import org.springframework.events.filter.FilteringEventBus;
+import org.springframework.events.journal.DurableSubscriptions;
+import org.springframework.events.journal.EventJournal;
+import org.springframework.events.journal.JournalingEventBus;
 import org.springframework.events.mock.MockAEvent;
 import org.springframework.events.mock.MockBEvent;
 import org.springframework.events.mock.MockHandler;
+import org.springframework.events.mock.MockJournaledEvent;
+import org.springframework.events.mock.MockOrderEvent;
+import org.springframework.events.mock.MockOrderEvent.Status;
+import org.springframework.events.reply.CollectedReplies;
+import org.springframework.events.reply.ReplyingPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.easymock.EasyMock.*;
+import static org.junit.Assert.assertEquals;
 
 public class AnnotationEventHandlerPostProcessorTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private HasBroadcastEventHandlers mockEventBus;
     private AnnotationEventHandlerPostProcessor postProcessor;
 
@@ -115,4 +136,121 @@ public class AnnotationEventHandlerPostProcessorTest {
         verify(mockEventBus, mockHandlerRegistrationA, mockHandlerRegistrationB);
 
     }
+
+    @Test
+    public void shouldRegisterDurableHandlerMethods() throws Exception {
+        final EventJournal journal = new EventJournal(folder.newFolder(),
+                new SerializationCodec(), 64 * 1024, 2, 0);
+        final JournalingEventBus bus =
+                new JournalingEventBus(new SimpleEventBus(), journal);
+        final DurableSubscriptions subscriptions =
+                new DurableSubscriptions(bus, folder.newFolder());
+        ReflectionTestUtils.setField(postProcessor, "durableSubscriptions",
+                subscriptions);
+        final DurableBean bean = new DurableBean();
+        bus.publish(new MockJournaledEvent(1));
+
+        final HandlerRegistration mockHandlerRegistration =
+                createMock(HandlerRegistration.class);
+        expect(mockEventBus.addHandler(isA(EventHandlerAdapter.class)))
+                .andReturn(mockHandlerRegistration);
+        mockHandlerRegistration.removeHandler();
+        expectLastCall();
+
+        replay(mockEventBus, mockHandlerRegistration);
+        postProcessor.postProcessAfterInitialization(bean, "durableBean");
+        bus.publish(new MockJournaledEvent(2));
+        postProcessor.postProcessBeforeDestruction(bean, "durableBean");
+        bus.publish(new MockJournaledEvent(3));
+        verify(mockEventBus, mockHandlerRegistration);
+
+        assertEquals("Unexpected handled events", 2, bean.handled);
+        assertEquals("Unexpected position", 2, subscriptions.getSequence("durable"));
+        subscriptions.close();
+        journal.close();
+    }
+
+    @Test
+    public void shouldRegisterFilteredHandlerMethods() {
+        final FilteringEventBus bus = new FilteringEventBus(new SimpleEventBus());
+        ReflectionTestUtils.setField(postProcessor, "filteringEventBus", bus);
+        final FilteredBean bean = new FilteredBean();
+
+        final HandlerRegistration mockHandlerRegistration =
+                createMock(HandlerRegistration.class);
+        expect(mockEventBus.addHandler(isA(EventHandlerAdapter.class)))
+                .andReturn(mockHandlerRegistration);
+        mockHandlerRegistration.removeHandler();
+        expectLastCall();
+
+        replay(mockEventBus, mockHandlerRegistration);
+        postProcessor.postProcessAfterInitialization(bean, "filteredBean");
+        bus.publish(new MockOrderEvent("EU", 150, Status.NEW));
+        bus.publish(new MockOrderEvent("US", 150, Status.NEW));
+        bus.publish(new MockOrderEvent("EU", 50, Status.NEW));
+        postProcessor.postProcessBeforeDestruction(bean, "filteredBean");
+        bus.publish(new MockOrderEvent("EU", 150, Status.NEW));
+        verify(mockEventBus, mockHandlerRegistration);
+
+        assertEquals("Unexpected handled events", 1, bean.handled);
+        assertEquals("Unexpected subscriptions", 0,
+                bus.getSubscriptionCount(MockOrderEvent.class));
+    }
+
+    @Test
+    public void shouldCollectReturnValuesOfFilteredHandlerMethods() throws Exception {
+        final FilteringEventBus bus = new FilteringEventBus(new SimpleEventBus());
+        ReflectionTestUtils.setField(postProcessor, "filteringEventBus", bus);
+        final ReplyingFilteredBean bean = new ReplyingFilteredBean();
+        expect(mockEventBus.addHandler(isA(EventHandlerAdapter.class)))
+                .andReturn(createMock(HandlerRegistration.class));
+        replay(mockEventBus);
+        postProcessor.postProcessAfterInitialization(bean, "replyingFilteredBean");
+
+        final ReplyingPublisher publisher = new ReplyingPublisher(bus);
+        try {
+            final CollectedReplies<String> replies = publisher.publishAndCollect(
+                    new MockOrderEvent("EU", 150, Status.NEW), String.class, 1,
+                    TimeUnit.SECONDS).get();
+            assertEquals("Unexpected replies", Arrays.asList("EU"),
+                    replies.getValues());
+        } finally {
+            publisher.close();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void canNotRegisterFilteredHandlerWithoutFilteringBus() {
+        replay(mockEventBus);
+        postProcessor.postProcessAfterInitialization(new FilteredBean(),
+                "filteredBean");
+    }
+
+    public static class FilteredBean {
+
+        private int handled;
+
+        @EventHandler(filter = {"region=EU", "amount>=100"})
+        public void on(final MockOrderEvent event) {
+            handled++;
+        }
+    }
+
+    public static class ReplyingFilteredBean {
+
+        @EventHandler(filter = "region=EU")
+        public String on(final MockOrderEvent event) {
+            return event.getRegion();
+        }
+    }
+
+    public static class DurableBean {
+
+        private int handled;
+
+        @EventHandler(durable = "durable")
+        public void on(final MockJournaledEvent event) {
+            handled++;
+        }
+    }
 }
@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.context;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.SmartApplicationListener;
+import org.springframework.core.Ordered;
+
+public class EventBusApplicationEventMulticasterTest {
+
+    private EventBusApplicationEventMulticaster multicaster;
+
+    private List<String> received;
+
+    @Before
+    public void setUp() {
+        multicaster = new EventBusApplicationEventMulticaster();
+        received = new ArrayList<String>();
+    }
+
+    @Test
+    public void shouldDispatchToListenersOfEventType() {
+        multicaster.addApplicationListener(new FirstListener(received, "first"));
+        multicaster.addApplicationListener(new AnyListener(received, "any"));
+
+        multicaster.multicastEvent(new FirstEvent(this));
+        multicaster.multicastEvent(new SecondEvent(this));
+
+        assertEquals("Unexpected listeners",
+                Arrays.asList("first", "any", "any"), received);
+    }
+
+    @Test
+    public void shouldDispatchInListenerOrder() {
+        multicaster.addApplicationListener(new AnyListener(received, "last", 10));
+        multicaster.addApplicationListener(new AnyListener(received, "first", 1));
+
+        multicaster.multicastEvent(new FirstEvent(this));
+
+        assertEquals("Unexpected order", Arrays.asList("first", "last"), received);
+    }
+
+    @Test
+    public void shouldNotDispatchToRemovedListener() {
+        final FirstListener listener = new FirstListener(received, "first");
+        multicaster.addApplicationListener(listener);
+        multicaster.multicastEvent(new FirstEvent(this));
+
+        multicaster.removeApplicationListener(listener);
+        multicaster.multicastEvent(new FirstEvent(this));
+
+        assertEquals("Unexpected listeners", Arrays.asList("first"), received);
+    }
+
+    @Test
+    public void shouldRespectSupportedSourceType() {
+        multicaster.addApplicationListener(new SourceListener(received));
+
+        multicaster.multicastEvent(new FirstEvent(this));
+        multicaster.multicastEvent(new FirstEvent("source"));
+
+        assertEquals("Unexpected listeners", Arrays.asList("source"), received);
+    }
+
+    @Test
+    public void shouldDispatchToListenerBeans() {
+        final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        final FirstListener listener = new FirstListener(received, "bean");
+        beanFactory.registerSingleton("listener", listener);
+        multicaster.setBeanFactory(beanFactory);
+        multicaster.addApplicationListener(listener);
+        multicaster.addApplicationListenerBean("listener");
+
+        multicaster.multicastEvent(new FirstEvent(this));
+
+        assertEquals("Unexpected listeners", Arrays.asList("bean"), received);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void canNotDispatchToListenerBeansWithoutBeanFactory() {
+        multicaster.addApplicationListenerBean("listener");
+
+        multicaster.multicastEvent(new FirstEvent(this));
+    }
+
+    @Test
+    public void shouldDispatchAsynchronouslyWhenStarted() throws Exception {
+        final BlockingQueue<Thread> threads = new LinkedBlockingQueue<Thread>();
+        multicaster.setAsync(true);
+        multicaster.addApplicationListener(new ApplicationListener<FirstEvent>() {
+
+            @Override
+            public void onApplicationEvent(final FirstEvent event) {
+                threads.add(Thread.currentThread());
+            }
+        });
+
+        multicaster.multicastEvent(new FirstEvent(this));
+        assertNull("Event dispatched before start", threads.poll(50, TimeUnit.MILLISECONDS));
+
+        multicaster.start();
+        try {
+            final Thread thread = threads.poll(5, TimeUnit.SECONDS);
+            assertNotNull("Event not dispatched", thread);
+            assertNotSame("Event dispatched synchronously", Thread.currentThread(), thread);
+        } finally {
+            multicaster.stop();
+        }
+    }
+
+    private static class FirstEvent extends ApplicationEvent {
+
+        private static final long serialVersionUID = 1L;
+
+        FirstEvent(final Object source) {
+            super(source);
+        }
+    }
+
+    private static class SecondEvent extends ApplicationEvent {
+
+        private static final long serialVersionUID = 1L;
+
+        SecondEvent(final Object source) {
+            super(source);
+        }
+    }
+
+    private static class FirstListener implements ApplicationListener<FirstEvent> {
+
+        private final List<String> received;
+
+        private final String name;
+
+        FirstListener(final List<String> received, final String name) {
+            this.received = received;
+            this.name = name;
+        }
+
+        @Override
+        public void onApplicationEvent(final FirstEvent event) {
+            received.add(name);
+        }
+    }
+
+    private static class AnyListener implements ApplicationListener<ApplicationEvent>,
+            Ordered {
+
+        private final List<String> received;
+
+        private final String name;
+
+        private final int order;
+
+        AnyListener(final List<String> received, final String name) {
+            this(received, name, LOWEST_PRECEDENCE);
+        }
+
+        AnyListener(final List<String> received, final String name, final int order) {
+            this.received = received;
+            this.name = name;
+            this.order = order;
+        }
+
+        @Override
+        public void onApplicationEvent(final ApplicationEvent event) {
+            received.add(name);
+        }
+
+        @Override
+        public int getOrder() {
+            return order;
+        }
+    }
+
+    private static class SourceListener implements SmartApplicationListener {
+
+        private final List<String> received;
+
+        SourceListener(final List<String> received) {
+            this.received = received;
+        }
+
+        @Override
+        public boolean supportsEventType(
+                final Class<? extends ApplicationEvent> eventType) {
+            return FirstEvent.class.isAssignableFrom(eventType);
+        }
+
+        @Override
+        public boolean supportsSourceType(final Class<?> sourceType) {
+            return String.class.equals(sourceType);
+        }
+
+        @Override
+        public void onApplicationEvent(final ApplicationEvent event) {
+            received.add((String) event.getSource());
+        }
+
+        @Override
+        public int getOrder() {
+            return 0;
+        }
+    }
+
+}
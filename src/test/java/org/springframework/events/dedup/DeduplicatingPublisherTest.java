@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.dedup;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.events.Event;
+import org.springframework.events.EventBus;
+import org.springframework.events.mock.MockAEvent;
+
+public class DeduplicatingPublisherTest {
+
+    private List<Event> published;
+
+    private EventBus delegate;
+
+    @Before
+    public void setUp() {
+        published = new ArrayList<Event>();
+        delegate = new EventBus() {
+
+            @Override
+            public void publish(final Event event) {
+                published.add(event);
+            }
+        };
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotConstructWithNullDelegate() {
+        new DeduplicatingPublisher(null, 16);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotConstructWithoutCapacity() {
+        new DeduplicatingPublisher(delegate, 0);
+    }
+
+    @Test
+    public void shouldDropDuplicateEvents() {
+        final DeduplicatingPublisher publisher = new DeduplicatingPublisher(delegate, 16);
+
+        for (int i = 0; i < 3; i++) {
+            publisher.publish(new IdentifiableEvent(0));
+            publisher.publish(new IdentifiableEvent(42));
+        }
+
+        assertEquals("Unexpected published count", 2, published.size());
+        assertEquals("Unexpected duplicate count", 4, publisher.getDuplicateCount());
+    }
+
+    @Test
+    public void shouldPublishEventsWithoutIdentifier() {
+        final DeduplicatingPublisher publisher = new DeduplicatingPublisher(delegate, 16);
+        final Event event = new MockAEvent();
+
+        publisher.publish(event);
+        publisher.publish(event);
+
+        assertEquals("Unexpected published count", 2, published.size());
+    }
+
+    @Test
+    public void shouldRememberIdentifiersOfCountWindow() {
+        final DeduplicatingPublisher publisher = new DeduplicatingPublisher(delegate, 100);
+        for (int i = 0; i < 1000; i++) {
+            publisher.publish(new IdentifiableEvent(i));
+        }
+        assertEquals("Events dropped", 1000, published.size());
+
+        for (int i = 900; i < 1000; i++) {
+            publisher.publish(new IdentifiableEvent(i));
+        }
+        assertEquals("Duplicates within window published", 1000, published.size());
+
+        publisher.publish(new IdentifiableEvent(0));
+        assertEquals("Event out of window dropped", 1001, published.size());
+    }
+
+    @Test
+    public void shouldForgetIdentifiersAfterTimeWindow() throws Exception {
+        final DeduplicatingPublisher publisher = new DeduplicatingPublisher(delegate,
+                100, 20, TimeUnit.MILLISECONDS);
+        publisher.publish(new IdentifiableEvent(1));
+        publisher.publish(new IdentifiableEvent(1));
+        assertEquals("Duplicate published", 1, published.size());
+
+        Thread.sleep(50);
+        publisher.publish(new IdentifiableEvent(1));
+
+        assertEquals("Event out of window dropped", 2, published.size());
+    }
+
+    private static final class IdentifiableEvent extends Event.AbstractEvent
+            implements Identifiable {
+
+        private final long id;
+
+        IdentifiableEvent(final long id) {
+            this.id = id;
+        }
+
+        @Override
+        public long getEventId() {
+            return id;
+        }
+    }
+
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.filter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.events.Event;
+import org.springframework.events.HandlerRegistration;
+import org.springframework.events.SimpleEventBus;
+import org.springframework.events.mock.MockOrderEvent;
+import org.springframework.events.mock.MockOrderEvent.Status;
+
+public class FilteringEventBusTest {
+
+    private FilteringEventBus bus;
+
+    @Before
+    public void setUp() {
+        bus = new FilteringEventBus(new SimpleEventBus());
+    }
+
+    @Test
+    public void shouldDeliverEventsMatchingEquality() {
+        final RecordingHandler handler = subscribe(
+                AttributeFilter.equalTo("region", "EU"));
+
+        bus.publish(new MockOrderEvent("EU", 1, Status.NEW));
+        bus.publish(new MockOrderEvent("US", 1, Status.NEW));
+        bus.publish(new MockOrderEvent(null, 1, Status.NEW));
+
+        assertEquals("Unexpected events", 1, handler.events.size());
+    }
+
+    @Test
+    public void shouldDeliverEventsMatchingSetMembership() {
+        final RecordingHandler handler = subscribe(
+                AttributeFilter.in("status", Status.NEW, Status.OPEN));
+
+        bus.publish(new MockOrderEvent("EU", 1, Status.NEW));
+        bus.publish(new MockOrderEvent("EU", 1, Status.OPEN));
+        bus.publish(new MockOrderEvent("EU", 1, Status.CLOSED));
+
+        assertEquals("Unexpected events", 2, handler.events.size());
+    }
+
+    @Test
+    public void shouldDeliverEventsWithinRanges() {
+        final RecordingHandler between = subscribe(
+                AttributeFilter.between("amount", 100, 200));
+        final RecordingHandler atLeast = subscribe(
+                AttributeFilter.atLeast("amount", 150));
+        final RecordingHandler atMost = subscribe(
+                AttributeFilter.atMost("amount", 100));
+
+        for (final int amount : new int[] {50, 100, 150, 200, 250}) {
+            bus.publish(new MockOrderEvent("EU", amount, Status.NEW));
+        }
+
+        assertEquals("Unexpected events", 3, between.events.size());
+        assertEquals("Unexpected events", 3, atLeast.events.size());
+        assertEquals("Unexpected events", 2, atMost.events.size());
+    }
+
+    @Test
+    public void shouldRequireAllFiltersOfSubscription() {
+        final RecordingHandler handler = subscribe(
+                AttributeFilter.equalTo("region", "EU"),
+                AttributeFilter.atLeast("amount", 100),
+                AttributeFilter.atMost("amount", 200));
+
+        bus.publish(new MockOrderEvent("EU", 150, Status.NEW));
+        bus.publish(new MockOrderEvent("EU", 250, Status.NEW));
+        bus.publish(new MockOrderEvent("US", 150, Status.NEW));
+
+        assertEquals("Unexpected events", 1, handler.events.size());
+        bus.publish(new MockOrderEvent("EU", 120, Status.NEW));
+        assertEquals("Counters not reset", 2, handler.events.size());
+    }
+
+    @Test
+    public void shouldConvertParsedValuesToPropertyTypes() {
+        final RecordingHandler handler = subscribe(
+                AttributeFilter.parse("status=NEW|CLOSED"),
+                AttributeFilter.parse("amount = 10..20"));
+
+        bus.publish(new MockOrderEvent("EU", 15, Status.CLOSED));
+        bus.publish(new MockOrderEvent("EU", 15, Status.OPEN));
+        bus.publish(new MockOrderEvent("EU", 25, Status.NEW));
+
+        assertEquals("Unexpected events", 1, handler.events.size());
+    }
+
+    @Test
+    public void shouldInvokeMatchingHandlersInOrderOfSubscription() {
+        final List<String> invoked = new ArrayList<String>();
+        for (final String name : new String[] {"range", "plain", "equal"}) {
+            final AttributeFilter filter = "range".equals(name)
+                    ? AttributeFilter.atLeast("amount", 1)
+                    : AttributeFilter.equalTo("region", "EU");
+            final Event.Handler<MockOrderEvent> handler =
+                new Event.Handler<MockOrderEvent>() {
+
+                    @Override
+                    public void handleEvent(final MockOrderEvent event) {
+                        invoked.add(name);
+                    }
+                };
+            if ("plain".equals(name)) {
+                bus.addHandler(MockOrderEvent.class, handler, new AttributeFilter[0]);
+            } else {
+                bus.addHandler(MockOrderEvent.class, handler, filter);
+            }
+        }
+
+        bus.publish(new MockOrderEvent("EU", 5, Status.NEW));
+
+        assertEquals("Unexpected order", "[range, plain, equal]", invoked.toString());
+    }
+
+    @Test
+    public void shouldStopDeliveryWhenRemovedDuringDispatch() {
+        final RecordingHandler other = subscribe(AttributeFilter.equalTo("region", "EU"));
+        final List<HandlerRegistration> registration = new ArrayList<HandlerRegistration>();
+        final RecordingHandler removing = new RecordingHandler() {
+
+            @Override
+            public void handleEvent(final MockOrderEvent event) {
+                super.handleEvent(event);
+                registration.get(0).removeHandler();
+            }
+        };
+        registration.add(bus.addHandler(MockOrderEvent.class, removing,
+                AttributeFilter.equalTo("region", "EU")));
+
+        bus.publish(new MockOrderEvent("EU", 1, Status.NEW));
+        bus.publish(new MockOrderEvent("EU", 1, Status.NEW));
+
+        assertEquals("Unexpected events", 1, removing.events.size());
+        assertEquals("Unexpected events", 2, other.events.size());
+        assertEquals("Unexpected subscriptions", 1,
+                bus.getSubscriptionCount(MockOrderEvent.class));
+    }
+
+    @Test
+    public void shouldInvokeOnlyMatchingAmongManySubscriptions() {
+        final RecordingHandler[] handlers = new RecordingHandler[1000];
+        for (int i = 0; i < handlers.length; i++) {
+            handlers[i] = subscribe(AttributeFilter.equalTo("amount", i),
+                    AttributeFilter.equalTo("region", i % 2 == 0 ? "EU" : "US"));
+        }
+
+        bus.publish(new MockOrderEvent("EU", 42, Status.NEW));
+        bus.publish(new MockOrderEvent("US", 42, Status.NEW));
+
+        int delivered = 0;
+        for (final RecordingHandler handler : handlers) {
+            delivered += handler.events.size();
+        }
+        assertEquals("Unexpected deliveries", 1, delivered);
+        assertEquals("Unexpected events", 1, handlers[42].events.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotFilterUnknownProperty() {
+        subscribe(AttributeFilter.equalTo("customer", "x"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotFilterWithInapplicableValue() {
+        subscribe(AttributeFilter.atLeast("amount", "many"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotParseInvalidExpression() {
+        AttributeFilter.parse("amount > 1");
+    }
+
+    private RecordingHandler subscribe(final AttributeFilter... filters) {
+        final RecordingHandler handler = new RecordingHandler();
+        bus.addHandler(MockOrderEvent.class, handler, filters);
+        return handler;
+    }
+
+    private static class RecordingHandler implements Event.Handler<MockOrderEvent> {
+
+        private final List<MockOrderEvent> events = new ArrayList<MockOrderEvent>();
+
+        @Override
+        public void handleEvent(final MockOrderEvent event) {
+            events.add(event);
+        }
+    }
+
+}
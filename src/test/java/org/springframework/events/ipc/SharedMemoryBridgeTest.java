@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.ipc;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.events.Event;
+import org.springframework.events.SimpleEventBus;
+import org.springframework.events.codec.SerializationCodec;
+import org.springframework.events.mock.MockJournaledEvent;
+
+public class SharedMemoryBridgeTest {
+
+    private static final int CAPACITY = 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+
+    private SimpleEventBus bus;
+
+    private BlockingQueue<Integer> values;
+
+    private SharedMemoryBridge bridge;
+
+    @Before
+    public void setUp() {
+        directory = folder.getRoot();
+        values = new LinkedBlockingQueue<Integer>();
+        bus = newBus(values);
+        bridge = newBridge(bus, "local");
+    }
+
+    @After
+    public void tearDown() {
+        bridge.stop();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotConstructWithInvalidName() {
+        new SharedMemoryBridge(bus, directory, "../name", new SerializationCodec(),
+                CAPACITY);
+    }
+
+    @Test
+    public void shouldDeliverEventsToOtherBridge() throws Exception {
+        final BlockingQueue<Integer> remoteValues = new LinkedBlockingQueue<Integer>();
+        final SimpleEventBus remoteBus = newBus(remoteValues);
+        final SharedMemoryBridge remote = newBridge(remoteBus, "remote");
+        bridge.start();
+        remote.start();
+        try {
+            for (int i = 0; i < 1000; i++) {
+                bus.publish(new MockJournaledEvent(i));
+            }
+            for (int i = 0; i < 1000; i++) {
+                assertEquals("Unexpected event", Integer.valueOf(i),
+                        remoteValues.poll(5, TimeUnit.SECONDS));
+            }
+            assertEquals("Unexpected sent count", 1000, bridge.getSentCount());
+            assertEquals("Unexpected received count", 1000,
+                    remote.getReceivedCount());
+            assertEquals("Received events exported again", 0, remote.getSentCount());
+            assertEquals("Events lost", 0, remote.getLostCount());
+        } finally {
+            remote.stop();
+        }
+        assertFalse("Ring file not removed", new File(directory, "remote.ring").exists());
+    }
+
+    @Test
+    public void shouldReceiveEventsFromRestartedBridge() throws Exception {
+        final SimpleEventBus remoteBus = newBus(new LinkedBlockingQueue<Integer>());
+        SharedMemoryBridge remote = newBridge(remoteBus, "remote");
+        remote.start();
+        bridge.start();
+        try {
+            remoteBus.publish(new MockJournaledEvent(1));
+            assertEquals("Event not received", Integer.valueOf(1),
+                    values.poll(5, TimeUnit.SECONDS));
+
+            remote.stop();
+            remote = newBridge(remoteBus, "remote");
+            remote.start();
+
+            // the replaced ring is reopened on the next directory scan
+            final long deadline = System.currentTimeMillis() + 10000L;
+            Integer value = null;
+            while (value == null && System.currentTimeMillis() < deadline) {
+                remoteBus.publish(new MockJournaledEvent(2));
+                value = values.poll(100, TimeUnit.MILLISECONDS);
+            }
+            assertEquals("Event of restarted bridge not received",
+                    Integer.valueOf(2), value);
+        } finally {
+            remote.stop();
+        }
+    }
+
+    @Test
+    public void shouldDetectReplacedRing() {
+        final File file = new File(directory, "ring");
+        SharedMemoryRing.create(file, 1024);
+        final SharedMemoryRing reader = SharedMemoryRing.open(file);
+        assertFalse("Ring replaced", reader.isReplaced());
+
+        assertTrue("Ring file not deleted", file.delete());
+        SharedMemoryRing.create(file, 1024);
+
+        assertTrue("Replaced ring not detected", reader.isReplaced());
+    }
+
+    @Test
+    public void shouldSkipOverwrittenEventsOfSlowReader() {
+        final SharedMemoryRing writer =
+                SharedMemoryRing.create(new File(directory, "ring"), 1024);
+        final SharedMemoryRing slowReader =
+                SharedMemoryRing.open(new File(directory, "ring"));
+        final SerializationCodec codec = new SerializationCodec();
+        for (int i = 0; i < 100; i++) {
+            writer.write(new MockJournaledEvent(i), codec);
+        }
+
+        final List<Integer> read = new ArrayList<Integer>();
+        slowReader.read(codec, new SharedMemoryRing.Consumer() {
+
+            @Override
+            public void accept(final Event event) {
+                read.add(((MockJournaledEvent) event).getValue());
+            }
+        }, Integer.MAX_VALUE);
+
+        assertTrue("Lost events not detected", slowReader.getLostCount() > 0);
+        assertTrue("Overwritten events read", read.isEmpty());
+    }
+
+    @Test
+    public void shouldExchangeEventsWithAnotherProcess() throws Exception {
+        bridge.start();
+        final Process peer = new ProcessBuilder(
+                System.getProperty("java.home") + File.separator + "bin"
+                        + File.separator + "java",
+                "-cp", System.getProperty("java.class.path"),
+                SharedMemoryPeer.class.getName(), directory.getAbsolutePath())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        try {
+            final BufferedReader output = new BufferedReader(
+                    new InputStreamReader(peer.getInputStream(), "UTF-8"));
+            assertEquals("Peer not started", "READY", output.readLine());
+
+            // the peer ring is discovered on the next directory scan
+            final int reply = 1 + SharedMemoryPeer.REPLY_OFFSET;
+            final long deadline = System.currentTimeMillis() + 10000L;
+            Integer value = null;
+            while (!Integer.valueOf(reply).equals(value)
+                    && System.currentTimeMillis() < deadline) {
+                bus.publish(new MockJournaledEvent(1));
+                value = poll(100);
+            }
+            assertEquals("No reply from peer", Integer.valueOf(reply), value);
+
+            for (int i = 2; i <= 100; i++) {
+                bus.publish(new MockJournaledEvent(i));
+            }
+            int expected = 2 + SharedMemoryPeer.REPLY_OFFSET;
+            while (expected <= 100 + SharedMemoryPeer.REPLY_OFFSET) {
+                value = poll(5000);
+                assertNotNull("Reply not received", value);
+                if (value != reply) {
+                    assertEquals("Unexpected reply", expected++, value.intValue());
+                }
+            }
+        } finally {
+            peer.getOutputStream().close();
+            peer.waitFor();
+        }
+    }
+
+    private Integer poll(final long millis) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        Integer value;
+        do {
+            value = values.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } while (value != null && value < SharedMemoryPeer.REPLY_OFFSET);
+        return value;
+    }
+
+    private SharedMemoryBridge newBridge(final SimpleEventBus bus, final String name) {
+        final SharedMemoryBridge result = new SharedMemoryBridge(bus, directory,
+                name, new SerializationCodec(), CAPACITY);
+        result.setEventTypes(Collections.<Class<? extends Event>>singleton(
+                MockJournaledEvent.class));
+        result.setScanInterval(10L);
+        return result;
+    }
+
+    private static SimpleEventBus newBus(final BlockingQueue<Integer> values) {
+        final SimpleEventBus result = new SimpleEventBus();
+        result.addHandler(MockJournaledEvent.class,
+                new Event.Handler<MockJournaledEvent>() {
+
+                    @Override
+                    public void handleEvent(final MockJournaledEvent event) {
+                        values.add(event.getValue());
+                    }
+                });
+        return result;
+    }
+
+}
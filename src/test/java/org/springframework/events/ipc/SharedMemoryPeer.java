@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.ipc;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import org.springframework.events.Event;
+import org.springframework.events.SimpleEventBus;
+import org.springframework.events.codec.SerializationCodec;
+import org.springframework.events.mock.MockJournaledEvent;
+
+/**
+ * Process on the other side of {@link SharedMemoryBridgeTest}. Replies to every
+ * event received from the test process with an event of value increased by
+ * {@link #REPLY_OFFSET}, and exits when its standard input is closed.
+ */
+public final class SharedMemoryPeer {
+
+    static final int REPLY_OFFSET = 1000;
+
+    private SharedMemoryPeer() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final SimpleEventBus bus = new SimpleEventBus();
+        bus.addHandler(MockJournaledEvent.class,
+                new Event.Handler<MockJournaledEvent>() {
+
+                    @Override
+                    public void handleEvent(final MockJournaledEvent event) {
+                        if (event.getValue() < REPLY_OFFSET) {
+                            bus.publish(new MockJournaledEvent(
+                                    event.getValue() + REPLY_OFFSET));
+                        }
+                    }
+                });
+        final SharedMemoryBridge bridge = new SharedMemoryBridge(bus,
+                new File(args[0]), "peer", new SerializationCodec(), 64 * 1024);
+        bridge.setEventTypes(Collections.<Class<? extends Event>>singleton(
+                MockJournaledEvent.class));
+        bridge.start();
+        System.out.println("READY");
+        System.out.flush();
+
+        while (System.in.read() >= 0) {
+            // wait for the test to finish
+        }
+        bridge.stop();
+    }
+
+}
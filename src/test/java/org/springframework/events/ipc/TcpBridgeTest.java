@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.ipc;
+
+import static org.junit.Assert.*;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.events.Event;
+import org.springframework.events.SimpleEventBus;
+import org.springframework.events.codec.SerializationCodec;
+import org.springframework.events.mock.MockJournaledEvent;
+
+public class TcpBridgeTest {
+
+    private final List<TcpBridge> bridges = new ArrayList<TcpBridge>();
+
+    @After
+    public void tearDown() {
+        for (final TcpBridge bridge : bridges) {
+            bridge.stop();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotConstructWithoutBus() {
+        new TcpBridge(null, new SerializationCodec());
+    }
+
+    @Test
+    public void shouldDeliverEventsToAllPeers() throws Exception {
+        final BlockingQueue<Integer> first = new LinkedBlockingQueue<Integer>();
+        final BlockingQueue<Integer> second = new LinkedBlockingQueue<Integer>();
+        final TcpBridge firstPeer = listening(newBus(first));
+        final TcpBridge secondPeer = listening(newBus(second));
+        final SimpleEventBus bus = newBus(new LinkedBlockingQueue<Integer>());
+        final TcpBridge bridge = newBridge(bus, null, firstPeer.getLocalAddress(),
+                secondPeer.getLocalAddress());
+
+        for (int i = 0; i < 1000; i++) {
+            bus.publish(new MockJournaledEvent(i));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("Unexpected event", Integer.valueOf(i),
+                    first.poll(5, TimeUnit.SECONDS));
+            assertEquals("Unexpected event", Integer.valueOf(i),
+                    second.poll(5, TimeUnit.SECONDS));
+        }
+        assertEquals("Unexpected dropped count", 0, bridge.getDroppedCount());
+        assertEquals("Unexpected connected count", 2, bridge.getConnectedCount());
+    }
+
+    @Test
+    public void shouldNotSendReceivedEventsBack() throws Exception {
+        final BlockingQueue<Integer> localValues = new LinkedBlockingQueue<Integer>();
+        final BlockingQueue<Integer> remoteValues = new LinkedBlockingQueue<Integer>();
+        final SimpleEventBus localBus = newBus(localValues);
+        final TcpBridge local = newBridge(localBus, loopback());
+        final TcpBridge remote = newBridge(newBus(remoteValues), loopback(),
+                local.getLocalAddress());
+        restart(local, remote.getLocalAddress());
+
+        localBus.publish(new MockJournaledEvent(1));
+
+        assertEquals("Event not received", Integer.valueOf(1),
+                remoteValues.poll(5, TimeUnit.SECONDS));
+        localValues.clear();
+        assertNull("Event sent back", localValues.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals("Received event exported", 0, remote.getSentCount());
+    }
+
+    @Test
+    public void shouldReconnectToRestartedPeer() throws Exception {
+        final BlockingQueue<Integer> values = new LinkedBlockingQueue<Integer>();
+        final TcpBridge peer = listening(newBus(values));
+        final InetSocketAddress address = peer.getLocalAddress();
+        final SimpleEventBus bus = newBus(new LinkedBlockingQueue<Integer>());
+        final TcpBridge bridge = newBridge(bus, null, address);
+        bus.publish(new MockJournaledEvent(1));
+        assertEquals("Event not received", Integer.valueOf(1),
+                values.poll(5, TimeUnit.SECONDS));
+
+        peer.stop();
+        newBridge(newBus(values), address);
+
+        final long deadline = System.currentTimeMillis() + 10000L;
+        Integer value = null;
+        while (value == null && System.currentTimeMillis() < deadline) {
+            bus.publish(new MockJournaledEvent(2));
+            value = values.poll(100, TimeUnit.MILLISECONDS);
+        }
+        assertEquals("Event not received after reconnect", Integer.valueOf(2), value);
+    }
+
+    @Test
+    public void shouldDropEventsWhenOutboundBufferIsFull() throws Exception {
+        final ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        final InetSocketAddress unused =
+                (InetSocketAddress) socket.getLocalSocketAddress();
+        socket.close();
+        final SimpleEventBus bus = newBus(new LinkedBlockingQueue<Integer>());
+        final TcpBridge bridge = new TcpBridge(bus, new SerializationCodec());
+        bridge.setEventTypes(Collections.<Class<? extends Event>>singleton(
+                MockJournaledEvent.class));
+        bridge.setPeers(Collections.singleton(unused));
+        bridge.setBufferSize(1024);
+        start(bridge);
+
+        for (int i = 0; i < 100; i++) {
+            bus.publish(new MockJournaledEvent(i));
+        }
+
+        assertTrue("No events dropped", bridge.getDroppedCount() > 0);
+        assertEquals("Unexpected sent count", 0, bridge.getSentCount());
+    }
+
+    private static InetSocketAddress loopback() {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    }
+
+    private TcpBridge listening(final SimpleEventBus bus) {
+        return newBridge(bus, loopback());
+    }
+
+    private TcpBridge newBridge(final SimpleEventBus bus,
+            final InetSocketAddress listenAddress, final InetSocketAddress... peers) {
+        final TcpBridge result = new TcpBridge(bus, new SerializationCodec());
+        result.setEventTypes(Collections.<Class<? extends Event>>singleton(
+                MockJournaledEvent.class));
+        result.setListenAddress(listenAddress);
+        result.setPeers(Arrays.asList(peers));
+        result.setReconnectInterval(20L);
+        start(result);
+        return result;
+    }
+
+    private void restart(final TcpBridge bridge, final InetSocketAddress peer) {
+        final InetSocketAddress address = bridge.getLocalAddress();
+        bridge.stop();
+        bridge.setListenAddress(address);
+        bridge.setPeers(Collections.singleton(peer));
+        bridge.start();
+    }
+
+    private void start(final TcpBridge bridge) {
+        bridge.start();
+        bridges.add(bridge);
+    }
+
+    private static SimpleEventBus newBus(final BlockingQueue<Integer> values) {
+        final SimpleEventBus result = new SimpleEventBus();
+        result.addHandler(MockJournaledEvent.class,
+                new Event.Handler<MockJournaledEvent>() {
+
+                    @Override
+                    public void handleEvent(final MockJournaledEvent event) {
+                        values.add(event.getValue());
+                    }
+                });
+        return result;
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.jmx;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.jmx.export.MBeanExportException;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import org.springframework.events.EventBus;
+import org.springframework.events.SimpleEventBus;
+import org.springframework.events.mock.MockAEvent;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(value = "classpath:/META-INF/spring/testApplicationContext-events.xml")
+public class EventBusMBeanExporterTest {
+
+    @Autowired
+    private EventBus publisher;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private MBeanServer server;
+
+    @Before
+    public void setUp() {
+        server = ManagementFactory.getPlatformMBeanServer();
+    }
+
+    @Test
+    public void shouldRegisterBroadcastPublisher() throws Exception {
+        final BroadcastPublisherMXBean mbean = JMX.newMXBeanProxy(server,
+                nameOf(context.getId(), "BroadcastPublisher", "org.springframework.events.broadcastPublisher"),
+                BroadcastPublisherMXBean.class);
+
+        assertEquals("Unexpected handler count", 1, mbean.getHandlerCount());
+    }
+
+    @Test
+    public void shouldPauseAndResumeHandler() throws Exception {
+        final EventHandlersMXBean mbean = JMX.newMXBeanProxy(server,
+                nameOf(context.getId(), "EventHandlers",
+                        "org.springframework.events.context.annotationEventHandlerPostProcessor"),
+                EventHandlersMXBean.class);
+        assertTrue("Handler not listed",
+                mbean.getHandlerNames().contains("mockEventHandler"));
+
+        mbean.pauseHandler("mockEventHandler");
+        try {
+            assertTrue("Handler not paused",
+                    mbean.getPausedHandlerNames().contains("mockEventHandler"));
+            final MockAEvent event = new MockAEvent();
+            publisher.publish(event);
+            assertFalse("Event handled by paused handler", event.isHandled());
+        } finally {
+            mbean.resumeHandler("mockEventHandler");
+        }
+
+        final MockAEvent event = new MockAEvent();
+        publisher.publish(event);
+        assertTrue("Event not handled by resumed handler", event.isHandled());
+    }
+
+    @Test
+    public void shouldKeepManagementBeansOfContextsApart() throws Exception {
+        final MBeanServer isolated = MBeanServerFactory.newMBeanServer();
+        final GenericApplicationContext first = exportingContext("first", isolated);
+        final GenericApplicationContext second = exportingContext("second", isolated);
+        try {
+            assertTrue("First context not exported",
+                    isolated.isRegistered(nameOf("first", "SimpleEventBus", "eventBus")));
+            assertTrue("Second context not exported",
+                    isolated.isRegistered(nameOf("second", "SimpleEventBus", "eventBus")));
+
+            first.close();
+            assertFalse("First context not unregistered",
+                    isolated.isRegistered(nameOf("first", "SimpleEventBus", "eventBus")));
+            assertTrue("Second context unregistered",
+                    isolated.isRegistered(nameOf("second", "SimpleEventBus", "eventBus")));
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    @Test
+    public void shouldNotReplaceManagementBeansOfOtherExporter() throws Exception {
+        final MBeanServer isolated = MBeanServerFactory.newMBeanServer();
+        final GenericApplicationContext first = exportingContext("same", isolated);
+        try {
+            exportingContext("same", isolated);
+            fail("Management bean of other context replaced");
+        } catch (MBeanExportException e) {
+            assertTrue("Management bean unregistered",
+                    isolated.isRegistered(nameOf("same", "SimpleEventBus", "eventBus")));
+        } finally {
+            first.close();
+        }
+    }
+
+    private static GenericApplicationContext exportingContext(final String id,
+            final MBeanServer server) {
+        final GenericApplicationContext context = new GenericApplicationContext();
+        context.setId(id);
+        context.registerBeanDefinition("eventBus",
+                new RootBeanDefinition(SimpleEventBus.class));
+        final RootBeanDefinition exporter =
+            new RootBeanDefinition(EventBusMBeanExporter.class);
+        exporter.getPropertyValues().add("server", server);
+        context.registerBeanDefinition("exporter", exporter);
+        context.refresh();
+        return context;
+    }
+
+    private static ObjectName nameOf(final String contextId, final String type,
+            final String beanName) throws Exception {
+        return new ObjectName(EventBusMBeanExporter.DOMAIN + ":type=" + type
+                + ",context=" + ObjectName.quote(contextId)
+                + ",name=" + ObjectName.quote(beanName));
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.journal;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.events.Event;
+import org.springframework.events.HandlerRegistration;
+import org.springframework.events.SimpleEventBus;
+import org.springframework.events.codec.SerializationCodec;
+import org.springframework.events.mock.MockJournaledEvent;
+
+public class DurableSubscriptionsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File offsets;
+
+    private EventJournal journal;
+
+    private SimpleEventBus delegate;
+
+    private JournalingEventBus bus;
+
+    private DurableSubscriptions subscriptions;
+
+    @Before
+    public void setUp() throws Exception {
+        offsets = folder.newFolder("offsets");
+        journal = new EventJournal(folder.newFolder("journal"),
+                new SerializationCodec(), 64 * 1024, 4, 0);
+        delegate = new SimpleEventBus();
+        bus = new JournalingEventBus(delegate, journal);
+        subscriptions = new DurableSubscriptions(bus, offsets, 60000L);
+    }
+
+    @After
+    public void tearDown() {
+        subscriptions.close();
+        journal.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotSubscribeWithInvalidName() {
+        subscriptions.addHandler("../name", MockJournaledEvent.class, new Recorder());
+    }
+
+    @Test
+    public void canNotSubscribeTwiceWithSameName() {
+        subscriptions.addHandler("name", MockJournaledEvent.class, new Recorder());
+        try {
+            subscriptions.addHandler("name", MockJournaledEvent.class, new Recorder());
+            fail("Duplicate subscription added");
+        } catch (IllegalArgumentException e) {
+            assertTrue("Unexpected message", e.getMessage().contains("name"));
+        }
+    }
+
+    @Test
+    public void shouldResumeFromCheckpointedPosition() {
+        publish(1, 3);
+        final Recorder first = new Recorder();
+        final HandlerRegistration registration =
+                subscriptions.addHandler("billing", MockJournaledEvent.class, first);
+        publish(4, 5);
+        assertEquals("Unexpected events", values(1, 5), first.values);
+        assertEquals("Unexpected position", 5, subscriptions.getSequence("billing"));
+
+        registration.removeHandler();
+        publish(6, 7);
+        subscriptions.close();
+
+        subscriptions = new DurableSubscriptions(bus, offsets, 60000L);
+        final Recorder second = new Recorder();
+        subscriptions.addHandler("billing", MockJournaledEvent.class, second);
+        assertEquals("Unexpected events after restart", values(6, 7),
+                second.values);
+    }
+
+    @Test
+    public void shouldCheckpointPeriodically() throws Exception {
+        subscriptions.close();
+        subscriptions = new DurableSubscriptions(bus, offsets, 10L);
+        subscriptions.addHandler("audit", MockJournaledEvent.class, new Recorder());
+        publish(1, 3);
+
+        final File offset = new File(offsets, "audit.offset");
+        final long deadline = System.currentTimeMillis() + 5000L;
+        while (offset.length() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertEquals("Offset not checkpointed", 8, offset.length());
+    }
+
+    @Test
+    public void shouldFlushEventsPublishedByHandlerDuringReplay() {
+        final Recorder recorder = new Recorder() {
+
+            @Override
+            public void handleEvent(final MockJournaledEvent event) {
+                super.handleEvent(event);
+                if (event.getValue() == 1) {
+                    delegate.publish(new MockJournaledEvent(2));
+                }
+            }
+        };
+        final ReplayingHandler<MockJournaledEvent> handler =
+                new ReplayingHandler<MockJournaledEvent>(MockJournaledEvent.class,
+                        recorder, bus);
+        delegate.addHandler(MockJournaledEvent.class, handler);
+        // not journaled, so buffered until the replay ends
+        delegate.publish(new MockJournaledEvent(1));
+
+        handler.replay(journal.openReader(1));
+        delegate.publish(new MockJournaledEvent(3));
+
+        assertEquals("Unexpected events", values(1, 3), recorder.values);
+    }
+
+    private void publish(final int from, final int to) {
+        for (int i = from; i <= to; i++) {
+            bus.publish(new MockJournaledEvent(i));
+        }
+    }
+
+    private static List<Integer> values(final int from, final int to) {
+        final List<Integer> values = new ArrayList<Integer>();
+        for (int i = from; i <= to; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+
+    private static class Recorder
+            implements Event.Handler<MockJournaledEvent> {
+
+        private final List<Integer> values = new ArrayList<Integer>();
+
+        @Override
+        public void handleEvent(final MockJournaledEvent event) {
+            values.add(event.getValue());
+        }
+    }
+
+}
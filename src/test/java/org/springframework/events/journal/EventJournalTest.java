@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.journal;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.events.Event;
+import org.springframework.events.codec.EventCodec;
+import org.springframework.events.codec.SerializationCodec;
+import org.springframework.events.mock.MockAEvent;
+import org.springframework.events.mock.MockJournaledEvent;
+
+public class EventJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+
+    private EventJournal journal;
+
+    @Before
+    public void setUp() {
+        directory = new File(folder.getRoot(), "journal");
+        journal = new EventJournal(directory, new SerializationCodec(), 1024, 3, 0);
+    }
+
+    @After
+    public void tearDown() {
+        journal.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotConstructWithoutCodec() {
+        new EventJournal(directory, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotAppendNullEvent() {
+        journal.append(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotAppendUnsupportedEvent() {
+        journal.append(new MockAEvent());
+    }
+
+    @Test
+    public void shouldAssignConsecutiveSequenceNumbers() {
+        assertEquals("Unexpected last sequence", 0, journal.getLastSequence());
+        for (int i = 1; i <= 3; i++) {
+            assertEquals("Unexpected sequence", i,
+                    journal.append(new MockJournaledEvent(i)));
+        }
+        assertEquals("Unexpected last sequence", 3, journal.getLastSequence());
+    }
+
+    @Test
+    public void shouldReadEventsInAppendOrder() {
+        append(1, 5);
+        final JournalReader reader = journal.openReader(1);
+
+        assertValues(reader, 1, 5);
+        assertNull("Read beyond last event", reader.read());
+
+        append(6, 7);
+        assertValues(reader, 6, 7);
+        assertNull("Read beyond last event", reader.read());
+    }
+
+    @Test
+    public void shouldReadFromGivenSequence() {
+        append(1, 5);
+        final JournalReader reader = journal.openReader(4);
+
+        assertEquals("Unexpected initial sequence", 3, reader.getSequence());
+        assertValues(reader, 4, 5);
+    }
+
+    @Test
+    public void shouldRollAndRetainSegments() {
+        append(1, 100);
+        assertEquals("Unexpected segment count", 3, journal.getSegmentCount());
+        assertEquals("Unexpected segment files", 3, directory.list().length);
+        assertTrue("Old segments retained", journal.getFirstSequence() > 1);
+
+        final JournalReader reader = journal.openReader(1);
+        assertValues(reader, (int) journal.getFirstSequence(), 100);
+        assertEquals("Unexpected last read sequence", 100, reader.getSequence());
+    }
+
+    @Test
+    public void shouldContinueAfterReopening() {
+        append(1, 20);
+        journal.close();
+
+        journal = new EventJournal(directory, new SerializationCodec(), 1024, 3, 1);
+        assertEquals("Last sequence not recovered", 20, journal.getLastSequence());
+        assertEquals("Unexpected sequence", 21,
+                journal.append(new MockJournaledEvent(21)));
+        assertValues(journal.openReader(1), (int) journal.getFirstSequence(), 21);
+    }
+
+    @Test
+    public void shouldSyncNewJournal() {
+        final EventJournal synced = new EventJournal(new File(folder.getRoot(),
+                "synced"), new SerializationCodec(), 1024, 3, 2);
+        try {
+            for (int i = 1; i <= 50; i++) {
+                assertEquals("Unexpected sequence", i,
+                        synced.append(new MockJournaledEvent(i)));
+            }
+            assertValues(synced.openReader(1), (int) synced.getFirstSequence(), 50);
+        } finally {
+            synced.close();
+        }
+    }
+
+    @Test
+    public void shouldRecoverAfterFailedEncoding() {
+        final EventCodec delegate = new SerializationCodec();
+        final ByteBuffer next = ByteBuffer.allocate(1024);
+        delegate.encode(new MockJournaledEvent(2), next);
+        final int nextLength = next.position();
+        final EventCodec codec = new EventCodec() {
+
+            @Override
+            public void encode(final Event event, final ByteBuffer target) {
+                if (event instanceof MockAEvent) {
+                    // leaves what looks like a record header right after
+                    // the next, shorter record
+                    target.position(target.position() + nextLength);
+                    target.putInt(8).putLong(99L).putLong(0L);
+                    throw new IllegalArgumentException("Expected");
+                }
+                delegate.encode(event, target);
+            }
+
+            @Override
+            public Event decode(final ByteBuffer source) {
+                return delegate.decode(source);
+            }
+        };
+        final File failing = new File(folder.getRoot(), "failing");
+        EventJournal target = new EventJournal(failing, codec, 1024, 3, 0);
+        try {
+            target.append(new MockJournaledEvent(1));
+            try {
+                target.append(new MockAEvent());
+                fail("Encoding not failed");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+            target.append(new MockJournaledEvent(2));
+        } finally {
+            target.close();
+        }
+
+        target = new EventJournal(failing, codec, 1024, 3, 0);
+        try {
+            assertEquals("Last sequence not recovered", 2, target.getLastSequence());
+            final JournalReader reader = target.openReader(1);
+            assertValues(reader, 1, 2);
+            assertNull("Read beyond last event", reader.read());
+        } finally {
+            target.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotAppendEventLargerThanSegment() {
+        new EventJournal(new File(folder.getRoot(), "small"),
+                new SerializationCodec(), 32, 1, 0).append(new MockJournaledEvent(1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void canNotAppendToClosedJournal() {
+        journal.close();
+        journal.append(new MockJournaledEvent(1));
+    }
+
+    private void append(final int from, final int to) {
+        for (int i = from; i <= to; i++) {
+            journal.append(new MockJournaledEvent(i));
+        }
+    }
+
+    private static void assertValues(final JournalReader reader, final int from,
+            final int to) {
+        for (int i = from; i <= to; i++) {
+            assertEquals("Unexpected event", i,
+                    ((MockJournaledEvent) reader.read()).getValue());
+            assertEquals("Unexpected sequence", i, reader.getSequence());
+        }
+    }
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.journal;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.events.Event;
+import org.springframework.events.HandlerRegistration;
+import org.springframework.events.HasEventHandlers;
+import org.springframework.events.SimpleEventBus;
+import org.springframework.events.codec.SerializationCodec;
+import org.springframework.events.mock.MockAEvent;
+import org.springframework.events.mock.MockHandler;
+import org.springframework.events.mock.MockJournaledEvent;
+
+public class JournalingEventBusTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private EventJournal journal;
+
+    private JournalingEventBus bus;
+
+    @Before
+    public void setUp() {
+        journal = new EventJournal(folder.getRoot(), new SerializationCodec(),
+                4096, 2, 0);
+        bus = new JournalingEventBus(new SimpleEventBus(), journal);
+    }
+
+    @After
+    public void tearDown() {
+        journal.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotConstructWithoutJournal() {
+        new JournalingEventBus(new SimpleEventBus(), null);
+    }
+
+    @Test
+    public void shouldJournalAnnotatedEventTypes() {
+        assertTrue("Annotated type not journaled",
+                bus.isJournaled(MockJournaledEvent.class));
+        assertFalse("Other type journaled", bus.isJournaled(MockAEvent.class));
+
+        bus.publish(new MockAEvent());
+        assertEquals("Unexpected journal size", 0, journal.getLastSequence());
+        bus.publish(new MockJournaledEvent(1));
+        assertEquals("Unexpected journal size", 1, journal.getLastSequence());
+    }
+
+    @Test
+    public void shouldJournalConfiguredEventTypes() {
+        bus.setJournaledTypes(Collections.<Class<? extends Event>>singleton(
+                MockAEvent.class));
+        assertTrue("Configured type not journaled",
+                bus.isJournaled(MockAEvent.class));
+    }
+
+    @Test
+    public void shouldExposeSequenceDuringDispatch() {
+        final long[] sequences = new long[2];
+        bus.addHandler(MockJournaledEvent.class,
+                new Event.Handler<MockJournaledEvent>() {
+
+                    @Override
+                    public void handleEvent(final MockJournaledEvent event) {
+                        sequences[event.getValue()] = bus.getCurrentSequence();
+                    }
+                });
+
+        bus.publish(new MockJournaledEvent(0));
+        bus.publish(new MockJournaledEvent(1));
+
+        assertEquals("Unexpected sequence", 1, sequences[0]);
+        assertEquals("Unexpected sequence", 2, sequences[1]);
+        assertEquals("Sequence not reset", 0, bus.getCurrentSequence());
+    }
+
+    @Test
+    public void shouldNotDispatchEventThatCouldNotBeJournaled() {
+        final HasEventHandlers mockDelegate = createMock(HasEventHandlers.class);
+        replay(mockDelegate);
+        journal.close();
+        try {
+            new JournalingEventBus(mockDelegate, journal)
+                    .publish(new MockJournaledEvent(0));
+            fail("Event published to closed journal");
+        } catch (IllegalStateException e) {
+            verify(mockDelegate);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotReplayEventTypeThatIsNotJournaled() {
+        bus.addHandler(MockAEvent.class, new MockHandler<MockAEvent>(), 1);
+    }
+
+    @Test
+    public void shouldReplayJournaledEventsBeforeLiveOnes() {
+        for (int i = 1; i <= 5; i++) {
+            bus.publish(new MockJournaledEvent(i));
+        }
+        final Recorder recorder = new Recorder();
+        final HandlerRegistration registration =
+                bus.addHandler(MockJournaledEvent.class, recorder, 3);
+        assertEquals("Unexpected replayed events", values(3, 5), recorder.values);
+
+        bus.publish(new MockJournaledEvent(6));
+        assertEquals("Unexpected events", values(3, 6), recorder.values);
+
+        registration.removeHandler();
+        bus.publish(new MockJournaledEvent(7));
+        assertEquals("Event received after removal", values(3, 6), recorder.values);
+    }
+
+    @Test
+    public void shouldSwitchToLiveEventsWithoutGapOrDuplicate() throws Exception {
+        final int count = 20000;
+        journal.close();
+        journal = new EventJournal(folder.newFolder(), new SerializationCodec(),
+                1024 * 1024, 16, 0);
+        bus = new JournalingEventBus(new SynchronizedEventBus(), journal);
+        final Thread publisher = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                for (int i = 1; i <= count; i++) {
+                    bus.publish(new MockJournaledEvent(i));
+                }
+            }
+        });
+        publisher.start();
+        while (journal.getLastSequence() < count / 4) {
+            Thread.yield();
+        }
+
+        final Recorder recorder = new Recorder();
+        bus.addHandler(MockJournaledEvent.class, recorder, 1);
+        publisher.join();
+
+        assertEquals("Events missed or duplicated", values(1, count),
+                recorder.values);
+    }
+
+    private static List<Integer> values(final int from, final int to) {
+        final List<Integer> values = new ArrayList<Integer>();
+        for (int i = from; i <= to; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+
+    private static final class Recorder
+            implements Event.Handler<MockJournaledEvent> {
+
+        private final List<Integer> values = new ArrayList<Integer>();
+
+        @Override
+        public void handleEvent(final MockJournaledEvent event) {
+            values.add(event.getValue());
+        }
+    }
+
+    private static final class SynchronizedEventBus implements HasEventHandlers {
+
+        private final SimpleEventBus delegate = new SimpleEventBus();
+
+        @Override
+        public synchronized void publish(final Event event) {
+            delegate.publish(event);
+        }
+
+        @Override
+        public synchronized <E extends Event, H extends Event.Handler<E>>
+                HandlerRegistration addHandler(final Class<E> type,
+                        final H handler) {
+            return delegate.addHandler(type, handler);
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.metrics;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void shouldReportEmptySnapshot() {
+        final HistogramSnapshot snapshot = new LatencyHistogram().snapshot();
+
+        assertEquals("Unexpected count", 0L, snapshot.getCount());
+        assertEquals("Unexpected mean", 0d, snapshot.getMean(), 0d);
+        assertEquals("Unexpected percentile", 0L,
+                snapshot.getValueAtPercentile(99d));
+    }
+
+    @Test
+    public void shouldReportPercentilesWithinPrecision() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100000; value++) {
+            histogram.record(value * 1000L);
+        }
+        final HistogramSnapshot snapshot = histogram.snapshot();
+
+        assertEquals("Unexpected count", 100000L, snapshot.getCount());
+        assertEquals("Unexpected max", 100000000L, snapshot.getMax());
+        assertEquals("Unexpected mean", 50000500d, snapshot.getMean(), 1d);
+        assertWithinPrecision(50000000L, snapshot.getValueAtPercentile(50d));
+        assertWithinPrecision(99000000L, snapshot.getValueAtPercentile(99d));
+        assertEquals("Unexpected p100", 100000000L,
+                snapshot.getValueAtPercentile(100d));
+    }
+
+    @Test
+    public void shouldMapValuesToAdjacentBuckets() {
+        int previous = -1;
+        for (long value = 0; value < 1 << 20; value++) {
+            final int index = LatencyHistogram.indexOf(value);
+            assertTrue("Bucket index decreased", index >= previous);
+            assertTrue("Value above bucket bound",
+                    value <= LatencyHistogram.highestValueAt(index));
+            previous = index;
+        }
+        assertTrue("Highest value not covered",
+                LatencyHistogram.highestValueAt(
+                        LatencyHistogram.indexOf(Long.MAX_VALUE)) == Long.MAX_VALUE);
+    }
+
+    @Test
+    public void shouldDiscardValuesOnReset() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10L);
+        histogram.reset();
+
+        assertEquals("Values not discarded", 0L, histogram.snapshot().getCount());
+    }
+
+    private static void assertWithinPrecision(final long expected,
+            final long actual) {
+        assertTrue("Value " + actual + " not within precision of " + expected,
+                Math.abs(actual - expected) <= expected / 32);
+    }
+}
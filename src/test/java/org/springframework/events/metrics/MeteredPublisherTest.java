@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.metrics;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.events.BroadcastPublisher;
+import org.springframework.events.Event;
+import org.springframework.events.HandlerRegistration;
+import org.springframework.events.context.EventHandlerAdapter;
+import org.springframework.events.mock.MockAEvent;
+import org.springframework.events.mock.MockBEvent;
+import org.springframework.events.mock.MockHandler;
+
+public class MeteredPublisherTest {
+
+    private EventMetrics metrics;
+
+    private MeteredPublisher publisher;
+
+    @Before
+    public void setUp() {
+        metrics = new EventMetrics();
+        publisher = new MeteredPublisher(new BroadcastPublisher(), metrics);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotConstructWithNullDelegate() {
+        new MeteredPublisher(null, metrics);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotAddNullHandler() {
+        publisher.addHandler(null);
+    }
+
+    @Test
+    public void shouldRecordPublishesAndHandlerInvocations() {
+        publisher.addHandler(new MockHandler<MockAEvent>());
+        publisher.addHandler(new EventHandlerAdapter(new MockHandler<MockBEvent>()));
+
+        final MockAEvent event = new MockAEvent();
+        publisher.publish(event);
+        publisher.publish(new MockAEvent());
+        publisher.publish(new MockBEvent());
+
+        assertTrue("Event not handled", event.isHandled());
+        final MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals("Unexpected count of A events", 2L, snapshot.getPublishes()
+                .get(MockAEvent.class.getName()).getCount());
+        assertEquals("Unexpected count of B events", 1L, snapshot.getPublishes()
+                .get(MockBEvent.class.getName()).getCount());
+        assertEquals("Unexpected handler invocations", 6L, snapshot.getHandlers()
+                .get(MockHandler.class.getName()).getCount());
+    }
+
+    @Test
+    public void shouldRecordHandlerFailures() {
+        publisher.addHandler(new Event.Handler<Event>() {
+            @Override
+            public void handleEvent(final Event event) {
+                throw new IllegalStateException();
+            }
+        });
+
+        try {
+            publisher.publish(new MockAEvent());
+            fail("Handler failure not propagated");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        final MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals("Unexpected publish errors", 1L, snapshot.getPublishes()
+                .get(MockAEvent.class.getName()).getErrors());
+        assertEquals("Unexpected handler errors", 1L, snapshot.getHandlers()
+                .values().iterator().next().getErrors());
+    }
+
+    @Test
+    public void shouldNotRecordWhenDisabled() {
+        final HandlerRegistration registration =
+                publisher.addHandler(new MockHandler<MockAEvent>());
+        metrics.setEnabled(false);
+
+        final MockAEvent event = new MockAEvent();
+        publisher.publish(event);
+
+        assertTrue("Event not handled", event.isHandled());
+        assertTrue("Publish recorded", metrics.snapshot().getPublishes().isEmpty());
+        assertEquals("Handler invocation recorded", 0L, metrics.snapshot()
+                .getHandlers().get(MockHandler.class.getName()).getCount());
+
+        registration.removeHandler();
+        final MockAEvent another = new MockAEvent();
+        publisher.publish(another);
+        assertFalse("Event handled by removed handler", another.isHandled());
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.mock;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.events.DispatchInterceptorAdapter;
+import org.springframework.events.Event;
+
+public class MockInterceptor extends DispatchInterceptorAdapter {
+
+    private final AtomicInteger published = new AtomicInteger();
+
+    @Override
+    public void beforePublish(final Event event) {
+        published.incrementAndGet();
+    }
+
+    public int getPublishedCount() {
+        return published.get();
+    }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.mock;
+
+import java.io.Serializable;
+
+import org.springframework.events.Event;
+import org.springframework.events.annotation.Journaled;
+
+@Journaled
+public class MockJournaledEvent extends Event.AbstractEvent
+        implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int value;
+
+    public MockJournaledEvent(final int value) {
+        this.value = value;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.mock;
+
+public class MockOrderEvent extends AbstractMockEvent {
+
+    public enum Status {
+        NEW, OPEN, CLOSED
+    }
+
+    private final String region;
+
+    private final int amount;
+
+    private final Status status;
+
+    public MockOrderEvent(final String region, final int amount, final Status status) {
+        this.region = region;
+        this.amount = amount;
+        this.status = status;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+}
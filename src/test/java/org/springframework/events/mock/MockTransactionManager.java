@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.mock;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory transaction manager without any resource. Transaction active on
+ * the current thread, as seen by synchronization manager, is the existing one.
+ */
+public class MockTransactionManager extends AbstractPlatformTransactionManager {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected Object doGetTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    @Override
+    protected boolean isExistingTransaction(final Object transaction) {
+        return (Boolean) transaction;
+    }
+
+    @Override
+    protected void doBegin(final Object transaction,
+            final TransactionDefinition definition) {
+        // Nothing to begin
+    }
+
+    @Override
+    protected Object doSuspend(final Object transaction) {
+        return transaction;
+    }
+
+    @Override
+    protected void doResume(final Object transaction,
+            final Object suspendedResources) {
+        // Nothing to resume
+    }
+
+    @Override
+    protected void doCommit(final DefaultTransactionStatus status) {
+        // Nothing to commit
+    }
+
+    @Override
+    protected void doRollback(final DefaultTransactionStatus status) {
+        // Nothing to roll back
+    }
+
+}
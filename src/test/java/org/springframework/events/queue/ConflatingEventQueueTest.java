@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.queue;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.events.Event;
+import org.springframework.events.cache.Keyed;
+import org.springframework.events.mock.MockAEvent;
+import org.springframework.events.mock.MockBEvent;
+
+public class ConflatingEventQueueTest {
+
+    private ConflatingEventQueue queue;
+
+    @Before
+    public void setUp() {
+        queue = new ConflatingEventQueue(Arrays.<Class<? extends Event>>asList(
+                PriceEvent.class, MockAEvent.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotOfferNullEvent() {
+        queue.offer(null);
+    }
+
+    @Test
+    public void shouldReplaceQueuedEventOfSameKeyInPlace() {
+        queue.offer(new PriceEvent(1, 10));
+        queue.offer(new PriceEvent(2, 20));
+        queue.offer(new PriceEvent(1, 11));
+
+        assertEquals("Unexpected queue size", 2, queue.size());
+        assertEquals("Unexpected conflated count", 1, queue.getConflatedCount());
+        assertEquals("Unexpected event", 11, ((PriceEvent) queue.poll()).price);
+        assertEquals("Unexpected event", 20, ((PriceEvent) queue.poll()).price);
+        assertNull("Event polled from empty queue", queue.poll());
+    }
+
+    @Test
+    public void shouldConflateEventsWithoutKeyPerType() {
+        final MockAEvent last = new MockAEvent();
+        queue.offer(new MockAEvent());
+        queue.offer(last);
+
+        assertEquals("Unexpected queue size", 1, queue.size());
+        assertSame("Unexpected event", last, queue.poll());
+    }
+
+    @Test
+    public void shouldQueueEventsOfOtherTypes() {
+        queue.offer(new MockBEvent());
+        queue.offer(new MockBEvent());
+
+        assertEquals("Unexpected queue size", 2, queue.size());
+        assertEquals("Unexpected conflated count", 0, queue.getConflatedCount());
+    }
+
+    @Test
+    public void shouldQueueEventOfPolledKeyAtTail() {
+        queue.offer(new PriceEvent(1, 10));
+        queue.offer(new PriceEvent(2, 20));
+        queue.poll();
+
+        queue.offer(new PriceEvent(1, 11));
+
+        assertEquals("Unexpected event", 20, ((PriceEvent) queue.poll()).price);
+        assertEquals("Unexpected event", 11, ((PriceEvent) queue.poll()).price);
+    }
+
+    @Test
+    public void shouldRejectNewKeysWhenFull() {
+        queue = new ConflatingEventQueue(
+                Collections.<Class<? extends Event>>singleton(PriceEvent.class), 1);
+
+        assertTrue("Event rejected", queue.offer(new PriceEvent(1, 10)));
+        assertTrue("Event not conflated", queue.offer(new PriceEvent(1, 11)));
+        assertFalse("Event of new key accepted", queue.offer(new PriceEvent(2, 20)));
+    }
+
+    @Test
+    public void shouldDeliverLatestEventPerKeyUnderContention() throws Exception {
+        final int producers = 4;
+        final int updates = 20000;
+        final CountDownLatch done = new CountDownLatch(producers);
+        final Map<Integer, Integer> latest = new HashMap<Integer, Integer>();
+        for (int p = 0; p < producers; p++) {
+            final int key = p;
+            new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    for (int i = 1; i <= updates; i++) {
+                        queue.offer(new PriceEvent(key, i));
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        while (done.getCount() > 0 || queue.size() > 0) {
+            final PriceEvent event = (PriceEvent) queue.poll();
+            if (event != null) {
+                final Integer previous = latest.put(event.instrument, event.price);
+                assertTrue("Events of one key out of order",
+                        previous == null || previous < event.price);
+            }
+        }
+
+        for (int p = 0; p < producers; p++) {
+            assertEquals("Latest event lost", Integer.valueOf(updates), latest.get(p));
+        }
+        assertEquals("Queue not empty", 0, queue.size());
+    }
+
+    private static final class PriceEvent extends Event.AbstractEvent implements Keyed {
+
+        private final int instrument;
+
+        private final int price;
+
+        PriceEvent(final int instrument, final int price) {
+            this.instrument = instrument;
+            this.price = price;
+        }
+
+        @Override
+        public Object getEventKey() {
+            return instrument;
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.queue;
+
+import static org.junit.Assert.*;
+
+import java.io.Serializable;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.events.Event;
+import org.springframework.events.codec.SerializationCodec;
+
+public class OffHeapEventQueueTest {
+
+    private OffHeapEventQueue queue;
+
+    @Before
+    public void setUp() {
+        queue = new OffHeapEventQueue(new SerializationCodec(), 512, 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotConstructWithoutCodec() {
+        new OffHeapEventQueue(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotOfferNullEvent() {
+        queue.offer(null);
+    }
+
+    @Test
+    public void shouldReturnNullWhenEmpty() {
+        assertNull("Event polled from empty queue", queue.poll());
+    }
+
+    @Test
+    public void shouldPollEventsInOfferOrder() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue("Event rejected", queue.offer(new SerializableEvent(i)));
+        }
+        assertEquals("Unexpected queue size", 3, queue.size());
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("Unexpected event", i,
+                    ((SerializableEvent) queue.poll()).sequence);
+        }
+        assertEquals("Queue not empty", 0, queue.size());
+        assertNull("Event polled from empty queue", queue.poll());
+    }
+
+    @Test
+    public void shouldRollSegmentsAndRejectWhenFull() {
+        int offered = 0;
+        while (queue.offer(new SerializableEvent(offered))) {
+            offered++;
+        }
+        assertEquals("Unexpected segment count", 4, queue.getSegmentCount());
+        assertTrue("Events did not span segments", offered > 4);
+
+        for (int i = 0; i < offered; i++) {
+            assertEquals("Unexpected event", i,
+                    ((SerializableEvent) queue.poll()).sequence);
+        }
+        assertEquals("Segments not released", 1, queue.getSegmentCount());
+        assertTrue("Event rejected after drain",
+                queue.offer(new SerializableEvent(offered)));
+    }
+
+    @Test
+    public void shouldAcceptEventsAfterDrainingSingleSegment() {
+        final OffHeapEventQueue single =
+            new OffHeapEventQueue(new SerializationCodec(), 512, 1);
+        for (int round = 0; round < 3; round++) {
+            int offered = 0;
+            while (single.offer(new SerializableEvent(offered))) {
+                offered++;
+            }
+            assertTrue("No event accepted in round " + round, offered > 1);
+            for (int i = 0; i < offered; i++) {
+                assertEquals("Unexpected event", i,
+                        ((SerializableEvent) single.poll()).sequence);
+            }
+            assertEquals("Queue not empty", 0, single.size());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotOfferEventLargerThanSegment() {
+        new OffHeapEventQueue(new SerializationCodec(), 16, 4)
+                .offer(new SerializableEvent(0));
+    }
+
+    private static final class SerializableEvent extends Event.AbstractEvent
+            implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int sequence;
+
+        SerializableEvent(final int sequence) {
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.reactive;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+
+import org.springframework.events.Event;
+import org.springframework.events.SimpleEventBus;
+import org.springframework.events.mock.MockAEvent;
+
+public class BatchingSubscriberTest {
+
+    private SimpleEventBus source;
+
+    private SimpleEventBus target;
+
+    private List<MockAEvent> received;
+
+    @Before
+    public void setUp() {
+        source = new SimpleEventBus();
+        target = new SimpleEventBus();
+        received = new ArrayList<MockAEvent>();
+        target.addHandler(MockAEvent.class, new Event.Handler<MockAEvent>() {
+
+            @Override
+            public void handleEvent(final MockAEvent event) {
+                received.add(event);
+            }
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotConstructWithNonPositiveBatchSize() {
+        new BatchingSubscriber<MockAEvent>(target, 0);
+    }
+
+    @Test
+    public void shouldRequestAndPublishInBatches() {
+        final List<Long> requests = new ArrayList<Long>();
+        final BatchingSubscriber<MockAEvent> subscriber =
+            new BatchingSubscriber<MockAEvent>(target, 3);
+        subscriber.onSubscribe(new Subscription() {
+
+            @Override
+            public void request(final long n) {
+                requests.add(n);
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+
+        subscriber.onNext(new MockAEvent());
+        subscriber.onNext(new MockAEvent());
+        assertTrue("Partial batch published", received.isEmpty());
+
+        subscriber.onNext(new MockAEvent());
+        assertEquals("Batch not published", 3, received.size());
+        assertEquals("Unexpected requests", 2, requests.size());
+        assertEquals("Unexpected request", Long.valueOf(3), requests.get(1));
+    }
+
+    @Test
+    public void shouldForwardEventsFromPublisherAndFlushOnComplete() {
+        final EventPublisher<MockAEvent> publisher =
+            new EventPublisher<MockAEvent>(source, MockAEvent.class);
+        final BatchingSubscriber<MockAEvent> subscriber =
+            new BatchingSubscriber<MockAEvent>(target, 4);
+        publisher.subscribe(subscriber);
+
+        for (int i = 0; i < 10; i++) {
+            source.publish(new MockAEvent());
+        }
+        assertEquals("Unexpected published events", 8, received.size());
+
+        publisher.close();
+        assertEquals("Partial batch not flushed", 10, received.size());
+        assertEquals("Unexpected published count", 10, subscriber.getPublishedCount());
+        assertEquals("Unexpected dropped count", 0, publisher.getDroppedCount());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void canNotReceiveNullEvent() {
+        new BatchingSubscriber<MockAEvent>(target).onNext(null);
+    }
+
+}
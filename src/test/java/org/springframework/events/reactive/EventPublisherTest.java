@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.reactive;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import org.springframework.events.BroadcastPublisher;
+import org.springframework.events.SimpleEventBus;
+import org.springframework.events.mock.MockAEvent;
+import org.springframework.events.mock.MockBEvent;
+
+public class EventPublisherTest {
+
+    private SimpleEventBus bus;
+
+    private EventPublisher<MockAEvent> publisher;
+
+    @Before
+    public void setUp() {
+        bus = new SimpleEventBus();
+        publisher = new EventPublisher<MockAEvent>(bus, MockAEvent.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotConstructWithNullType() {
+        new EventPublisher<MockAEvent>(bus, null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void canNotSubscribeNull() {
+        publisher.subscribe(null);
+    }
+
+    @Test
+    public void shouldDeliverOnlyRequestedEvents() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        subscriber.subscription.request(2);
+        final MockAEvent first = new MockAEvent();
+        final MockAEvent second = new MockAEvent();
+        bus.publish(first);
+        bus.publish(second);
+        bus.publish(new MockAEvent());
+        bus.publish(new MockBEvent());
+
+        assertEquals("Unexpected events", 2, subscriber.events.size());
+        assertSame("Unexpected event", first, subscriber.events.get(0));
+        assertSame("Unexpected event", second, subscriber.events.get(1));
+
+        subscriber.subscription.request(5);
+        assertEquals("Buffered event not delivered", 3, subscriber.events.size());
+    }
+
+    @Test
+    public void shouldDropLatestEventsWhenBufferIsFull() {
+        publisher.setBufferSize(2);
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        final MockAEvent first = new MockAEvent();
+        bus.publish(first);
+        bus.publish(new MockAEvent());
+        bus.publish(new MockAEvent());
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertEquals("Unexpected events", 2, subscriber.events.size());
+        assertSame("Unexpected event", first, subscriber.events.get(0));
+        assertEquals("Unexpected dropped count", 1, publisher.getDroppedCount());
+    }
+
+    @Test
+    public void shouldDropOldestEventsWhenBufferIsFull() {
+        publisher.setBufferSize(2);
+        publisher.setOverflowStrategy(OverflowStrategy.DROP_OLDEST);
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        final MockAEvent last = new MockAEvent();
+        bus.publish(new MockAEvent());
+        bus.publish(new MockAEvent());
+        bus.publish(last);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertEquals("Unexpected events", 2, subscriber.events.size());
+        assertSame("Unexpected event", last, subscriber.events.get(1));
+        assertEquals("Unexpected dropped count", 1, publisher.getDroppedCount());
+    }
+
+    @Test
+    public void shouldFailSubscriberWhenBufferOverflows() {
+        publisher.setBufferSize(1);
+        publisher.setOverflowStrategy(OverflowStrategy.FAIL);
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        bus.publish(new MockAEvent());
+        bus.publish(new MockAEvent());
+        bus.publish(new MockAEvent());
+
+        assertTrue("Unexpected error", subscriber.error
+                instanceof EventPublisher.OverflowException);
+        assertEquals("Subscription not cancelled", 0, publisher.getSubscriptionCount());
+        subscriber.subscription.request(1);
+        assertTrue("Event delivered after error", subscriber.events.isEmpty());
+    }
+
+    @Test
+    public void shouldSignalErrorOnNonPositiveRequest() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+
+        assertTrue("Unexpected error",
+                subscriber.error instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void shouldStopDeliveryWhenCancelledFromOnNext() {
+        final RecordingSubscriber cancelling = new RecordingSubscriber() {
+
+            @Override
+            public void onNext(final MockAEvent event) {
+                super.onNext(event);
+                subscription.cancel();
+            }
+        };
+        final RecordingSubscriber other = new RecordingSubscriber();
+        publisher.subscribe(cancelling);
+        publisher.subscribe(other);
+        cancelling.subscription.request(10);
+        other.subscription.request(10);
+
+        bus.publish(new MockAEvent());
+        bus.publish(new MockAEvent());
+
+        assertEquals("Unexpected events", 1, cancelling.events.size());
+        assertEquals("Unexpected events", 2, other.events.size());
+        assertEquals("Unexpected subscription count", 1, publisher.getSubscriptionCount());
+    }
+
+    @Test
+    public void shouldCompleteAfterBufferedEventsOnClose() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        bus.publish(new MockAEvent());
+
+        publisher.close();
+        bus.publish(new MockAEvent());
+        assertFalse("Completed before buffered events", subscriber.completed);
+
+        subscriber.subscription.request(10);
+        assertEquals("Unexpected events", 1, subscriber.events.size());
+        assertTrue("Not completed", subscriber.completed);
+    }
+
+    @Test
+    public void shouldCompleteSubscriberOfClosedPublisher() {
+        publisher.close();
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        assertTrue("Not completed", subscriber.completed);
+    }
+
+    @Test
+    public void shouldFilterEventsOfBroadcastPublisher() {
+        final BroadcastPublisher broadcast = new BroadcastPublisher();
+        final EventPublisher<MockAEvent> filtering =
+            new EventPublisher<MockAEvent>(broadcast, MockAEvent.class);
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        filtering.subscribe(subscriber);
+        subscriber.subscription.request(10);
+
+        broadcast.publish(new MockBEvent());
+        broadcast.publish(new MockAEvent());
+
+        assertEquals("Unexpected events", 1, subscriber.events.size());
+    }
+
+    private static class RecordingSubscriber implements Subscriber<MockAEvent> {
+
+        protected Subscription subscription;
+
+        private final List<MockAEvent> events = new ArrayList<MockAEvent>();
+
+        private Throwable error;
+
+        private boolean completed;
+
+        @Override
+        public void onSubscribe(final Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(final MockAEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onError(final Throwable error) {
+            this.error = error;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+}
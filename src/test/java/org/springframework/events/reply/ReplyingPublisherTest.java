@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.reply;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.events.BroadcastPublisher;
+import org.springframework.events.Event;
+import org.springframework.events.annotation.EventHandler;
+import org.springframework.events.context.EventHandlerAdapter;
+import org.springframework.events.mock.MockAEvent;
+import org.springframework.events.mock.MockBEvent;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureTask;
+
+public class ReplyingPublisherTest {
+
+    private BroadcastPublisher bus;
+
+    private ReplyingPublisher publisher;
+
+    @Before
+    public void setUp() {
+        bus = new BroadcastPublisher();
+        publisher = new ReplyingPublisher(bus);
+    }
+
+    @After
+    public void tearDown() {
+        publisher.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotCollectWithoutTimeout() {
+        publisher.publishAndCollect(new MockAEvent(), String.class, 0,
+                TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void shouldCollectReturnValuesOfHandlerMethods() throws Exception {
+        bus.addHandler(new EventHandlerAdapter(new Responder("a")));
+        bus.addHandler(new EventHandlerAdapter(new Responder("b")));
+
+        final ListenableFuture<CollectedReplies<String>> future =
+            publisher.publishAndCollect(new MockAEvent(), String.class, 1,
+                    TimeUnit.SECONDS);
+
+        assertTrue("Not completed on dispatch", future.isDone());
+        final CollectedReplies<String> replies = future.get();
+        assertEquals("Unexpected replies", Arrays.asList("a", "b"),
+                replies.getValues());
+        assertTrue("Not complete", replies.isComplete());
+    }
+
+    @Test
+    public void shouldCompleteWhenRepliedFutureCompletes() throws Exception {
+        final ListenableFutureTask<String> reply = new ListenableFutureTask<String>(
+                new Callable<String>() {
+
+                    @Override
+                    public String call() {
+                        return "late";
+                    }
+                });
+        bus.addHandler(new Event.Handler<Event>() {
+
+            @Override
+            public void handleEvent(final Event event) {
+                Replies.reply(event, reply);
+            }
+        });
+
+        final ListenableFuture<CollectedReplies<String>> future =
+            publisher.publishAndCollect(new MockAEvent(), String.class, 1,
+                    TimeUnit.MINUTES);
+        assertFalse("Completed before reply", future.isDone());
+
+        reply.run();
+        assertTrue("Not completed", future.isDone());
+        assertEquals("Unexpected replies", Arrays.asList("late"),
+                future.get().getValues());
+    }
+
+    @Test
+    public void shouldCompleteWithPartialRepliesOnTimeout() throws Exception {
+        final FutureTask<String> pending = new FutureTask<String>(
+                new Callable<String>() {
+
+                    @Override
+                    public String call() {
+                        return "never";
+                    }
+                });
+        bus.addHandler(new EventHandlerAdapter(new Responder("now")));
+        bus.addHandler(new Event.Handler<Event>() {
+
+            @Override
+            public void handleEvent(final Event event) {
+                Replies.reply(event, pending);
+            }
+        });
+
+        final CollectedReplies<String> replies = publisher.publishAndCollect(
+                new MockAEvent(), String.class, 50, TimeUnit.MILLISECONDS)
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals("Unexpected replies", Arrays.asList("now"),
+                replies.getValues());
+        assertEquals("Unexpected pending count", 1, replies.getPendingCount());
+        assertFalse("Complete", replies.isComplete());
+    }
+
+    @Test
+    public void shouldCollectPolledFutureBeforeTimeout() throws Exception {
+        final FutureTask<String> reply = new FutureTask<String>(
+                new Callable<String>() {
+
+                    @Override
+                    public String call() {
+                        return "polled";
+                    }
+                });
+        bus.addHandler(new Event.Handler<Event>() {
+
+            @Override
+            public void handleEvent(final Event event) {
+                Replies.reply(event, reply);
+            }
+        });
+
+        final ListenableFuture<CollectedReplies<String>> future =
+            publisher.publishAndCollect(new MockAEvent(), String.class, 1,
+                    TimeUnit.MINUTES);
+        assertFalse("Completed before reply", future.isDone());
+
+        reply.run();
+        final CollectedReplies<String> replies = future.get(5, TimeUnit.SECONDS);
+        assertEquals("Unexpected replies", Arrays.asList("polled"),
+                replies.getValues());
+        assertTrue("Not complete", replies.isComplete());
+    }
+
+    @Test
+    public void shouldCompletePendingCollectionsOnClose() throws Exception {
+        final FutureTask<String> pending = new FutureTask<String>(
+                new Callable<String>() {
+
+                    @Override
+                    public String call() {
+                        return "never";
+                    }
+                });
+        bus.addHandler(new Event.Handler<Event>() {
+
+            @Override
+            public void handleEvent(final Event event) {
+                Replies.reply(event, pending);
+            }
+        });
+        final ListenableFuture<CollectedReplies<String>> before =
+            publisher.publishAndCollect(new MockAEvent(), String.class, 1,
+                    TimeUnit.MINUTES);
+
+        publisher.close();
+        final ListenableFuture<CollectedReplies<String>> after =
+            publisher.publishAndCollect(new MockAEvent(), String.class, 1,
+                    TimeUnit.MINUTES);
+
+        assertTrue("Pending collection not completed", before.isDone());
+        assertEquals("Unexpected pending count", 1,
+                before.get().getPendingCount());
+        assertTrue("Collection after close not completed", after.isDone());
+        assertEquals("Unexpected pending count", 1,
+                after.get().getPendingCount());
+    }
+
+    @Test
+    public void shouldCollectHandlerFailuresAndUnexpectedReplies() throws Exception {
+        final IllegalStateException failure = new IllegalStateException();
+        bus.addHandler(new Event.Handler<Event>() {
+
+            @Override
+            public void handleEvent(final Event event) {
+                Replies.reply(event, Integer.valueOf(1));
+                throw failure;
+            }
+        });
+
+        final CollectedReplies<String> replies = publisher.publishAndCollect(
+                new MockAEvent(), String.class, 1, TimeUnit.SECONDS).get();
+
+        assertTrue("Unexpected values", replies.getValues().isEmpty());
+        assertEquals("Unexpected failures", 2, replies.getFailures().size());
+        assertTrue("Unexpected failure",
+                replies.getFailures().get(0) instanceof ClassCastException);
+        assertSame("Unexpected failure", failure, replies.getFailures().get(1));
+    }
+
+    @Test
+    public void shouldNotCollectRepliesToPlainlyPublishedEvents() throws Exception {
+        bus.addHandler(new EventHandlerAdapter(new Responder("b")));
+        bus.addHandler(new Event.Handler<Event>() {
+
+            @Override
+            public void handleEvent(final Event event) {
+                if (event instanceof MockAEvent) {
+                    publisher.publish(new MockBEvent());
+                }
+            }
+        });
+
+        final CollectedReplies<String> replies = publisher.publishAndCollect(
+                new MockAEvent(), String.class, 1, TimeUnit.SECONDS).get();
+
+        assertEquals("Unexpected replies", Arrays.asList("b"), replies.getValues());
+        assertFalse("Collecting after dispatch", Replies.isCollecting());
+    }
+
+    @Test
+    public void shouldNotCollectRepliesToEventsPublishedToDelegate() throws Exception {
+        bus.addHandler(new EventHandlerAdapter(new Responder("a")));
+        bus.addHandler(new EventHandlerAdapter(new CountingResponder()));
+        bus.addHandler(new Event.Handler<Event>() {
+
+            @Override
+            public void handleEvent(final Event event) {
+                if (event instanceof MockAEvent) {
+                    bus.publish(new MockBEvent());
+                }
+            }
+        });
+
+        final CollectedReplies<String> replies = publisher.publishAndCollect(
+                new MockAEvent(), String.class, 1, TimeUnit.SECONDS).get();
+
+        assertEquals("Unexpected replies", Arrays.asList("a"), replies.getValues());
+        assertTrue("Unexpected failures", replies.getFailures().isEmpty());
+        assertFalse("Collecting after dispatch", Replies.isCollecting());
+    }
+
+    public static class Responder {
+
+        private final String reply;
+
+        public Responder(final String reply) {
+            this.reply = reply;
+        }
+
+        @EventHandler
+        public String handle(final MockAEvent event) {
+            return reply;
+        }
+
+        @EventHandler
+        public String handle(final MockBEvent event) {
+            return reply + "-nested";
+        }
+
+    }
+
+    public static class CountingResponder {
+
+        @EventHandler
+        public Integer handle(final MockBEvent event) {
+            return Integer.valueOf(1);
+        }
+
+    }
+
+}
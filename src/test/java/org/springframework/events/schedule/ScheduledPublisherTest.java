@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.schedule;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.events.Event;
+import org.springframework.events.EventBus;
+import org.springframework.events.mock.MockAEvent;
+import org.springframework.events.mock.MockBEvent;
+
+public class ScheduledPublisherTest {
+
+    private BlockingQueue<Event> published;
+
+    private ScheduledPublisher publisher;
+
+    @Before
+    public void setUp() {
+        published = new LinkedBlockingQueue<Event>();
+        publisher = new ScheduledPublisher(new EventBus() {
+
+            @Override
+            public void publish(final Event event) {
+                published.add(event);
+            }
+        });
+        publisher.start();
+    }
+
+    @After
+    public void tearDown() {
+        publisher.stop();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotConstructWithNullDelegate() {
+        new ScheduledPublisher(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotScheduleNullEvent() {
+        publisher.publishAfter(null, 1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void shouldPublishImmediately() {
+        final Event event = new MockAEvent();
+
+        publisher.publish(event);
+
+        assertSame("Event not published", event, published.poll());
+    }
+
+    @Test
+    public void shouldPublishAfterDelay() throws Exception {
+        final Event event = new MockAEvent();
+        final long start = System.nanoTime();
+
+        publisher.publishAfter(event, 50, TimeUnit.MILLISECONDS);
+
+        assertSame("Event not published", event, published.poll(5, TimeUnit.SECONDS));
+        assertTrue("Event published early",
+                System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals("Unexpected pending count", 0, publisher.getPendingCount());
+    }
+
+    @Test
+    public void shouldPublishAtTime() throws Exception {
+        final Event event = new MockAEvent();
+
+        publisher.publishAt(event, System.currentTimeMillis() + 20);
+
+        assertSame("Event not published", event, published.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldPublishInOrderOfTime() throws Exception {
+        final List<Event> events = new ArrayList<Event>();
+        for (int i = 0; i < 50; i++) {
+            events.add(new MockAEvent());
+        }
+        final List<Integer> delays = new ArrayList<Integer>();
+        for (int i = 0; i < events.size(); i++) {
+            delays.add(i);
+        }
+        Collections.shuffle(delays);
+        for (final int delay : delays) {
+            publisher.publishAfter(events.get(delay), 10 + delay * 10,
+                    TimeUnit.MILLISECONDS);
+        }
+
+        for (final Event event : events) {
+            assertSame("Unexpected event", event, published.poll(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void shouldNotPublishCancelledEvent() throws Exception {
+        final Event cancelled = new MockAEvent();
+        final Event kept = new MockBEvent();
+
+        final ScheduledPublication publication =
+                publisher.publishAfter(cancelled, 20, TimeUnit.MILLISECONDS);
+        publisher.publishAfter(kept, 40, TimeUnit.MILLISECONDS);
+        assertTrue("Publication not cancelled", publication.cancel());
+        assertFalse("Publication cancelled twice", publication.cancel());
+
+        assertSame("Unexpected event", kept, published.poll(5, TimeUnit.SECONDS));
+        assertTrue("Cancelled event published", published.isEmpty());
+    }
+
+    @Test
+    public void shouldPublishEventsScheduledWhileStopped() throws Exception {
+        final Event event = new MockAEvent();
+        publisher.stop();
+
+        final ScheduledPublication publication =
+                publisher.publishAfter(event, 10, TimeUnit.MILLISECONDS);
+        assertNull("Event published while stopped",
+                published.poll(50, TimeUnit.MILLISECONDS));
+        publisher.start();
+
+        assertSame("Event not published", event, published.poll(5, TimeUnit.SECONDS));
+        assertFalse("Published event cancelled", publication.cancel());
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.schedule;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.springframework.events.mock.MockAEvent;
+
+public class TimingWheelTest {
+
+    private final List<ScheduledTimeout> expired = new ArrayList<ScheduledTimeout>();
+
+    @Test
+    public void shouldExpireTimeoutsExactlyAtTheirTicks() {
+        final TimingWheel wheel = new TimingWheel(3);
+        final Random random = new Random(42);
+        final int levels = 3;
+        final long range = 1L << (TimingWheel.WHEEL_BITS * levels);
+        final int count = 10000;
+        for (int i = 0; i < count; i++) {
+            wheel.add(timeout(3 + (long) (random.nextDouble() * range)));
+        }
+
+        int expiredCount = 0;
+        while (wheel.size() > 0) {
+            final long tick = wheel.getTick();
+            wheel.advance(expired);
+            for (final ScheduledTimeout timeout : expired) {
+                assertEquals("Timeout expired at wrong tick", timeout.deadline, tick);
+            }
+            expiredCount += expired.size();
+            expired.clear();
+        }
+        assertEquals("Timeouts not expired", count, expiredCount);
+    }
+
+    @Test
+    public void shouldExpirePassedTimeoutsOnNextTick() {
+        final TimingWheel wheel = new TimingWheel(100);
+        final ScheduledTimeout timeout = timeout(10);
+        wheel.add(timeout);
+
+        wheel.advance(expired);
+
+        assertEquals("Passed timeout not expired", 1, expired.size());
+        assertEquals("Wheel not empty", 0, wheel.size());
+    }
+
+    @Test
+    public void shouldNotExpireRemovedTimeouts() {
+        final TimingWheel wheel = new TimingWheel(0);
+        final ScheduledTimeout removed = timeout(300);
+        final ScheduledTimeout kept = timeout(300);
+        wheel.add(removed);
+        wheel.add(kept);
+
+        wheel.remove(removed);
+        wheel.remove(removed);
+        for (int i = 0; i <= 300; i++) {
+            wheel.advance(expired);
+        }
+
+        assertEquals("Unexpected expired timeouts", 1, expired.size());
+        assertSame("Unexpected expired timeout", kept, expired.get(0));
+    }
+
+    @Test
+    public void shouldPlaceDistantTimeoutsOnHighestLevel() {
+        final TimingWheel wheel = new TimingWheel(Long.MAX_VALUE - 10);
+        final ScheduledTimeout timeout = timeout(Long.MAX_VALUE - 5);
+        wheel.add(timeout);
+        for (int i = 0; i < 5; i++) {
+            wheel.advance(expired);
+        }
+        assertTrue("Timeout expired early", expired.isEmpty());
+
+        wheel.advance(expired);
+
+        assertEquals("Timeout not expired", 1, expired.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void canNotSkipTicksOfNonEmptyWheel() {
+        final TimingWheel wheel = new TimingWheel(0);
+        wheel.add(timeout(10));
+
+        wheel.skipTo(5);
+    }
+
+    private static ScheduledTimeout timeout(final long deadline) {
+        return new ScheduledTimeout(null, new MockAEvent(), deadline);
+    }
+
+}
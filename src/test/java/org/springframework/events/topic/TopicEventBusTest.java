@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.topic;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.events.BroadcastPublisher;
+import org.springframework.events.Event;
+import org.springframework.events.HandlerRegistration;
+import org.springframework.events.mock.AbstractMockEvent;
+import org.springframework.events.mock.MockAEvent;
+
+public class TopicEventBusTest {
+
+    private BroadcastPublisher delegate;
+
+    private TopicEventBus bus;
+
+    @Before
+    public void setUp() {
+        delegate = new BroadcastPublisher();
+        bus = new TopicEventBus(delegate);
+    }
+
+    @Test
+    public void shouldMatchExactTopics() {
+        final RecordingHandler handler = subscribe("orders.eu.created");
+
+        bus.publish("orders.eu.created", new MockAEvent());
+        bus.publish("orders.eu", new MockAEvent());
+        bus.publish("orders.eu.created.late", new MockAEvent());
+
+        assertEquals("Unexpected events", 1, handler.events.size());
+    }
+
+    @Test
+    public void shouldMatchSingleWordWildcard() {
+        final RecordingHandler handler = subscribe("orders.*.created");
+
+        bus.publish("orders.eu.created", new MockAEvent());
+        bus.publish("orders.us.created", new MockAEvent());
+        bus.publish("orders.created", new MockAEvent());
+        bus.publish("orders.eu.de.created", new MockAEvent());
+
+        assertEquals("Unexpected events", 2, handler.events.size());
+    }
+
+    @Test
+    public void shouldMatchMultiWordWildcard() {
+        final RecordingHandler trailing = subscribe("orders.#");
+        final RecordingHandler inner = subscribe("orders.#.created");
+
+        bus.publish("orders", new MockAEvent());
+        bus.publish("orders.created", new MockAEvent());
+        bus.publish("orders.eu.de.created", new MockAEvent());
+        bus.publish("invoices.created", new MockAEvent());
+
+        assertEquals("Unexpected events", 3, trailing.events.size());
+        assertEquals("Unexpected events", 2, inner.events.size());
+    }
+
+    @Test
+    public void shouldDeliverOncePerSubscription() {
+        final RecordingHandler handler = subscribe("#.#");
+
+        bus.publish("a.b.c", new MockAEvent());
+
+        assertEquals("Unexpected events", 1, handler.events.size());
+    }
+
+    @Test
+    public void shouldEvictCachedTopicsMatchingChangedSubscription() {
+        subscribe("orders.#");
+        bus.publish("orders.eu.created", new MockAEvent());
+        bus.publish("invoices.eu.created", new MockAEvent());
+        assertEquals("Unexpected cached topics", 2, bus.getCachedTopicCount());
+
+        final RecordingHandler handler = subscribe("orders.eu.*");
+        assertEquals("Unexpected cached topics", 1, bus.getCachedTopicCount());
+        bus.publish("orders.eu.created", new MockAEvent());
+        assertEquals("New subscription not matched", 1, handler.events.size());
+    }
+
+    @Test
+    public void shouldStopDeliveryWhenHandlerIsRemoved() {
+        final RecordingHandler handler = new RecordingHandler();
+        final HandlerRegistration registration = bus.addHandler("orders.*", handler);
+        bus.publish("orders.created", new MockAEvent());
+
+        registration.removeHandler();
+        registration.removeHandler();
+        bus.publish("orders.created", new MockAEvent());
+
+        assertEquals("Unexpected events", 1, handler.events.size());
+        assertEquals("Unexpected subscriptions", 0, bus.getSubscriptionCount());
+    }
+
+    @Test
+    public void shouldRouteTopicalEventsAfterDelegate() {
+        final RecordingHandler typed = new RecordingHandler();
+        delegate.addHandler(typed);
+        final RecordingHandler handler = subscribe("prices.*");
+
+        bus.publish(new PriceEvent("prices.eurusd"));
+        bus.publish(new MockAEvent());
+
+        assertEquals("Unexpected delegated events", 2, typed.events.size());
+        assertEquals("Unexpected topic events", 1, handler.events.size());
+    }
+
+    @Test
+    public void shouldBoundCachedTopics() {
+        bus.setCacheSize(2);
+        subscribe("prices.*");
+
+        bus.publish("prices.a", new MockAEvent());
+        bus.publish("prices.b", new MockAEvent());
+        bus.publish("prices.c", new MockAEvent());
+
+        assertEquals("Unexpected cached topics", 1, bus.getCachedTopicCount());
+    }
+
+    @Test
+    public void shouldMatchAmongManySubscriptions() {
+        for (int i = 0; i < 20000; i++) {
+            subscribe("orders." + i + ".created");
+        }
+        final RecordingHandler handler = subscribe("orders.42.*");
+
+        bus.publish("orders.42.created", new MockAEvent());
+
+        assertEquals("Unexpected events", 1, handler.events.size());
+        assertEquals("Unexpected subscriptions", 20001, bus.getSubscriptionCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotPublishToWildcardTopic() {
+        bus.publish("orders.*", new MockAEvent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotSubscribeToPatternWithEmptyWord() {
+        subscribe("orders..created");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotSubscribeToPatternWithPartialWildcard() {
+        subscribe("orders.e*");
+    }
+
+    private RecordingHandler subscribe(final String pattern) {
+        final RecordingHandler handler = new RecordingHandler();
+        bus.addHandler(pattern, handler);
+        return handler;
+    }
+
+    private static final class RecordingHandler implements Event.Handler<Event> {
+
+        private final List<Event> events = new ArrayList<Event>();
+
+        @Override
+        public void handleEvent(final Event event) {
+            events.add(event);
+        }
+    }
+
+    private static final class PriceEvent extends AbstractMockEvent implements Topical {
+
+        private final String topic;
+
+        PriceEvent(final String topic) {
+            this.topic = topic;
+        }
+
+        @Override
+        public String getTopic() {
+            return topic;
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.events.transaction;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import org.springframework.events.Event;
+import org.springframework.events.EventBus;
+import org.springframework.events.mock.MockAEvent;
+import org.springframework.events.mock.MockBEvent;
+import org.springframework.events.mock.MockTransactionManager;
+
+public class TransactionalPublisherTest {
+
+    private List<Event> published;
+
+    private TransactionalPublisher publisher;
+
+    private TransactionTemplate transaction;
+
+    @Before
+    public void setUp() {
+        published = new ArrayList<Event>();
+        publisher = new TransactionalPublisher(new EventBus() {
+
+            @Override
+            public void publish(final Event event) {
+                published.add(event);
+            }
+        });
+        transaction = new TransactionTemplate(new MockTransactionManager());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void canNotConstructWithNullDelegate() {
+        new TransactionalPublisher(null);
+    }
+
+    @Test
+    public void shouldPublishImmediatelyWithoutTransaction() {
+        final Event event = new MockAEvent();
+
+        publisher.publish(event);
+
+        assertEquals("Event not published", Arrays.asList(event), published);
+    }
+
+    @Test
+    public void shouldPublishBufferedEventsOnCommit() {
+        final Event first = new MockAEvent();
+        final Event second = new MockBEvent();
+
+        transaction.execute(new TransactionCallbackWithoutResult() {
+
+            @Override
+            protected void doInTransactionWithoutResult(final TransactionStatus status) {
+                publisher.publish(first);
+                publisher.publish(second);
+                assertTrue("Events published before commit", published.isEmpty());
+                assertEquals("Unexpected buffered count", 2, publisher.getBufferedCount());
+            }
+        });
+
+        assertEquals("Events not published", Arrays.asList(first, second), published);
+        assertEquals("Events still buffered", 0, publisher.getBufferedCount());
+    }
+
+    @Test
+    public void shouldDiscardBufferedEventsOnRollback() {
+        transaction.execute(new TransactionCallbackWithoutResult() {
+
+            @Override
+            protected void doInTransactionWithoutResult(final TransactionStatus status) {
+                publisher.publish(new MockAEvent());
+                status.setRollbackOnly();
+            }
+        });
+
+        assertTrue("Events of rolled back transaction published", published.isEmpty());
+    }
+
+    @Test
+    public void shouldKeepBatchOfSuspendedTransaction() {
+        final Event outer = new MockAEvent();
+        final Event inner = new MockBEvent();
+        final TransactionTemplate innerTransaction =
+                new TransactionTemplate(transaction.getTransactionManager());
+        innerTransaction.setPropagationBehavior(
+                TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        transaction.execute(new TransactionCallbackWithoutResult() {
+
+            @Override
+            protected void doInTransactionWithoutResult(final TransactionStatus status) {
+                publisher.publish(outer);
+                innerTransaction.execute(new TransactionCallbackWithoutResult() {
+
+                    @Override
+                    protected void doInTransactionWithoutResult(
+                            final TransactionStatus innerStatus) {
+                        publisher.publish(inner);
+                    }
+                });
+                assertEquals("Inner events not published on inner commit",
+                        Arrays.asList(inner), published);
+                assertEquals("Outer events not buffered", 1, publisher.getBufferedCount());
+            }
+        });
+
+        assertEquals("Outer events not published", Arrays.asList(inner, outer), published);
+    }
+
+    @Test
+    public void shouldPublishEventsOfHandlersImmediately() {
+        final Event followUp = new MockBEvent();
+        final TransactionalPublisher chained = new TransactionalPublisher(new EventBus() {
+
+            @Override
+            public void publish(final Event event) {
+                published.add(event);
+                if (event != followUp) {
+                    publisher.publish(followUp);
+                }
+            }
+        });
+        final Event event = new MockAEvent();
+        publisher = chained;
+
+        transaction.execute(new TransactionCallbackWithoutResult() {
+
+            @Override
+            protected void doInTransactionWithoutResult(final TransactionStatus status) {
+                publisher.publish(event);
+            }
+        });
+
+        assertEquals("Follow-up event not published", Arrays.asList(event, followUp),
+                published);
+    }
+
+}